@@ -0,0 +1,84 @@
+package org.dbtools.gen.benchmark;
+
+import org.dbtools.schema.schemafile.DatabaseSchema;
+import org.dbtools.schema.schemafile.SchemaDatabase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+/**
+ * Benchmark input: a schema with a BENCHMARK_TABLE of a given width (number of fields besides the primary key) and
+ * field type mix.  MIXED tables also have an enum field (INDIVIDUAL_TYPE) and a foreign key (HOUSEHOLD).
+ */
+public final class BenchmarkSchemas {
+    public static final String TABLE_NAME = "BENCHMARK_TABLE";
+
+    private BenchmarkSchemas() {
+    }
+
+    public static String createSchemaXml(int width, FieldMix mix) {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
+        xml.append("<dbSchema>\n");
+        xml.append("    <database name=\"main\">\n");
+        xml.append("        <table name=\"INDIVIDUAL_TYPE\" enumerations=\"HEAD,SPOUSE,CHILD\" readOnly=\"true\">\n");
+        xml.append("            <field name=\"_id\" jdbcDataType=\"BIGINT\" increment=\"true\" primaryKey=\"true\" notNull=\"true\"/>\n");
+        xml.append("            <field name=\"NAME\" jdbcDataType=\"VARCHAR\" size=\"255\" notNull=\"true\" unique=\"true\"/>\n");
+        xml.append("        </table>\n");
+        xml.append("        <table name=\"HOUSEHOLD\">\n");
+        xml.append("            <field name=\"_id\" jdbcDataType=\"BIGINT\" increment=\"true\" primaryKey=\"true\" notNull=\"true\"/>\n");
+        xml.append("            <field name=\"NAME\" jdbcDataType=\"VARCHAR\" size=\"255\" notNull=\"true\"/>\n");
+        xml.append("        </table>\n");
+
+        xml.append("        <table name=\"").append(TABLE_NAME).append("\">\n");
+        xml.append("            <field name=\"_id\" jdbcDataType=\"BIGINT\" increment=\"true\" primaryKey=\"true\" notNull=\"true\"/>\n");
+        int column = 0;
+        if (mix == FieldMix.MIXED && width >= 2) {
+            xml.append("            <field name=\"INDIVIDUAL_TYPE_ID\" jdbcDataType=\"INTEGER\" foreignKeyTable=\"INDIVIDUAL_TYPE\" foreignKeyField=\"_id\" foreignKeyType=\"ENUM\" enumerationDefault=\"HEAD\"/>\n");
+            xml.append("            <field name=\"HOUSEHOLD_ID\" jdbcDataType=\"BIGINT\" foreignKeyTable=\"HOUSEHOLD\" foreignKeyField=\"_id\" foreignKeyType=\"MANYTOONE\"/>\n");
+            column = 2;
+        }
+        String lastFieldName = null;
+        for (; column < width; column++) {
+            String jdbcDataType = mix.getJdbcDataType(column);
+            lastFieldName = "FIELD_" + column + "_" + jdbcDataType;
+            xml.append("            <field name=\"").append(lastFieldName).append("\" jdbcDataType=\"").append(jdbcDataType).append("\"");
+            if (jdbcDataType.equals("VARCHAR")) {
+                xml.append(" size=\"255\"");
+            }
+            if (column % 3 == 0) {
+                xml.append(" notNull=\"true\"");
+            }
+            xml.append("/>\n");
+        }
+        if (lastFieldName != null) {
+            xml.append("            <index>\n");
+            xml.append("                <indexField name=\"").append(lastFieldName).append("\"/>\n");
+            xml.append("            </index>\n");
+        }
+        xml.append("        </table>\n");
+
+        xml.append("    </database>\n");
+        xml.append("</dbSchema>\n");
+        return xml.toString();
+    }
+
+    public static File writeSchemaXml(int width, FieldMix mix) throws IOException {
+        File xmlFile = File.createTempFile("benchmark-schema-" + mix.name().toLowerCase() + "-" + width, ".xml");
+        xmlFile.deleteOnExit();
+        Files.write(xmlFile.toPath(), createSchemaXml(width, mix).getBytes(Charset.forName("UTF-8")));
+        return xmlFile;
+    }
+
+    /**
+     * @return resolved database (ready to render)
+     */
+    public static SchemaDatabase readDatabase(int width, FieldMix mix) throws IOException {
+        File xmlFile = writeSchemaXml(width, mix);
+        DatabaseSchema schema = DatabaseSchema.readXMLSchema(xmlFile.getPath());
+        schema.resolve();
+        return schema.getDatabases().get(0);
+    }
+}
@@ -0,0 +1,20 @@
+package org.dbtools.gen.benchmark;
+
+/**
+ * Field types used for the columns of the benchmark table
+ */
+public enum FieldMix {
+    NUMERIC("INTEGER", "BIGINT", "DOUBLE", "FLOAT", "BOOLEAN"),
+    TEXT("VARCHAR", "LONGVARCHAR", "CLOB"),
+    MIXED("INTEGER", "VARCHAR", "DATETIME", "DOUBLE", "BOOLEAN", "DATE", "BLOB", "BIGINT", "TIMESTAMP", "FLOAT"); // + an enum and a foreign key field
+
+    private final String[] jdbcDataTypes;
+
+    FieldMix(String... jdbcDataTypes) {
+        this.jdbcDataTypes = jdbcDataTypes;
+    }
+
+    public String getJdbcDataType(int column) {
+        return jdbcDataTypes[column % jdbcDataTypes.length];
+    }
+}
@@ -0,0 +1,55 @@
+package org.dbtools.gen.benchmark;
+
+import org.dbtools.codegen.java.JavaClass;
+import org.dbtools.schema.schemafile.SchemaField;
+import org.dbtools.schema.schemafile.SchemaTable;
+import org.dbtools.util.JavaUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Naming helpers (called several times for each field of each table)... each op converts the names of all fields of
+ * the benchmark table
+ */
+@State(Scope.Benchmark)
+public class NamingBenchmark {
+    @Param({"10", "50", "200"})
+    public int width;
+
+    @Param({"NUMERIC", "TEXT", "MIXED"})
+    public FieldMix mix;
+
+    private List<String> sqlNames = new ArrayList<>();
+    private List<String> variableNames = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        SchemaTable table = BenchmarkSchemas.readDatabase(width, mix).getTable(BenchmarkSchemas.TABLE_NAME);
+        for (SchemaField field : table.getFields()) {
+            sqlNames.add(field.getName());
+            variableNames.add(JavaUtil.sqlNameToJavaVariableName(field.getName()));
+        }
+    }
+
+    @Benchmark
+    public void sqlNameToJavaVariableName(Blackhole blackhole) {
+        for (String sqlName : sqlNames) {
+            blackhole.consume(JavaUtil.sqlNameToJavaVariableName(sqlName));
+        }
+    }
+
+    @Benchmark
+    public void formatConstant(Blackhole blackhole) {
+        for (String variableName : variableNames) {
+            blackhole.consume(JavaClass.formatConstant(variableName));
+        }
+    }
+}
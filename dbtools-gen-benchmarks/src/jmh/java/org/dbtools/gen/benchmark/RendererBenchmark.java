@@ -0,0 +1,89 @@
+package org.dbtools.gen.benchmark;
+
+import org.dbtools.codegen.java.JavaClass;
+import org.dbtools.codegen.kotlin.KotlinClass;
+import org.dbtools.gen.GenConfig;
+import org.dbtools.gen.android.AndroidBaseRecordRenderer;
+import org.dbtools.gen.android.AndroidGeneratedEntityInfo;
+import org.dbtools.gen.android.kotlin.KotlinAndroidBaseRecordRenderer;
+import org.dbtools.renderer.SqliteRenderer;
+import org.dbtools.schema.dbmappings.DatabaseMapping;
+import org.dbtools.schema.dbmappings.DatabaseMappingRegistry;
+import org.dbtools.schema.schemafile.SchemaDatabase;
+import org.dbtools.schema.schemafile.SchemaTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Rendering a single table (the work done for each table by the object builders)
+ */
+@State(Scope.Thread)
+public class RendererBenchmark {
+    private static final String PACKAGE_NAME = "org.dbtools.benchmark.domain";
+
+    @Param({"10", "50", "200"})
+    public int width;
+
+    @Param({"NUMERIC", "TEXT", "MIXED"})
+    public FieldMix mix;
+
+    private GenConfig genConfig;
+    private SchemaDatabase database;
+    private SchemaTable table;
+    private DatabaseMapping databaseMapping;
+    private AndroidBaseRecordRenderer androidBaseRecordRenderer;
+    private JavaClass javaRecordClass;
+    private KotlinClass kotlinRecordClass;
+
+    @Setup
+    public void setup() throws IOException {
+        genConfig = new GenConfig();
+        database = BenchmarkSchemas.readDatabase(width, mix);
+        table = database.getTable(BenchmarkSchemas.TABLE_NAME);
+        databaseMapping = DatabaseMappingRegistry.getDatabaseMapping("sqlite");
+
+        // same as AndroidDBObjectBuilder (renderer is reused for each table)
+        androidBaseRecordRenderer = new AndroidBaseRecordRenderer();
+        androidBaseRecordRenderer.setGenConfig(genConfig);
+
+        AndroidBaseRecordRenderer javaRenderer = new AndroidBaseRecordRenderer();
+        javaRenderer.setGenConfig(genConfig);
+        javaRenderer.generate(database, table, PACKAGE_NAME, databaseMapping);
+        javaRecordClass = javaRenderer.getRecordClass();
+
+        KotlinAndroidBaseRecordRenderer kotlinRenderer = new KotlinAndroidBaseRecordRenderer(genConfig);
+        kotlinRenderer.generate(database, table, PACKAGE_NAME, databaseMapping);
+        kotlinRecordClass = kotlinRenderer.getRecordClass();
+    }
+
+    @Benchmark
+    public String sqliteTableSchema() {
+        return SqliteRenderer.generateTableSchema(table, databaseMapping);
+    }
+
+    @Benchmark
+    public AndroidGeneratedEntityInfo androidBaseRecordGenerate() {
+        return androidBaseRecordRenderer.generate(database, table, PACKAGE_NAME, databaseMapping);
+    }
+
+    @Benchmark
+    public AndroidGeneratedEntityInfo kotlinBaseRecordGenerate() {
+        // same as KotlinAndroidDBObjectBuilder (new renderer for each table)
+        return new KotlinAndroidBaseRecordRenderer(genConfig).generate(database, table, PACKAGE_NAME, databaseMapping);
+    }
+
+    @Benchmark
+    public String javaClassToString() {
+        return javaRecordClass.toString();
+    }
+
+    @Benchmark
+    public String kotlinClassToString() {
+        return kotlinRecordClass.toString();
+    }
+}
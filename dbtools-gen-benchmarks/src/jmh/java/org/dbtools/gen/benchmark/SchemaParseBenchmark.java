@@ -0,0 +1,41 @@
+package org.dbtools.gen.benchmark;
+
+import org.dbtools.schema.schemafile.DatabaseSchema;
+import org.dbtools.schema.schemafile.SchemaXmlStreamParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Reading schema.xml (streaming parser used by the generator vs the Simple XML parser)
+ */
+@State(Scope.Benchmark)
+public class SchemaParseBenchmark {
+    @Param({"10", "50", "200"})
+    public int width;
+
+    @Param({"NUMERIC", "TEXT", "MIXED"})
+    public FieldMix mix;
+
+    private File xmlFile;
+
+    @Setup
+    public void setup() throws IOException {
+        xmlFile = BenchmarkSchemas.writeSchemaXml(width, mix);
+    }
+
+    @Benchmark
+    public DatabaseSchema streamParser() {
+        return SchemaXmlStreamParser.parse(xmlFile);
+    }
+
+    @Benchmark
+    public DatabaseSchema simpleXmlParser() {
+        return DatabaseSchema.readXMLSchemaSimple(xmlFile.getPath());
+    }
+}
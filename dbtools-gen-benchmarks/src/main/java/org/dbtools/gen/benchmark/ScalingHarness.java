@@ -0,0 +1,275 @@
+package org.dbtools.gen.benchmark;
+
+import org.dbtools.gen.DBObjectsBuilder;
+import org.dbtools.gen.GenConfig;
+import org.dbtools.renderer.SchemaRenderer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Generates synthetic schemas (see SyntheticSchemaGenerator) of increasing size with every DBObjectsBuilder type and
+ * every SchemaRenderer vendor.  Records wall time, peak heap and bytes written and fails (exit code 1) if the time per
+ * table grows by more than maxGrowth between two sizes (generation should scale (near) linearly with the number of tables).
+ * <p/>
+ * Usage: ScalingHarness [--sizes 10,100,1000,5000] [--workDir build/scaling] [--maxGrowth 1.5]
+ */
+public class ScalingHarness {
+    private static final List<String> BUILDER_TYPES = Arrays.asList("ANDROID-JAVA", "ANDROID-KOTLIN", "ANDROID-KOTLIN-ROOM", "JPA");
+    private static final String PACKAGE_BASE = "org.dbtools.scaling.domain";
+
+    // runs shorter than this are dominated by JIT warmup / timer resolution and are not checked
+    private static final long MIN_CHECKED_NANOS = 200000000L;
+
+    private final List<Integer> sizes;
+    private final File workDir;
+    private final double maxGrowth;
+    private final PrintStream out = System.out;
+    private final List<Result> results = new ArrayList<>();
+
+    public ScalingHarness(List<Integer> sizes, File workDir, double maxGrowth) {
+        this.sizes = sizes;
+        this.workDir = workDir;
+        this.maxGrowth = maxGrowth;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> sizes = Arrays.asList(10, 100, 1000, 5000);
+        File workDir = new File("build/scaling");
+        double maxGrowth = 1.5;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = new ArrayList<>();
+                    for (String size : getValue(args, ++i).split(",")) {
+                        sizes.add(Integer.parseInt(size.trim()));
+                    }
+                    break;
+                case "--workDir":
+                    workDir = new File(getValue(args, ++i));
+                    break;
+                case "--maxGrowth":
+                    maxGrowth = Double.parseDouble(getValue(args, ++i));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option [" + args[i] + "]");
+            }
+        }
+
+        ScalingHarness harness = new ScalingHarness(sizes, workDir, maxGrowth);
+        if (!harness.run()) {
+            System.exit(1);
+        }
+    }
+
+    private static String getValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option [" + args[index - 1] + "]");
+        }
+
+        return args[index];
+    }
+
+    /**
+     * @return false if any target did not scale (near) linearly
+     */
+    public boolean run() throws IOException {
+        workDir.mkdirs();
+
+        // warmup (JIT) with the smallest size (not recorded)
+        int warmupSize = SyntheticSchemaGenerator.MIN_TABLES;
+        File warmupXmlFile = SyntheticSchemaGenerator.writeSchemaXml(warmupSize, new File(workDir, "warmup/schema.xml"));
+        for (String target : getTargets()) {
+            runTarget(target, warmupSize, warmupXmlFile);
+        }
+
+        for (int size : sizes) {
+            File xmlFile = SyntheticSchemaGenerator.writeSchemaXml(size, new File(workDir, size + "/schema.xml"));
+            for (String target : getTargets()) {
+                Result result = runTarget(target, size, xmlFile);
+                results.add(result);
+                out.println(result);
+            }
+        }
+
+        writeReport(new File(workDir, "scaling-results.csv"));
+        return checkScaling();
+    }
+
+    private List<String> getTargets() {
+        List<String> targets = new ArrayList<>(BUILDER_TYPES);
+        for (String vendor : SchemaRenderer.getRendererNames()) {
+            targets.add("SQL-" + vendor);
+        }
+        return targets;
+    }
+
+    private Result runTarget(String target, int size, File xmlFile) throws IOException {
+        File outputDir = new File(xmlFile.getParentFile(), target.toLowerCase());
+        deleteRecursively(outputDir);
+        outputDir.mkdirs();
+
+        // generator console output (one line per table) would dominate the time... keep it in a log file
+        PrintStream systemOut = System.out;
+        System.gc();
+        resetPeakHeap();
+        long startNanos = System.nanoTime();
+        try (PrintStream log = new PrintStream(new FileOutputStream(new File(outputDir.getParentFile(), target.toLowerCase() + ".log")), false, "UTF-8")) {
+            System.setOut(log);
+            if (target.startsWith("SQL-")) {
+                renderSchema(target.substring("SQL-".length()), xmlFile, new File(outputDir, "schema.sql"));
+            } else {
+                buildObjects(target, xmlFile, outputDir);
+            }
+        } finally {
+            System.setOut(systemOut);
+        }
+        long nanos = System.nanoTime() - startNanos;
+
+        return new Result(target, size, nanos, getPeakHeap(), getBytes(outputDir));
+    }
+
+    private void buildObjects(String type, File xmlFile, File outputDir) {
+        GenConfig genConfig = new GenConfig();
+        DBObjectsBuilder builder = DBObjectsBuilder.createBuilder(type, genConfig);
+        builder.setXmlFilename(xmlFile.getPath());
+        builder.setOutputBaseDir(outputDir.getPath());
+        builder.setPackageBase(PACKAGE_BASE);
+        builder.setGenConfig(genConfig);
+        if (!builder.build()) {
+            throw new IllegalStateException("Failed to generate [" + type + "] for [" + xmlFile.getPath() + "]");
+        }
+    }
+
+    private void renderSchema(String vendor, File xmlFile, File outputFile) {
+        SchemaRenderer renderer = SchemaRenderer.getRenderer(vendor);
+        renderer.setDbVendorName(vendor);
+        renderer.setSchemaXMLFilename(xmlFile.getPath());
+        renderer.setOutputFile(outputFile.getPath());
+        renderer.setDropTables(true);
+        if (!renderer.executeRenderer()) {
+            throw new IllegalStateException("Failed to render [" + vendor + "] schema for [" + xmlFile.getPath() + "]");
+        }
+    }
+
+    /**
+     * Compare the time per table of each size with the previous size (of the same target)
+     */
+    private boolean checkScaling() {
+        boolean success = true;
+        for (String target : getTargets()) {
+            Result previous = null;
+            for (Result result : results) {
+                if (!result.target.equals(target)) {
+                    continue;
+                }
+
+                if (previous != null && previous.nanos >= MIN_CHECKED_NANOS) {
+                    double growth = result.getNanosPerTable() / previous.getNanosPerTable();
+                    if (growth > maxGrowth) {
+                        out.println(String.format(Locale.US, "FAILED: [%s] time per table grew %.2fx from [%d] to [%d] tables (max %.2fx)",
+                                target, growth, previous.size, result.size, maxGrowth));
+                        success = false;
+                    }
+                }
+                previous = result;
+            }
+        }
+
+        if (success) {
+            out.println("Scaling OK (max growth of time per table: " + maxGrowth + "x)");
+        }
+        return success;
+    }
+
+    private void writeReport(File reportFile) throws IOException {
+        StringBuilder csv = new StringBuilder("target,tables,millis,peakHeapBytes,bytesWritten\n");
+        for (Result result : results) {
+            csv.append(result.target).append(',').append(result.size).append(',').append(result.nanos / 1000000)
+                    .append(',').append(result.peakHeapBytes).append(',').append(result.bytesWritten).append('\n');
+        }
+        Files.write(reportFile.toPath(), csv.toString().getBytes(Charset.forName("UTF-8")));
+        out.println("Results: [" + reportFile.getPath() + "]");
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long getPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static long getBytes(File file) {
+        if (file.isFile()) {
+            return file.length();
+        }
+
+        long bytes = 0;
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                bytes += getBytes(child);
+            }
+        }
+        return bytes;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static class Result {
+        private final String target;
+        private final int size;
+        private final long nanos;
+        private final long peakHeapBytes;
+        private final long bytesWritten;
+
+        Result(String target, int size, long nanos, long peakHeapBytes, long bytesWritten) {
+            this.target = target;
+            this.size = size;
+            this.nanos = nanos;
+            this.peakHeapBytes = peakHeapBytes;
+            this.bytesWritten = bytesWritten;
+        }
+
+        double getNanosPerTable() {
+            return (double) nanos / size;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-20s %6d tables: %8d ms (%.3f ms/table) peak heap [%d MB] written [%d KB]",
+                    target, size, nanos / 1000000, getNanosPerTable() / 1000000, peakHeapBytes / (1024 * 1024), bytesWritten / 1024);
+        }
+    }
+}
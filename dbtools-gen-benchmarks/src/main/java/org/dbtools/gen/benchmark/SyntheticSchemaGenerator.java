@@ -0,0 +1,151 @@
+package org.dbtools.gen.benchmark;
+
+import org.dbtools.schema.schemafile.DatabaseSchema;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+/**
+ * Creates (deterministic) schemas of any number of tables for scaling tests.  Every schema has a mix of:
+ * <ul>
+ * <li>enum tables (every 10th table) and enum fields that reference them</li>
+ * <li>foreign key chains (each table references the previous (non enum) table, a new chain starts every CHAIN_LENGTH tables)</li>
+ * <li>all the common field types (tables have 4 to 16 fields)</li>
+ * <li>index and unique declarations</li>
+ * <li>views and queries (1 of each for every VIEW_QUERY_INTERVAL tables)</li>
+ * </ul>
+ */
+public final class SyntheticSchemaGenerator {
+    public static final int MIN_TABLES = 10;
+    public static final int MAX_TABLES = 20000;
+    public static final int ENUM_TABLE_INTERVAL = 10;
+    public static final int CHAIN_LENGTH = 50;
+    public static final int VIEW_QUERY_INTERVAL = 20;
+
+    private static final String[] FIELD_TYPES = {"VARCHAR", "INTEGER", "BIGINT", "DOUBLE", "BOOLEAN", "DATETIME", "DATE", "TIMESTAMP", "FLOAT", "BLOB", "CLOB", "TIME"};
+
+    private SyntheticSchemaGenerator() {
+    }
+
+    /**
+     * @param tableCount number of tables (MIN_TABLES to MAX_TABLES)
+     */
+    public static String createSchemaXml(int tableCount) {
+        if (tableCount < MIN_TABLES || tableCount > MAX_TABLES) {
+            throw new IllegalArgumentException("tableCount must be " + MIN_TABLES + " to " + MAX_TABLES + " (was [" + tableCount + "])");
+        }
+
+        StringBuilder xml = new StringBuilder(tableCount * 1024);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
+        xml.append("<dbSchema>\n");
+        xml.append("    <database name=\"main\">\n");
+
+        String enumTableName = null;
+        String previousTableName = null;
+        for (int i = 0; i < tableCount; i++) {
+            String tableName = getTableName(i);
+            if (i % ENUM_TABLE_INTERVAL == 0) {
+                appendEnumTable(xml, tableName);
+                enumTableName = tableName; // enum tables are not part of a chain
+            } else {
+                boolean chainStart = i % CHAIN_LENGTH == 1;
+                appendTable(xml, i, tableName, enumTableName, chainStart ? null : previousTableName);
+                previousTableName = tableName;
+            }
+        }
+
+        int viewQueryCount = Math.max(1, tableCount / VIEW_QUERY_INTERVAL);
+        for (int i = 0; i < viewQueryCount; i++) {
+            appendViewOrQuery(xml, "view", "VIEW_" + i);
+            appendViewOrQuery(xml, "query", "QUERY_" + i);
+        }
+
+        xml.append("    </database>\n");
+        xml.append("</dbSchema>\n");
+        return xml.toString();
+    }
+
+    public static String getTableName(int index) {
+        return String.format("%s_%05d", index % ENUM_TABLE_INTERVAL == 0 ? "ITEM_TYPE" : "ITEM", index);
+    }
+
+    private static void appendEnumTable(StringBuilder xml, String tableName) {
+        xml.append("        <table name=\"").append(tableName).append("\" enumerations=\"FIRST,SECOND,THIRD\" readOnly=\"true\">\n");
+        xml.append("            <field name=\"_id\" jdbcDataType=\"BIGINT\" increment=\"true\" primaryKey=\"true\" notNull=\"true\"/>\n");
+        xml.append("            <field name=\"NAME\" jdbcDataType=\"VARCHAR\" size=\"255\" notNull=\"true\" unique=\"true\"/>\n");
+        xml.append("        </table>\n");
+    }
+
+    private static void appendTable(StringBuilder xml, int index, String tableName, String enumTableName, String parentTableName) {
+        xml.append("        <table name=\"").append(tableName).append("\">\n");
+        xml.append("            <field name=\"_id\" jdbcDataType=\"BIGINT\" increment=\"true\" primaryKey=\"true\" notNull=\"true\"/>\n");
+        xml.append("            <field name=\"NAME\" jdbcDataType=\"VARCHAR\" size=\"255\" notNull=\"true\"/>\n");
+        if (enumTableName != null) {
+            xml.append("            <field name=\"TYPE_ID\" jdbcDataType=\"INTEGER\" foreignKeyTable=\"").append(enumTableName)
+                    .append("\" foreignKeyField=\"_id\" foreignKeyType=\"ENUM\" enumerationDefault=\"FIRST\"/>\n");
+        }
+        if (parentTableName != null) {
+            xml.append("            <field name=\"PARENT_ID\" jdbcDataType=\"BIGINT\" foreignKeyTable=\"").append(parentTableName)
+                    .append("\" foreignKeyField=\"_id\" foreignKeyType=\"MANYTOONE\"/>\n");
+        }
+
+        int fieldCount = 1 + index % FIELD_TYPES.length;
+        for (int i = 0; i < fieldCount; i++) {
+            String jdbcDataType = FIELD_TYPES[(index + i) % FIELD_TYPES.length];
+            xml.append("            <field name=\"FIELD_").append(i).append("\" jdbcDataType=\"").append(jdbcDataType).append("\"");
+            if (jdbcDataType.equals("VARCHAR")) {
+                xml.append(" size=\"100\"");
+            }
+            if (i % 2 == 0) {
+                xml.append(" notNull=\"true\"");
+            }
+            xml.append("/>\n");
+        }
+
+        if (index % 3 == 0) {
+            xml.append("            <index>\n");
+            xml.append("                <indexField name=\"NAME\"/>\n");
+            xml.append("            </index>\n");
+        }
+        if (index % 5 == 0) {
+            xml.append("            <unique>\n");
+            xml.append("                <uniqueField name=\"NAME\"/>\n");
+            xml.append("                <uniqueField name=\"FIELD_0\"/>\n");
+            xml.append("            </unique>\n");
+        }
+        xml.append("        </table>\n");
+    }
+
+    private static void appendViewOrQuery(StringBuilder xml, String elementName, String name) {
+        xml.append("        <").append(elementName).append(" name=\"").append(name).append("\">\n");
+        xml.append("            <field name=\"_id\" jdbcDataType=\"BIGINT\"/>\n");
+        xml.append("            <field name=\"NAME\" jdbcDataType=\"VARCHAR\" size=\"255\" notNull=\"true\"/>\n");
+        xml.append("            <field name=\"AMOUNT\" jdbcDataType=\"DOUBLE\"/>\n");
+        xml.append("        </").append(elementName).append(">\n");
+    }
+
+    public static File writeSchemaXml(int tableCount, File xmlFile) throws IOException {
+        File dir = xmlFile.getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+
+        Files.write(xmlFile.toPath(), createSchemaXml(tableCount).getBytes(Charset.forName("UTF-8")));
+        return xmlFile;
+    }
+
+    /**
+     * @return schema of tableCount tables (read from a temp schema.xml)
+     */
+    public static DatabaseSchema generate(int tableCount) throws IOException {
+        File xmlFile = File.createTempFile("synthetic-schema-" + tableCount, ".xml");
+        try {
+            writeSchemaXml(tableCount, xmlFile);
+            return DatabaseSchema.readXMLSchema(xmlFile.getPath());
+        } finally {
+            xmlFile.delete();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.dbtools.gen.benchmark;
+
+import org.dbtools.schema.TableDependencyGraph;
+import org.dbtools.schema.schemafile.DatabaseSchema;
+import org.dbtools.schema.schemafile.SchemaDatabase;
+import org.dbtools.schema.schemafile.SchemaTable;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SyntheticSchemaGeneratorTest {
+    @Test
+    public void testGenerate() throws Exception {
+        DatabaseSchema schema = SyntheticSchemaGenerator.generate(100);
+        schema.resolve();
+        SchemaDatabase database = schema.getDatabases().get(0);
+
+        assertEquals(100, database.getTables().size());
+        assertEquals(5, database.getViews().size());
+        assertEquals(5, database.getQueries().size());
+
+        int enumTableCount = 0;
+        for (SchemaTable table : database.getTables()) {
+            if (table.isEnumerationTable()) {
+                enumTableCount++;
+            }
+        }
+        assertEquals(10, enumTableCount);
+
+        // foreign key chains must not have cycles or references to missing tables
+        TableDependencyGraph graph = new TableDependencyGraph(database.getTables());
+        assertFalse(graph.hasCycle());
+        assertTrue(graph.getUnresolvedReferences().isEmpty());
+    }
+
+    @Test
+    public void testTooManyTables() {
+        try {
+            SyntheticSchemaGenerator.createSchemaXml(SyntheticSchemaGenerator.MAX_TABLES + 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDeterministic() {
+        assertEquals(SyntheticSchemaGenerator.createSchemaXml(500), SyntheticSchemaGenerator.createSchemaXml(500));
+    }
+}
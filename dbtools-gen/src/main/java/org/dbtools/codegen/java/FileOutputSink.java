@@ -0,0 +1,44 @@
+package org.dbtools.codegen.java;
+
+import java.io.File;
+
+/**
+ * Writes generated sources to the filesystem (default)
+ */
+public final class FileOutputSink implements OutputSink {
+    public static final FileOutputSink INSTANCE = new FileOutputSink();
+
+    private FileOutputSink() {
+    }
+
+    @Override
+    public WriteResult write(File file, SourceEmitter emitter, boolean overwrite) {
+        File directory = file.getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+
+        if (!overwrite && file.exists()) {
+            return WriteResult.SKIPPED;
+        }
+
+        return SourceUtil.writeFileIfChanged(file, emitter);
+    }
+
+    @Override
+    public boolean exists(File file) {
+        return file.exists();
+    }
+
+    @Override
+    public long getSize(File file) {
+        return file.length();
+    }
+
+    @Override
+    public void createDirectory(File directory) {
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+    }
+}
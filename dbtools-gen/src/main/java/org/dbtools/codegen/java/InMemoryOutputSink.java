@@ -0,0 +1,97 @@
+package org.dbtools.codegen.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps generated sources in memory (path to content) so that generation can run without any disk I/O
+ * (tests, IDE previews, compile time generation...).  Paths always use '/' as the separator.
+ */
+public class InMemoryOutputSink implements OutputSink {
+    private final TreeMap<String, byte[]> files = new TreeMap<>();
+
+    @Override
+    public WriteResult write(File file, SourceEmitter emitter, boolean overwrite) {
+        String path = getPath(file);
+        if (!overwrite && contains(path)) {
+            return WriteResult.SKIPPED;
+        }
+
+        // render outside of the lock
+        StringBuilder content = new StringBuilder();
+        try {
+            emitter.emitTo(content);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to render [" + path + "]", e);
+        }
+        byte[] bytes = content.toString().getBytes(SourceUtil.SOURCE_CHARSET);
+
+        synchronized (this) {
+            byte[] existingBytes = files.get(path);
+            if (existingBytes != null && !overwrite) {
+                return WriteResult.SKIPPED;
+            }
+            if (existingBytes != null && Arrays.equals(existingBytes, bytes)) {
+                return WriteResult.UNCHANGED;
+            }
+
+            files.put(path, bytes);
+        }
+
+        return WriteResult.WRITTEN;
+    }
+
+    @Override
+    public synchronized boolean exists(File file) {
+        String path = getPath(file);
+        if (files.containsKey(path)) {
+            return true;
+        }
+
+        // directory
+        String firstPathInDirectory = files.ceilingKey(path + "/");
+        return firstPathInDirectory != null && firstPathInDirectory.startsWith(path + "/");
+    }
+
+    @Override
+    public synchronized long getSize(File file) {
+        byte[] bytes = files.get(getPath(file));
+        return bytes != null ? bytes.length : 0;
+    }
+
+    @Override
+    public void createDirectory(File directory) {
+        // directories only exist if they contain files
+    }
+
+    private synchronized boolean contains(String path) {
+        return files.containsKey(path);
+    }
+
+    /**
+     * @return copy of all files (path to content) sorted by path
+     */
+    public synchronized Map<String, byte[]> getFiles() {
+        return Collections.unmodifiableMap(new TreeMap<>(files));
+    }
+
+    /**
+     * @return content of the file (null if the file was not written)
+     */
+    public synchronized String getContent(String path) {
+        byte[] bytes = files.get(getPath(new File(path)));
+        return bytes != null ? new String(bytes, SourceUtil.SOURCE_CHARSET) : null;
+    }
+
+    public synchronized void clear() {
+        files.clear();
+    }
+
+    protected static String getPath(File file) {
+        return file.getPath().replace('\\', '/').replaceAll("/+", "/"); // the JPA builder may add "\\" to the output dir
+    }
+}
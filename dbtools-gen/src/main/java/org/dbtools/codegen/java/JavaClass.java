@@ -9,24 +9,26 @@
  */
 package org.dbtools.codegen.java;
 
+import org.dbtools.util.JavaUtil;
+
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.PrintStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Jeff
  */
 @SuppressWarnings("PMD.UseStringBufferForStringAppends")
-public class JavaClass {
+public class JavaClass implements SourceEmitter {
     private ClassType classType = ClassType.CLASS;
     private static String tab = "    ";
     private String fileHeaderComment = "";
     private String classHeaderComment = "";
     private String packageName = "";
-    private List<String> imports;
+    private Set<String> imports; // insertion order (without duplicates)
     private Access access = Access.PUBLIC;
     private boolean abstractClass = false;
     private boolean staticClass = false;
@@ -40,6 +42,7 @@ public class JavaClass {
     private List<JavaVariable> variables;
     private List<JavaMethod> constructors;
     private List<JavaMethod> methods;
+    private List<JavaClass> innerClasses;
     // vars for generator
     private boolean createDefaultConstructor = true;
 
@@ -57,13 +60,14 @@ public class JavaClass {
     }
 
     private void init() {
-        this.imports = new ArrayList<String>();
+        this.imports = new LinkedHashSet<String>();
         this.annotations = new ArrayList<String>();
         this.implementsInterfaces = new ArrayList<String>();
         this.enums = new ArrayList<JavaInnerEnum>();
         this.variables = new ArrayList<JavaVariable>();
         this.constructors = new ArrayList<JavaMethod>();
         this.methods = new ArrayList<JavaMethod>();
+        this.innerClasses = new ArrayList<JavaClass>();
     }
 
     public void setDefaultCVSFileHeaderComment() {
@@ -91,9 +95,7 @@ public class JavaClass {
     }
 
     public void addImport(String newImport) {
-        if (!imports.contains(newImport)) {
-            imports.add(newImport);
-        }
+        imports.add(newImport);
     }
 
     public void addAnnotation(String annotation) {
@@ -130,6 +132,19 @@ public class JavaClass {
         return newEnum;
     }
 
+    /**
+     * Add a nested class (rendered after the methods of this class).  Imports of the inner class are added to this class.
+     */
+    public JavaClass addInnerClass(JavaClass innerClass) {
+        if (innerClass == null) {
+            throw new IllegalArgumentException("innerClass cannot be null");
+        }
+
+        innerClasses.add(innerClass);
+
+        return innerClass;
+    }
+
     public JavaVariable addVariable(JavaVariable newVariable) {
         if (newVariable == null) {
             throw new IllegalArgumentException("newVariable cannot be null");
@@ -240,27 +255,29 @@ public class JavaClass {
     }
 
     // ===================  BUILD METHODS  ================
-    private String buildPackage() {
-        return "package " + packageName + ";\n\n";
+    private void buildPackage(Appendable out) throws IOException {
+        out.append("package ").append(packageName).append(";\n\n");
     }
 
-    private String buildImports() {
-        if (imports.isEmpty()) {
-            return "";
-        } else {
-            StringBuilder out = new StringBuilder();
-            for (String newImport : imports) {
+    private void buildImports(Appendable out) throws IOException {
+        Set<String> allImports = imports;
+        if (!innerClasses.isEmpty()) {
+            allImports = new LinkedHashSet<String>(imports);
+            for (JavaClass innerClass : innerClasses) {
+                allImports.addAll(innerClass.imports);
+            }
+        }
+
+        if (!allImports.isEmpty()) {
+            for (String newImport : allImports) {
                 out.append("import ").append(newImport).append(";\n");
             }
 
             out.append("\n");
-
-            return out.toString();
         }
     }
 
-    private String buildClassHeader(String genericsTypeVar) {
-        StringBuilder classHeader = new StringBuilder();
+    private void buildClassHeader(Appendable classHeader, String genericsTypeVar) throws IOException {
         classHeader.append("\n");
 
         // annotations
@@ -271,26 +288,6 @@ public class JavaClass {
         // generics
         String genericsVar = (genericsTypeVar == null ? "" : "<" + genericsTypeVar + ">");
 
-        // extends
-        String extendsNameString = "";
-        if (getExtends() != null && getExtends().length() > 0) {
-            extendsNameString = " extends " + getExtends();
-        }
-
-        // implements
-        String implementsNamesString = "";
-        if (implementsInterfaces != null && !implementsInterfaces.isEmpty()) {
-            implementsNamesString = " implements ";
-
-            for (int i = 0; i < implementsInterfaces.size(); i++) {
-                if (i > 0) {
-                    implementsNamesString += ", "; // nopmd - generator
-                }
-
-                implementsNamesString += implementsInterfaces.get(i); // nopmd - generator
-            }
-        }
-
         // generate header
         classHeader.append(getAccessString(getAccess())).append(" ");
 
@@ -319,12 +316,25 @@ public class JavaClass {
             default:
         }
 
+        // extends
+        if (getExtends() != null && getExtends().length() > 0) {
+            classHeader.append(" extends ").append(getExtends());
+        }
 
-        classHeader.append(extendsNameString);
-        classHeader.append(implementsNamesString);
-        classHeader.append(" {\n");
+        // implements
+        if (implementsInterfaces != null && !implementsInterfaces.isEmpty()) {
+            classHeader.append(" implements ");
+
+            for (int i = 0; i < implementsInterfaces.size(); i++) {
+                if (i > 0) {
+                    classHeader.append(", ");
+                }
 
-        return classHeader.toString();
+                classHeader.append(implementsInterfaces.get(i));
+            }
+        }
+
+        classHeader.append(" {\n");
     }
 
     public static String getAccessString(Access access) {
@@ -350,32 +360,28 @@ public class JavaClass {
         tab = newTab;
     }
 
-    private String buildEnums() {
-        String enumsText = "";
+    private void buildEnums(Appendable out) throws IOException {
         String TAB = getTab();
 
         for (JavaInnerEnum enumItem : enums) {
-            enumsText += TAB + enumItem.toString() + "\n";
+            out.append(TAB);
+            enumItem.emitTo(out);
+            out.append("\n");
         }
 
-        enumsText += "\n";
-
-        return enumsText;
+        out.append("\n");
     }
 
-    private String buildVariables() {
-        String variablesText = "";
-
+    private void buildVariables(Appendable out) throws IOException {
         for (JavaVariable variable : variables) {
-            variablesText += variable.toString() + ";\n";
+            variable.emitTo(out);
+            out.append(";\n");
 
             // add setters and getters if needed
             addAccessorMethods(variable);
         }
 
-        variablesText += "\n";
-
-        return variablesText;
+        out.append("\n");
     }
 
     private void addAccessorMethods(JavaVariable variable) {
@@ -456,6 +462,9 @@ public class JavaClass {
 
             String postSetterCode = variable.getPostSetterCode();
             if (postSetterCode.length() > 0) {
+                if (!setterContent.endsWith("\n")) {
+                    setterContent += "\n";
+                }
                 setterContent += postSetterCode;
             }
 
@@ -482,35 +491,72 @@ public class JavaClass {
     @Override
     public String toString() {
         StringBuilder out = new StringBuilder();
+        try {
+            emitTo(out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to render class [" + getName() + "]", e);
+        }
+        return out.toString();
+    }
 
+    /**
+     * Render this class to out (NOTE: like toString(), this should only be called once per class... accessor methods
+     * and the default constructor are added while rendering)
+     */
+    @Override
+    public void emitTo(Appendable out) throws IOException {
         if (getFileHeaderComment().length() > 0) {
             out.append(getFileHeaderComment()).append("\n\n");
         }
 
         out.append("\n");
-        out.append(buildPackage());
-        out.append(buildImports());
+        buildPackage(out);
+        buildImports(out);
 
         if (getClassHeaderComment().length() > 0) {
             out.append(getClassHeaderComment()).append("\n\n");
         }
 
-        out.append(buildClassHeader(null)); // TODO... get rid of first parameter
-        out.append(buildPostClassHeader()); // Support for ENUM type
+        buildClassHeader(out, null); // TODO... get rid of second parameter
+        buildClassBody(out);
+
+        // end of class
+        out.append("\n}");
+    }
+
+    private void buildClassBody(Appendable out) throws IOException {
+        emitPostClassHeader(out); // Support for ENUM type
 //        out.append(constants);  // do not need this.... just use variables
-        out.append(buildEnums());
-        out.append(buildVariables());
+        buildEnums(out);
+        buildVariables(out);
 
         buildStaticInitializer(out);
         buildMethods(out);
+        buildInnerClasses(out);
+    }
 
-        // end of class
-        out.append("\n}");
+    private void buildInnerClasses(Appendable out) throws IOException {
+        for (JavaClass innerClass : innerClasses) {
+            StringBuilder innerClassOut = new StringBuilder();
+            innerClass.buildClassHeader(innerClassOut, null);
+            innerClass.buildClassBody(innerClassOut);
+            innerClassOut.append("}\n");
 
-        return out.toString();
+            if (innerClass != innerClasses.get(0)) {
+                out.append("\n");
+            }
+
+            // indent the inner class (without the leading new line of the class header or indenting empty lines)
+            for (String line : innerClassOut.toString().trim().split("\n")) {
+                if (!line.trim().isEmpty()) {
+                    out.append(getTab()).append(line);
+                }
+                out.append("\n");
+            }
+        }
     }
 
-    private void buildStaticInitializer(final StringBuilder out) {
+    private void buildStaticInitializer(Appendable out) throws IOException {
         if (staticInitializerBlock != null && staticInitializerBlock.length() > 0) {
             out.append(getTab()).append("static {\n");
 
@@ -520,7 +566,7 @@ public class JavaClass {
         }
     }
 
-    private void buildMethods(final StringBuilder out) {
+    private void buildMethods(Appendable out) throws IOException {
         // constructor methods
         if (!isInterface()) {
             if (createDefaultConstructor) {
@@ -528,14 +574,14 @@ public class JavaClass {
             }
 
             for (JavaMethod constructor : constructors) {
-                out.append(constructor.toString());
+                constructor.emitTo(out, false);
                 out.append("\n");
             }
         }
 
         // regular methods
         for (JavaMethod method : methods) {
-            out.append(method.toString(isInterface()));
+            method.emitTo(out, isInterface());
             out.append("\n");
         }
     }
@@ -544,27 +590,30 @@ public class JavaClass {
         return getName() + ".java";
     }
 
-    public void writeToDisk(String directoryname) {
-        writeToDisk(directoryname, true);
+    public WriteResult writeToDisk(String directoryname) {
+        return writeToDisk(directoryname, true);
     }
 
-    public void writeToDisk(String directoryname, boolean overwrite) {
-        File directory = new File(directoryname);
-        directory.mkdirs();
+    /**
+     * Write this class to directoryname.  The file is only written if the content changed.
+     */
+    public WriteResult writeToDisk(String directoryname, boolean overwrite) {
+        return writeTo(FileOutputSink.INSTANCE, directoryname, overwrite);
+    }
 
-        try {
-            File outFile = new File(directoryname + "/" + getFilename());
+    public WriteResult writeTo(OutputSink outputSink, String directoryname) {
+        return writeTo(outputSink, directoryname, true);
+    }
 
-            if (!overwrite && outFile.exists()) {
-                return;
-            }
+    /**
+     * Write this class to directoryname of outputSink.  The file is only written if the content changed.
+     */
+    public WriteResult writeTo(OutputSink outputSink, String directoryname, boolean overwrite) {
+        return outputSink.write(getFile(directoryname), this, overwrite);
+    }
 
-            PrintStream fps = new PrintStream(new FileOutputStream(outFile));
-            fps.print(this.toString());
-            fps.close();
-        } catch (FileNotFoundException ex) {
-            ex.printStackTrace();
-        }
+    public File getFile(String directoryname) {
+        return new File(directoryname + "/" + getFilename());
     }
 
     public String getPackageName() {
@@ -632,25 +681,7 @@ public class JavaClass {
     }
 
     public static String formatConstant(String constant) {
-        StringBuilder newConst = new StringBuilder();
-
-        for (int i = 0; i < constant.length(); i++) {
-            // add the current character in UPPERCASE
-            newConst.append(Character.toUpperCase(constant.charAt(i)));
-
-            // check for need of _
-            char current = constant.charAt(i);
-            char nextChar = ' ';
-            if ((i + 1) < constant.length()) {
-                nextChar = constant.charAt(i + 1);
-            }
-
-            if (!Character.isUpperCase(current) && nextChar != ' ' && Character.isUpperCase(nextChar)) {
-                newConst.append('_');
-            }
-        }
-
-        return newConst.toString();
+        return JavaUtil.formatConstant(constant);
     }
 
     @SuppressWarnings("PMD.AvoidReassigningParameters")
@@ -868,8 +899,8 @@ public class JavaClass {
         return classType == ClassType.ENUM;
     }
 
-    protected String buildPostClassHeader() {
-        return "";
+    protected void emitPostClassHeader(Appendable out) throws IOException {
+        // no content by default
     }
 
     public void appendStaticInitializer(String code) {
@@ -9,6 +9,7 @@
  */
 package org.dbtools.codegen.java;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
@@ -47,22 +48,18 @@ public class JavaEnum extends JavaClass {
     }
 
     @Override
-    protected String buildPostClassHeader() {
-        String enumStr = "";
-
+    protected void emitPostClassHeader(Appendable out) throws IOException {
         int count = 0;
         for (String enumItem : enums) {
             if (count > 0) {
-                enumStr += ", ";
+                out.append(", ");
             }
 
-            enumStr += enumItem;
+            out.append(enumItem);
 
             count++;
         }
 
-        enumStr += ";\n";
-
-        return enumStr;
+        out.append(";\n");
     }
 }
@@ -9,6 +9,7 @@
  */
 package org.dbtools.codegen.java;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
@@ -33,25 +34,31 @@ public class JavaInnerEnum {
 
     @Override
     public String toString() {
-        String enumStr = "";
+        StringBuilder enumStr = new StringBuilder();
+        try {
+            emitTo(enumStr);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to render enum [" + getName() + "]", e);
+        }
+        return enumStr.toString();
+    }
 
+    public void emitTo(Appendable out) throws IOException {
         String accessText = JavaClass.getAccessString(getAccess());
-        enumStr += accessText;
+        out.append(accessText);
 
-        enumStr += " static enum " + getName() + " {\n        "; // includes 2 TABS for the next line
+        out.append(" static enum ").append(getName()).append(" {\n        "); // includes 2 TABS for the next line
 
         int numItems = 0;
         for (String enumItem : values) {
             numItems++;
             if (numItems > 1) {
-                enumStr += ", ";
+                out.append(", ");
             }
-            enumStr += enumItem;
+            out.append(enumItem);
         }
 
-        enumStr += "\n    }";
-
-        return enumStr;
+        out.append("\n    }");
     }
 
     public Access getAccess() {
@@ -9,6 +9,7 @@
  */
 package org.dbtools.codegen.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -30,6 +31,7 @@ public class JavaMethod {
     private List<JavaVariable> parameters;
     private List<String> exceptions;
     private String content = "";
+    private String docComment = "";
 
     public JavaMethod(String name) {
         this.name = name;
@@ -123,83 +125,93 @@ public class JavaMethod {
     }
 
     public String toString(boolean interfaceOnly) {
-        String methodString = "";
+        StringBuilder methodString = new StringBuilder();
+        try {
+            emitTo(methodString, interfaceOnly);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to render method [" + getName() + "]", e);
+        }
+        return methodString.toString();
+    }
+
+    public void emitTo(Appendable out, boolean interfaceOnly) throws IOException {
         String TAB = JavaClass.getTab();
 
+        SourceUtil.appendDocComment(out, TAB, docComment);
         for (String annotation : annotations) {
-            methodString += TAB + annotation + "\n";
+            out.append(TAB).append(annotation).append("\n");
         }
 
         // access
-        methodString += TAB + JavaClass.getAccessString(getAccess());
+        String access = JavaClass.getAccessString(getAccess());
+        out.append(TAB).append(access);
+        String separator = access.isEmpty() ? "" : " "; // package private
 
         // modifiers
         if (isAbstract()) {
-            methodString += " abstract";
+            out.append(separator).append("abstract");
+            separator = " ";
         }
 
         if (isStatic()) {
-            methodString += " static";
+            out.append(separator).append("static");
+            separator = " ";
         }
 
         if (isFinal()) {
-            methodString += " final";
+            out.append(separator).append("final");
+            separator = " ";
         }
 
         // method name
         if (getMethodType() != MethodType.CONSTRUCTOR) {
-            methodString += " " + getReturnType();
+            out.append(separator).append(getReturnType());
+            separator = " ";
         }
-        methodString += " " + getName();
+        out.append(separator).append(getName());
 
         // parameters
-        methodString += "(";
+        out.append("(");
         int paramCounter = 0;
         for (JavaVariable parameter : parameters) {
             if (paramCounter > 0) {
-                methodString += ", ";
+                out.append(", ");
             }
-            methodString += parameter.toString();
+            parameter.emitTo(out);
 
             paramCounter++;
         }
-        methodString += ")";
+        out.append(")");
 
         // exceptions
         if (!exceptions.isEmpty()) {
-            methodString += " throws";
+            out.append(" throws");
 
             int expCount = 0;
             for (String exception : exceptions) {
                 if (expCount == 0) {
-                    methodString += " ";
+                    out.append(" ");
                 } else {
-                    methodString += ", ";
+                    out.append(", ");
                 }
 
-                methodString += exception;
+                out.append(exception);
                 expCount++;
             }
         }
 
         if (interfaceOnly || isAbstract()) {
-            methodString += ";\n";
-            return methodString;
+            out.append(";\n");
         } else {
             // content
-            methodString += " {\n";
+            out.append(" {\n");
 
             if (content != null && content.length() > 0) {
-                String[] splitContent = content.split("\n");
-                for (String aSplitContent : splitContent) {
-                    methodString += TAB + TAB + aSplitContent + "\n";
-                }
+                SourceUtil.appendIndentedLines(out, TAB + TAB, content);
             }
 
-            methodString += TAB + "}\n";
+            out.append(TAB).append("}\n");
         }
-
-        return methodString;
     }
 
     public boolean isAbstract() {
@@ -218,6 +230,17 @@ public class JavaMethod {
         this.content = content;
     }
 
+    public String getDocComment() {
+        return docComment;
+    }
+
+    /**
+     * @param docComment text of the javadoc (without the comment markers), lines separated by '\n'
+     */
+    public void setDocComment(String docComment) {
+        this.docComment = docComment;
+    }
+
     public void addParameter(JavaVariable parameter) {
         if (parameter == null) {
             throw new IllegalArgumentException("parameter cannot be null");
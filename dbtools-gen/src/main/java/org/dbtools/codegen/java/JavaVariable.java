@@ -9,6 +9,7 @@
  */
 package org.dbtools.codegen.java;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -106,23 +107,31 @@ public class JavaVariable {
 
     @Override
     public String toString() {
-        String varText = "";
+        StringBuilder varText = new StringBuilder();
+        try {
+            emitTo(varText);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to render variable [" + name + "]", e);
+        }
+        return varText.toString();
+    }
 
+    public void emitTo(Appendable out) throws IOException {
         // annotations
         for (String annotation : annotations) {
             // add tab if this is a class Variable
             if (getVariableType() == VariableType.CLASS_VARIABLE) {
-                varText += JavaClass.getTab();
+                out.append(JavaClass.getTab());
             }
 
-            varText += annotation;
+            out.append(annotation);
             switch (variableType) {
                 default:
                 case CLASS_VARIABLE:
-                    varText += "\n";
+                    out.append("\n");
                     break;
                 case METHOD_PARAMETER:
-                    varText += " ";
+                    out.append(" ");
                     break;
             }
         }
@@ -130,40 +139,37 @@ public class JavaVariable {
         // access
         if (getVariableType() == VariableType.CLASS_VARIABLE) {
             String accessText = JavaClass.getAccessString(access);
-            varText += JavaClass.getTab();
-            varText += accessText;
+            out.append(JavaClass.getTab());
+            out.append(accessText);
         }
 
         if (staticVar) {
-            varText += " static";
+            out.append(" static");
         }
 
         if (finalVar) {
-            varText += " final";
+            out.append(" final");
         }
 
         if (volatileVar) {
-            varText += " volatile";
+            out.append(" volatile");
         }
 
         // datatype and name
         switch (getVariableType()) {
             case METHOD_PARAMETER:
-                varText += datatype + " " + name;
+                out.append(datatype).append(" ").append(name);
                 break;
             case CLASS_VARIABLE:
             default:
-                varText += " " + datatype + " " + name;
+                out.append(" ").append(datatype).append(" ").append(name);
 
                 // set default value
                 if (defaultValue != null && defaultValue.length() > 0) {
-                    varText += " = " + defaultValue;
+                    out.append(" = ").append(defaultValue);
                 }
                 break;
         }
-
-
-        return varText;
     }
 
     public boolean isGenerateSetterGetter() {
@@ -0,0 +1,30 @@
+package org.dbtools.codegen.java;
+
+import java.io.File;
+
+/**
+ * Destination of generated source files (filesystem, memory, zip...).  Files are identified by the same paths that
+ * would be used on disk (directory + "/" + filename).  Implementations must be thread safe (sources may be generated
+ * in parallel).
+ */
+public interface OutputSink {
+    /**
+     * Write the source from emitter to file.  The file is only written if the content changed.
+     *
+     * @param overwrite if false, and the file already exists, the file will not be written
+     * @return WRITTEN if the file was written, UNCHANGED if the existing file already has the same content, SKIPPED if the file exists and overwrite is false
+     */
+    WriteResult write(File file, SourceEmitter emitter, boolean overwrite);
+
+    /**
+     * @return true if the file (or any file in the directory) exists
+     */
+    boolean exists(File file);
+
+    /**
+     * @return size (in bytes) of the file or 0 if it does not exist
+     */
+    long getSize(File file);
+
+    void createDirectory(File directory);
+}
@@ -0,0 +1,149 @@
+package org.dbtools.codegen.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.TreeSet;
+
+/**
+ * Normalizes generated sources before they are written to another OutputSink so that the same source is always written
+ * the same way (on any machine):
+ * <ul>
+ * <li>line endings are converted to '\n'</li>
+ * <li>the import block is sorted (and duplicate imports are removed)</li>
+ * </ul>
+ */
+public class ReproducibleOutputSink implements OutputSink {
+    private static final String IMPORT_PREFIX = "import ";
+
+    private final OutputSink outputSink;
+
+    public ReproducibleOutputSink(OutputSink outputSink) {
+        this.outputSink = outputSink;
+    }
+
+    @Override
+    public WriteResult write(File file, final SourceEmitter emitter, boolean overwrite) {
+        return outputSink.write(file, new SourceEmitter() {
+            @Override
+            public void emitTo(Appendable out) throws IOException {
+                NormalizingAppendable normalizingOut = new NormalizingAppendable(out);
+                emitter.emitTo(normalizingOut);
+                normalizingOut.finish();
+            }
+        }, overwrite);
+    }
+
+    @Override
+    public boolean exists(File file) {
+        return outputSink.exists(file);
+    }
+
+    @Override
+    public long getSize(File file) {
+        return outputSink.getSize(file);
+    }
+
+    @Override
+    public void createDirectory(File directory) {
+        outputSink.createDirectory(directory);
+    }
+
+    public OutputSink getOutputSink() {
+        return outputSink;
+    }
+
+    /**
+     * @return source with '\n' line endings and a sorted import block
+     */
+    public static String normalize(String source) {
+        StringBuilder normalized = new StringBuilder(source.length());
+        try {
+            NormalizingAppendable out = new NormalizingAppendable(normalized);
+            out.append(source);
+            out.finish();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringBuilder does not throw
+        }
+
+        return normalized.toString();
+    }
+
+    /**
+     * Normalizes the source one line at a time as it is emitted ('\r' is dropped and only the first (contiguous) import
+     * block is held back to be sorted)
+     */
+    private static final class NormalizingAppendable implements Appendable {
+        private final Appendable out;
+        private final StringBuilder line = new StringBuilder();
+        private final TreeSet<String> imports = new TreeSet<>();
+        private boolean importsSorted = false;
+        private boolean lastCharCR = false;
+
+        private NormalizingAppendable(Appendable out) {
+            this.out = out;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            if (c == '\n' && lastCharCR) {
+                lastCharCR = false; // "\r\n"... the line already ended at '\r'
+                return this;
+            }
+
+            lastCharCR = c == '\r';
+            if (c == '\n' || c == '\r') {
+                endLine(true);
+            } else {
+                line.append(c);
+            }
+            return this;
+        }
+
+        /**
+         * Write the last line (without a line ending) and any import block that has not been written
+         */
+        void finish() throws IOException {
+            endLine(false);
+            flushImports();
+        }
+
+        private void endLine(boolean lineEnding) throws IOException {
+            if (!importsSorted && line.toString().startsWith(IMPORT_PREFIX)) {
+                // imports are generated as one block (right after the package)
+                imports.add(line.toString());
+            } else {
+                flushImports();
+                out.append(line);
+                if (lineEnding) {
+                    out.append('\n');
+                }
+            }
+            line.setLength(0);
+        }
+
+        private void flushImports() throws IOException {
+            if (imports.isEmpty()) {
+                return;
+            }
+
+            for (String importLine : imports) {
+                out.append(importLine).append('\n');
+            }
+            imports.clear();
+            importsSorted = true;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.dbtools.codegen.java;
+
+import java.io.IOException;
+
+/**
+ * Source that can be rendered directly to a Writer/StringBuilder (without first building the whole source as a String)
+ */
+public interface SourceEmitter {
+    void emitTo(Appendable out) throws IOException;
+}
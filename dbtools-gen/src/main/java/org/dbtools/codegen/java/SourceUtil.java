@@ -9,12 +9,30 @@
  */
 package org.dbtools.codegen.java;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
 /**
  * @author Jeff
  */
 @SuppressWarnings("PMD.UseStringBufferForStringAppends")
 public class SourceUtil {
 
+    /**
+     * Encoding of all generated sources (same bytes on every machine, regardless of the platform default)
+     */
+    public static final Charset SOURCE_CHARSET = Charset.forName("UTF-8");
+
     private SourceUtil() {
     }
 
@@ -46,4 +64,121 @@ public class SourceUtil {
 
         return replaceText;
     }
+
+    /**
+     * Write content to outFile only if the content is different from what already exists in outFile
+     * (so that the file modified time only changes when the content changes)
+     *
+     * @param outFile   File to write to
+     * @param content   Content of the file
+     * @param overwrite if false, and the file already exists, the file will not be written
+     * @return WRITTEN if the file was written, UNCHANGED if the existing file already has the same content, SKIPPED if the file exists and overwrite is false
+     * @throws IllegalStateException if the file could not be written
+     */
+    public static WriteResult writeFileIfChanged(File outFile, String content, boolean overwrite) {
+        return writeFileIfChanged(outFile, content.getBytes(SOURCE_CHARSET), overwrite);
+    }
+
+    public static WriteResult writeFileIfChanged(File outFile, byte[] bytes, boolean overwrite) {
+        if (outFile.exists() && !overwrite) {
+            return WriteResult.SKIPPED;
+        }
+
+        try {
+            if (fileContentEquals(outFile, bytes)) {
+                return WriteResult.UNCHANGED;
+            }
+
+            try (OutputStream out = new FileOutputStream(outFile)) {
+                out.write(bytes);
+            }
+        } catch (IOException ex) {
+            // fail the build (a SKIPPED file would be recorded as generated and never be retried)
+            throw new IllegalStateException("Failed to write [" + outFile.getPath() + "]", ex);
+        }
+
+        return WriteResult.WRITTEN;
+    }
+
+    /**
+     * Render the source from emitter (in memory) and write it to outFile only if the content is different from what
+     * already exists in outFile.  Nothing is written (no temp files) if the content did not change or the emitter fails.
+     *
+     * @param outFile File to write to
+     * @param emitter Source to write
+     * @return WRITTEN if the file was written, UNCHANGED if the existing file already has the same content
+     * @throws IllegalStateException if the file could not be rendered or written
+     */
+    public static WriteResult writeFileIfChanged(File outFile, SourceEmitter emitter) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(bytes, SOURCE_CHARSET))) {
+            emitter.emitTo(writer);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to render [" + outFile.getPath() + "]", ex);
+        }
+
+        return writeFileIfChanged(outFile, bytes.toByteArray(), true);
+    }
+
+    /**
+     * Append each line of content (prefixed with indent).  Trailing empty lines are dropped (same as content.split("\n")).
+     */
+    public static void appendIndentedLines(Appendable out, String indent, String content) throws IOException {
+        int end = content.length();
+        while (end > 0 && content.charAt(end - 1) == '\n') {
+            end--;
+        }
+
+        int start = 0;
+        while (start < end) {
+            int lineEnd = content.indexOf('\n', start);
+            if (lineEnd == -1 || lineEnd > end) {
+                lineEnd = end;
+            }
+
+            out.append(indent).append(content, start, lineEnd).append('\n');
+            start = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Append comment as a doc comment (prefixed with indent).  Empty comments are not written.
+     */
+    public static void appendDocComment(Appendable out, String indent, String comment) throws IOException {
+        if (comment == null || comment.isEmpty()) {
+            return;
+        }
+
+        out.append(indent).append("/**\n");
+        for (String line : comment.split("\n")) {
+            out.append(indent).append(line.isEmpty() ? " *" : " * ").append(line).append('\n');
+        }
+        out.append(indent).append(" */\n");
+    }
+
+    private static boolean fileContentEquals(File file, byte[] bytes) throws IOException {
+        if (!file.isFile() || file.length() != bytes.length) {
+            return false;
+        }
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            byte[] buffer = new byte[8192];
+            int position = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (position + read > bytes.length) {
+                    return false;
+                }
+
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] != bytes[position + i]) {
+                        return false;
+                    }
+                }
+                position += read;
+            }
+
+            return position == bytes.length;
+        }
+    }
 }
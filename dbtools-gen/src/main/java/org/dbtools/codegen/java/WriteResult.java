@@ -0,0 +1,10 @@
+package org.dbtools.codegen.java;
+
+/**
+ * Result of writing a generated source file to disk
+ */
+public enum WriteResult {
+    WRITTEN, // file did not exist or the content changed
+    UNCHANGED, // existing file already has the same content (file is not touched)
+    SKIPPED // file exists and should not be overwritten
+}
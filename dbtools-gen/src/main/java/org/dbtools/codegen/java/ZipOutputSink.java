@@ -0,0 +1,56 @@
+package org.dbtools.codegen.java;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Collects generated sources (in memory) and writes them to a zip file on close().  Entry names are relative to baseDir
+ * (the output base directory given to the generator).
+ */
+public class ZipOutputSink extends InMemoryOutputSink implements Closeable {
+    private final File zipFile;
+    private final String baseDir;
+
+    public ZipOutputSink(File zipFile, String baseDir) {
+        this.zipFile = zipFile;
+        this.baseDir = getPath(new File(baseDir));
+    }
+
+    @Override
+    public void close() throws IOException {
+        File directory = zipFile.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+
+        try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipFile)))) {
+            for (Map.Entry<String, byte[]> file : getFiles().entrySet()) {
+                out.putNextEntry(new ZipEntry(getEntryName(file.getKey())));
+                out.write(file.getValue());
+                out.closeEntry();
+            }
+        }
+    }
+
+    String getEntryName(String path) {
+        String entryName = path;
+        if (path.startsWith(baseDir + "/")) {
+            entryName = path.substring(baseDir.length() + 1);
+        }
+
+        while (entryName.startsWith("/")) {
+            entryName = entryName.substring(1);
+        }
+        return entryName;
+    }
+
+    public File getZipFile() {
+        return zipFile;
+    }
+}
@@ -18,9 +18,27 @@ import java.util.List;
 public interface DBObjectBuilder {
     String getName();
     boolean build(SchemaDatabase database, SchemaEntity entity, String packageName, String outDir, GenConfig genConfig);
+    /**
+     * @return number of files written (new files or files whose content changed)
+     */
     int getNumberFilesGenerated();
+
+    /**
+     * @return paths of files written (new files or files whose content changed)
+     */
     List<String> getFilesGenerated();
-    void buildDatabaseManagersHolder(SchemaDatabase database, String packageBase, String packageName, List<SchemaTable> tables, List<SchemaView> views, List<SchemaQuery> queries, String outDir);
+
+    /**
+     * @return number of files that were generated, but already existed with the same content (not written)
+     */
+    int getNumberFilesUnchanged();
+
+    /**
+     * @return number of files that already existed and are not overwritten (Record, Manager, etc)
+     */
+    int getNumberFilesSkipped();
+
+    void buildDatabaseManagersHolder(SchemaDatabase database, String packageBase, String packageName, List<SchemaTable> tables, List<SchemaView> views, List<SchemaQuery> queries, String outDir, GenConfig genConfig);
 
 //    void setDatabase(SchemaDatabase schemaDatabase);
 //    void setEntity(SchemaEntity table);
@@ -10,13 +10,25 @@
 package org.dbtools.gen;
 
 
+import org.dbtools.gen.android.AndroidObjectsBuilder;
+import org.dbtools.gen.android.kotlin.KotlinAndroidObjectsBuilder;
+import org.dbtools.gen.android.kotlinroom.KotlinAndroidRoomObjectsBuilder;
+import org.dbtools.gen.jpa.JPAObjectsBuilder;
 import org.dbtools.renderer.SchemaRenderer;
 import org.dbtools.schema.schemafile.*;
 import org.dbtools.util.JavaUtil;
 import org.dbtools.util.PackageUtil;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * @author jeff
@@ -24,6 +36,9 @@ import java.util.List;
 public abstract class DBObjectsBuilder {
 
     private String xmlFilename;
+    private boolean xmlFileScanned;
+    private String schemaSnapshotDir;
+    private boolean copyXsdFile = true;
     private String schemaDatabaseName;
     private List<SchemaTable> tables;
     private List<SchemaView> views;
@@ -36,7 +51,34 @@ public abstract class DBObjectsBuilder {
 
     public abstract DBObjectBuilder getObjectBuilder();
 
-    private int numberFilesGenerated;
+    /**
+     * Create a new DBObjectBuilder that does not share any renderer state with other builders (used for parallel generation)
+     */
+    public abstract DBObjectBuilder createObjectBuilder();
+
+    private List<String> filesGenerated = new ArrayList<>();
+    private int numberFilesUnchanged;
+    private int numberFilesSkipped;
+    private GenManifest manifest;
+    private GenProfiler profiler;
+
+    /**
+     * @param type builder type (ANDROID-JAVA, ANDROID-KOTLIN, ANDROID-KOTLIN-ROOM, JPA)
+     */
+    public static DBObjectsBuilder createBuilder(String type, GenConfig genConfig) {
+        switch (type) {
+            case "ANDROID": // deprecated
+            case "ANDROID-JAVA":
+                return new AndroidObjectsBuilder(genConfig);
+            case "ANDROID-KOTLIN":
+                return new KotlinAndroidObjectsBuilder(genConfig);
+            case "ANDROID-KOTLIN-ROOM":
+                return new KotlinAndroidRoomObjectsBuilder(genConfig);
+            default:
+            case "JPA":
+                return new JPAObjectsBuilder(genConfig);
+        }
+    }
 
     /**
      * Creates a new instance of DBObjectsBuilder
@@ -56,7 +98,6 @@ public abstract class DBObjectsBuilder {
         tables = null;
         views = null;
         queries = null;
-        numberFilesGenerated = 0;
     }
 
     private boolean validate() {
@@ -68,15 +109,50 @@ public abstract class DBObjectsBuilder {
     }
 
     public boolean build() {
+        filesGenerated.clear();
+        numberFilesUnchanged = 0;
+        numberFilesSkipped = 0;
+        manifest = genConfig.isIncremental() ? new GenManifest(outputBaseDir) : null;
+        DBObjectBuilder objectBuilder = getObjectBuilder();
+        profiler = new GenProfiler(objectBuilder != null ? objectBuilder.getName() : null, genConfig.getOutputSink());
+
+        boolean success;
         if (schemaDatabaseName != null && !schemaDatabaseName.isEmpty()) {
-            return build(schemaRenderer.getDbSchema().getDatabase(schemaDatabaseName));
+            success = build(getDatabaseSchema().getDatabase(schemaDatabaseName));
         } else {
-            return buildAllDatabases();
+            success = buildAllDatabases();
+        }
+
+        if (success && manifest != null) {
+            manifest.write();
+        }
+
+        reportProfile();
+
+        return success;
+    }
+
+    private void reportProfile() {
+        if (genConfig.getProfileTopEntities() > 0) {
+            profiler.printSlowestEntities(System.out, genConfig.getProfileTopEntities());
+        }
+
+        String reportDir = genConfig.getProfileReportDir();
+        if (reportDir != null && !reportDir.isEmpty()) {
+            String reportName = schemaDatabaseName != null && !schemaDatabaseName.isEmpty() ? schemaDatabaseName : "all";
+            profiler.writeReport(new File(reportDir, "dbtools-gen-" + reportName.toLowerCase() + ".json"));
         }
     }
 
+    /**
+     * @return timings of the last build()
+     */
+    public GenProfiler getProfiler() {
+        return profiler;
+    }
+
     private boolean buildAllDatabases() {
-        DatabaseSchema databaseSchema = schemaRenderer.getDbSchema();
+        DatabaseSchema databaseSchema = getDatabaseSchema();
         for (SchemaDatabase database : databaseSchema.getDatabases()) {
             resetData(); // prepare for new database
             if (!build(database)) {
@@ -84,11 +160,19 @@ public abstract class DBObjectsBuilder {
             }
         }
 
-        onPostBuild(databaseSchema, packageBase, outputBaseDir, genConfig);
+        postBuild();
 
         return true;
     }
 
+    /**
+     * Generate the files shared by all databases (such as the DatabaseManager).  This is done automatically by build() when
+     * schemaDatabaseName is not set (when each database is built separately, call this after all databases are built)
+     */
+    public void postBuild() {
+        onPostBuild(getDatabaseSchema(), packageBase, outputBaseDir, genConfig);
+    }
+
     public void onPostBuild(DatabaseSchema databaseSchema, String packageBase, String outputBaseDir, GenConfig genConfig) {
     }
 
@@ -99,7 +183,9 @@ public abstract class DBObjectsBuilder {
 
         // if tables is null... assume all tables
         if (tables == null) {
+            long startNanos = System.nanoTime();
             tables = schemaRenderer.getTablesToGenerate(database, null);
+            profiler.addPhase(GenPhase.CREATE_ORDER, startNanos);
         }
 
         if (views == null) {
@@ -110,103 +196,201 @@ public abstract class DBObjectsBuilder {
             queries = schemaRenderer.getQueriesToGenerate(database, null);
         }
 
-        if (validate()) {
+        long validateStartNanos = System.nanoTime();
+        boolean valid = validate();
+        profiler.addPhase(GenPhase.VALIDATE, validateStartNanos);
+
+        if (valid) {
             DBObjectBuilder objectBuilder = getObjectBuilder();
 
             if (objectBuilder == null) {
                 throw new IllegalStateException("No Table Renderer specified");
             }
 
-            for (SchemaTable table : tables) {
-                // crete the directory
-                String packageDir = table.getClassName().toLowerCase();
-
-                if (genConfig.isIncludeDatabaseNameInPackage()) {
-                    packageDir = database.getName(true).toLowerCase() + "/" + packageDir;
-                }
+            List<SchemaEntity> entities = new ArrayList<>();
+            entities.addAll(tables);
+            entities.addAll(views);
+            entities.addAll(queries);
 
-                String outDir = createOutputDir(outputBaseDir, packageDir);
-
-                // package
-                String packageName = packageBase + (genConfig.isIncludeDatabaseNameInPackage() ? '.' + database.getName(true).toLowerCase() : "");
-                packageName = JavaUtil.createTablePackageName(packageName, table.getClassName());
+            List<SchemaEntity> entitiesToGenerate = entities;
+            if (manifest != null) {
+                entitiesToGenerate = getIncrementalEntitiesToGenerate(database, entities, objectBuilder);
+                System.out.println("Incremental: generating [" + entitiesToGenerate.size() + "] of [" + entities.size() + "] tables/views/queries");
+            }
 
-                success = objectBuilder.build(database, table, packageName, outDir, genConfig);
-                numberFilesGenerated += objectBuilder.getNumberFilesGenerated();
+            if (genConfig.getParallelism() > 1 && entitiesToGenerate.size() > 1) {
+                success = buildEntitiesParallel(database, entitiesToGenerate);
+            } else {
+                for (SchemaEntity entity : entitiesToGenerate) {
+                    int previousFileListSize = objectBuilder.getFilesGenerated().size();
+                    int previousUnchangedCount = objectBuilder.getNumberFilesUnchanged();
+                    int previousSkippedCount = objectBuilder.getNumberFilesSkipped();
+                    String packageName = getEntityPackageName(database, entity);
+                    String outDir = getEntityOutputDir(database, entity);
+
+                    GenProfiler.EntityProfile profile = profiler.createEntityProfile(entity);
+                    profile.start();
+                    success &= objectBuilder.build(database, entity, packageName, outDir, genConfig);
+
+                    List<String> builderFiles = objectBuilder.getFilesGenerated();
+                    List<String> entityFiles = builderFiles.subList(previousFileListSize, builderFiles.size());
+                    int entityUnchangedCount = objectBuilder.getNumberFilesUnchanged() - previousUnchangedCount;
+                    int entitySkippedCount = objectBuilder.getNumberFilesSkipped() - previousSkippedCount;
+                    profile.stop(entityFiles, entityUnchangedCount, entitySkippedCount);
+
+                    filesGenerated.addAll(entityFiles);
+                    numberFilesUnchanged += entityUnchangedCount;
+                    numberFilesSkipped += entitySkippedCount;
+                }
             }
 
-            for (SchemaView view : views) {
-                // crete the directory
-                String packageDir = view.getClassName().toLowerCase();
+            if (!genConfig.isInjectionSupport()) {
+                String packageName = packageBase + (genConfig.isIncludeDatabaseNameInPackage() ? '.' + database.getName(true).toLowerCase() : "");
 
+                String outDir = outputBaseDir;
                 if (genConfig.isIncludeDatabaseNameInPackage()) {
-                    packageDir = database.getName(true).toLowerCase() + "/" + packageDir;
+                    outDir += "/" + database.getName(true).toLowerCase();
                 }
 
-                String outDir = createOutputDir(outputBaseDir, packageDir);
-
-                // package
-                String packageName = packageBase + (genConfig.isIncludeDatabaseNameInPackage() ? '.' + database.getName(true).toLowerCase() : "");
-                packageName = packageName + "." + view.getClassName().toLowerCase();
+                objectBuilder.buildDatabaseManagersHolder(database, packageBase, packageName, tables, views, queries, outDir, genConfig);
+            }
 
-                success = objectBuilder.build(database, view, packageName, outDir, genConfig);
-                numberFilesGenerated += objectBuilder.getNumberFilesGenerated();
+            if (success && manifest != null) {
+                manifest.update(database, entities);
             }
+        }
 
-            for (SchemaQuery query : queries) {
-                // crete the directory
-                String packageDir = query.getClassName().toLowerCase();
+        return success;
+    }
 
-                if (genConfig.isIncludeDatabaseNameInPackage()) {
-                    packageDir = database.getName(true).toLowerCase() + "/" + packageDir;
+    /**
+     * Generate entities using a pool of genConfig.getParallelism() threads.  Each entity is given its own
+     * DBObjectBuilder (and therefore its own renderers) and results are merged in entity order.
+     */
+    private boolean buildEntitiesParallel(final SchemaDatabase database, List<SchemaEntity> entities) {
+        // directories and builders are created on this thread so the tasks only render and write files
+        List<DBObjectBuilder> entityBuilders = new ArrayList<>(entities.size());
+        List<ForkJoinTask<Boolean>> tasks = new ArrayList<>(entities.size());
+
+        ForkJoinPool pool = new ForkJoinPool(Math.min(genConfig.getParallelism(), entities.size()));
+        try {
+            for (SchemaEntity entity : entities) {
+                final DBObjectBuilder entityBuilder = createObjectBuilder();
+                if (entityBuilder == null) {
+                    throw new IllegalStateException("No Table Renderer specified");
                 }
 
-                String outDir = createOutputDir(outputBaseDir, packageDir);
+                final SchemaEntity taskEntity = entity;
+                final String packageName = getEntityPackageName(database, entity);
+                final String outDir = getEntityOutputDir(database, entity);
+                final GenProfiler.EntityProfile profile = profiler.createEntityProfile(entity);
+
+                entityBuilders.add(entityBuilder);
+                tasks.add(pool.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        profile.start();
+                        boolean entitySuccess = entityBuilder.build(database, taskEntity, packageName, outDir, genConfig);
+                        profile.stop(entityBuilder.getFilesGenerated(), entityBuilder.getNumberFilesUnchanged(), entityBuilder.getNumberFilesSkipped());
+                        return entitySuccess;
+                    }
+                }));
+            }
 
-                // package
-                String packageName = packageBase + (genConfig.isIncludeDatabaseNameInPackage() ? '.' + database.getName(true).toLowerCase() : "");
-                packageName = packageName + "." + query.getClassName().toLowerCase();
+            boolean success = true;
+            for (int i = 0; i < tasks.size(); i++) {
+                success &= tasks.get(i).get();
 
-                success = objectBuilder.build(database, query, packageName, outDir, genConfig);
-                numberFilesGenerated += objectBuilder.getNumberFilesGenerated();
+                DBObjectBuilder entityBuilder = entityBuilders.get(i);
+                filesGenerated.addAll(entityBuilder.getFilesGenerated());
+                numberFilesUnchanged += entityBuilder.getNumberFilesUnchanged();
+                numberFilesSkipped += entityBuilder.getNumberFilesSkipped();
             }
 
-            if (!genConfig.isInjectionSupport()) {
-                String packageName = packageBase + (genConfig.isIncludeDatabaseNameInPackage() ? '.' + database.getName(true).toLowerCase() : "");
+            return success;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating database [" + database.getName(false) + "]", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to generate database [" + database.getName(false) + "]", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 
-                String outDir = outputBaseDir;
-                if (genConfig.isIncludeDatabaseNameInPackage()) {
-                    outDir += "/" + database.getName(true).toLowerCase();
-                }
+    /**
+     * Entities that changed since the last generation (see GenManifest) or that are missing their output directory
+     */
+    private List<SchemaEntity> getIncrementalEntitiesToGenerate(SchemaDatabase database, List<SchemaEntity> entities, DBObjectBuilder objectBuilder) {
+        Set<SchemaEntity> changedEntities = new HashSet<>(manifest.getEntitiesToGenerate(database, entities, packageBase, objectBuilder.getName(), genConfig));
 
-                objectBuilder.buildDatabaseManagersHolder(database, packageBase, packageName, tables, views, queries, outDir);
+        List<SchemaEntity> entitiesToGenerate = new ArrayList<>();
+        for (SchemaEntity entity : entities) {
+            if (changedEntities.contains(entity) || !genConfig.getOutputSink().exists(new File(outputBaseDir, getEntityPackageDir(database, entity)))) {
+                entitiesToGenerate.add(entity);
             }
         }
 
-        return success;
+        return entitiesToGenerate;
+    }
+
+    private String getEntityPackageName(SchemaDatabase database, SchemaEntity entity) {
+        String packageName = packageBase + (genConfig.isIncludeDatabaseNameInPackage() ? '.' + database.getName(true).toLowerCase() : "");
+        return JavaUtil.createTablePackageName(packageName, entity.getClassName());
+    }
+
+    private String getEntityPackageDir(SchemaDatabase database, SchemaEntity entity) {
+        String packageDir = entity.getClassName().toLowerCase();
+
+        if (genConfig.isIncludeDatabaseNameInPackage()) {
+            packageDir = database.getName(true).toLowerCase() + "/" + packageDir;
+        }
+
+        return packageDir;
+    }
+
+    private String getEntityOutputDir(SchemaDatabase database, SchemaEntity entity) {
+        // crete the directory
+        return createOutputDir(outputBaseDir, getEntityPackageDir(database, entity));
     }
 
     private String createOutputDir(String baseDir, String name) {
         String outDir = baseDir + "/" + name;
-        File newDir = new File(outDir);
-        if (!newDir.exists()) {
-            newDir.mkdirs();
-        }
+        genConfig.getOutputSink().createDirectory(new File(outDir));
 
         return outDir;
     }
 
     /**
-     * Reread xml file
+     * Reread xml file (or schema snapshot)
      */
     private void scanXMLFile() {
         File xmlFile = getXmlFile();
         if (xmlFile != null) {
-            DBToolsFiles.copyXsdFileToSchemaDir(getXmlFile().getParent());
-            schemaRenderer.readXMLSchema(xmlFile.getPath());
+            if (copyXsdFile) {
+                DBToolsFiles.copyXsdFileToSchemaDir(getXmlFile().getParent());
+            }
+            long startNanos = System.nanoTime();
+            if (schemaSnapshotDir != null && !schemaSnapshotDir.isEmpty()) {
+                schemaRenderer.setDbSchema(SchemaSnapshot.readXMLSchema(xmlFile, new File(schemaSnapshotDir)));
+            } else {
+                schemaRenderer.readXMLSchema(xmlFile.getPath());
+            }
+            startNanos = addProfilePhase(GenPhase.XML_PARSE, startNanos);
+
+            // one time resolve (shared by all object builders / threads)
+            schemaRenderer.getDbSchema().resolve();
+            addProfilePhase(GenPhase.RESOLVE, startNanos);
         }
     }
 
+    /**
+     * The schema may be read before build() (when there is no profiler yet)
+     */
+    private long addProfilePhase(GenPhase phase, long startNanos) {
+        return profiler != null ? profiler.addPhase(phase, startNanos) : System.nanoTime();
+    }
+
     private File getXmlFile() {
         String filename = xmlFilename;
         if (filename != null && !filename.isEmpty()) {
@@ -221,6 +405,26 @@ public abstract class DBObjectsBuilder {
         return PackageUtil.getPackageFromFilePath(outputBaseDir);
     }
 
+    /**
+     * @return schema read from xmlFilename (the schema is read on first use)
+     */
+    public DatabaseSchema getDatabaseSchema() {
+        if (!xmlFileScanned) {
+            scanXMLFile();
+            xmlFileScanned = true;
+        }
+
+        return schemaRenderer.getDbSchema();
+    }
+
+    /**
+     * Use an already read schema instead of reading xmlFilename (the schema should be resolved if it is shared by multiple builders)
+     */
+    public void setDatabaseSchema(DatabaseSchema databaseSchema) {
+        schemaRenderer.setDbSchema(databaseSchema);
+        xmlFileScanned = true;
+    }
+
     public String getSchemaDatabaseName() {
         return schemaDatabaseName;
     }
@@ -251,7 +455,26 @@ public abstract class DBObjectsBuilder {
 
     public void setXmlFilename(String xmlFilename) {
         this.xmlFilename = xmlFilename;
-        scanXMLFile();
+        xmlFileScanned = false;
+    }
+
+    public String getSchemaSnapshotDir() {
+        return schemaSnapshotDir;
+    }
+
+    /**
+     * Directory used to store a binary snapshot of the parsed schema (see SchemaSnapshot).  If not set, the schema xml file is always parsed
+     */
+    public void setSchemaSnapshotDir(String schemaSnapshotDir) {
+        this.schemaSnapshotDir = schemaSnapshotDir;
+        xmlFileScanned = false;
+    }
+
+    /**
+     * Copy dbschema.xsd next to the schema file (for editor auto-completion).  Defaults to true
+     */
+    public void setCopyXsdFile(boolean copyXsdFile) {
+        this.copyXsdFile = copyXsdFile;
     }
 
     public String getOutputBaseDir() {
@@ -267,6 +490,18 @@ public abstract class DBObjectsBuilder {
     }
 
     public int getNumberFilesGenerated() {
-        return numberFilesGenerated;
+        return filesGenerated.size();
+    }
+
+    public List<String> getFilesGenerated() {
+        return Collections.unmodifiableList(filesGenerated);
+    }
+
+    public int getNumberFilesUnchanged() {
+        return numberFilesUnchanged;
+    }
+
+    public int getNumberFilesSkipped() {
+        return numberFilesSkipped;
     }
 }
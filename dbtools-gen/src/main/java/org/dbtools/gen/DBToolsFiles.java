@@ -1,7 +1,9 @@
 package org.dbtools.gen;
 
+import org.dbtools.codegen.java.SourceUtil;
+
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.InputStream;
 
 public class DBToolsFiles {
@@ -23,26 +25,22 @@ public class DBToolsFiles {
     }
 
     public static void saveFile(String sourceClasspathDir, String filename, String schemaDirname) {
-        try {
-            File schemaDir = new File(schemaDirname);
-            schemaDir.mkdirs();
-
-            InputStream in = DBToolsFiles.class.getResourceAsStream(sourceClasspathDir + filename);
+        File schemaDir = new File(schemaDirname);
+        schemaDir.mkdirs();
 
-            File outFile = new File(schemaDirname, filename);
-
-            FileOutputStream fos = new FileOutputStream(outFile);
+        try (InputStream in = DBToolsFiles.class.getResourceAsStream(sourceClasspathDir + filename)) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
             int read;
             byte[] bytes = new byte[1024];
 
             while ((read = in.read(bytes)) != -1) {
-                fos.write(bytes, 0, read);
+                content.write(bytes, 0, read);
             }
+
+            // only write if changed (multiple generators (Gradle workers) may save the same file at the same time)
+            SourceUtil.writeFileIfChanged(new File(schemaDirname, filename), content.toByteArray(), true);
         } catch (Exception e) {
             System.out.println("Failed to write: " + filename + " Error: [" + e.getMessage() + "]");
         }
     }
-
-
-
 }
@@ -0,0 +1,116 @@
+package org.dbtools.gen;
+
+import java.io.File;
+
+/**
+ * Command line generator
+ * <p/>
+ * Usage: DBToolsGen --schema src/main/database/schema.xml --outputSrcDir src/main/java/com/company/data --basePackageName com.company.data
+ * [--type ANDROID-JAVA] [--dateType JSR-310] [--injectionSupport] [--jsr305Support] [--includeDatabaseNameInPackage]
+ * [--sqlQueryBuilderSupport] [--rxJavaSupport] [--upsertSupport] [--javaEESupport] [--parallelism 4] [--incremental] [--schemaSnapshotDir build/dbtools] [--watch]
+ * [--profileReportDir build/reports/dbtools] [--profileTopEntities 10]
+ */
+public class DBToolsGen {
+
+    public static void main(String[] args) throws Exception {
+        String type = "JPA";
+        String schemaFilename = null;
+        String outputSrcDir = null;
+        String basePackageName = null;
+        String schemaSnapshotDir = null;
+        boolean watch = false;
+        GenConfig genConfig = new GenConfig();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--type":
+                    type = getValue(args, ++i);
+                    break;
+                case "--schema":
+                    schemaFilename = getValue(args, ++i);
+                    break;
+                case "--outputSrcDir":
+                    outputSrcDir = getValue(args, ++i);
+                    break;
+                case "--basePackageName":
+                    basePackageName = getValue(args, ++i);
+                    break;
+                case "--dateType":
+                    genConfig.setDateType(DateType.fromOptionName(getValue(args, ++i)));
+                    break;
+                case "--injectionSupport":
+                    genConfig.setInjectionSupport(true);
+                    break;
+                case "--jsr305Support":
+                    genConfig.setJsr305Support(true);
+                    break;
+                case "--includeDatabaseNameInPackage":
+                    genConfig.setIncludeDatabaseNameInPackage(true);
+                    break;
+                case "--sqlQueryBuilderSupport":
+                    genConfig.setSqlQueryBuilderSupport(true);
+                    break;
+                case "--rxJavaSupport":
+                    genConfig.setRxJavaSupport(true);
+                    break;
+                case "--upsertSupport":
+                    genConfig.setUpsertSupport(true);
+                    break;
+                case "--javaEESupport":
+                    genConfig.setJavaeeSupport(true);
+                    break;
+                case "--parallelism":
+                    genConfig.setParallelism(Integer.parseInt(getValue(args, ++i)));
+                    break;
+                case "--incremental":
+                    genConfig.setIncremental(true);
+                    break;
+                case "--schemaSnapshotDir":
+                    schemaSnapshotDir = getValue(args, ++i);
+                    break;
+                case "--watch":
+                    watch = true;
+                    break;
+                case "--profileReportDir":
+                    genConfig.setProfileReportDir(getValue(args, ++i));
+                    break;
+                case "--profileTopEntities":
+                    genConfig.setProfileTopEntities(Integer.parseInt(getValue(args, ++i)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option [" + args[i] + "]");
+            }
+        }
+
+        if (schemaFilename == null || outputSrcDir == null || basePackageName == null) {
+            throw new IllegalArgumentException("--schema, --outputSrcDir and --basePackageName are required");
+        }
+
+        if (watch) {
+            System.out.println("Watching [" + schemaFilename + "] (Ctrl-C to stop)...");
+            SchemaWatcher watcher = new SchemaWatcher(type, genConfig, new File(schemaFilename), outputSrcDir, basePackageName);
+            watcher.setSchemaSnapshotDir(schemaSnapshotDir);
+            watcher.watch();
+        } else {
+            DBObjectsBuilder builder = DBObjectsBuilder.createBuilder(type, genConfig);
+            builder.setXmlFilename(schemaFilename);
+            builder.setSchemaSnapshotDir(schemaSnapshotDir);
+            builder.setOutputBaseDir(outputSrcDir);
+            builder.setPackageBase(basePackageName);
+            boolean success = builder.build();
+
+            System.out.println("Generated [" + builder.getNumberFilesGenerated() + "] files (unchanged [" + builder.getNumberFilesUnchanged() + "] skipped [" + builder.getNumberFilesSkipped() + "]).");
+            if (!success) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static String getValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option [" + args[index - 1] + "]");
+        }
+
+        return args[index];
+    }
+}
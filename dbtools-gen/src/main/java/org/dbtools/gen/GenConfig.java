@@ -1,6 +1,14 @@
 package org.dbtools.gen;
 
-public class GenConfig {
+import org.dbtools.codegen.java.FileOutputSink;
+import org.dbtools.codegen.java.OutputSink;
+import org.dbtools.codegen.java.ReproducibleOutputSink;
+
+import java.io.Serializable;
+
+public class GenConfig implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private boolean injectionSupport = false;
     private boolean jsr305Support = false; // @Nullable / @Nonnull
     private DateType dateType = DateType.JAVA_DATE;
@@ -8,10 +16,39 @@ public class GenConfig {
     private boolean includeDatabaseNameInPackage = false;
     private boolean sqlQueryBuilderSupport = false; // when creating queries, use SQLBuilder (from dbtools-query)
     private boolean rxJavaSupport = false; // when creating queries, use SQLBuilder (from dbtools-query)
+    private boolean upsertSupport = false; // UPSERT_STATEMENT and upsert(...) methods (INSERT ... ON CONFLICT DO UPDATE requires SQLite 3.24+ / Android API 30+)
+    private int parallelism = 1; // number of threads used to generate tables/views/queries (1 = serial)
+    private boolean incremental = false; // only generate tables/views/queries that changed since the last generation (see GenManifest)
+    private String profileReportDir = null; // directory of the JSON timing reports (see GenProfiler)... null = no report
+    private int profileTopEntities = 0; // number of slowest tables/views/queries to print after generation (0 = none)
+    private boolean reproducible = false; // no timestamps, sorted imports and '\n' line endings (identical schemas generate identical files)
+    private transient OutputSink outputSink = null; // where generated sources are written (null = filesystem)
+    private transient volatile OutputSink resolvedOutputSink = null; // outputSink (wrapped if reproducible)... shared by all builders
 
     public GenConfig() {
     }
 
+    /**
+     * Copy of all options of genConfig (including the output sink)
+     */
+    public GenConfig(GenConfig genConfig) {
+        injectionSupport = genConfig.injectionSupport;
+        jsr305Support = genConfig.jsr305Support;
+        dateType = genConfig.dateType;
+        javaeeSupport = genConfig.javaeeSupport;
+        includeDatabaseNameInPackage = genConfig.includeDatabaseNameInPackage;
+        sqlQueryBuilderSupport = genConfig.sqlQueryBuilderSupport;
+        rxJavaSupport = genConfig.rxJavaSupport;
+        upsertSupport = genConfig.upsertSupport;
+        parallelism = genConfig.parallelism;
+        incremental = genConfig.incremental;
+        profileReportDir = genConfig.profileReportDir;
+        profileTopEntities = genConfig.profileTopEntities;
+        reproducible = genConfig.reproducible;
+        outputSink = genConfig.outputSink;
+        resolvedOutputSink = genConfig.resolvedOutputSink;
+    }
+
     public boolean isInjectionSupport() {
         return injectionSupport;
     }
@@ -60,6 +97,18 @@ public class GenConfig {
         this.rxJavaSupport = rxJavaSupport;
     }
 
+    public boolean isUpsertSupport() {
+        return upsertSupport;
+    }
+
+    /**
+     * Generate UPSERT_STATEMENT and the upsert(...) / upsertAll(...) manager methods.  INSERT ... ON CONFLICT DO UPDATE
+     * requires SQLite 3.24+ (Android API 30+)... only enable it if the app does not run on older versions.
+     */
+    public void setUpsertSupport(boolean upsertSupport) {
+        this.upsertSupport = upsertSupport;
+    }
+
     public boolean isSqlQueryBuilderSupport() {
         return sqlQueryBuilderSupport;
     }
@@ -67,4 +116,71 @@ public class GenConfig {
     public void setSqlQueryBuilderSupport(boolean sqlQueryBuilderSupport) {
         this.sqlQueryBuilderSupport = sqlQueryBuilderSupport;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public String getProfileReportDir() {
+        return profileReportDir;
+    }
+
+    public void setProfileReportDir(String profileReportDir) {
+        this.profileReportDir = profileReportDir;
+    }
+
+    public int getProfileTopEntities() {
+        return profileTopEntities;
+    }
+
+    public void setProfileTopEntities(int profileTopEntities) {
+        this.profileTopEntities = profileTopEntities;
+    }
+
+    public boolean isReproducible() {
+        return reproducible;
+    }
+
+    /**
+     * Generate files that only depend on the schema and options (no timestamps in file headers, sorted imports and
+     * '\n' line endings)... so generated files do not change between runs or machines
+     */
+    public void setReproducible(boolean reproducible) {
+        this.reproducible = reproducible;
+        resolvedOutputSink = createOutputSink();
+    }
+
+    public OutputSink getOutputSink() {
+        OutputSink sink = resolvedOutputSink;
+        if (sink == null) { // not set yet (or deserialized)
+            sink = createOutputSink();
+            resolvedOutputSink = sink;
+        }
+        return sink;
+    }
+
+    private OutputSink createOutputSink() {
+        OutputSink sink = outputSink != null ? outputSink : FileOutputSink.INSTANCE;
+        return reproducible ? new ReproducibleOutputSink(sink) : sink;
+    }
+
+    /**
+     * Write generated sources to outputSink instead of the filesystem (such as InMemoryOutputSink or ZipOutputSink)
+     */
+    public void setOutputSink(OutputSink outputSink) {
+        this.outputSink = outputSink;
+        resolvedOutputSink = createOutputSink();
+    }
 }
@@ -0,0 +1,126 @@
+package org.dbtools.gen;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Emits the GenProfiler timings as JFR events ("org.dbtools.gen.Phase" and "org.dbtools.gen.Entity") so they show up
+ * in a flight recording of the build.  The event types are created at runtime with jdk.jfr.EventFactory (by reflection)
+ * because the generator is still built for (and run on) Java 8... if jdk.jfr is not available, nothing is emitted.
+ */
+final class GenJfrEvents {
+    private static final GenJfrEvents INSTANCE = create();
+
+    private final Object phaseEventFactory;
+    private final Object entityEventFactory;
+    private final Method newEventMethod;
+    private final Method setMethod;
+    private final Method commitMethod;
+
+    private GenJfrEvents(Object phaseEventFactory, Object entityEventFactory, Method newEventMethod, Method setMethod, Method commitMethod) {
+        this.phaseEventFactory = phaseEventFactory;
+        this.entityEventFactory = entityEventFactory;
+        this.newEventMethod = newEventMethod;
+        this.setMethod = setMethod;
+        this.commitMethod = commitMethod;
+    }
+
+    static void phase(GenPhase phase, String entityName, long durationNanos) {
+        if (INSTANCE != null) {
+            INSTANCE.commit(INSTANCE.phaseEventFactory, phase.name(), entityName, durationNanos);
+        }
+    }
+
+    static void entity(GenProfiler.EntityProfile profile) {
+        if (INSTANCE != null) {
+            INSTANCE.commit(INSTANCE.entityEventFactory, profile.getName(), profile.getType(), profile.getTotalNanos(), profile.getAllocatedBytes(),
+                    profile.getBytesWritten(), profile.getNumberFilesWritten(), profile.getNumberFilesUnchanged());
+        }
+    }
+
+    private void commit(Object eventFactory, Object... values) {
+        try {
+            Object event = newEventMethod.invoke(eventFactory);
+            for (int i = 0; i < values.length; i++) {
+                setMethod.invoke(event, i, values[i]);
+            }
+            commitMethod.invoke(event);
+        } catch (Exception e) {
+            // profiling must never fail the generation
+        }
+    }
+
+    private static GenJfrEvents create() {
+        try {
+            Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+            Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            EventTypeFactory factory = new EventTypeFactory(eventFactoryClass);
+
+            // "duration" is reserved by JFR (the time between begin() and end()), so the measured time is "elapsed"
+            Object phaseEventFactory = factory.create("org.dbtools.gen.Phase", "DBTools Gen Phase", Arrays.asList(
+                    factory.field(String.class, "phase", null, null),
+                    factory.field(String.class, "entity", null, null),
+                    factory.field(long.class, "elapsed", "jdk.jfr.Timespan", "NANOSECONDS")));
+
+            Object entityEventFactory = factory.create("org.dbtools.gen.Entity", "DBTools Gen Entity", Arrays.asList(
+                    factory.field(String.class, "entity", null, null),
+                    factory.field(String.class, "type", null, null),
+                    factory.field(long.class, "elapsed", "jdk.jfr.Timespan", "NANOSECONDS"),
+                    factory.field(long.class, "allocated", "jdk.jfr.DataAmount", "BYTES"),
+                    factory.field(long.class, "bytesWritten", "jdk.jfr.DataAmount", "BYTES"),
+                    factory.field(int.class, "filesWritten", null, null),
+                    factory.field(int.class, "filesUnchanged", null, null)));
+
+            return new GenJfrEvents(phaseEventFactory, entityEventFactory,
+                    eventFactoryClass.getMethod("newEvent"),
+                    eventClass.getMethod("set", int.class, Object.class),
+                    eventClass.getMethod("commit"));
+        } catch (Exception e) {
+            return null; // Java 8 (or JFR is not available)
+        }
+    }
+
+    /**
+     * Creates jdk.jfr.AnnotationElement / ValueDescriptor / EventFactory instances
+     */
+    private static class EventTypeFactory {
+        private final Method createMethod;
+        private final Constructor<?> annotationConstructor;
+        private final Constructor<?> fieldConstructor;
+
+        EventTypeFactory(Class<?> eventFactoryClass) throws Exception {
+            Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+            Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+
+            createMethod = eventFactoryClass.getMethod("create", List.class, List.class);
+            annotationConstructor = annotationElementClass.getConstructor(Class.class, Object.class);
+            fieldConstructor = valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+        }
+
+        Object create(String name, String label, List<Object> fields) throws Exception {
+            List<Object> annotations = new ArrayList<>();
+            annotations.add(annotation("jdk.jfr.Name", name));
+            annotations.add(annotation("jdk.jfr.Label", label));
+            annotations.add(annotation("jdk.jfr.Category", new String[]{"DBTools"}));
+            return createMethod.invoke(null, annotations, fields);
+        }
+
+        Object field(Class<?> type, String name, String annotationClassName, String annotationValue) throws Exception {
+            List<Object> annotations = Collections.emptyList();
+            if (annotationClassName != null) {
+                annotations = Collections.singletonList(annotation(annotationClassName, annotationValue));
+            }
+            return fieldConstructor.newInstance(type, name, annotations);
+        }
+
+        private Object annotation(String annotationClassName, Object value) throws Exception {
+            Class<? extends Annotation> annotationClass = Class.forName(annotationClassName).asSubclass(Annotation.class);
+            return annotationConstructor.newInstance(annotationClass, value);
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package org.dbtools.gen;
+
+import org.dbtools.gen.android.kotlin.KotlinAndroidObjectsBuilder;
+import org.dbtools.schema.schemafile.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps track of a fingerprint (hash) for every generated table, view and query so that only entities that
+ * changed since the last generation (and the entities they are linked to by foreign keys) need to be regenerated.
+ * <p/>
+ * The manifest is stored in the output base directory.
+ */
+public class GenManifest {
+    public static final String MANIFEST_FILENAME = ".dbtools-gen-manifest";
+
+    /**
+     * Release version of the generator.  The manifest and the schema snapshots are keyed by getGeneratorFingerprint()
+     * (which also changes with the generator classes), so a generator that changes the generated output or the schema
+     * model always regenerates all entities, even if this value was not bumped.
+     */
+    public static final String GENERATOR_VERSION = "11.0.0";
+
+    // classes (java and kotlin class directories... the same jar when packaged) and resources that define the generated output
+    private static final Class<?>[] GENERATOR_CLASSES = {GenManifest.class, KotlinAndroidObjectsBuilder.class};
+    private static final String[] GENERATOR_RESOURCES = {"/org/dbtools/xml/dbmappings.xml"};
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File manifestFile;
+    private final Map<String, String> savedHashes = new TreeMap<>();
+    private final Map<String, String> currentHashes = new HashMap<>();
+    private final Set<String> updatedKeyPrefixes = new HashSet<>();
+
+    public GenManifest(String outputBaseDir) {
+        manifestFile = new File(outputBaseDir, MANIFEST_FILENAME);
+        read();
+    }
+
+    private void read() {
+        if (!manifestFile.exists()) {
+            return;
+        }
+
+        try (InputStream in = new FileInputStream(manifestFile)) {
+            loadHashes(in, savedHashes);
+        } catch (IOException e) {
+            System.out.println("WARNING: Could not read [" + manifestFile.getPath() + "] (all entities will be generated): " + e.getMessage());
+        }
+    }
+
+    private static void loadHashes(InputStream in, Map<String, String> hashes) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+
+        for (String key : properties.stringPropertyNames()) {
+            hashes.put(key, properties.getProperty(key));
+        }
+    }
+
+    /**
+     * Write the manifest.  Databases that were not updated by this manifest are re-read from the file (while the file is locked)
+     * so that multiple generators (such as Gradle workers, one per database) can share the same manifest.
+     */
+    public void write() {
+        manifestFile.getParentFile().mkdirs();
+        try (RandomAccessFile file = new RandomAccessFile(manifestFile, "rw");
+             FileChannel channel = file.getChannel();
+             FileLock ignored = lock(channel)) {
+            byte[] existingBytes = new byte[(int) file.length()];
+            file.readFully(existingBytes);
+
+            Map<String, String> mergedHashes = new TreeMap<>();
+            loadHashes(new ByteArrayInputStream(existingBytes), mergedHashes);
+            mergedHashes.keySet().removeAll(getKeysForUpdatedDatabases(mergedHashes.keySet()));
+            for (String key : getKeysForUpdatedDatabases(savedHashes.keySet())) {
+                mergedHashes.put(key, savedHashes.get(key));
+            }
+
+            StringBuilder content = new StringBuilder("# GENERATED FILE - DO NOT EDIT\n");
+            for (Map.Entry<String, String> entry : mergedHashes.entrySet()) {
+                content.append(entry.getKey()).append("=").append(entry.getValue()).append("\n");
+            }
+
+            file.setLength(0);
+            file.write(content.toString().getBytes(UTF8));
+        } catch (IOException e) {
+            System.out.println("WARNING: Could not write [" + manifestFile.getPath() + "]: " + e.getMessage());
+        }
+    }
+
+    private static FileLock lock(FileChannel channel) throws IOException {
+        while (true) {
+            try {
+                return channel.lock();
+            } catch (OverlappingFileLockException e) {
+                // locked by another generator in this JVM
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for manifest lock", ie);
+                }
+            }
+        }
+    }
+
+    private List<String> getKeysForUpdatedDatabases(Set<String> keys) {
+        List<String> updatedKeys = new ArrayList<>();
+        for (String key : keys) {
+            for (String keyPrefix : updatedKeyPrefixes) {
+                if (key.startsWith(keyPrefix)) {
+                    updatedKeys.add(key);
+                    break;
+                }
+            }
+        }
+
+        return updatedKeys;
+    }
+
+    /**
+     * Determine which entities need to be generated.  An entity is generated if its fingerprint changed (or is new) or if it is
+     * linked (by foreign key) to an entity whose fingerprint changed.
+     *
+     * @param database        Database that contains the entities
+     * @param entities        All tables, views and queries for the database
+     * @param packageBase     Package base that the entities will be generated into
+     * @param builderName     Name of the DBObjectBuilder that will generate the entities
+     * @param genConfig       Configuration used for generation
+     * @return entities that need to be generated (in the same order as entities)
+     */
+    public List<SchemaEntity> getEntitiesToGenerate(SchemaDatabase database, List<SchemaEntity> entities, String packageBase, String builderName, GenConfig genConfig) {
+        Map<String, List<SchemaTable>> referencingTablesByTable = createReferencingTablesIndex(database);
+        String configFingerprint = createConfigFingerprint(packageBase, builderName, genConfig);
+
+        Set<String> changedTableNames = new HashSet<>();
+        Set<SchemaEntity> changedEntities = new HashSet<>();
+        for (SchemaEntity entity : entities) {
+            String key = createKey(database, entity);
+            String hash = createFingerprint(database, entity, configFingerprint, referencingTablesByTable);
+            currentHashes.put(key, hash);
+
+            if (!hash.equals(savedHashes.get(key))) {
+                changedEntities.add(entity);
+                changedTableNames.add(entity.getName().toLowerCase());
+            }
+        }
+
+        List<SchemaEntity> entitiesToGenerate = new ArrayList<>();
+        for (SchemaEntity entity : entities) {
+            if (changedEntities.contains(entity) || isLinkedToChangedTable(entity, changedTableNames, referencingTablesByTable)) {
+                entitiesToGenerate.add(entity);
+            }
+        }
+
+        return entitiesToGenerate;
+    }
+
+    /**
+     * Record the current fingerprints for a database that was successfully generated
+     */
+    public void update(SchemaDatabase database, List<SchemaEntity> entities) {
+        // remove entities that no longer exist
+        String keyPrefix = database.getName(false) + "/";
+        updatedKeyPrefixes.add(keyPrefix);
+        Iterator<String> keyItr = savedHashes.keySet().iterator();
+        while (keyItr.hasNext()) {
+            if (keyItr.next().startsWith(keyPrefix)) {
+                keyItr.remove();
+            }
+        }
+
+        for (SchemaEntity entity : entities) {
+            String key = createKey(database, entity);
+            String hash = currentHashes.get(key);
+            if (hash != null) {
+                savedHashes.put(key, hash);
+            }
+        }
+    }
+
+    private boolean isLinkedToChangedTable(SchemaEntity entity, Set<String> changedTableNames, Map<String, List<SchemaTable>> referencingTablesByTable) {
+        if (changedTableNames.isEmpty()) {
+            return false;
+        }
+
+        // this entity references a changed table
+        for (SchemaField field : entity.getFields()) {
+            String fkTable = field.getForeignKeyTable();
+            if (fkTable != null && changedTableNames.contains(fkTable.toLowerCase())) {
+                return true;
+            }
+        }
+
+        // a changed table references this entity
+        List<SchemaTable> referencingTables = referencingTablesByTable.get(entity.getName().toLowerCase());
+        if (referencingTables != null && entity.getType() == SchemaEntityType.TABLE) {
+            for (SchemaTable referencingTable : referencingTables) {
+                if (changedTableNames.contains(referencingTable.getName().toLowerCase())) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static String createKey(SchemaDatabase database, SchemaEntity entity) {
+        return database.getName(false) + "/" + entity.getType() + "/" + entity.getName();
+    }
+
+    private static String createConfigFingerprint(String packageBase, String builderName, GenConfig genConfig) {
+        StringBuilder text = new StringBuilder();
+        text.append("version=").append(getGeneratorFingerprint()).append('\n');
+        text.append("builder=").append(builderName).append('\n');
+        text.append("packageBase=").append(packageBase).append('\n');
+        text.append("injectionSupport=").append(genConfig.isInjectionSupport()).append('\n');
+        text.append("jsr305Support=").append(genConfig.isJsr305Support()).append('\n');
+        text.append("dateType=").append(genConfig.getDateType()).append('\n');
+        text.append("javaeeSupport=").append(genConfig.isJavaeeSupport()).append('\n');
+        text.append("includeDatabaseNameInPackage=").append(genConfig.isIncludeDatabaseNameInPackage()).append('\n');
+        text.append("sqlQueryBuilderSupport=").append(genConfig.isSqlQueryBuilderSupport()).append('\n');
+        text.append("rxJavaSupport=").append(genConfig.isRxJavaSupport()).append('\n');
+        text.append("upsertSupport=").append(genConfig.isUpsertSupport()).append('\n');
+        text.append("reproducible=").append(genConfig.isReproducible()).append('\n');
+        return text.toString();
+    }
+
+    private static String createFingerprint(SchemaDatabase database, SchemaEntity entity, String configFingerprint, Map<String, List<SchemaTable>> referencingTablesByTable) {
+        StringBuilder text = new StringBuilder(configFingerprint);
+        text.append("database=").append(database.getName(false)).append('\n');
+        text.append("entity=").append(entity.getType()).append(',').append(entity.getName()).append(',').append(entity.getClassName())
+                .append(',').append(entity.isEnumerationTable()).append(',').append(entity.isReadonly()).append('\n');
+
+        if (entity instanceof SchemaTable) {
+            appendTable(text, (SchemaTable) entity);
+        }
+
+        for (SchemaField field : entity.getFields()) {
+            appendField(text, field);
+
+            // foreign key target
+            String fkTableName = field.getForeignKeyTable();
+            if (fkTableName != null && !fkTableName.isEmpty()) {
+                SchemaTable fkTable = database.getTable(fkTableName);
+                if (fkTable != null) {
+                    text.append("  fkTarget=").append(fkTable.getName()).append(',').append(fkTable.getClassName())
+                            .append(',').append(fkTable.isEnumerationTable()).append(',').append(fkTable.getEnumerations()).append('\n');
+                    for (SchemaTableField fkField : fkTable.getFields()) {
+                        if (fkField.isPrimaryKey() || fkField.getName().equalsIgnoreCase(field.getForeignKeyField())) {
+                            text.append("  ");
+                            appendField(text, fkField);
+                        }
+                    }
+                }
+            }
+        }
+
+        // tables that reference this entity
+        List<SchemaTable> referencingTables = referencingTablesByTable.get(entity.getName().toLowerCase());
+        if (referencingTables != null && entity.getType() == SchemaEntityType.TABLE) {
+            for (SchemaTable referencingTable : referencingTables) {
+                text.append("referencedBy=").append(referencingTable.getName()).append(',').append(referencingTable.getClassName()).append('\n');
+                for (SchemaTableField referencingField : referencingTable.getForeignKeyFields(entity.getName())) {
+                    text.append("  ");
+                    appendField(text, referencingField);
+                }
+            }
+        }
+
+        return sha256(text.toString());
+    }
+
+    private static void appendTable(StringBuilder text, SchemaTable table) {
+        text.append("enumerations=").append(table.getEnumerations()).append('\n');
+
+        for (SchemaTableIndex index : table.getIndexDeclarations()) {
+            text.append("index=");
+            if (index.getIndexFields() != null) {
+                for (SchemaIndexField indexField : index.getIndexFields()) {
+                    text.append(indexField.getName()).append(',');
+                }
+            }
+            text.append('\n');
+        }
+
+        for (SchemaTableUnique unique : table.getUniqueDeclarations()) {
+            text.append("unique=").append(unique.getSqliteOnConflict()).append(',').append(unique.isUpsertKey()).append(',');
+            if (unique.getUniqueFields() != null) {
+                for (SchemaUniqueField uniqueField : unique.getUniqueFields()) {
+                    text.append(uniqueField.getName()).append(',');
+                }
+            }
+            text.append('\n');
+        }
+
+        for (SchemaTableParameter parameter : table.getTableParameters()) {
+            text.append("parameter=").append(parameter.getDb()).append(',').append(parameter.getName()).append(',').append(parameter.getValue()).append('\n');
+        }
+
+        for (SchemaTableProjection projection : table.getProjections()) {
+            text.append("projection=").append(projection.getName()).append(',').append(projection.getFields()).append('\n');
+        }
+    }
+
+    private static void appendField(StringBuilder text, SchemaField field) {
+        text.append("field=").append(field.getName())
+                .append(',').append(field.getJdbcDataType())
+                .append(',').append(field.getVarName())
+                .append(',').append(field.getSize())
+                .append(',').append(field.getDecimals())
+                .append(',').append(field.isNotNull())
+                .append(',').append(field.getDefaultValue())
+                .append(',').append(field.isPrimaryKey())
+                .append(',').append(field.getForeignKeyTable())
+                .append(',').append(field.getForeignKeyField())
+                .append(',').append(field.getForeignKeyType())
+                .append(',').append(field.getForeignKeyFetchType())
+                .append(',').append(field.getEnumerationClass())
+                .append(',').append(field.getEnumerationDefault())
+                .append(',').append(field.getSqliteCollate())
+                .append(',').append(field.isIncrement())
+                .append(',').append(field.isUnique())
+                .append(',').append(field.getSequencerName())
+                .append(',').append(field.getForeignKeyCascadeType())
+                .append(',').append(field.getEnumValues());
+
+        if (field instanceof SchemaTableField) {
+            SchemaTableField tableField = (SchemaTableField) field;
+            text.append(',').append(tableField.isIndex())
+                    .append(',').append(tableField.getIncrementInitialValue())
+                    .append(',').append(tableField.getSequencerStartValue())
+                    .append(',').append(tableField.getForeignKeyOrderByColumn())
+                    .append(',').append(tableField.isLastModifiedField());
+        }
+
+        text.append('\n');
+    }
+
+    /**
+     * Map of (lowercase) table name to all tables that have a foreign key to that table
+     */
+    private static Map<String, List<SchemaTable>> createReferencingTablesIndex(SchemaDatabase database) {
+        Map<String, List<SchemaTable>> index = new HashMap<>();
+        for (SchemaTable table : database.getTables()) {
+            Set<String> referencedTableNames = new HashSet<>();
+            for (SchemaTableField field : table.getForeignKeyFields()) {
+                referencedTableNames.add(field.getForeignKeyTable().toLowerCase());
+            }
+
+            for (String referencedTableName : referencedTableNames) {
+                List<SchemaTable> tables = index.get(referencedTableName);
+                if (tables == null) {
+                    tables = new ArrayList<>();
+                    index.put(referencedTableName, tables);
+                }
+                tables.add(table);
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * GENERATOR_VERSION and a hash of the generator classes and resources (computed once per classloader)
+     */
+    public static String getGeneratorFingerprint() {
+        return GeneratorFingerprintHolder.FINGERPRINT;
+    }
+
+    private static final class GeneratorFingerprintHolder {
+        static final String FINGERPRINT = createGeneratorFingerprint();
+    }
+
+    private static String createGeneratorFingerprint() {
+        MessageDigest digest = createSha256Digest();
+        try {
+            Set<File> locations = new LinkedHashSet<>();
+            for (Class<?> generatorClass : GENERATOR_CLASSES) {
+                locations.add(getCodeSourceLocation(generatorClass));
+            }
+            for (File location : locations) {
+                updateDigest(digest, location);
+            }
+
+            for (String resource : GENERATOR_RESOURCES) {
+                try (InputStream in = GenManifest.class.getResourceAsStream(resource)) {
+                    if (in == null) {
+                        throw new IOException("Missing resource [" + resource + "]");
+                    }
+                    updateDigest(digest, in);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("WARNING: Could not fingerprint the generator classes (only GENERATOR_VERSION will be used): " + e.getMessage());
+            return GENERATOR_VERSION;
+        }
+
+        return GENERATOR_VERSION + "-" + toHex(digest.digest());
+    }
+
+    private static File getCodeSourceLocation(Class<?> generatorClass) throws IOException {
+        CodeSource codeSource = generatorClass.getProtectionDomain().getCodeSource();
+        URL location = codeSource != null ? codeSource.getLocation() : null;
+        if (location == null || !"file".equals(location.getProtocol())) {
+            throw new IOException("Unknown location of [" + generatorClass.getName() + "]");
+        }
+
+        try {
+            return new File(location.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid location [" + location + "] of [" + generatorClass.getName() + "]", e);
+        }
+    }
+
+    /**
+     * Add the content of a jar file or of all files of a class directory (in path order) to the digest
+     */
+    static void updateDigest(MessageDigest digest, File location) throws IOException {
+        if (!location.isDirectory()) {
+            try (InputStream in = new FileInputStream(location)) {
+                updateDigest(digest, in);
+            }
+            return;
+        }
+
+        List<String> relativePaths = new ArrayList<>();
+        collectRelativePaths(location, "", relativePaths);
+        Collections.sort(relativePaths);
+        for (String relativePath : relativePaths) {
+            digest.update(relativePath.getBytes(UTF8));
+            try (InputStream in = new FileInputStream(new File(location, relativePath))) {
+                updateDigest(digest, in);
+            }
+        }
+    }
+
+    private static void collectRelativePaths(File directory, String prefix, List<String> relativePaths) throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            throw new IOException("Could not list [" + directory.getPath() + "]");
+        }
+
+        for (File file : files) {
+            if (file.isDirectory()) {
+                collectRelativePaths(file, prefix + file.getName() + "/", relativePaths);
+            } else {
+                relativePaths.add(prefix + file.getName());
+            }
+        }
+    }
+
+    private static void updateDigest(MessageDigest digest, InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, count);
+        }
+    }
+
+    static MessageDigest createSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported", e);
+        }
+    }
+
+    static String toHex(byte[] hash) {
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static String sha256(String text) {
+        return toHex(createSha256Digest().digest(text.getBytes(UTF8)));
+    }
+}
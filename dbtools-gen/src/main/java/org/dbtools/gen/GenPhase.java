@@ -0,0 +1,26 @@
+package org.dbtools.gen;
+
+/**
+ * Generator phases timed by GenProfiler
+ */
+public enum GenPhase {
+    MAPPING_LOAD("mapping load"), // dbmappings.xml (only the first lookup reads the file)
+    XML_PARSE("xml parse"), // schema.xml (or schema snapshot) including the schema validation done while parsing
+    VALIDATE("validate"),
+    RESOLVE("resolve"),
+    CREATE_ORDER("create order"),
+    RENDER_RECORD("record"), // BaseRecord + Record (Entity for Room)
+    RENDER_BASE_MANAGER("base manager"), // BaseManager (Dao for Room)
+    RENDER_MANAGER("manager"),
+    FILE_WRITE("write"); // source files are streamed to disk, so this also includes emitting the source text
+
+    private final String label;
+
+    GenPhase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,360 @@
+package org.dbtools.gen;
+
+import org.dbtools.codegen.java.FileOutputSink;
+import org.dbtools.codegen.java.OutputSink;
+import org.dbtools.schema.schemafile.SchemaEntity;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time spent (and memory allocated) in each generator phase (see GenPhase) and by each table/view/query.  Results are
+ * emitted as JFR events, and can be written to a JSON report (GenConfig.profileReportDir) or printed as a summary of the
+ * slowest tables/views/queries (GenConfig.profileTopEntities).
+ * <p/>
+ * Renderers record their phases with recordPhase(...), which is attributed to the table/view/query being generated on
+ * the current thread (ignored if no table/view/query is being profiled).
+ */
+public class GenProfiler {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final ThreadLocal<EntityProfile> CURRENT_ENTITY = new ThreadLocal<>();
+
+    private final String builderName;
+    private final OutputSink outputSink;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(GenPhase.values().length);
+    private final List<EntityProfile> entityProfiles = new ArrayList<>();
+
+    public GenProfiler(String builderName) {
+        this(builderName, FileOutputSink.INSTANCE);
+    }
+
+    /**
+     * @param outputSink sink the generated files are written to (used to measure bytes written)
+     */
+    public GenProfiler(String builderName, OutputSink outputSink) {
+        this.builderName = builderName;
+        this.outputSink = outputSink;
+    }
+
+    /**
+     * Record the time since startNanos for a phase of the table/view/query being generated on this thread
+     *
+     * @return current System.nanoTime() (start of the next phase)
+     */
+    public static long recordPhase(GenPhase phase, long startNanos) {
+        long now = System.nanoTime();
+        EntityProfile profile = CURRENT_ENTITY.get();
+        if (profile != null) {
+            profile.phaseNanos[phase.ordinal()] += now - startNanos;
+            GenJfrEvents.phase(phase, profile.getName(), now - startNanos);
+        }
+        return now;
+    }
+
+    /**
+     * Record the time since startNanos for a phase that is not specific to a table/view/query
+     *
+     * @return current System.nanoTime() (start of the next phase)
+     */
+    public long addPhase(GenPhase phase, long startNanos) {
+        long now = System.nanoTime();
+        phaseNanos.addAndGet(phase.ordinal(), now - startNanos);
+        GenJfrEvents.phase(phase, null, now - startNanos);
+        return now;
+    }
+
+    /**
+     * Create the profile for entity.  Profiles are reported in the order they are created (call start()/stop() on the
+     * thread that generates the entity)
+     */
+    public synchronized EntityProfile createEntityProfile(SchemaEntity entity) {
+        EntityProfile profile = new EntityProfile(entity.getName(), entity.getType().name(), outputSink);
+        entityProfiles.add(profile);
+        return profile;
+    }
+
+    public synchronized List<EntityProfile> getEntityProfiles() {
+        return new ArrayList<>(entityProfiles);
+    }
+
+    /**
+     * @return total time of phase (all tables/views/queries included)
+     */
+    public long getPhaseNanos(GenPhase phase) {
+        long nanos = phaseNanos.get(phase.ordinal());
+        for (EntityProfile profile : getEntityProfiles()) {
+            nanos += profile.getPhaseNanos(phase);
+        }
+        return nanos;
+    }
+
+    /**
+     * @return tables/views/queries that took the longest to generate (slowest first)
+     */
+    public List<EntityProfile> getSlowestEntities(int count) {
+        List<EntityProfile> profiles = getEntityProfiles();
+        Collections.sort(profiles, new Comparator<EntityProfile>() {
+            @Override
+            public int compare(EntityProfile profile1, EntityProfile profile2) {
+                return Long.compare(profile2.getTotalNanos(), profile1.getTotalNanos());
+            }
+        });
+        return profiles.subList(0, Math.min(count, profiles.size()));
+    }
+
+    public void printSlowestEntities(PrintStream out, int count) {
+        List<EntityProfile> slowestEntities = getSlowestEntities(count);
+        if (slowestEntities.isEmpty()) {
+            return;
+        }
+
+        out.println("Slowest [" + slowestEntities.size() + "] tables/views/queries:");
+        for (EntityProfile profile : slowestEntities) {
+            StringBuilder phases = new StringBuilder();
+            for (GenPhase phase : GenPhase.values()) {
+                if (profile.getPhaseNanos(phase) > 0) {
+                    phases.append(phases.length() > 0 ? ", " : "").append(phase.getLabel()).append(' ').append(formatMillis(profile.getPhaseNanos(phase)));
+                }
+            }
+
+            out.println("    " + profile.getType() + " " + profile.getName() + ": " + formatMillis(profile.getTotalNanos())
+                    + " (" + phases + ")"
+                    + (profile.getAllocatedBytes() >= 0 ? " allocated [" + profile.getAllocatedBytes() / 1024 + " KB]" : "")
+                    + " written [" + profile.getBytesWritten() + " bytes]");
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.US, "%.1f ms", nanos / 1000000.0);
+    }
+
+    public void writeReport(File reportFile) {
+        File reportDir = reportFile.getParentFile();
+        if (reportDir != null && !reportDir.exists()) {
+            reportDir.mkdirs();
+        }
+
+        try {
+            Files.write(reportFile.toPath(), toJson().getBytes(UTF8));
+        } catch (IOException e) {
+            System.out.println("WARNING: Failed to write profile report [" + reportFile.getPath() + "] Error: [" + e.getMessage() + "]");
+        }
+    }
+
+    String toJson() {
+        List<EntityProfile> profiles = getEntityProfiles();
+        int numberFilesWritten = 0;
+        int numberFilesUnchanged = 0;
+        int numberFilesSkipped = 0;
+        long bytesWritten = 0;
+        for (EntityProfile profile : profiles) {
+            numberFilesWritten += profile.getNumberFilesWritten();
+            numberFilesUnchanged += profile.getNumberFilesUnchanged();
+            numberFilesSkipped += profile.getNumberFilesSkipped();
+            bytesWritten += profile.getBytesWritten();
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"generatorVersion\": ").append(quote(GenManifest.GENERATOR_VERSION)).append(",\n");
+        json.append("  \"builder\": ").append(quote(builderName)).append(",\n");
+        json.append("  \"totalNanos\": ").append(System.nanoTime() - startNanos).append(",\n");
+        json.append("  \"filesWritten\": ").append(numberFilesWritten).append(",\n");
+        json.append("  \"filesUnchanged\": ").append(numberFilesUnchanged).append(",\n");
+        json.append("  \"filesSkipped\": ").append(numberFilesSkipped).append(",\n");
+        json.append("  \"bytesWritten\": ").append(bytesWritten).append(",\n");
+        long[] totalPhaseNanos = new long[GenPhase.values().length];
+        for (GenPhase phase : GenPhase.values()) {
+            totalPhaseNanos[phase.ordinal()] = getPhaseNanos(phase);
+        }
+        json.append("  \"phaseNanos\": ");
+        appendPhases(json, totalPhaseNanos, true);
+        json.append(",\n");
+        json.append("  \"entities\": [");
+        for (int i = 0; i < profiles.size(); i++) {
+            EntityProfile profile = profiles.get(i);
+            json.append(i > 0 ? ",\n" : "\n");
+            json.append("    {\"name\": ").append(quote(profile.getName()));
+            json.append(", \"type\": ").append(quote(profile.getType()));
+            json.append(", \"totalNanos\": ").append(profile.getTotalNanos());
+            json.append(", \"allocatedBytes\": ").append(profile.getAllocatedBytes());
+            json.append(", \"bytesWritten\": ").append(profile.getBytesWritten());
+            json.append(", \"filesWritten\": ").append(profile.getNumberFilesWritten());
+            json.append(", \"filesUnchanged\": ").append(profile.getNumberFilesUnchanged());
+            json.append(", \"filesSkipped\": ").append(profile.getNumberFilesSkipped());
+            json.append(", \"phaseNanos\": ");
+            appendPhases(json, profile.phaseNanos, false);
+            json.append('}');
+        }
+        json.append(profiles.isEmpty() ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    private static void appendPhases(StringBuilder json, long[] phaseNanos, boolean includeEmptyPhases) {
+        json.append('{');
+        boolean first = true;
+        for (GenPhase phase : GenPhase.values()) {
+            long nanos = phaseNanos[phase.ordinal()];
+            if (nanos > 0 || includeEmptyPhases) {
+                json.append(first ? "" : ", ").append(quote(phase.name())).append(": ").append(nanos);
+                first = false;
+            }
+        }
+        json.append('}');
+    }
+
+    private static String quote(String text) {
+        if (text == null) {
+            return "null";
+        }
+
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far (-1 if the JVM does not support it)
+     */
+    private static long getCurrentThreadAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Time, memory and files of a single table/view/query
+     */
+    public static class EntityProfile {
+        private final String name;
+        private final String type;
+        private final OutputSink outputSink;
+        private final long[] phaseNanos = new long[GenPhase.values().length];
+        private long startNanos;
+        private long startAllocatedBytes;
+        private long totalNanos;
+        private long allocatedBytes = -1;
+        private int numberFilesWritten;
+        private int numberFilesUnchanged;
+        private int numberFilesSkipped;
+        private long bytesWritten;
+
+        EntityProfile(String name, String type, OutputSink outputSink) {
+            this.name = name;
+            this.type = type;
+            this.outputSink = outputSink;
+        }
+
+        /**
+         * Start profiling on the current thread (recordPhase(...) on this thread is attributed to this entity)
+         */
+        public void start() {
+            CURRENT_ENTITY.set(this);
+            startAllocatedBytes = getCurrentThreadAllocatedBytes();
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Stop profiling (must be called on the same thread as start())
+         *
+         * @param filesWritten files written for this entity
+         */
+        public void stop(List<String> filesWritten, int numberFilesUnchanged, int numberFilesSkipped) {
+            totalNanos = System.nanoTime() - startNanos;
+            long endAllocatedBytes = getCurrentThreadAllocatedBytes();
+            allocatedBytes = startAllocatedBytes >= 0 && endAllocatedBytes >= 0 ? endAllocatedBytes - startAllocatedBytes : -1;
+            CURRENT_ENTITY.remove();
+
+            this.numberFilesWritten = filesWritten.size();
+            this.numberFilesUnchanged = numberFilesUnchanged;
+            this.numberFilesSkipped = numberFilesSkipped;
+            for (String filename : filesWritten) {
+                bytesWritten += outputSink.getSize(new File(filename));
+            }
+
+            GenJfrEvents.entity(this);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getPhaseNanos(GenPhase phase) {
+            return phaseNanos[phase.ordinal()];
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return bytes allocated while generating this entity (-1 if the JVM does not support measuring allocations)
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public int getNumberFilesWritten() {
+            return numberFilesWritten;
+        }
+
+        public int getNumberFilesUnchanged() {
+            return numberFilesUnchanged;
+        }
+
+        public int getNumberFilesSkipped() {
+            return numberFilesSkipped;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+    }
+}
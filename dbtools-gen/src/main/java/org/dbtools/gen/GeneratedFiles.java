@@ -0,0 +1,47 @@
+package org.dbtools.gen;
+
+import org.dbtools.codegen.java.WriteResult;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps track of the files a DBObjectBuilder wrote, left unchanged (same content) or skipped (not overwritten)
+ */
+public class GeneratedFiles {
+    private final List<String> filesWritten = new ArrayList<>();
+    private int numberFilesUnchanged = 0;
+    private int numberFilesSkipped = 0;
+
+    public void add(File file, WriteResult result) {
+        switch (result) {
+            case WRITTEN:
+                filesWritten.add(file.getPath());
+                break;
+            case UNCHANGED:
+                numberFilesUnchanged++;
+                break;
+            case SKIPPED:
+                numberFilesSkipped++;
+                break;
+        }
+    }
+
+    public List<String> getFilesWritten() {
+        return Collections.unmodifiableList(filesWritten);
+    }
+
+    public int getNumberFilesWritten() {
+        return filesWritten.size();
+    }
+
+    public int getNumberFilesUnchanged() {
+        return numberFilesUnchanged;
+    }
+
+    public int getNumberFilesSkipped() {
+        return numberFilesSkipped;
+    }
+}
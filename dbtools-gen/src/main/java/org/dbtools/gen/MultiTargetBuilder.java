@@ -0,0 +1,222 @@
+package org.dbtools.gen;
+
+import org.dbtools.renderer.SchemaRenderer;
+import org.dbtools.schema.schemafile.DatabaseSchema;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generate multiple targets (DBObjectsBuilder types and SchemaRenderer vendors) from one schema xml file.  The schema is
+ * read (or loaded from its snapshot) and resolved once and then shared (read only) by all targets, which run concurrently.
+ * Each target writes to its own output directory (or file).
+ * <pre>
+ * MultiTargetBuilder builder = new MultiTargetBuilder("src/main/database/schema.xml");
+ * builder.addObjectsTarget("JPA", "com.company.data", "server/src/main/java/com/company/data", serverGenConfig);
+ * builder.addObjectsTarget("ANDROID-KOTLIN-ROOM", "com.company.data", "app/src/main/java/com/company/data", appGenConfig);
+ * builder.addSchemaTarget("postgresql", "build/sql/schema-postgresql.sql");
+ * builder.addSchemaTarget("sqlite", "build/sql/schema-sqlite.sql");
+ * builder.build();
+ * </pre>
+ */
+public class MultiTargetBuilder {
+    private final String xmlFilename;
+    private String schemaSnapshotDir;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private final List<Target> targets = new ArrayList<>();
+    private final Set<String> outputPaths = new HashSet<>();
+    private DatabaseSchema databaseSchema;
+
+    public MultiTargetBuilder(String xmlFilename) {
+        this.xmlFilename = xmlFilename;
+    }
+
+    /**
+     * Generate the ORM classes
+     *
+     * @param type builder type (ANDROID-JAVA, ANDROID-KOTLIN, ANDROID-KOTLIN-ROOM, JPA... see DBObjectsBuilder.createBuilder())
+     */
+    public DBObjectsBuilder addObjectsTarget(String type, String packageBase, String outputBaseDir, GenConfig genConfig) {
+        checkOutputPath(outputBaseDir);
+
+        DBObjectsBuilder builder = DBObjectsBuilder.createBuilder(type, genConfig);
+        builder.setPackageBase(packageBase);
+        builder.setOutputBaseDir(outputBaseDir);
+        builder.setGenConfig(genConfig);
+
+        targets.add(new ObjectsTarget(type, builder));
+        return builder;
+    }
+
+    /**
+     * Generate the sql schema file
+     *
+     * @param vendor SchemaRenderer name (see SchemaRenderer.getRendererNames())
+     */
+    public SchemaRenderer addSchemaTarget(String vendor, String outputFile) {
+        checkOutputPath(outputFile);
+
+        SchemaRenderer renderer = SchemaRenderer.getRenderer(vendor);
+        if (renderer == null) {
+            throw new IllegalArgumentException("Unknown schema renderer [" + vendor + "] (valid renderers: " + SchemaRenderer.getRendererNames() + ")");
+        }
+        renderer.setDbVendorName(vendor);
+        renderer.setOutputFile(outputFile);
+
+        targets.add(new SchemaTarget(vendor, renderer));
+        return renderer;
+    }
+
+    private void checkOutputPath(String path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("No output specified");
+        }
+
+        if (!outputPaths.add(new File(path).getAbsoluteFile().toURI().normalize().getPath())) {
+            throw new IllegalArgumentException("Output [" + path + "] is already used by another target");
+        }
+    }
+
+    /**
+     * Read and resolve the schema (once) and run all targets
+     *
+     * @return true if all targets succeeded
+     */
+    public boolean build() {
+        if (targets.isEmpty()) {
+            throw new IllegalStateException("No targets specified");
+        }
+
+        final DatabaseSchema schema = getDatabaseSchema();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, targets.size())));
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(targets.size());
+            for (final Target target : targets) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        return target.build(schema);
+                    }
+                }));
+            }
+
+            boolean success = true;
+            for (int i = 0; i < results.size(); i++) {
+                Target target = targets.get(i);
+                try {
+                    if (!results.get(i).get()) {
+                        System.out.println("ERROR: Failed to generate [" + target.name + "]");
+                        success = false;
+                    }
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Failed to generate [" + target.name + "]", e.getCause());
+                }
+            }
+            return success;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating [" + xmlFilename + "]", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return schema shared by all targets (the schema is read and resolved on first use)
+     */
+    public DatabaseSchema getDatabaseSchema() {
+        if (databaseSchema == null) {
+            File xmlFile = new File(xmlFilename);
+            DBToolsFiles.copyXsdFileToSchemaDir(xmlFile.getParent());
+
+            DatabaseSchema schema;
+            if (schemaSnapshotDir != null && !schemaSnapshotDir.isEmpty()) {
+                schema = SchemaSnapshot.readXMLSchema(xmlFile, new File(schemaSnapshotDir));
+            } else {
+                schema = DatabaseSchema.readXMLSchema(xmlFile.getPath());
+            }
+
+            // resolve before the targets share the schema between threads
+            schema.resolve();
+            databaseSchema = schema;
+        }
+
+        return databaseSchema;
+    }
+
+    public String getXmlFilename() {
+        return xmlFilename;
+    }
+
+    public String getSchemaSnapshotDir() {
+        return schemaSnapshotDir;
+    }
+
+    /**
+     * Directory used to store a binary snapshot of the parsed schema (see SchemaSnapshot)
+     */
+    public void setSchemaSnapshotDir(String schemaSnapshotDir) {
+        this.schemaSnapshotDir = schemaSnapshotDir;
+        databaseSchema = null;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Number of targets generated at the same time (defaults to the number of processors)
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    private abstract static class Target {
+        final String name;
+
+        Target(String name) {
+            this.name = name;
+        }
+
+        abstract boolean build(DatabaseSchema schema);
+    }
+
+    private static class ObjectsTarget extends Target {
+        private final DBObjectsBuilder builder;
+
+        ObjectsTarget(String type, DBObjectsBuilder builder) {
+            super(type);
+            this.builder = builder;
+        }
+
+        @Override
+        boolean build(DatabaseSchema schema) {
+            builder.setDatabaseSchema(schema);
+            return builder.build();
+        }
+    }
+
+    private static class SchemaTarget extends Target {
+        private final SchemaRenderer renderer;
+
+        SchemaTarget(String vendor, SchemaRenderer renderer) {
+            super("SQL-" + vendor);
+            this.renderer = renderer;
+        }
+
+        @Override
+        boolean build(DatabaseSchema schema) {
+            renderer.setDbSchema(schema);
+            return renderer.executeRenderer();
+        }
+    }
+}
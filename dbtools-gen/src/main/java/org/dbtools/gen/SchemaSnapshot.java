@@ -0,0 +1,103 @@
+package org.dbtools.gen;
+
+import org.dbtools.schema.schemafile.DatabaseSchema;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+
+/**
+ * Binary snapshot of a parsed and validated DatabaseSchema.  The snapshot is keyed by a hash of the schema xml file
+ * (and the generator fingerprint) so an unchanged schema file is loaded from the snapshot instead of being parsed and validated again.
+ * <p/>
+ * The snapshot uses java serialization... if the schema model classes change, the snapshot will fail to load and the
+ * schema xml file will be parsed again.
+ */
+public class SchemaSnapshot {
+    public static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private SchemaSnapshot() {
+    }
+
+    /**
+     * Read the schema from the snapshot in snapshotDir (if the schema xml file has not changed) or from the schema xml file
+     * (and then save a new snapshot)
+     */
+    public static DatabaseSchema readXMLSchema(File xmlFile, File snapshotDir) {
+        File snapshotFile = new File(snapshotDir, xmlFile.getName() + SNAPSHOT_EXTENSION);
+
+        String hash;
+        try {
+            hash = createHash(xmlFile);
+        } catch (IOException e) {
+            // let the xml parser report the problem
+            return DatabaseSchema.readXMLSchema(xmlFile.getPath());
+        }
+
+        DatabaseSchema schema = read(snapshotFile, hash);
+        if (schema == null) {
+            schema = DatabaseSchema.readXMLSchema(xmlFile.getPath());
+            write(snapshotFile, hash, schema);
+        }
+
+        return schema;
+    }
+
+    private static DatabaseSchema read(File snapshotFile, String hash) {
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            if (!hash.equals(in.readUTF())) {
+                return null;
+            }
+
+            return (DatabaseSchema) in.readObject();
+        } catch (Exception e) {
+            System.out.println("WARNING: Could not read schema snapshot [" + snapshotFile.getPath() + "] (schema will be parsed): " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void write(File snapshotFile, String hash, DatabaseSchema schema) {
+        File snapshotDir = snapshotFile.getParentFile();
+        snapshotDir.mkdirs();
+
+        try {
+            // write to a temp file first (multiple generators may write the same snapshot at the same time)
+            File tempFile = File.createTempFile(snapshotFile.getName(), ".tmp", snapshotDir);
+            try {
+                try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                    out.writeUTF(hash);
+                    out.writeObject(schema);
+                }
+
+                Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                tempFile.delete();
+            }
+        } catch (IOException e) {
+            System.out.println("WARNING: Could not write schema snapshot [" + snapshotFile.getPath() + "]: " + e.getMessage());
+        }
+    }
+
+    private static String createHash(File xmlFile) throws IOException {
+        // the generator fingerprint changes with the schema model classes
+        MessageDigest digest = GenManifest.createSha256Digest();
+        digest.update(GenManifest.getGeneratorFingerprint().getBytes(UTF8));
+        digest.update(Files.readAllBytes(xmlFile.toPath()));
+        return GenManifest.toHex(digest.digest());
+    }
+}
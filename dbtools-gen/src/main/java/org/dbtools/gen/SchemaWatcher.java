@@ -0,0 +1,154 @@
+package org.dbtools.gen;
+
+import org.dbtools.schema.schemafile.PostSQLScriptFile;
+import org.dbtools.schema.schemafile.SchemaDatabase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the schema file (and its postSQLScriptFile files) and regenerates when they change.
+ * <p/>
+ * Generation is incremental (see GenManifest): after each change only the tables/views/queries whose fingerprint changed
+ * (plus the entities they are linked to by foreign key) and the database level files (DatabaseManagersHolder,
+ * DatabaseBaseManager, etc) are rendered.
+ * <p/>
+ * This blocks the calling thread, so it is only used by the command line (--watch).  Gradle builds should use continuous
+ * build instead (gradle -t dbtools-genclasses).
+ */
+public class SchemaWatcher {
+    private static final long DEBOUNCE_MS = 200; // editors may write a file more than once per save
+
+    private final String type;
+    private final GenConfig genConfig;
+    private final File schemaFile;
+    private final String outputBaseDir;
+    private final String packageBase;
+    private String schemaSnapshotDir = null;
+
+    private Set<Path> watchedFiles = new HashSet<>();
+
+    /**
+     * @param type builder type (see DBObjectsBuilder.createBuilder(...))
+     * @param genConfig options of the generated files (not changed... the watcher generates with an incremental copy)
+     */
+    public SchemaWatcher(String type, GenConfig genConfig, File schemaFile, String outputBaseDir, String packageBase) {
+        this.type = type;
+        this.genConfig = new GenConfig(genConfig);
+        this.schemaFile = schemaFile.getAbsoluteFile();
+        this.outputBaseDir = outputBaseDir;
+        this.packageBase = packageBase;
+
+        this.genConfig.setIncremental(true);
+    }
+
+    /**
+     * Directory of the parsed schema snapshot (see SchemaSnapshot)... null = parse the schema file on every change
+     */
+    public void setSchemaSnapshotDir(String schemaSnapshotDir) {
+        this.schemaSnapshotDir = schemaSnapshotDir;
+    }
+
+    /**
+     * Generate, then regenerate on every change until the current thread is interrupted
+     */
+    public void watch() throws IOException, InterruptedException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            DBObjectsBuilder builder = generate();
+            register(watchService, builder);
+
+            while (true) {
+                WatchKey key = watchService.take();
+
+                boolean changed = false;
+                while (key != null) {
+                    Path dir = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW || watchedFiles.contains(dir.resolve((Path) event.context()))) {
+                            changed = true;
+                        }
+                    }
+                    key.reset();
+
+                    key = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+                }
+
+                if (changed) {
+                    System.out.println("Schema changed... regenerating");
+                    builder = generate();
+                    register(watchService, builder); // postSQLScriptFile list may have changed
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the builder that generated the files (null if the schema file could not be read)
+     */
+    private DBObjectsBuilder generate() {
+        try {
+            DBObjectsBuilder builder = DBObjectsBuilder.createBuilder(type, genConfig);
+            builder.setXmlFilename(schemaFile.getPath());
+            builder.setSchemaSnapshotDir(schemaSnapshotDir);
+            builder.setOutputBaseDir(outputBaseDir);
+            builder.setPackageBase(packageBase);
+            builder.build();
+
+            System.out.println("Generated [" + builder.getNumberFilesGenerated() + "] files (unchanged [" + builder.getNumberFilesUnchanged() + "] skipped [" + builder.getNumberFilesSkipped() + "]).");
+            return builder;
+        } catch (Exception e) {
+            // keep watching... the file may be in the middle of being edited
+            System.out.println("Generation failed (waiting for the next change): " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void register(WatchService watchService, DBObjectsBuilder builder) throws IOException {
+        Set<Path> files = new HashSet<>();
+        files.add(schemaFile.toPath());
+
+        if (builder != null) {
+            for (SchemaDatabase database : builder.getDatabaseSchema().getDatabases()) {
+                if (database.getPostSQLScriptFiles() != null) {
+                    for (PostSQLScriptFile postSQLScriptFile : database.getPostSQLScriptFiles()) {
+                        files.add(new File(postSQLScriptFile.getPreparedFilepath()).getAbsoluteFile().toPath());
+                    }
+                }
+            }
+        } else {
+            // keep watching the files from the last good schema
+            files.addAll(watchedFiles);
+        }
+
+        for (Path file : files) {
+            Path dir = file.getParent();
+            if (dir != null && dir.toFile().isDirectory()) {
+                // registering the same directory again returns the existing key
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+
+        watchedFiles = files;
+
+        if (builder != null) {
+            onGenerated(builder);
+        }
+    }
+
+    /**
+     * Called after each successful generation, once the watched files are registered (so any later change is seen)
+     *
+     * @param builder the builder that generated the files (see DBObjectsBuilder.getFilesGenerated())
+     */
+    protected void onGenerated(DBObjectsBuilder builder) {
+    }
+}
@@ -16,16 +16,23 @@ import org.dbtools.codegen.java.JavaMethod;
 import org.dbtools.codegen.java.JavaVariable;
 import org.dbtools.gen.AnnotationConsts;
 import org.dbtools.gen.GenConfig;
+import org.dbtools.gen.GeneratedFiles;
 import org.dbtools.schema.schemafile.SchemaEntity;
 import org.dbtools.schema.schemafile.SchemaEntityType;
 import org.dbtools.schema.schemafile.SchemaTable;
+import org.dbtools.schema.schemafile.SchemaTableProjection;
 
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * @author Jeff
  */
 public class AndroidBaseManagerRenderer {
+    private static final String TAB = JavaClass.getTab();
+
+    // UPSERT (INSERT ... ON CONFLICT DO UPDATE) is not supported by older versions of SQLite
+    private static final String UPSERT_DOC = "Requires SQLite 3.24+ (Android API 30+).";
 
     private JavaClass myClass;
     private GenConfig genConfig;
@@ -115,6 +122,22 @@ public class AndroidBaseManagerRenderer {
                 addMethodAnnotations(AnnotationConsts.NONNULL, myClass.addMethod(Access.PUBLIC, "String", "getCreateSql", "return " + recordConstClassName + ".CREATE_TABLE;"));
                 addMethodAnnotations(AnnotationConsts.NONNULL, myClass.addMethod(Access.PUBLIC, "String", "getInsertSql", "return " + recordConstClassName + ".INSERT_STATEMENT;"));
                 addMethodAnnotations(AnnotationConsts.NONNULL, myClass.addMethod(Access.PUBLIC, "String", "getUpdateSql", "return " + recordConstClassName + ".UPDATE_STATEMENT;"));
+
+                if (!((SchemaTable) entity).isReadonly()) {
+                    addBulkMethods(recordClassName, recordConstClassName, generatedEntityInfo.isPrimaryKeyAdded(), generatedEntityInfo.isDirtyFieldsAdded());
+                    if (generatedEntityInfo.isUpsertAdded()) {
+                        addUpsertMethods(recordClassName, recordConstClassName, generatedEntityInfo.isUpsertOnPrimaryKey(), generatedEntityInfo.isFindIdByUpsertKeyAdded(), generatedEntityInfo.isDirtyFieldsAdded());
+                    }
+                    if (generatedEntityInfo.isDirtyFieldsAdded()) {
+                        addUpdateDirtyMethod(recordClassName, recordConstClassName);
+                    }
+                }
+
+                if (!entity.isEnumerationTable()) {
+                    for (SchemaTableProjection projection : ((SchemaTable) entity).getProjections()) {
+                        addProjectionMethods(recordClassName, projection, generatedEntityInfo.isPrimaryKeyAdded());
+                    }
+                }
                 break;
             case VIEW:
                 addMethodAnnotations(AnnotationConsts.NONNULL, myClass.addMethod(Access.PUBLIC, "String", "getPrimaryKey", "return \"<NO_PRIMARY_KEY_ON_VIEWS>\";"));
@@ -135,6 +158,291 @@ public class AndroidBaseManagerRenderer {
                 addMethodAnnotations(AnnotationConsts.NONNULL, myClass.addMethod(Access.PUBLIC, "String", "getUpdateSql", "return \"\";"));
                 break;
         }
+
+        if (generatedEntityInfo.isCursorIndexesAdded()) {
+            addFindAllFromCursorMethod(recordClassName, recordConstClassName, generatedEntityInfo.isAllColumnsReaderAdded());
+        }
+    }
+
+    /**
+     * findAllFromCursor(...) reads every row and closes the cursor.  Table cursors that use ALL_COLUMNS are read by
+     * ordinal, other cursors by the column indexes resolved once (instead of once per row)
+     */
+    private void addFindAllFromCursorMethod(String recordClassName, String recordConstClassName, boolean allColumnsReaderAdded) {
+        String cursorIndexesClassName = AndroidBaseRecordRenderer.createClassName(false, recordClassName) + ".CursorIndexes";
+        myClass.addImport("android.database.Cursor");
+        myClass.addImport("java.util.ArrayList");
+        myClass.addImport("java.util.List");
+
+        String readContent = cursorIndexesClassName + " indexes = new " + cursorIndexesClassName + "(cursor);\n" +
+                "while (cursor.moveToNext()) {\n" +
+                TAB + recordClassName + " record = newRecord();\n" +
+                TAB + "record.setContent(cursor, indexes);\n" +
+                TAB + "items.add(record);\n" +
+                "}";
+        if (allColumnsReaderAdded) {
+            myClass.addImport("java.util.Arrays");
+            String allColumnsReadContent = "while (cursor.moveToNext()) {\n" +
+                    TAB + recordClassName + " record = newRecord();\n" +
+                    TAB + "record.setContentAllColumns(cursor);\n" +
+                    TAB + "items.add(record);\n" +
+                    "}";
+            readContent = "if (Arrays.equals(cursor.getColumnNames(), " + recordConstClassName + ".ALL_COLUMNS)) {\n" +
+                    indent(allColumnsReadContent) + "\n" +
+                    "} else {\n" +
+                    indent(readContent) + "\n" +
+                    "}";
+        }
+
+        String content = "List<" + recordClassName + "> items = new ArrayList<>();\n" +
+                "if (cursor == null) {\n" +
+                TAB + "return items;\n" +
+                "}\n\n" +
+                "try {\n" +
+                indent(readContent) + "\n" +
+                "} finally {\n" +
+                TAB + "cursor.close();\n" +
+                "}\n" +
+                "return items;";
+        JavaVariable cursorParam = new JavaVariable("Cursor", "cursor");
+        if (genConfig.isJsr305Support()) {
+            cursorParam.addAnnotation(AnnotationConsts.NULLABLE);
+        }
+        addMethodAnnotations(AnnotationConsts.NONNULL, myClass.addMethod(Access.PUBLIC, "List<" + recordClassName + ">", "findAllFromCursor", Arrays.asList(cursorParam), content));
+    }
+
+    /**
+     * insertAll(...), updateAll(...) and saveAll(...) compile the statement(s) once and write all records in one transaction
+     * (or in chunks of chunkSize records, if the caller asks for it)
+     */
+    private void addBulkMethods(String recordClassName, String recordConstClassName, boolean primaryKeyAdded, boolean dirtyFieldsAdded) {
+        myClass.addImport("java.util.Collection");
+        myClass.addImport("org.dbtools.android.domain.database.DatabaseWrapper");
+        myClass.addImport("org.dbtools.android.domain.database.statement.StatementWrapper");
+
+        String insertStatement = "StatementWrapper insertStatement = database.compileStatement(" + recordConstClassName + ".INSERT_STATEMENT);\n";
+        String insertContent = "insertStatement.clearBindings();\n" +
+                "record.bindInsertStatement(insertStatement);\n" +
+                "record.setPrimaryKeyId(insertStatement.executeInsert());";
+        String clearDirtyFieldsContent = getClearDirtyFieldsContent(dirtyFieldsAdded);
+        addBulkMethod("insertAll", "Insert all records", recordClassName, insertStatement, insertContent + clearDirtyFieldsContent, "insertStatement.close();");
+
+        if (!primaryKeyAdded) {
+            // UPDATE_STATEMENT needs a primary key
+            return;
+        }
+
+        String updateStatement = "StatementWrapper updateStatement = database.compileStatement(" + recordConstClassName + ".UPDATE_STATEMENT);\n";
+        String updateContent = "updateStatement.clearBindings();\n" +
+                "record.bindUpdateStatement(updateStatement);\n" +
+                "updateStatement.executeUpdateDelete();";
+        addBulkMethod("updateAll", "Update all records", recordClassName, updateStatement, updateContent + clearDirtyFieldsContent, "updateStatement.close();");
+
+        String saveContent = "if (record.isNewRecord()) {\n" +
+                indent(insertContent) + "\n" +
+                "} else {\n" +
+                indent(updateContent) + "\n" +
+                "}";
+        addBulkMethod("saveAll", "Insert all new records and update all existing records", recordClassName, insertStatement + updateStatement, saveContent + clearDirtyFieldsContent, "insertStatement.close();\nupdateStatement.close();");
+    }
+
+    /**
+     * upsert(...) and upsertAll(...) insert or update each record with one UPSERT_STATEMENT (no read or isNewRecord() check needed)
+     */
+    private void addUpsertMethods(String recordClassName, String recordConstClassName, boolean upsertOnPrimaryKey, boolean findIdByUpsertKey, boolean dirtyFieldsAdded) {
+        myClass.addImport("java.util.Collections");
+
+        String upsertStatement = "StatementWrapper upsertStatement = database.compileStatement(" + recordConstClassName + ".UPSERT_STATEMENT);\n";
+        String upsertContent = "upsertStatement.clearBindings();\n" +
+                "record.bindUpsertStatement(upsertStatement);\n";
+        String closeContent = "upsertStatement.close();";
+        if (upsertOnPrimaryKey) {
+            // the rowid is only the new primary key if the record was inserted
+            upsertContent += "long rowId = upsertStatement.executeInsert();\n" +
+                    "if (record.isNewRecord()) {\n" +
+                    TAB + "record.setPrimaryKeyId(rowId);\n" +
+                    "}";
+        } else if (findIdByUpsertKey) {
+            // the rowid is not returned if an existing row was updated... find the id by the upsertKey columns
+            upsertStatement += "StatementWrapper findIdStatement = database.compileStatement(" + recordConstClassName + ".FIND_ID_BY_UPSERT_KEY_STATEMENT);\n";
+            upsertContent += "upsertStatement.executeInsert();\n" +
+                    "findIdStatement.clearBindings();\n" +
+                    "record.bindUpsertKeyStatement(findIdStatement);\n" +
+                    "record.setPrimaryKeyId(findIdStatement.simpleQueryForLong());";
+            closeContent += "\nfindIdStatement.close();";
+        } else {
+            upsertContent += "upsertStatement.executeInsert();";
+        }
+        upsertContent += getClearDirtyFieldsContent(dirtyFieldsAdded);
+
+        String upsertDoc = UPSERT_DOC;
+        if (upsertOnPrimaryKey || findIdByUpsertKey) {
+            upsertDoc += "  The primary key of each record is set to the id of the inserted or updated row.";
+        }
+        addBulkMethod("upsertAll", "Insert or update all records", upsertDoc, recordClassName, upsertStatement, upsertContent, closeContent);
+
+        JavaVariable recordParam = new JavaVariable(recordClassName, "record");
+        if (genConfig.isJsr305Support()) {
+            recordParam.addAnnotation(AnnotationConsts.NONNULL);
+        }
+        JavaMethod upsertMethod = myClass.addMethod(Access.PUBLIC, "void", "upsert", Arrays.asList(recordParam), "upsertAll(Collections.singletonList(record));");
+        upsertMethod.setDocComment("Insert or update record with one statement (no read or isNewRecord() check needed).\n" +
+                "<p>\n" +
+                upsertDoc);
+    }
+
+    /**
+     * The record was written... the columns changed by setters are not dirty anymore
+     */
+    private static String getClearDirtyFieldsContent(boolean dirtyFieldsAdded) {
+        return dirtyFieldsAdded ? "\nrecord.clearDirtyFields();" : "";
+    }
+
+    /**
+     * updateDirty(...) only writes the columns that were changed by setters (the partial UPDATE statement is cached by the const class)
+     */
+    private void addUpdateDirtyMethod(String recordClassName, String recordConstClassName) {
+        JavaVariable recordParam = new JavaVariable(recordClassName, "record");
+        if (genConfig.isJsr305Support()) {
+            recordParam.addAnnotation(AnnotationConsts.NONNULL);
+        }
+
+        myClass.addImport("java.util.BitSet");
+        String content = "BitSet dirtyFields = record.getDirtyFields();\n" +
+                "if (dirtyFields.isEmpty()) {\n" +
+                TAB + "return 0;\n" +
+                "}\n\n" +
+                "DatabaseWrapper database = getWritableDatabase(getDatabaseName());\n" +
+                "StatementWrapper statement = database.compileStatement(" + recordConstClassName + ".getDirtyUpdateStatement(dirtyFields));\n" +
+                "try {\n" +
+                TAB + "record.bindDirtyUpdateStatement(statement);\n" +
+                TAB + "int count = statement.executeUpdateDelete();\n" +
+                TAB + "record.clearDirtyFields();\n" +
+                TAB + "return count;\n" +
+                "} finally {\n" +
+                TAB + "statement.close();\n" +
+                "}";
+        myClass.addMethod(Access.PUBLIC, "int", "updateDirty", Arrays.asList(recordParam), content);
+    }
+
+    /**
+     * find...() methods that only query the COLUMNS of the projection (instead of ALL_COLUMNS of the record)
+     */
+    private void addProjectionMethods(String recordClassName, SchemaTableProjection projection, boolean primaryKeyAdded) {
+        String projectionClassName = AndroidBaseRecordRenderer.createProjectionClassName(recordClassName, projection);
+        String projectionName = projection.getName();
+        myClass.addImport("android.database.Cursor");
+        myClass.addImport("java.util.ArrayList");
+        myClass.addImport("java.util.List");
+
+        // cursor
+        String cursorMethodName = "find" + projectionName + "CursorBySelection";
+        String cursorContent = "return getReadableDatabase(getDatabaseName()).query(getTableName(), " + projectionClassName + ".COLUMNS, selection, selectionArgs, null, null, orderBy);";
+        myClass.addMethod(Access.PUBLIC, "Cursor", cursorMethodName, createSelectionParams(), cursorContent);
+
+        // list
+        String findAllBySelectionMethodName = "findAll" + projectionName + "BySelection";
+        String findAllBySelectionContent = "List<" + projectionClassName + "> items = new ArrayList<>();\n" +
+                "Cursor cursor = " + cursorMethodName + "(selection, selectionArgs, orderBy);\n" +
+                "if (cursor == null) {\n" +
+                TAB + "return items;\n" +
+                "}\n\n" +
+                "try {\n" +
+                TAB + "while (cursor.moveToNext()) {\n" +
+                TAB + TAB + "items.add(new " + projectionClassName + "(cursor));\n" +
+                TAB + "}\n" +
+                "} finally {\n" +
+                TAB + "cursor.close();\n" +
+                "}\n" +
+                "return items;";
+        addMethodAnnotations(AnnotationConsts.NONNULL, myClass.addMethod(Access.PUBLIC, "List<" + projectionClassName + ">", findAllBySelectionMethodName, createSelectionParams(), findAllBySelectionContent));
+        addMethodAnnotations(AnnotationConsts.NONNULL, myClass.addMethod(Access.PUBLIC, "List<" + projectionClassName + ">", "findAll" + projectionName, "return " + findAllBySelectionMethodName + "(null, null, null);"));
+
+        if (primaryKeyAdded) {
+            String findByRowIdContent = "List<" + projectionClassName + "> items = " + findAllBySelectionMethodName + "(getPrimaryKey() + \" = ?\", new String[]{String.valueOf(rowId)}, null);\n" +
+                    "return items.isEmpty() ? null : items.get(0);";
+            addMethodAnnotations(AnnotationConsts.NULLABLE, myClass.addMethod(Access.PUBLIC, projectionClassName, "find" + projectionName + "ByRowId", Arrays.asList(new JavaVariable("long", "rowId")), findByRowIdContent));
+        }
+    }
+
+    private List<JavaVariable> createSelectionParams() {
+        JavaVariable selectionParam = new JavaVariable("String", "selection");
+        JavaVariable selectionArgsParam = new JavaVariable("String[]", "selectionArgs");
+        JavaVariable orderByParam = new JavaVariable("String", "orderBy");
+        if (genConfig.isJsr305Support()) {
+            selectionParam.addAnnotation(AnnotationConsts.NULLABLE);
+            selectionArgsParam.addAnnotation(AnnotationConsts.NULLABLE);
+            orderByParam.addAnnotation(AnnotationConsts.NULLABLE);
+        }
+        return Arrays.asList(selectionParam, selectionArgsParam, orderByParam);
+    }
+
+    private void addBulkMethod(String methodName, String description, String recordClassName, String statementsContent, String recordContent, String closeContent) {
+        addBulkMethod(methodName, description, null, recordClassName, statementsContent, recordContent, closeContent);
+    }
+
+    /**
+     * @param note extra paragraph for the javadoc of the methods (null for none)
+     */
+    private void addBulkMethod(String methodName, String description, String note, String recordClassName, String statementsContent, String recordContent, String closeContent) {
+        JavaVariable recordsParam = new JavaVariable("Collection<" + recordClassName + ">", "records");
+        if (genConfig.isJsr305Support()) {
+            recordsParam.addAnnotation(AnnotationConsts.NONNULL);
+        }
+
+        String detailsDoc = "The statement is compiled once and bound directly from each record: insert(...) and update(...) of this manager\n" +
+                "are bypassed (overrides of those methods are not called and table change listeners are not notified).";
+        if (note != null) {
+            detailsDoc += "\n<p>\n" + note;
+        }
+
+        JavaMethod singleTransactionMethod = myClass.addMethod(Access.PUBLIC, "void", methodName, Arrays.asList(recordsParam), methodName + "(records, Integer.MAX_VALUE);");
+        singleTransactionMethod.setDocComment(description + " in a single transaction (if any record fails, none of the records are written).\n" +
+                "<p>\n" +
+                detailsDoc);
+
+        StringBuilder content = new StringBuilder();
+        content.append("if (chunkSize <= 0) {\n");
+        content.append(TAB).append("throw new IllegalArgumentException(\"chunkSize must be greater than 0\");\n");
+        content.append("}\n");
+        content.append("if (records.isEmpty()) {\n");
+        content.append(TAB).append("return;\n");
+        content.append("}\n\n");
+
+        content.append("DatabaseWrapper database = getWritableDatabase(getDatabaseName());\n");
+        content.append(statementsContent);
+        content.append("int count = 0;\n");
+        content.append("database.beginTransaction();\n");
+        content.append("try {\n");
+        content.append(TAB).append("for (").append(recordClassName).append(" record : records) {\n");
+        content.append(indent(indent(recordContent))).append("\n\n");
+        content.append(TAB).append(TAB).append("// commit every chunkSize records\n");
+        content.append(TAB).append(TAB).append("count++;\n");
+        content.append(TAB).append(TAB).append("if (count % chunkSize == 0 && count < records.size()) {\n");
+        content.append(TAB).append(TAB).append(TAB).append("database.setTransactionSuccessful();\n");
+        content.append(TAB).append(TAB).append(TAB).append("database.endTransaction();\n");
+        content.append(TAB).append(TAB).append(TAB).append("database.beginTransaction();\n");
+        content.append(TAB).append(TAB).append("}\n");
+        content.append(TAB).append("}\n");
+        content.append(TAB).append("database.setTransactionSuccessful();\n");
+        content.append("} finally {\n");
+        content.append(TAB).append("database.endTransaction();\n");
+        content.append(indent(closeContent)).append("\n");
+        content.append("}");
+
+        JavaMethod chunkedMethod = myClass.addMethod(Access.PUBLIC, "void", methodName, Arrays.asList(recordsParam, new JavaVariable("int", "chunkSize")), content.toString());
+        chunkedMethod.setDocComment(description + ", committing a transaction every chunkSize records.\n" +
+                "<p>\n" +
+                "Partial commit: if a record fails, the chunks that were already committed stay in the database\n" +
+                "and the rest of the records are not written.  Use " + methodName + "(records) to write all or none of the records.\n" +
+                "<p>\n" +
+                detailsDoc + "\n" +
+                "\n" +
+                "@param chunkSize number of records written per transaction (must be greater than 0)");
+    }
+
+    private static String indent(String content) {
+        return TAB + content.replace("\n", "\n" + TAB);
     }
 
     private void addMethodAnnotations(String annotation, JavaMethod javaMethod) {
@@ -148,8 +456,8 @@ public class AndroidBaseManagerRenderer {
         return recordClassName + "BaseManager";
     }
 
-    public void writeToFile(String outDir) {
-        myClass.writeToDisk(outDir);
+    public void writeToFile(String outDir, GeneratedFiles generatedFiles) {
+        generatedFiles.add(myClass.getFile(outDir), myClass.writeTo(genConfig.getOutputSink(), outDir));
     }
 
     public void setGenConfig(GenConfig genConfig) {
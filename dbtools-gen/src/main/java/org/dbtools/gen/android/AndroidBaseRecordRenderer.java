@@ -15,6 +15,7 @@ import org.dbtools.codegen.java.JavaEnum;
 import org.dbtools.codegen.java.JavaMethod;
 import org.dbtools.codegen.java.JavaVariable;
 import org.dbtools.gen.GenConfig;
+import org.dbtools.gen.GeneratedFiles;
 import org.dbtools.renderer.SchemaRenderer;
 import org.dbtools.renderer.SqliteRenderer;
 import org.dbtools.schema.ClassInfo;
@@ -26,12 +27,17 @@ import org.dbtools.schema.schemafile.SchemaField;
 import org.dbtools.schema.schemafile.SchemaFieldType;
 import org.dbtools.schema.schemafile.SchemaTable;
 import org.dbtools.schema.schemafile.SchemaTableField;
+import org.dbtools.schema.schemafile.SchemaTableProjection;
+import org.dbtools.schema.schemafile.SchemaTableUnique;
+import org.dbtools.schema.schemafile.SchemaUniqueField;
 import org.dbtools.schema.schemafile.TableEnum;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Jeff
@@ -42,15 +48,24 @@ public class AndroidBaseRecordRenderer {
     private static final String ALL_COLUMNS_VAR_NAME = "ALL_COLUMNS";
     private static final String ALL_COLUMNS_FULL_VAR_NAME = "ALL_COLUMNS_FULL";
     public static final String PRIMARY_KEY_COLUMN = "PRIMARY_KEY_COLUMN";
+    private static final String CURSOR_INDEXES_CLASS_NAME = "CursorIndexes";
+    private static final String CURSOR_INDEXES_VAR_NAME = "indexes";
+    private static final String SET_CONTENT_ALL_COLUMNS_METHOD_NAME = "setContentAllColumns";
+    private static final String DIRTY_FIELDS_VAR_NAME = "dirtyFields";
+    private static final int MAX_CACHED_UPDATE_STATEMENTS = 64;
 
     private JavaClass constClass;
     private JavaClass recordClass;
     private List<JavaEnum> enumerationClasses = new ArrayList<>();
+    private List<JavaClass> projectionClasses = new ArrayList<>();
+    private Map<String, String> fieldEnumImports = new HashMap<>(); // field name -> import of the enum of the field
     private StringBuilder cleanupOrphansContent;
     private boolean useInnerEnums = true;
     private GenConfig genConfig;
     private int bindInsertStatementContentIndex = 1; // 1 based
     private int bindUpdateStatementContentIndex = 1; // 1 based
+    private int bindUpsertStatementContentIndex = 1; // 1 based
+    private int bindUpsertKeyStatementContentIndex = 1; // 1 based
 
     /**
      * Creates a new instance of AndroidBaseRecordRenderer.
@@ -62,8 +77,13 @@ public class AndroidBaseRecordRenderer {
         AndroidGeneratedEntityInfo generatedEntityInfo = new AndroidGeneratedEntityInfo();
 
         // reset data
+        enumerationClasses.clear();
+        projectionClasses.clear();
+        fieldEnumImports.clear();
         bindInsertStatementContentIndex = 1;
         bindUpdateStatementContentIndex = 1;
+        bindUpsertStatementContentIndex = 1;
+        bindUpsertKeyStatementContentIndex = 1;
 
         boolean enumTable = entity.isEnumerationTable();
         SchemaEntityType entityType = entity.getType();
@@ -113,8 +133,27 @@ public class AndroidBaseRecordRenderer {
         StringBuilder copyContent = new StringBuilder(entityClassName + " copy = new " + entityClassName + "();\n");
         StringBuilder bindInsertStatementContent = new StringBuilder();
         StringBuilder bindUpdateStatementContent = new StringBuilder();
+        StringBuilder bindUpsertStatementContent = new StringBuilder();
+        StringBuilder bindUpsertKeyStatementContent = new StringBuilder();
+        StringBuilder bindDirtyUpdateStatementContent = new StringBuilder("int bindIndex = 1;\n");
         String setContentValuesContent = "";
         String setContentCursorContent = "";
+        StringBuilder cursorIndexesContent = new StringBuilder();
+        List<String> cursorIndexesVarNames = new ArrayList<>();
+        String setContentAllColumnsContent = "";
+
+        // the column order of a table is known... cursors that use ALL_COLUMNS can be read by ordinal
+        boolean allColumnsOrdinals = entityType == SchemaEntityType.TABLE;
+
+        // setters mark the columns they change... updateDirty(...) only writes the changed columns
+        List<SchemaField> dirtyFields = getDirtyTrackedFields(entity, enumTable);
+        List<String> dirtyColumns = new ArrayList<>();
+
+        // variables of the columns (used by the projection classes)
+        Map<String, JavaVariable> fieldVariables = new HashMap<>();
+
+        // UPSERT on the upsertKey columns does not return the id of an updated row (it is found by the upsertKey columns)
+        List<String> upsertKeyColumns = getUpsertKeyColumns(entity);
 
         List<String> columns = new ArrayList<>();
         for (SchemaField field : entity.getFields()) {
@@ -140,10 +179,11 @@ public class AndroidBaseRecordRenderer {
             }
 
             // constants
-            String constName = JavaClass.formatConstant(fieldNameJavaStyle);
+            String constName = field.getConstantName();
             String fieldColumn = "C_" + constName;
             String fullFieldColumn = constClassName + ".C_" + constName;
             columns.add(fieldColumn);
+            int columnOrdinal = columns.size() - 1;
 
             if (primaryKey) {
                 constClass.addConstant("String", PRIMARY_KEY_COLUMN, fieldName); // add a reference to this column
@@ -152,6 +192,14 @@ public class AndroidBaseRecordRenderer {
             constClass.addConstant("String", fieldColumn, fieldName);
             constClass.addConstant("String", "FULL_C_" + constName, tableName + "." + fieldName);
 
+            // the DIRTY_* index is the position of the column in DIRTY_COLUMNS (same positions as the Kotlin records)
+            String dirtyFieldConst = null;
+            if (dirtyFields.contains(field)) {
+                dirtyFieldConst = constClassName + ".DIRTY_" + constName;
+                constClass.addConstant("int", "DIRTY_" + constName, String.valueOf(dirtyColumns.size()), false);
+                dirtyColumns.add(fieldColumn);
+            }
+
             // skip some types of variables at this point (so that we still get the column name and the property name)
             switch (field.getForeignKeyType()) {
                 case MANYTOONE:
@@ -180,9 +228,14 @@ public class AndroidBaseRecordRenderer {
                 addPrimaryKeyFunctions(newVariable.getDataType(), fullFieldColumn, fieldNameJavaStyle);
             }
 
+            if (dirtyFieldConst != null) {
+                newVariable.setPostSetterCode(DIRTY_FIELDS_VAR_NAME + ".set(" + dirtyFieldConst + ");");
+            }
+
             if (!recordClass.isEnum()) {
                 recordClass.addVariable(newVariable);
             }
+            fieldVariables.put(fieldName, newVariable);
 
             // copy (include primary key)
             copyContent.append("copy.").append(newVariable.getSetterMethodName()).append("(");
@@ -238,6 +291,9 @@ public class AndroidBaseRecordRenderer {
                     case TIMESTAMP:
                         addBindInsert(bindInsertStatementContent, "bindLong", fieldNameJavaStyle, value, primitiveField, notNullField || field.isEnumeration());
                         addBindUpdate(bindUpdateStatementContent, "bindLong", fieldNameJavaStyle, value, primitiveField, notNullField || field.isEnumeration());
+                        addBindUpsert(bindUpsertStatementContent, "bindLong", fieldNameJavaStyle, value, primitiveField, notNullField || field.isEnumeration());
+                        addBindUpsertKey(bindUpsertKeyStatementContent, upsertKeyColumns.contains(fieldName), "bindLong", fieldNameJavaStyle, value, primitiveField, notNullField || field.isEnumeration());
+                        addBindDirty(bindDirtyUpdateStatementContent, dirtyFieldConst, "bindLong", fieldNameJavaStyle, value, primitiveField, notNullField || field.isEnumeration());
                         break;
                     case REAL:
                     case FLOAT:
@@ -246,6 +302,9 @@ public class AndroidBaseRecordRenderer {
                     case BIGDECIMAL:
                         addBindInsert(bindInsertStatementContent, "bindDouble", fieldNameJavaStyle, value, primitiveField, notNullField);
                         addBindUpdate(bindUpdateStatementContent, "bindDouble", fieldNameJavaStyle, value, primitiveField, notNullField);
+                        addBindUpsert(bindUpsertStatementContent, "bindDouble", fieldNameJavaStyle, value, primitiveField, notNullField);
+                        addBindUpsertKey(bindUpsertKeyStatementContent, upsertKeyColumns.contains(fieldName), "bindDouble", fieldNameJavaStyle, value, primitiveField, notNullField);
+                        addBindDirty(bindDirtyUpdateStatementContent, dirtyFieldConst, "bindDouble", fieldNameJavaStyle, value, primitiveField, notNullField);
                         break;
                     case CHAR:
                     case VARCHAR:
@@ -256,10 +315,16 @@ public class AndroidBaseRecordRenderer {
                     case TIME:
                         addBindInsert(bindInsertStatementContent, "bindString", fieldNameJavaStyle, value, primitiveField, notNullField);
                         addBindUpdate(bindUpdateStatementContent, "bindString", fieldNameJavaStyle, value, primitiveField, notNullField);
+                        addBindUpsert(bindUpsertStatementContent, "bindString", fieldNameJavaStyle, value, primitiveField, notNullField);
+                        addBindUpsertKey(bindUpsertKeyStatementContent, upsertKeyColumns.contains(fieldName), "bindString", fieldNameJavaStyle, value, primitiveField, notNullField);
+                        addBindDirty(bindDirtyUpdateStatementContent, dirtyFieldConst, "bindString", fieldNameJavaStyle, value, primitiveField, notNullField);
                         break;
                     case BLOB:
                         addBindInsert(bindInsertStatementContent, "bindBlob", fieldNameJavaStyle, value, primitiveField, notNullField);
                         addBindUpdate(bindUpdateStatementContent, "bindBlob", fieldNameJavaStyle, value, primitiveField, notNullField);
+                        addBindUpsert(bindUpsertStatementContent, "bindBlob", fieldNameJavaStyle, value, primitiveField, notNullField);
+                        addBindUpsertKey(bindUpsertKeyStatementContent, upsertKeyColumns.contains(fieldName), "bindBlob", fieldNameJavaStyle, value, primitiveField, notNullField);
+                        addBindDirty(bindDirtyUpdateStatementContent, dirtyFieldConst, "bindBlob", fieldNameJavaStyle, value, primitiveField, notNullField);
                         break;
                 }
 
@@ -267,13 +332,18 @@ public class AndroidBaseRecordRenderer {
             } else {
                 // id column
                 valuesContent.append(TAB).append(fieldNameJavaStyle).append(",\n");
+                addBindUpsertPrimaryKey(bindUpsertStatementContent);
             }
 
-            setContentCursorContent += fieldNameJavaStyle + " = " + getContentValuesCursorGetterMethod(field, fullFieldColumn, newVariable) + ";\n";
+            // column index is resolved once per cursor (see CursorIndexes)
+            setContentCursorContent += fieldNameJavaStyle + " = " + getContentValuesCursorGetterMethod(field, CURSOR_INDEXES_VAR_NAME + "." + fieldNameJavaStyle, newVariable) + ";\n";
+            cursorIndexesContent.append(fieldNameJavaStyle).append(" = ").append(getColumnIndexOrThrow(fullFieldColumn)).append(";\n");
+            cursorIndexesVarNames.add(fieldNameJavaStyle);
+            setContentAllColumnsContent += fieldNameJavaStyle + " = " + getContentValuesCursorGetterMethod(field, String.valueOf(columnOrdinal), newVariable) + ";\n";
 
             // static getter method that takes a Cursor parameter
             constClass.addImport("android.database.Cursor");
-            JavaMethod cursorGetter = constClass.addMethod(Access.PUBLIC, newVariable.getDataType(), newVariable.getGetterMethodName(), "return " + getContentValuesCursorGetterMethod(field, fieldColumn, newVariable) + ";");
+            JavaMethod cursorGetter = constClass.addMethod(Access.PUBLIC, newVariable.getDataType(), newVariable.getGetterMethodName(), "return " + getContentValuesCursorGetterMethod(field, getColumnIndexOrThrow(fieldColumn), newVariable) + ";");
             cursorGetter.setStatic(true);
             cursorGetter.setParameters(Arrays.asList(new JavaVariable("Cursor", "cursor")));
         }
@@ -281,6 +351,7 @@ public class AndroidBaseRecordRenderer {
         // bind the primary key value LAST (it is the where clause part of the update code)
         if (primaryKeyField != null) {
             addBindUpdate(bindUpdateStatementContent, "bindLong", primaryKeyField.getName(true), primaryKeyField.getName(true), primaryKeyField.getJdbcDataType().isJavaTypePrimitive(), primaryKeyField.isNotNull());
+            addBind(bindDirtyUpdateStatementContent, "bindIndex", "bindLong", primaryKeyField.getName(true), primaryKeyField.getName(true), primaryKeyField.getJdbcDataType().isJavaTypePrimitive(), primaryKeyField.isNotNull());
         }
 
         if (!primaryKeyAdded && (entityType == SchemaEntityType.VIEW || entityType == SchemaEntityType.QUERY)) {
@@ -292,6 +363,9 @@ public class AndroidBaseRecordRenderer {
         }
 
         // SchemaDatabase variables
+        boolean upsertAdded = false;
+        boolean upsertOnPrimaryKey = false;
+        boolean findIdByUpsertKeyAdded = false;
         if (entityType == SchemaEntityType.TABLE) {
             // CREATE TABLE
             SchemaTable table = (SchemaTable) entity;
@@ -336,6 +410,23 @@ public class AndroidBaseRecordRenderer {
             // add to class
             constClass.addConstant("String", "INSERT_STATEMENT", insertStatement.toString());
             constClass.addConstant("String", "UPDATE_STATEMENT", updateStatement.toString());
+
+            // UPSERT (conflict target is the upsertKey unique declaration... or the primary key)... requires SQLite 3.24+ (see GenConfig.setUpsertSupport(...))
+            List<String> conflictColumns = new ArrayList<>(upsertKeyColumns);
+            if (conflictColumns.isEmpty() && primaryKeyAdded) {
+                conflictColumns.add(primaryKeyFieldName);
+                upsertOnPrimaryKey = true;
+            }
+
+            if (genConfig.isUpsertSupport() && !conflictColumns.isEmpty() && !recordClass.isEnum()) {
+                constClass.addConstant("String", "UPSERT_STATEMENT", createUpsertStatement(tableName, entity.getFields(), conflictColumns));
+                upsertAdded = true;
+
+                if (!upsertOnPrimaryKey && primaryKeyAdded) {
+                    constClass.addConstant("String", "FIND_ID_BY_UPSERT_KEY_STATEMENT", createFindIdByUpsertKeyStatement(tableName, primaryKeyFieldName, upsertKeyColumns));
+                    findIdByUpsertKeyAdded = true;
+                }
+            }
         }
 
         // Content values
@@ -380,6 +471,10 @@ public class AndroidBaseRecordRenderer {
             valuesContent.append("return values;");
             recordClass.addMethod(Access.PUBLIC, "Object[]", "getValues", valuesContent.toString()).addAnnotation("Override");
 
+            if (!dirtyColumns.isEmpty()) {
+                // the copy has not been changed (the setters mark the columns dirty)
+                copyContent.append("copy.clearDirtyFields();\n");
+            }
             copyContent.append("return copy;");
             recordClass.addMethod(Access.PUBLIC, entityClassName, "copy", copyContent.toString());
 
@@ -387,14 +482,51 @@ public class AndroidBaseRecordRenderer {
             bindStatementParams.add(new JavaVariable("StatementWrapper", "statement"));
             recordClass.addMethod(Access.PUBLIC, "void", "bindInsertStatement", bindStatementParams, bindInsertStatementContent.toString()).addAnnotation("Override");
             recordClass.addMethod(Access.PUBLIC, "void", "bindUpdateStatement", bindStatementParams, bindUpdateStatementContent.toString()).addAnnotation("Override");
+            if (upsertAdded) {
+                recordClass.addMethod(Access.PUBLIC, "void", "bindUpsertStatement", bindStatementParams, bindUpsertStatementContent.toString());
+            }
+            if (findIdByUpsertKeyAdded) {
+                recordClass.addMethod(Access.PUBLIC, "void", "bindUpsertKeyStatement", bindStatementParams, bindUpsertKeyStatementContent.toString());
+            }
+            if (!dirtyColumns.isEmpty()) {
+                addDirtyFields(dirtyColumns, bindDirtyUpdateStatementContent.toString());
+            }
 
             List<JavaVariable> setCValuesParams = new ArrayList<>();
             setCValuesParams.add(new JavaVariable("DBToolsContentValues", "values"));
+            if (!dirtyColumns.isEmpty()) {
+                // values read from the database are not dirty
+                String clearDirtyFieldsContent = DIRTY_FIELDS_VAR_NAME + ".clear();\n";
+                setContentValuesContent += clearDirtyFieldsContent;
+                setContentCursorContent += clearDirtyFieldsContent;
+                setContentAllColumnsContent += clearDirtyFieldsContent;
+            }
+
             recordClass.addMethod(Access.PUBLIC, "void", "setContent", setCValuesParams, setContentValuesContent);
 
             List<JavaVariable> setCCursorParams = new ArrayList<>();
             setCCursorParams.add(new JavaVariable("Cursor", "cursor"));
-            recordClass.addMethod(Access.PUBLIC, "void", "setContent", setCCursorParams, setContentCursorContent).addAnnotation("Override");
+
+            if (!cursorIndexesVarNames.isEmpty()) {
+                addCursorIndexesClass(cursorIndexesVarNames, cursorIndexesContent.toString());
+
+                if (allColumnsOrdinals) {
+                    // reader of cursors that use the ALL_COLUMNS projection... only called by the manager after it checked the cursor columns
+                    recordClass.addMethod(Access.DEFAULT_NONE, "void", SET_CONTENT_ALL_COLUMNS_METHOD_NAME, setCCursorParams, setContentAllColumnsContent);
+                    generatedEntityInfo.setAllColumnsReaderAdded(true);
+                }
+
+                // single row... the indexes of a cursor with many rows should be resolved once (see setContent(Cursor, CursorIndexes))
+                recordClass.addMethod(Access.PUBLIC, "void", "setContent", setCCursorParams, "setContent(cursor, new " + CURSOR_INDEXES_CLASS_NAME + "(cursor));").addAnnotation("Override");
+
+                List<JavaVariable> setCCursorIndexesParams = new ArrayList<>();
+                setCCursorIndexesParams.add(new JavaVariable("Cursor", "cursor"));
+                setCCursorIndexesParams.add(new JavaVariable(CURSOR_INDEXES_CLASS_NAME, CURSOR_INDEXES_VAR_NAME));
+                recordClass.addMethod(Access.PUBLIC, "void", "setContent", setCCursorIndexesParams, setContentCursorContent);
+                generatedEntityInfo.setCursorIndexesAdded(true);
+            } else {
+                recordClass.addMethod(Access.PUBLIC, "void", "setContent", setCCursorParams, setContentCursorContent).addAnnotation("Override");
+            }
         }
 
         // methods
@@ -417,10 +549,247 @@ public class AndroidBaseRecordRenderer {
             addPrimaryKeyFunctions("long", "\"NO_PRIMARY_KEY\"", "0");
         }
 
+        if (entityType == SchemaEntityType.TABLE && !enumTable) {
+            for (SchemaTableProjection projection : ((SchemaTable) entity).getProjections()) {
+                addProjectionClass(packageName, entityClassName, constClassName, (SchemaTable) entity, projection, fieldVariables);
+            }
+        }
+
         generatedEntityInfo.setPrimaryKeyAdded(primaryKeyAdded);
+        generatedEntityInfo.setUpsertAdded(upsertAdded);
+        generatedEntityInfo.setUpsertOnPrimaryKey(upsertOnPrimaryKey);
+        generatedEntityInfo.setFindIdByUpsertKeyAdded(findIdByUpsertKeyAdded);
+        generatedEntityInfo.setDirtyFieldsAdded(!dirtyColumns.isEmpty());
         return generatedEntityInfo;
     }
 
+    /**
+     * Columns of the upsertKey unique declaration of a table in the order of the fields (empty if the primary key is the conflict target).
+     * The columns must be notNull: NULL values never conflict (and the id of the record could not be found by the columns)
+     */
+    private List<String> getUpsertKeyColumns(SchemaEntity entity) {
+        List<String> upsertKeyColumns = new ArrayList<>();
+        if (entity.getType() != SchemaEntityType.TABLE) {
+            return upsertKeyColumns;
+        }
+
+        SchemaTableUnique upsertKey = ((SchemaTable) entity).getUpsertKeyDeclaration();
+        if (upsertKey == null) {
+            return upsertKeyColumns;
+        }
+
+        for (SchemaField field : entity.getFields()) {
+            for (SchemaUniqueField uniqueField : upsertKey.getUniqueFields()) {
+                if (uniqueField.getName().equalsIgnoreCase(field.getName())) {
+                    if (!field.isNotNull()) {
+                        throw new IllegalStateException("upsertKey field [" + field.getName() + "] of table [" + entity.getName() + "] must be notNull");
+                    }
+                    upsertKeyColumns.add(field.getName());
+                }
+            }
+        }
+        return upsertKeyColumns;
+    }
+
+    /**
+     * SELECT primaryKey FROM table WHERE upsertKeyColumn1 = ? AND ... (the upsertKey is unique, so there is 1 row after the UPSERT)
+     */
+    private String createFindIdByUpsertKeyStatement(String tableName, String primaryKeyFieldName, List<String> upsertKeyColumns) {
+        StringBuilder statement = new StringBuilder("SELECT " + primaryKeyFieldName + " FROM " + tableName + " WHERE ");
+        for (int i = 0; i < upsertKeyColumns.size(); i++) {
+            statement.append((i > 0) ? " AND " : "").append(upsertKeyColumns.get(i)).append(" = ?");
+        }
+        return statement.toString();
+    }
+
+    /**
+     * INSERT INTO table (...) VALUES (...) ON CONFLICT(conflictColumns) DO UPDATE SET ... (SQLite 3.24+)
+     * All columns (including the primary key) are inserted.  The conflict columns and the primary key are not updated.
+     */
+    private String createUpsertStatement(String tableName, List<? extends SchemaField> fields, List<String> conflictColumns) {
+        StringBuilder upsertStatement = new StringBuilder("INSERT INTO " + tableName + " (");
+        StringBuilder setContent = new StringBuilder();
+
+        int columnCount = 0;
+        for (SchemaField field : fields) {
+            upsertStatement.append((columnCount > 0) ? "," : "");
+            upsertStatement.append(field.getName());
+            columnCount++;
+
+            if (!field.isPrimaryKey() && !containsIgnoreCase(conflictColumns, field.getName())) {
+                setContent.append((setContent.length() > 0) ? ", " : "");
+                setContent.append(field.getName()).append("=excluded.").append(field.getName());
+            }
+        }
+
+        upsertStatement.append(") VALUES (");
+        for (int i = 0; i < columnCount; i++) {
+            upsertStatement.append((i > 0) ? ",?" : "?");
+        }
+        upsertStatement.append(')');
+
+        upsertStatement.append(" ON CONFLICT(");
+        for (int i = 0; i < conflictColumns.size(); i++) {
+            upsertStatement.append((i > 0) ? "," : "").append(conflictColumns.get(i));
+        }
+        upsertStatement.append(')');
+
+        if (setContent.length() > 0) {
+            upsertStatement.append(" DO UPDATE SET ").append(setContent);
+        } else {
+            upsertStatement.append(" DO NOTHING");
+        }
+
+        return upsertStatement.toString();
+    }
+
+    private static boolean containsIgnoreCase(List<String> values, String value) {
+        for (String item : values) {
+            if (item.equalsIgnoreCase(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shared by the Java and Kotlin renderers (same DIRTY_* indexes and partial UPDATE columns for both targets).
+     * Java records do not have a setter for MANYTOONE, ONETOMANY and ONETOONE fields, so those indexes are only set by
+     * Kotlin records.
+     *
+     * @return fields that get a dirty flag (all columns of a table with a primary key... except the primary key).  Empty if
+     * the table does not have a primary key.
+     */
+    public static List<SchemaField> getDirtyTrackedFields(SchemaEntity entity, boolean enumTable) {
+        List<SchemaField> dirtyFields = new ArrayList<>();
+        if (entity.getType() != SchemaEntityType.TABLE || enumTable) {
+            return dirtyFields;
+        }
+
+        boolean primaryKey = false;
+        for (SchemaField field : entity.getFields()) {
+            if (field.isPrimaryKey()) {
+                primaryKey = true;
+            } else {
+                dirtyFields.add(field);
+            }
+        }
+
+        if (!primaryKey) {
+            dirtyFields.clear();
+        }
+        return dirtyFields;
+    }
+
+    /**
+     * dirtyFields variable of the record and the (cached) partial UPDATE statements of the const class
+     */
+    private void addDirtyFields(List<String> dirtyColumns, String bindDirtyUpdateStatementContent) {
+        // one bit per column (no limit on the number of columns)
+        recordClass.addImport("java.util.BitSet");
+        JavaVariable dirtyFieldsVariable = new JavaVariable("BitSet", DIRTY_FIELDS_VAR_NAME);
+        dirtyFieldsVariable.setDefaultValue("new BitSet()", false);
+        dirtyFieldsVariable.setFinal(true);
+        recordClass.addVariable(dirtyFieldsVariable);
+        recordClass.addMethod(Access.PUBLIC, "BitSet", "getDirtyFields", "return (BitSet) " + DIRTY_FIELDS_VAR_NAME + ".clone();")
+                .setDocComment("Copy of the columns changed by the setters (DIRTY_* indexes of the const class) since the record was read or written");
+        recordClass.addMethod(Access.PUBLIC, "void", "clearDirtyFields", DIRTY_FIELDS_VAR_NAME + ".clear();")
+                .setDocComment("Called by setContent(...), copy() and the updateDirty(...), insertAll(...), updateAll(...), saveAll(...)\n" +
+                        "and upsertAll(...) methods of the manager.\n" +
+                        "<p>\n" +
+                        "insert(...), update(...) and save(...) of the manager do not know about the dirty fields:\n" +
+                        "clearDirtyFields() must be called after the record is written by them.");
+        recordClass.addMethod(Access.PUBLIC, "void", "bindDirtyUpdateStatement", Arrays.asList(new JavaVariable("StatementWrapper", "statement")), bindDirtyUpdateStatementContent);
+
+        // columns in DIRTY_* index order
+        StringBuilder dirtyColumnsDefaultValue = new StringBuilder("new String[] {\n");
+        for (int i = 0; i < dirtyColumns.size(); i++) {
+            dirtyColumnsDefaultValue.append(TAB).append(TAB).append(dirtyColumns.get(i));
+            dirtyColumnsDefaultValue.append((i < dirtyColumns.size() - 1) ? ",\n" : "}");
+        }
+        constClass.addConstant("String[]", "DIRTY_COLUMNS", dirtyColumnsDefaultValue.toString(), false).setAccess(Access.PRIVATE);
+
+        constClass.addImport("java.util.BitSet");
+        constClass.addImport("java.util.concurrent.ConcurrentHashMap");
+        constClass.addConstant("ConcurrentHashMap<BitSet, String>", "DIRTY_UPDATE_STATEMENTS", "new ConcurrentHashMap<>()", false).setAccess(Access.PRIVATE);
+
+        String content = "String updateStatement = DIRTY_UPDATE_STATEMENTS.get(dirtyFields);\n" +
+                "if (updateStatement != null) {\n" +
+                TAB + "return updateStatement;\n" +
+                "}\n\n" +
+                "StringBuilder sql = new StringBuilder(\"UPDATE \").append(TABLE).append(\" SET \");\n" +
+                "boolean hasColumn = false;\n" +
+                "for (int i = dirtyFields.nextSetBit(0); i >= 0; i = dirtyFields.nextSetBit(i + 1)) {\n" +
+                TAB + "sql.append(hasColumn ? \", \" : \"\").append(DIRTY_COLUMNS[i]).append(\"=?\");\n" +
+                TAB + "hasColumn = true;\n" +
+                "}\n" +
+                "sql.append(\" WHERE \").append(" + PRIMARY_KEY_COLUMN + ").append(\" = ?\");\n" +
+                "updateStatement = sql.toString();\n\n" +
+                "// the number of cached column combinations is limited\n" +
+                "if (DIRTY_UPDATE_STATEMENTS.size() < " + MAX_CACHED_UPDATE_STATEMENTS + ") {\n" +
+                TAB + "DIRTY_UPDATE_STATEMENTS.put((BitSet) dirtyFields.clone(), updateStatement); // the key must not change\n" +
+                "}\n" +
+                "return updateStatement;";
+        JavaMethod updateStatementMethod = constClass.addMethod(Access.PUBLIC, "String", "getDirtyUpdateStatement", Arrays.asList(new JavaVariable("BitSet", "dirtyFields")), content);
+        updateStatementMethod.setStatic(true);
+    }
+
+    /**
+     * Read only class of a named subset of the table columns (the managers query the COLUMNS of the projection, so the
+     * cursor is read by ordinal)
+     */
+    private void addProjectionClass(String packageName, String entityClassName, String constClassName, SchemaTable table, SchemaTableProjection projection, Map<String, JavaVariable> fieldVariables) {
+        String projectionClassName = createProjectionClassName(entityClassName, projection);
+        JavaClass projectionClass = new JavaClass(packageName, projectionClassName);
+        addHeader(projectionClass, projectionClassName);
+        projectionClass.addImport("android.database.Cursor");
+
+        StringBuilder columnsDefaultValue = new StringBuilder("new String[] {\n");
+        StringBuilder setContentContent = new StringBuilder();
+        List<String> fieldNames = projection.getFieldNames();
+        for (int i = 0; i < fieldNames.size(); i++) {
+            SchemaTableField field = table.getField(fieldNames.get(i));
+            JavaVariable fieldVariable = fieldVariables.get(field.getName());
+            if (fieldVariable == null) {
+                throw new IllegalStateException("Projection [" + projection.getName() + "] of table [" + table.getName() + "] cannot contain foreign key relationship field [" + field.getName() + "]");
+            }
+
+            if (fieldEnumImports.containsKey(field.getName())) {
+                projectionClass.addImport(fieldEnumImports.get(field.getName()));
+            }
+
+            columnsDefaultValue.append(TAB).append(TAB).append(constClassName).append(".C_").append(field.getConstantName());
+            columnsDefaultValue.append((i < fieldNames.size() - 1) ? ",\n" : "}");
+
+            JavaVariable projectionVariable = new JavaVariable(fieldVariable.getDataType(), fieldVariable.getName());
+            projectionVariable.setDefaultValue(fieldVariable.getDefaultValue(), false);
+            projectionVariable.setGetterReturnsClone(fieldVariable.isGetterReturnsClone());
+            projectionVariable.setNonnull(fieldVariable.isNonnull());
+            projectionVariable.setNullable(fieldVariable.isNullable());
+            projectionVariable.setGenerateGetter(true);
+            projectionClass.addVariable(projectionVariable);
+
+            setContentContent.append(projectionVariable.getName()).append(" = ").append(getContentValuesCursorGetterMethod(field, String.valueOf(i), projectionVariable)).append(";\n");
+        }
+
+        JavaVariable columnsVar = projectionClass.addConstant("String[]", "COLUMNS", columnsDefaultValue.toString(), false);
+        columnsVar.setAccess(Access.PUBLIC);
+
+        List<JavaVariable> cursorParams = new ArrayList<>();
+        cursorParams.add(new JavaVariable("Cursor", "cursor"));
+        projectionClass.addConstructor(Access.PUBLIC, cursorParams, "setContent(cursor);");
+        projectionClass.addMethod(Access.PUBLIC, "void", "setContent", cursorParams, setContentContent.toString());
+
+        projectionClasses.add(projectionClass);
+    }
+
+    /**
+     * @return name of the projection class (ex: IndividualSummary)
+     */
+    public static String createProjectionClassName(String entityClassName, SchemaTableProjection projection) {
+        return entityClassName + projection.getName();
+    }
+
     private void addHeader(JavaClass someClass, String className) {
         // Do not place date in file because it will cause a new check-in to scm
         String fileHeaderComment;
@@ -437,6 +806,33 @@ public class AndroidBaseRecordRenderer {
         someClass.addAnnotation("@SuppressWarnings(\"all\")");
     }
 
+    /**
+     * Holder of the column indexes of a cursor (resolved once per cursor instead of once per column for every row).  The
+     * reader of the cursor creates one holder and passes it to setContent(Cursor, CursorIndexes) for every row.
+     */
+    private void addCursorIndexesClass(List<String> varNames, String constructorContent) {
+        JavaClass indexesClass = new JavaClass(CURSOR_INDEXES_CLASS_NAME);
+        indexesClass.setStatic(true);
+        indexesClass.setFinal(true);
+        indexesClass.setCreateDefaultConstructor(false);
+
+        for (String varName : varNames) {
+            JavaVariable indexVar = indexesClass.addVariable("int", varName);
+            indexVar.setAccess(Access.PUBLIC);
+            indexVar.setFinal(true);
+        }
+
+        List<JavaVariable> cursorParams = new ArrayList<>();
+        cursorParams.add(new JavaVariable("Cursor", "cursor"));
+        indexesClass.addConstructor(Access.PUBLIC, cursorParams, constructorContent);
+
+        recordClass.addInnerClass(indexesClass);
+    }
+
+    private static String getColumnIndexOrThrow(String column) {
+        return "cursor.getColumnIndexOrThrow(" + column + ")";
+    }
+
     private void addPrimaryKeyFunctions(String dataType, String fullFieldColumn, String fieldNameJavaStyle) {
         recordClass.addMethod(Access.PUBLIC, "String", "getIdColumnName", "return " + fullFieldColumn + ";").addAnnotation("Override");
 
@@ -536,8 +932,10 @@ public class AndroidBaseRecordRenderer {
 
     /**
      * For method setContent(Cursor cursor).
+     *
+     * @param columnIndex expression of the column index (ex: indexes.name or cursor.getColumnIndexOrThrow(C_NAME))
      */
-    private String getContentValuesCursorGetterMethod(SchemaField field, String paramValue, JavaVariable newVariable) {
+    private String getContentValuesCursorGetterMethod(SchemaField field, String columnIndex, JavaVariable newVariable) {
         if (field.isEnumeration()) {
             switch (field.getJdbcDataType()) {
                 case BIT:
@@ -546,56 +944,56 @@ public class AndroidBaseRecordRenderer {
                 case INTEGER:
                 case NUMERIC:
                 case BIGINT:
-                    return "org.dbtools.android.domain.util.EnumUtil.ordinalToEnum(" + newVariable.getDataType() + ".class, cursor.getInt(cursor.getColumnIndexOrThrow(" + paramValue + ")), " + newVariable.getDefaultValue() + ")";
+                    return "org.dbtools.android.domain.util.EnumUtil.ordinalToEnum(" + newVariable.getDataType() + ".class, cursor.getInt(" + columnIndex + "), " + newVariable.getDefaultValue() + ")";
                 default:
-                    return "org.dbtools.android.domain.util.EnumUtil.stringToEnum(" + newVariable.getDataType() + ".class, cursor.getString(cursor.getColumnIndexOrThrow(" + paramValue + ")), " + newVariable.getDefaultValue() + ")";
+                    return "org.dbtools.android.domain.util.EnumUtil.stringToEnum(" + newVariable.getDataType() + ".class, cursor.getString(" + columnIndex + "), " + newVariable.getDefaultValue() + ")";
             }
         }
 
         Class<?> type = field.getJavaClassType();
         if (type == int.class || type == Integer.class) {
             if (field.isNotNull()) {
-                return "cursor.getInt(cursor.getColumnIndexOrThrow(" + paramValue + "))";
+                return "cursor.getInt(" + columnIndex + ")";
             } else {
-                return "!cursor.isNull(cursor.getColumnIndexOrThrow(" + paramValue + ")) ? cursor.getInt(cursor.getColumnIndexOrThrow(" + paramValue + ")) : null";
+                return "!cursor.isNull(" + columnIndex + ") ? cursor.getInt(" + columnIndex + ") : null";
             }
         } else if (type == String.class) {
             if (field.isNotNull()) {
-                return "cursor.getString(cursor.getColumnIndexOrThrow(" + paramValue + "))";
+                return "cursor.getString(" + columnIndex + ")";
             } else {
-                return "!cursor.isNull(cursor.getColumnIndexOrThrow(" + paramValue + ")) ? cursor.getString(cursor.getColumnIndexOrThrow(" + paramValue + ")) : null";
+                return "!cursor.isNull(" + columnIndex + ") ? cursor.getString(" + columnIndex + ") : null";
             }
         } else if (type == long.class || type == Long.class) {
             if (field.isNotNull()) {
-                return "cursor.getLong(cursor.getColumnIndexOrThrow(" + paramValue + "))";
+                return "cursor.getLong(" + columnIndex + ")";
             } else {
-                return "!cursor.isNull(cursor.getColumnIndexOrThrow(" + paramValue + ")) ? cursor.getLong(cursor.getColumnIndexOrThrow(" + paramValue + ")) : null";
+                return "!cursor.isNull(" + columnIndex + ") ? cursor.getLong(" + columnIndex + ") : null";
             }
         } else if (type == boolean.class || type == Boolean.class) {
             if (field.isNotNull()) {
-                return "cursor.getInt(cursor.getColumnIndexOrThrow(" + paramValue + ")) != 0 ? true : false";
+                return "cursor.getInt(" + columnIndex + ") != 0 ? true : false";
             } else {
-                return "!cursor.isNull(cursor.getColumnIndexOrThrow(" + paramValue + ")) ? cursor.getInt(cursor.getColumnIndexOrThrow(" + paramValue + ")) != 0 ? true : false : null";
+                return "!cursor.isNull(" + columnIndex + ") ? cursor.getInt(" + columnIndex + ") != 0 ? true : false : null";
             }
         } else if (type == Date.class) {
-            return genConfig.getDateType().getCursorDbStringToObjectMethod(field, paramValue, false);
+            return genConfig.getDateType().getCursorDbStringToObjectMethod(field, columnIndex, false);
         } else if (type == float.class || type == Float.class) {
             if (field.isNotNull()) {
-                return "cursor.getFloat(cursor.getColumnIndexOrThrow(" + paramValue + "))";
+                return "cursor.getFloat(" + columnIndex + ")";
             } else {
-                return "!cursor.isNull(cursor.getColumnIndexOrThrow(" + paramValue + ")) ? cursor.getFloat(cursor.getColumnIndexOrThrow(" + paramValue + ")) : null";
+                return "!cursor.isNull(" + columnIndex + ") ? cursor.getFloat(" + columnIndex + ") : null";
             }
         } else if (type == double.class || type == Double.class) {
             if (field.isNotNull()) {
-                return "cursor.getDouble(cursor.getColumnIndexOrThrow(" + paramValue + "))";
+                return "cursor.getDouble(" + columnIndex + ")";
             } else {
-                return "!cursor.isNull(cursor.getColumnIndexOrThrow(" + paramValue + ")) ? cursor.getDouble(cursor.getColumnIndexOrThrow(" + paramValue + ")) : null";
+                return "!cursor.isNull(" + columnIndex + ") ? cursor.getDouble(" + columnIndex + ") : null";
             }
         } else if (type == byte[].class || type == Byte[].class) {
             if (field.isNotNull()) {
-                return "cursor.getBlob(cursor.getColumnIndexOrThrow(" + paramValue + "))";
+                return "cursor.getBlob(" + columnIndex + ")";
             } else {
-                return "!cursor.isNull(cursor.getColumnIndexOrThrow(" + paramValue + ")) ? cursor.getBlob(cursor.getColumnIndexOrThrow(" + paramValue + ")) : null";
+                return "!cursor.isNull(" + columnIndex + ") ? cursor.getBlob(" + columnIndex + ") : null";
             }
         } else {
             return "[[UNHANDLED FIELD TYPE: " + type + "]]";
@@ -619,6 +1017,7 @@ public class AndroidBaseRecordRenderer {
 
                     recordClass.addImport(enumPackage);
                     constClass.addImport(enumPackage);
+                    fieldEnumImports.put(field.getName(), enumPackage);
                 }
 
                 newVariable = new JavaVariable(enumName, fieldNameJavaStyle);
@@ -768,7 +1167,7 @@ public class AndroidBaseRecordRenderer {
         String TAB = JavaClass.getTab();
 
         // find any other tables that depend on this one (MANYTOONE) or other tables this table depends on (ONETOONE)
-        for (SchemaTable tmpTable : database.getTables()) {
+        for (SchemaTable tmpTable : database.getReferencingTables(entityName)) {
             List<SchemaTableField> fkFields = tmpTable.getForeignKeyFields(entityName);
 
             for (SchemaTableField fkField : fkFields) {
@@ -871,16 +1270,63 @@ public class AndroidBaseRecordRenderer {
     }
 
     private void addBindInsert(StringBuilder bindStatementContent, String bindMethodName, String fieldNameJavaStyle, String value, boolean primitive, boolean notNull) {
-        addBind(bindStatementContent, bindInsertStatementContentIndex, bindMethodName, fieldNameJavaStyle, value, primitive, notNull);
+        addBind(bindStatementContent, String.valueOf(bindInsertStatementContentIndex), bindMethodName, fieldNameJavaStyle, value, primitive, notNull);
         bindInsertStatementContentIndex++;
     }
 
     private void addBindUpdate(StringBuilder bindStatementContent, String bindMethodName, String fieldNameJavaStyle, String value, boolean primitive, boolean notNull) {
-        addBind(bindStatementContent, bindUpdateStatementContentIndex, bindMethodName, fieldNameJavaStyle, value, primitive, notNull);
+        addBind(bindStatementContent, String.valueOf(bindUpdateStatementContentIndex), bindMethodName, fieldNameJavaStyle, value, primitive, notNull);
         bindUpdateStatementContentIndex++;
     }
 
-    private void addBind(StringBuilder bindStatementContent, int bindIndex, String bindMethodName, String fieldNameJavaStyle, String value, boolean primitive, boolean notNull) {
+    private void addBindUpsert(StringBuilder bindStatementContent, String bindMethodName, String fieldNameJavaStyle, String value, boolean primitive, boolean notNull) {
+        addBind(bindStatementContent, String.valueOf(bindUpsertStatementContentIndex), bindMethodName, fieldNameJavaStyle, value, primitive, notNull);
+        bindUpsertStatementContentIndex++;
+    }
+
+    /**
+     * Bind the value only if the column is part of the upsertKey (in the order of FIND_ID_BY_UPSERT_KEY_STATEMENT)
+     */
+    private void addBindUpsertKey(StringBuilder bindStatementContent, boolean upsertKeyField, String bindMethodName, String fieldNameJavaStyle, String value, boolean primitive, boolean notNull) {
+        if (!upsertKeyField) {
+            return;
+        }
+
+        addBind(bindStatementContent, String.valueOf(bindUpsertKeyStatementContentIndex), bindMethodName, fieldNameJavaStyle, value, primitive, notNull);
+        bindUpsertKeyStatementContentIndex++;
+    }
+
+    /**
+     * Auto increment primary key... new records bind NULL so that SQLite assigns the id
+     */
+    private void addBindUpsertPrimaryKey(StringBuilder bindStatementContent) {
+        bindStatementContent.append("if (getPrimaryKeyId() > 0) {\n");
+        bindStatementContent.append(TAB).append("statement.bindLong(").append(bindUpsertStatementContentIndex).append(", getPrimaryKeyId());\n");
+        bindStatementContent.append("} else {\n");
+        bindStatementContent.append(TAB).append("statement.bindNull(").append(bindUpsertStatementContentIndex).append(");\n");
+        bindStatementContent.append("}\n");
+        bindUpsertStatementContentIndex++;
+    }
+
+    /**
+     * Bind the value only if the column is dirty (dirtyFieldConst is null if the column is not tracked)
+     */
+    private void addBindDirty(StringBuilder bindStatementContent, String dirtyFieldConst, String bindMethodName, String fieldNameJavaStyle, String value, boolean primitive, boolean notNull) {
+        if (dirtyFieldConst == null) {
+            return;
+        }
+
+        StringBuilder bindContent = new StringBuilder();
+        addBind(bindContent, "bindIndex++", bindMethodName, fieldNameJavaStyle, value, primitive, notNull);
+
+        bindStatementContent.append("if (").append(DIRTY_FIELDS_VAR_NAME).append(".get(").append(dirtyFieldConst).append(")) {\n");
+        for (String line : bindContent.toString().split("\n")) {
+            bindStatementContent.append(TAB).append(line).append("\n");
+        }
+        bindStatementContent.append("}\n");
+    }
+
+    private void addBind(StringBuilder bindStatementContent, String bindIndex, String bindMethodName, String fieldNameJavaStyle, String value, boolean primitive, boolean notNull) {
         if (primitive || notNull) {
             bindStatementContent.append("statement." + bindMethodName + "(").append(bindIndex).append(", ").append(value).append(");\n");
         } else {
@@ -892,12 +1338,16 @@ public class AndroidBaseRecordRenderer {
         }
     }
 
-    public void writeToFile(String directoryName) {
-        constClass.writeToDisk(directoryName);
-        recordClass.writeToDisk(directoryName);
+    public void writeToFile(String directoryName, GeneratedFiles generatedFiles) {
+        generatedFiles.add(constClass.getFile(directoryName), constClass.writeTo(genConfig.getOutputSink(), directoryName));
+        generatedFiles.add(recordClass.getFile(directoryName), recordClass.writeTo(genConfig.getOutputSink(), directoryName));
 
         for (JavaEnum enumClass : enumerationClasses) {
-            enumClass.writeToDisk(directoryName);
+            generatedFiles.add(enumClass.getFile(directoryName), enumClass.writeTo(genConfig.getOutputSink(), directoryName));
+        }
+
+        for (JavaClass projectionClass : projectionClasses) {
+            generatedFiles.add(projectionClass.getFile(directoryName), projectionClass.writeTo(genConfig.getOutputSink(), directoryName));
         }
     }
 
@@ -908,4 +1358,11 @@ public class AndroidBaseRecordRenderer {
     public void setGenConfig(GenConfig genConfig) {
         this.genConfig = genConfig;
     }
+
+    /**
+     * @return BaseRecord class created by the last generate(...)
+     */
+    public JavaClass getRecordClass() {
+        return recordClass;
+    }
 }
@@ -10,16 +10,18 @@
 package org.dbtools.gen.android;
 
 
+import org.dbtools.codegen.java.WriteResult;
 import org.dbtools.gen.DBObjectBuilder;
 import org.dbtools.gen.GenConfig;
-import org.dbtools.renderer.SchemaRenderer;
+import org.dbtools.gen.GenPhase;
+import org.dbtools.gen.GenProfiler;
+import org.dbtools.gen.GeneratedFiles;
 import org.dbtools.schema.dbmappings.DatabaseMapping;
+import org.dbtools.schema.dbmappings.DatabaseMappingRegistry;
 import org.dbtools.schema.schemafile.*;
 
 import java.io.File;
 import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -32,8 +34,7 @@ public class AndroidDBObjectBuilder implements DBObjectBuilder {
     private AndroidBaseManagerRenderer baseManagerClass = new AndroidBaseManagerRenderer();
     private AndroidManagerRenderer managerClass = new AndroidManagerRenderer();
 
-    private int filesGeneratedCount = 0;
-    private List<String> filesGenerated = new ArrayList<>();
+    private GeneratedFiles generatedFiles = new GeneratedFiles();
 
     private PrintStream psLog;
 
@@ -67,29 +68,29 @@ public class AndroidDBObjectBuilder implements DBObjectBuilder {
             outDir += File.separatorChar;
         }
 
-        DatabaseMapping databaseMapping = SchemaRenderer.readXMLTypes(this.getClass(), SchemaRenderer.DEFAULT_TYPE_MAPPING_FILENAME, "sqlite");
+        long startNanos = System.nanoTime();
+        DatabaseMapping databaseMapping = DatabaseMappingRegistry.getDatabaseMapping("sqlite");
+        startNanos = GenProfiler.recordPhase(GenPhase.MAPPING_LOAD, startNanos);
 
         // Entities
-        String baseRecordFileName = outDir + AndroidRecordRenderer.createClassName(entity) + ".java";
         String recordFileName = outDir + AndroidRecordRenderer.createClassName(entity) + ".java";
-        File baseRecordFile = new File(baseRecordFileName);
         File recordFile = new File(recordFileName);
 
         // BaseRecord
         AndroidGeneratedEntityInfo generatedEntityInfo = baseRecordClass.generate(database, entity, packageName, databaseMapping);
-        baseRecordClass.writeToFile(outDir);
-
-        filesGenerated.add(baseRecordFile.getPath());
-        filesGeneratedCount++;
+        startNanos = GenProfiler.recordPhase(GenPhase.RENDER_RECORD, startNanos);
+        baseRecordClass.writeToFile(outDir, generatedFiles);
+        startNanos = GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos);
 
         // Record
         if (!entity.isEnumerationTable()) {
-            if (!recordFile.exists()) {
+            if (!genConfig.getOutputSink().exists(recordFile)) {
                 recordClass.generate(entity, packageName);
-                recordClass.writeToFile(outDir);
-
-                filesGenerated.add(recordFile.getPath());
-                filesGeneratedCount++;
+                startNanos = GenProfiler.recordPhase(GenPhase.RENDER_RECORD, startNanos);
+                recordClass.writeToFile(outDir, generatedFiles);
+                startNanos = GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos);
+            } else {
+                generatedFiles.add(recordFile, WriteResult.SKIPPED);
             }
         }
 
@@ -100,14 +101,18 @@ public class AndroidDBObjectBuilder implements DBObjectBuilder {
 
             // Base Manager
             baseManagerClass.generate(entity, packageName, generatedEntityInfo);
-            baseManagerClass.writeToFile(outDir);
-            filesGeneratedCount++;
+            startNanos = GenProfiler.recordPhase(GenPhase.RENDER_BASE_MANAGER, startNanos);
+            baseManagerClass.writeToFile(outDir, generatedFiles);
+            startNanos = GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos);
 
             // Manager
-            if (!managerFile.exists()) {
+            if (!genConfig.getOutputSink().exists(managerFile)) {
                 managerClass.generate(entity, packageName);
-                managerClass.writeToFile(outDir);
-                filesGeneratedCount++;
+                startNanos = GenProfiler.recordPhase(GenPhase.RENDER_MANAGER, startNanos);
+                managerClass.writeToFile(outDir, generatedFiles);
+                GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos);
+            } else {
+                generatedFiles.add(managerFile, WriteResult.SKIPPED);
             }
         }
 
@@ -116,17 +121,28 @@ public class AndroidDBObjectBuilder implements DBObjectBuilder {
 
     @Override
     public int getNumberFilesGenerated() {
-        return filesGeneratedCount;
+        return generatedFiles.getNumberFilesWritten();
     }
 
     @Override
     public List<String> getFilesGenerated() {
-        return Collections.unmodifiableList(filesGenerated);
+        return generatedFiles.getFilesWritten();
+    }
+
+    @Override
+    public int getNumberFilesUnchanged() {
+        return generatedFiles.getNumberFilesUnchanged();
+    }
+
+    @Override
+    public int getNumberFilesSkipped() {
+        return generatedFiles.getNumberFilesSkipped();
     }
 
     @Override
-    public void buildDatabaseManagersHolder(SchemaDatabase database, String packageBase, String packageName, List<SchemaTable> tables, List<SchemaView> views, List<SchemaQuery> queries, String outDir) {
+    public void buildDatabaseManagersHolder(SchemaDatabase database, String packageBase, String packageName, List<SchemaTable> tables, List<SchemaView> views, List<SchemaQuery> queries, String outDir, GenConfig genConfig) {
         DatabaseManagersHolderRenderer renderer = new DatabaseManagersHolderRenderer();
+        renderer.setGenConfig(genConfig);
         renderer.generate(database, packageBase, packageName, tables, views, queries, outDir);
     }
 }
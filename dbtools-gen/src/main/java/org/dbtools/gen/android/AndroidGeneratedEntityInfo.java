@@ -2,6 +2,12 @@ package org.dbtools.gen.android;
 
 public class AndroidGeneratedEntityInfo {
     private boolean primaryKeyAdded;
+    private boolean upsertAdded;
+    private boolean upsertOnPrimaryKey;
+    private boolean findIdByUpsertKeyAdded;
+    private boolean dirtyFieldsAdded;
+    private boolean cursorIndexesAdded;
+    private boolean allColumnsReaderAdded;
 
     public boolean isPrimaryKeyAdded() {
         return primaryKeyAdded;
@@ -10,4 +16,52 @@ public class AndroidGeneratedEntityInfo {
     public void setPrimaryKeyAdded(boolean primaryKeyAdded) {
         this.primaryKeyAdded = primaryKeyAdded;
     }
+
+    public boolean isUpsertAdded() {
+        return upsertAdded;
+    }
+
+    public void setUpsertAdded(boolean upsertAdded) {
+        this.upsertAdded = upsertAdded;
+    }
+
+    public boolean isUpsertOnPrimaryKey() {
+        return upsertOnPrimaryKey;
+    }
+
+    public void setUpsertOnPrimaryKey(boolean upsertOnPrimaryKey) {
+        this.upsertOnPrimaryKey = upsertOnPrimaryKey;
+    }
+
+    public boolean isFindIdByUpsertKeyAdded() {
+        return findIdByUpsertKeyAdded;
+    }
+
+    public void setFindIdByUpsertKeyAdded(boolean findIdByUpsertKeyAdded) {
+        this.findIdByUpsertKeyAdded = findIdByUpsertKeyAdded;
+    }
+
+    public boolean isDirtyFieldsAdded() {
+        return dirtyFieldsAdded;
+    }
+
+    public void setDirtyFieldsAdded(boolean dirtyFieldsAdded) {
+        this.dirtyFieldsAdded = dirtyFieldsAdded;
+    }
+
+    public boolean isCursorIndexesAdded() {
+        return cursorIndexesAdded;
+    }
+
+    public void setCursorIndexesAdded(boolean cursorIndexesAdded) {
+        this.cursorIndexesAdded = cursorIndexesAdded;
+    }
+
+    public boolean isAllColumnsReaderAdded() {
+        return allColumnsReaderAdded;
+    }
+
+    public void setAllColumnsReaderAdded(boolean allColumnsReaderAdded) {
+        this.allColumnsReaderAdded = allColumnsReaderAdded;
+    }
 }
@@ -14,6 +14,7 @@ import org.dbtools.codegen.java.JavaClass;
 import org.dbtools.codegen.java.JavaMethod;
 import org.dbtools.codegen.java.JavaVariable;
 import org.dbtools.gen.GenConfig;
+import org.dbtools.gen.GeneratedFiles;
 import org.dbtools.schema.schemafile.SchemaEntity;
 import org.dbtools.schema.schemafile.SchemaEntityType;
 import org.dbtools.schema.schemafile.SchemaField;
@@ -47,8 +48,10 @@ public class AndroidManagerRenderer {
         fileHeaderComment = "/*\n";
         fileHeaderComment += " * " + className + ".java\n";
         fileHeaderComment += " *\n";
-        fileHeaderComment += " * Generated on: " + dateFormat.format(now) + "\n";
-        fileHeaderComment += " *\n";
+        if (!genConfig.isReproducible()) {
+            fileHeaderComment += " * Generated on: " + dateFormat.format(now) + "\n";
+            fileHeaderComment += " *\n";
+        }
         fileHeaderComment += " */\n";
         myClass.setFileHeaderComment(fileHeaderComment);
 
@@ -116,7 +119,7 @@ public class AndroidManagerRenderer {
             createContent.append(TAB).append(TAB).append(TAB);
             SchemaField schemaField = entity.getFields().get(i);
 
-            String fieldConstName = JavaClass.formatConstant(schemaField.getName(true));
+            String fieldConstName = schemaField.getConstantName();
             createContent.append(entityClassName).append(".").append("FULL_C_").append(fieldConstName);
             createContent.append(" + \" AS \" + ");
             createContent.append(entityClassName).append(".").append("C_").append(fieldConstName);
@@ -158,7 +161,7 @@ public class AndroidManagerRenderer {
             createContent.append(TAB).append(TAB).append(TAB);
             SchemaField schemaField = entity.getFields().get(i);
 
-            String fieldConstName = JavaClass.formatConstant(schemaField.getName(true));
+            String fieldConstName = schemaField.getConstantName();
             createContent.append(entityClassName).append(".").append("FULL_C_").append(fieldConstName);
             createContent.append(" + \" AS \" + ");
             createContent.append(entityClassName).append(".").append("C_").append(fieldConstName);
@@ -190,7 +193,7 @@ public class AndroidManagerRenderer {
             createContent.append(TAB).append(TAB).append(TAB);
             SchemaField schemaField = entity.getFields().get(i);
 
-            String fieldConstName = JavaClass.formatConstant(schemaField.getName(true));
+            String fieldConstName = schemaField.getConstantName();
             createContent.append(".field(");
 
             createContent.append(entityConstClassName).append(".").append("FULL_C_").append(fieldConstName);
@@ -230,7 +233,7 @@ public class AndroidManagerRenderer {
             createContent.append(TAB).append(TAB).append(TAB);
             SchemaField schemaField = entity.getFields().get(i);
 
-            String fieldConstName = JavaClass.formatConstant(schemaField.getName(true));
+            String fieldConstName = schemaField.getConstantName();
             createContent.append(".field(");
             createContent.append(entityClassName).append(".").append("FULL_C_").append(fieldConstName);
             createContent.append(", ");
@@ -252,8 +255,8 @@ public class AndroidManagerRenderer {
         return recordClassName + "Manager";
     }
 
-    public void writeToFile(String outDir) {
-        myClass.writeToDisk(outDir);
+    public void writeToFile(String outDir, GeneratedFiles generatedFiles) {
+        generatedFiles.add(myClass.getFile(outDir), myClass.writeTo(genConfig.getOutputSink(), outDir));
     }
 
     public void setGenConfig(GenConfig genConfig) {
@@ -11,9 +11,11 @@ import org.dbtools.schema.schemafile.DatabaseSchema;
  */
 public class AndroidObjectsBuilder extends DBObjectsBuilder {
     private AndroidDBObjectBuilder objectBuilder;
+    private GenConfig genConfig;
 
     public AndroidObjectsBuilder(GenConfig genConfig) {
         super(genConfig);
+        this.genConfig = genConfig;
         objectBuilder = new AndroidDBObjectBuilder(genConfig);
     }
 
@@ -22,13 +24,18 @@ public class AndroidObjectsBuilder extends DBObjectsBuilder {
         return objectBuilder;
     }
 
+    @Override
+    public DBObjectBuilder createObjectBuilder() {
+        return new AndroidDBObjectBuilder(genConfig);
+    }
+
     public void buildAll(String schemaFilename, String baseOutputDir, String basePackageName) {
         setXmlFilename(schemaFilename);
         setOutputBaseDir(baseOutputDir);
         setPackageBase(basePackageName);
 
         build();
-        System.out.println("Generated [" + objectBuilder.getNumberFilesGenerated() + "] files.");
+        System.out.println("Generated [" + getNumberFilesGenerated() + "] files (unchanged [" + getNumberFilesUnchanged() + "] skipped [" + getNumberFilesSkipped() + "]).");
     }
 
     @Override
@@ -11,6 +11,7 @@ package org.dbtools.gen.android;
 
 import org.dbtools.codegen.java.JavaClass;
 import org.dbtools.gen.GenConfig;
+import org.dbtools.gen.GeneratedFiles;
 import org.dbtools.schema.schemafile.SchemaEntity;
 
 import java.text.SimpleDateFormat;
@@ -42,8 +43,10 @@ public class AndroidRecordRenderer {
         String fileHeaderComment;
         fileHeaderComment = "/*\n";
         fileHeaderComment += " * " + className + ".java\n";
-        fileHeaderComment += " *\n";
-        fileHeaderComment += " * Created: " + dateFormat.format(now) + "\n";
+        if (!genConfig.isReproducible()) {
+            fileHeaderComment += " *\n";
+            fileHeaderComment += " * Created: " + dateFormat.format(now) + "\n";
+        }
         fileHeaderComment += " */\n";
         myClass.setFileHeaderComment(fileHeaderComment);
 
@@ -62,8 +65,8 @@ public class AndroidRecordRenderer {
         return entity.getClassName();
     }
 
-    public void writeToFile(String directoryName) {
-        myClass.writeToDisk(directoryName);
+    public void writeToFile(String directoryName, GeneratedFiles generatedFiles) {
+        generatedFiles.add(myClass.getFile(directoryName), myClass.writeTo(genConfig.getOutputSink(), directoryName));
     }
 
     public void setGenConfig(GenConfig genConfig) {
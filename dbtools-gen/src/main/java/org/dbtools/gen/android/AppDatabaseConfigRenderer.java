@@ -40,7 +40,7 @@ public class AppDatabaseConfigRenderer {
         createNewDBToolsContentValues();
         createNewDBToolsLogger();
 
-        myClass.writeToDisk(outDir, false);
+        myClass.writeTo(genConfig.getOutputSink(), outDir, false);
     }
 
     private void createIdentifyDatabases(DatabaseSchema databaseSchema) {
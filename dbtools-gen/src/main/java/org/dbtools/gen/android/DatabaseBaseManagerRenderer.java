@@ -49,8 +49,8 @@ public class DatabaseBaseManagerRenderer {
         createOnCreate(databaseSchema);
         createOnCreateViews(databaseSchema);
 
-        myClass.writeToDisk(outDir, true);
-        myConstClass.writeToDisk(outDir, true);
+        myClass.writeTo(genConfig.getOutputSink(), outDir, true);
+        myConstClass.writeTo(genConfig.getOutputSink(), outDir, true);
     }
 
     private void addHeaders(JavaClass someClass) {
@@ -45,7 +45,7 @@ public class DatabaseManagerRenderer {
         createOnUpgrade();
         createOnUpgradeViews();
 
-        myClass.writeToDisk(outDir, false);
+        myClass.writeTo(genConfig.getOutputSink(), outDir, false);
     }
 
     private void createDatabaseVersions(DatabaseSchema databaseSchema) {
@@ -4,6 +4,7 @@ import org.dbtools.codegen.java.Access;
 import org.dbtools.codegen.java.JavaClass;
 import org.dbtools.codegen.java.JavaMethod;
 import org.dbtools.codegen.java.JavaVariable;
+import org.dbtools.gen.GenConfig;
 import org.dbtools.schema.schemafile.*;
 import org.dbtools.util.JavaUtil;
 
@@ -13,6 +14,7 @@ import java.util.List;
 public class DatabaseManagersHolderRenderer {
     private String packageName;
     private JavaClass myClass;
+    private GenConfig genConfig;
 
     public void generate(SchemaDatabase database, String packageBase, String packageName, List<SchemaTable> tables, List<SchemaView> views, List<SchemaQuery> queries, String outDir) {
         System.out.println("Generating DatabaseManagersHolder...");
@@ -52,7 +54,7 @@ public class DatabaseManagersHolderRenderer {
         JavaMethod initMethod = myClass.addMethod(Access.PUBLIC, "void", "init", params, initContent.toString());
         initMethod.setStatic(true);
 
-        myClass.writeToDisk(outDir, true);
+        myClass.writeTo(genConfig.getOutputSink(), outDir, true);
     }
 
     private void addSchemaEntityToInit(StringBuilder initContent, SchemaEntity entity) {
@@ -67,4 +69,8 @@ public class DatabaseManagersHolderRenderer {
 
         myClass.addImport(JavaUtil.createTablePackageName(packageName, entity.getClassName()) + "." + managerClassName);
     }
+
+    public void setGenConfig(GenConfig genConfig) {
+        this.genConfig = genConfig;
+    }
 }
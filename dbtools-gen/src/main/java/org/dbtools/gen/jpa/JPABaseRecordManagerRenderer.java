@@ -14,6 +14,7 @@ import org.dbtools.codegen.java.JavaClass;
 import org.dbtools.codegen.java.JavaMethod;
 import org.dbtools.codegen.java.JavaVariable;
 import org.dbtools.gen.GenConfig;
+import org.dbtools.gen.GeneratedFiles;
 import org.dbtools.schema.schemafile.SchemaEntity;
 import org.dbtools.schema.schemafile.SchemaEntityType;
 
@@ -121,8 +122,8 @@ public class JPABaseRecordManagerRenderer {
         return recordClassName + "BaseManager";
     }
 
-    public void writeToFile(String outDir) {
-        myClass.writeToDisk(outDir);
+    public void writeToFile(String outDir, GeneratedFiles generatedFiles) {
+        generatedFiles.add(myClass.getFile(outDir), myClass.writeTo(genConfig.getOutputSink(), outDir));
     }
 
     public void setGenConfig(GenConfig genConfig) {
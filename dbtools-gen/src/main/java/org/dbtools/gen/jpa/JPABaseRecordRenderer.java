@@ -13,6 +13,7 @@ package org.dbtools.gen.jpa;
 import org.dbtools.codegen.java.*;
 import org.dbtools.gen.DateType;
 import org.dbtools.gen.GenConfig;
+import org.dbtools.gen.GeneratedFiles;
 import org.dbtools.schema.ClassInfo;
 import org.dbtools.schema.schemafile.*;
 
@@ -53,6 +54,9 @@ public class JPABaseRecordRenderer {
         String className = createClassName(entity);
         SchemaEntityType entityType = entity.getType();
 
+        // reset data
+        enumerationClasses.clear();
+
         if (entity.isEnumerationTable() && entityType == SchemaEntityType.TABLE) {
             SchemaTable table = (SchemaTable) entity;
 
@@ -150,7 +154,7 @@ public class JPABaseRecordRenderer {
             }
 
             // constants
-            String constName = JavaClass.formatConstant(fieldNameJavaStyle);
+            String constName = field.getConstantName();
             String fieldKey = "C_" + constName;
 
             if (primaryKey) {
@@ -579,7 +583,7 @@ public class JPABaseRecordRenderer {
         String TAB = JavaClass.getTab();
 
         // find any other tables that depend on this one (MANYTOONE) or other tables this table depends on (ONETOONE)
-        for (SchemaTable tmpTable : dbSchema.getTables()) {
+        for (SchemaTable tmpTable : dbSchema.getReferencingTables(entity.getName())) {
             List<SchemaTableField> fkFields = tmpTable.getForeignKeyFields(entity.getName());
 
             for (SchemaTableField fkField : fkFields) {
@@ -718,11 +722,11 @@ public class JPABaseRecordRenderer {
         }
     }
 
-    public void writeToFile(String directoryname) {
-        myClass.writeToDisk(directoryname);
+    public void writeToFile(String directoryname, GeneratedFiles generatedFiles) {
+        generatedFiles.add(myClass.getFile(directoryname), myClass.writeTo(genConfig.getOutputSink(), directoryname));
 
         for (JavaEnum enumClass : enumerationClasses) {
-            enumClass.writeToDisk(directoryname);
+            generatedFiles.add(enumClass.getFile(directoryname), enumClass.writeTo(genConfig.getOutputSink(), directoryname));
         }
     }
 
@@ -9,12 +9,15 @@
  */
 package org.dbtools.gen.jpa;
 
+import org.dbtools.codegen.java.WriteResult;
 import org.dbtools.gen.DBObjectBuilder;
 import org.dbtools.gen.GenConfig;
+import org.dbtools.gen.GenPhase;
+import org.dbtools.gen.GenProfiler;
+import org.dbtools.gen.GeneratedFiles;
 import org.dbtools.schema.schemafile.*;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -26,11 +29,11 @@ public class JPADBObjectBuilder implements DBObjectBuilder {
     private JPARecordManagerRenderer managerClass = new JPARecordManagerRenderer();
     private JPABaseRecordRenderer baseRecordClass = new JPABaseRecordRenderer();
     private JPARecordClassRenderer recordClass = new JPARecordClassRenderer();
-    private int filesGeneratedCount = 0;
-    private List<String> filesGenerated = new ArrayList<>();
+    private GeneratedFiles generatedFiles = new GeneratedFiles();
 
     public JPADBObjectBuilder(GenConfig genConfig) {
         baseRecordClass.setGenConfig(genConfig);
+        recordClass.setGenConfig(genConfig);
         managerClass.setGenConfig(genConfig);
         baseManagerClass.setGenConfig(genConfig);
     }
@@ -51,6 +54,8 @@ public class JPADBObjectBuilder implements DBObjectBuilder {
             }
         }
 
+        long startNanos = System.nanoTime();
+
         // Managers
         if (!entity.isEnumerationTable()) {
             String managerFileName = outDir + JPARecordManagerRenderer.getClassName(entity) + ".java";
@@ -60,41 +65,41 @@ public class JPADBObjectBuilder implements DBObjectBuilder {
 
             // Base Manager
             baseManagerClass.generateObjectCode(entity, packageName);
-            baseManagerClass.writeToFile(outDir);
-
-            filesGeneratedCount++;
+            startNanos = GenProfiler.recordPhase(GenPhase.RENDER_BASE_MANAGER, startNanos);
+            baseManagerClass.writeToFile(outDir, generatedFiles);
+            startNanos = GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos);
 
             // Manager
-            if (!managerFile.exists()) {
+            if (!genConfig.getOutputSink().exists(managerFile)) {
                 managerClass.generateObjectCode(entity, packageName);
-                managerClass.writeToFile(outDir);
-
-                filesGeneratedCount++;
+                startNanos = GenProfiler.recordPhase(GenPhase.RENDER_MANAGER, startNanos);
+                managerClass.writeToFile(outDir, generatedFiles);
+                startNanos = GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos);
+            } else {
+                generatedFiles.add(managerFile, WriteResult.SKIPPED);
             }
         }
 
         // Entities
-        String baseRecordFileName = outDir + JPABaseRecordRenderer.createClassName(entity) + ".java";
         String recordFileName = outDir + JPARecordClassRenderer.createClassName(entity) + ".java";
-        File baseRecordFile = new File(baseRecordFileName);
         File recordFile = new File(recordFileName);
 
 
         // BaseRecord
         baseRecordClass.generate(database, entity, packageName);
-        baseRecordClass.writeToFile(outDir);
-
-        filesGenerated.add(baseRecordFile.getPath());
-        filesGeneratedCount++;
+        startNanos = GenProfiler.recordPhase(GenPhase.RENDER_RECORD, startNanos);
+        baseRecordClass.writeToFile(outDir, generatedFiles);
+        startNanos = GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos);
 
         // Record
         if (!entity.isEnumerationTable()) {
-            if (!recordFile.exists()) {
+            if (!genConfig.getOutputSink().exists(recordFile)) {
                 recordClass.generate(entity, packageName);
-                recordClass.writeToFile(outDir);
-
-                filesGenerated.add(recordFile.getPath());
-                filesGeneratedCount++;
+                startNanos = GenProfiler.recordPhase(GenPhase.RENDER_RECORD, startNanos);
+                recordClass.writeToFile(outDir, generatedFiles);
+                GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos);
+            } else {
+                generatedFiles.add(recordFile, WriteResult.SKIPPED);
             }
         }
         return true;
@@ -102,16 +107,26 @@ public class JPADBObjectBuilder implements DBObjectBuilder {
 
     @Override
     public int getNumberFilesGenerated() {
-        return filesGeneratedCount;
+        return generatedFiles.getNumberFilesWritten();
     }
 
     @Override
     public List<String> getFilesGenerated() {
-        return filesGenerated;
+        return generatedFiles.getFilesWritten();
+    }
+
+    @Override
+    public int getNumberFilesUnchanged() {
+        return generatedFiles.getNumberFilesUnchanged();
+    }
+
+    @Override
+    public int getNumberFilesSkipped() {
+        return generatedFiles.getNumberFilesSkipped();
     }
 
     @Override
-    public void buildDatabaseManagersHolder(SchemaDatabase database, String basePackageName, String packageName, List<SchemaTable> tables, List<SchemaView> views, List<SchemaQuery> queries, String outDir) {
+    public void buildDatabaseManagersHolder(SchemaDatabase database, String basePackageName, String packageName, List<SchemaTable> tables, List<SchemaView> views, List<SchemaQuery> queries, String outDir, GenConfig genConfig) {
         // do nothing for JPA
     }
 }
@@ -11,9 +11,11 @@ import org.dbtools.gen.GenConfig;
 public class JPAObjectsBuilder extends DBObjectsBuilder {
 
     private JPADBObjectBuilder objectBuilder;
+    private GenConfig genConfig;
 
     public JPAObjectsBuilder(GenConfig genConfig) {
         super(genConfig);
+        this.genConfig = genConfig;
         objectBuilder = new JPADBObjectBuilder(genConfig);
     }
 
@@ -22,13 +24,18 @@ public class JPAObjectsBuilder extends DBObjectsBuilder {
         return objectBuilder;
     }
 
+    @Override
+    public DBObjectBuilder createObjectBuilder() {
+        return new JPADBObjectBuilder(genConfig);
+    }
+
     public void buildAll(String schemaFilename, String baseOutputDir, String basePackageName) {
         setXmlFilename(schemaFilename);
         setOutputBaseDir(baseOutputDir);
         setPackageBase(basePackageName);
 
         build();
-        System.out.println("Generated [" + objectBuilder.getNumberFilesGenerated() + "] files.");
+        System.out.println("Generated [" + getNumberFilesGenerated() + "] files (unchanged [" + getNumberFilesUnchanged() + "] skipped [" + getNumberFilesSkipped() + "]).");
     }
 
 }
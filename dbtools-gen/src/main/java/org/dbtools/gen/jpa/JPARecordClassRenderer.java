@@ -10,6 +10,8 @@
 package org.dbtools.gen.jpa;
 
 import org.dbtools.codegen.java.JavaClass;
+import org.dbtools.gen.GenConfig;
+import org.dbtools.gen.GeneratedFiles;
 import org.dbtools.schema.schemafile.SchemaEntity;
 import org.dbtools.schema.schemafile.SchemaTable;
 import org.dbtools.schema.schemafile.SchemaTableUnique;
@@ -25,6 +27,7 @@ import java.util.List;
 public class JPARecordClassRenderer {
 
     private JavaClass myClass;
+    private GenConfig genConfig;
 
     /**
      * Creates a new instance of JPARecordClassRenderer.
@@ -44,8 +47,10 @@ public class JPARecordClassRenderer {
         String fileHeaderComment;
         fileHeaderComment = "/*\n";
         fileHeaderComment += " * " + className + ".java\n";
-        fileHeaderComment += " *\n";
-        fileHeaderComment += " * Created: " + dateFormat.format(now) + "\n";
+        if (!genConfig.isReproducible()) {
+            fileHeaderComment += " *\n";
+            fileHeaderComment += " * Created: " + dateFormat.format(now) + "\n";
+        }
         fileHeaderComment += " */\n";
         myClass.setFileHeaderComment(fileHeaderComment);
 
@@ -89,7 +94,11 @@ public class JPARecordClassRenderer {
         return entity.getClassName();
     }
 
-    public void writeToFile(String directoryName) {
-        myClass.writeToDisk(directoryName);
+    public void writeToFile(String directoryName, GeneratedFiles generatedFiles) {
+        generatedFiles.add(myClass.getFile(directoryName), myClass.writeTo(genConfig.getOutputSink(), directoryName));
+    }
+
+    public void setGenConfig(GenConfig genConfig) {
+        this.genConfig = genConfig;
     }
 }
@@ -13,6 +13,7 @@ import org.dbtools.codegen.java.Access;
 import org.dbtools.codegen.java.JavaClass;
 import org.dbtools.codegen.java.JavaVariable;
 import org.dbtools.gen.GenConfig;
+import org.dbtools.gen.GeneratedFiles;
 import org.dbtools.schema.schemafile.SchemaEntity;
 
 import java.text.SimpleDateFormat;
@@ -54,8 +55,10 @@ public class JPARecordManagerRenderer {
         fileHeaderComment = "/*\n";
         fileHeaderComment += " * " + className + ".java\n";
         fileHeaderComment += " *\n";
-        fileHeaderComment += " * Generated on: " + dateFormat.format(now) + "\n";
-        fileHeaderComment += " *\n";
+        if (!genConfig.isReproducible()) {
+            fileHeaderComment += " * Generated on: " + dateFormat.format(now) + "\n";
+            fileHeaderComment += " *\n";
+        }
         fileHeaderComment += " */\n";
         myClass.setFileHeaderComment(fileHeaderComment);
 
@@ -80,8 +83,8 @@ public class JPARecordManagerRenderer {
         return recordClassName + "Manager";
     }
 
-    public void writeToFile(String outDir) {
-        myClass.writeToDisk(outDir);
+    public void writeToFile(String outDir, GeneratedFiles generatedFiles) {
+        generatedFiles.add(myClass.getFile(outDir), myClass.writeTo(genConfig.getOutputSink(), outDir));
     }
 
     public void setGenConfig(GenConfig genConfig) {
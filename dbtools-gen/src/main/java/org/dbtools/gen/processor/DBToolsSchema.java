@@ -0,0 +1,55 @@
+package org.dbtools.gen.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generate the database classes for a schema at compile time (see DBToolsSchemaProcessor).  Put this annotation on a
+ * class (or package-info.java) in the base package of the generated classes:
+ * <pre>
+ * &#64;DBToolsSchema(value = "schema.xml", type = "ANDROID-JAVA", dateType = "JSR-310")
+ * package com.company.data;
+ * </pre>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.TYPE, ElementType.PACKAGE})
+public @interface DBToolsSchema {
+    /**
+     * Schema file: a source/class path resource, a path relative to the "dbtools.schemaDir" processor option or an absolute path
+     */
+    String value();
+
+    /**
+     * ANDROID-JAVA, ANDROID-KOTLIN, ANDROID-KOTLIN-ROOM or JPA (Kotlin types require kapt)
+     */
+    String type() default "ANDROID-JAVA";
+
+    /**
+     * Base package of the generated classes (default: the package of the annotated element)
+     */
+    String packageBase() default "";
+
+    /**
+     * JAVA-DATE, JODA or JSR-310
+     */
+    String dateType() default "JAVA-DATE";
+
+    boolean injectionSupport() default false;
+
+    boolean jsr305Support() default false;
+
+    boolean javaeeSupport() default false;
+
+    boolean includeDatabaseNameInPackage() default false;
+
+    boolean sqlQueryBuilderSupport() default false;
+
+    boolean rxJavaSupport() default false;
+
+    /**
+     * Generate upsert(...) methods (requires SQLite 3.24+ / Android API 30+)
+     */
+    boolean upsertSupport() default false;
+}
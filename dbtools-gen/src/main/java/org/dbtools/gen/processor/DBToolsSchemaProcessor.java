@@ -0,0 +1,149 @@
+package org.dbtools.gen.processor;
+
+import org.dbtools.gen.DBObjectsBuilder;
+import org.dbtools.gen.DateType;
+import org.dbtools.gen.GenConfig;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compile time generation: runs the DBObjectsBuilder for every element annotated with DBToolsSchema and writes the
+ * generated sources through the Filer (generated sources are compiled with the project, but are not part of src/main/java).
+ * <p/>
+ * Options:
+ * <ul>
+ * <li>dbtools.schemaDir: directory used to find relative schema files (such as src/main/database)</li>
+ * <li>kapt.kotlin.generated: (set by kapt) directory of generated Kotlin sources</li>
+ * </ul>
+ * Registered as a dynamic incremental processor for Gradle: it is aggregating when generating Java sources (all written
+ * through the Filer) and not incremental when generating Kotlin sources (written to the kapt directory, which Gradle
+ * does not track).  Gradle does not know about the schema file, so it should be declared as an input of the compile task.
+ */
+@SupportedAnnotationTypes("org.dbtools.gen.processor.DBToolsSchema")
+@SupportedOptions({DBToolsSchemaProcessor.OPTION_SCHEMA_DIR, DBToolsSchemaProcessor.OPTION_KAPT_KOTLIN_GENERATED})
+public class DBToolsSchemaProcessor extends AbstractProcessor {
+    public static final String OPTION_SCHEMA_DIR = "dbtools.schemaDir";
+    public static final String OPTION_KAPT_KOTLIN_GENERATED = "kapt.kotlin.generated";
+    static final String OPTION_GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new HashSet<>(super.getSupportedOptions());
+        if (isInitialized() && !processingEnv.getOptions().containsKey(OPTION_KAPT_KOTLIN_GENERATED)) {
+            options.add(OPTION_GRADLE_AGGREGATING);
+        }
+        return options;
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(DBToolsSchema.class)) {
+            DBToolsSchema schema = element.getAnnotation(DBToolsSchema.class);
+            try {
+                generate(element, schema);
+            } catch (Exception e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate classes for schema [" + schema.value() + "]: " + e.getMessage(), element);
+            }
+        }
+
+        return true;
+    }
+
+    private void generate(Element element, DBToolsSchema schema) throws IOException {
+        String packageBase = schema.packageBase();
+        if (packageBase.isEmpty()) {
+            packageBase = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+        }
+
+        String kotlinSourceDir = processingEnv.getOptions().get(OPTION_KAPT_KOTLIN_GENERATED);
+        FilerOutputSink outputSink = new FilerOutputSink(processingEnv.getFiler(), processingEnv.getElementUtils(), element,
+                kotlinSourceDir != null ? new File(kotlinSourceDir) : null);
+
+        GenConfig genConfig = new GenConfig();
+        genConfig.setDateType(DateType.fromOptionName(schema.dateType()));
+        genConfig.setInjectionSupport(schema.injectionSupport());
+        genConfig.setJsr305Support(schema.jsr305Support());
+        genConfig.setJavaeeSupport(schema.javaeeSupport());
+        genConfig.setIncludeDatabaseNameInPackage(schema.includeDatabaseNameInPackage());
+        genConfig.setSqlQueryBuilderSupport(schema.sqlQueryBuilderSupport());
+        genConfig.setRxJavaSupport(schema.rxJavaSupport());
+        genConfig.setUpsertSupport(schema.upsertSupport());
+        genConfig.setOutputSink(outputSink);
+
+        DBObjectsBuilder builder = DBObjectsBuilder.createBuilder(schema.type(), genConfig);
+        builder.setXmlFilename(findSchemaFile(schema.value()).getPath());
+        builder.setCopyXsdFile(false); // do not write into the source tree during compilation
+        builder.setPackageBase(packageBase);
+        builder.setOutputBaseDir(FilerOutputSink.getOutputBaseDir(packageBase));
+
+        if (!builder.build()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate classes for schema [" + schema.value() + "]", element);
+            return;
+        }
+
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "DBTools generated [" + builder.getNumberFilesGenerated() + "] files for schema [" + schema.value() + "]");
+    }
+
+    /**
+     * Find the schema file: absolute path, relative to the dbtools.schemaDir option or a source/class path resource
+     */
+    private File findSchemaFile(String schemaName) throws IOException {
+        File schemaFile = new File(schemaName);
+        if (schemaFile.isAbsolute() && schemaFile.exists()) {
+            return schemaFile;
+        }
+
+        String schemaDir = processingEnv.getOptions().get(OPTION_SCHEMA_DIR);
+        if (schemaDir != null && new File(schemaDir, schemaName).exists()) {
+            return new File(schemaDir, schemaName);
+        }
+
+        for (StandardLocation location : new StandardLocation[]{StandardLocation.SOURCE_PATH, StandardLocation.CLASS_PATH}) {
+            FileObject resource;
+            try {
+                resource = processingEnv.getFiler().getResource(location, "", schemaName);
+            } catch (IOException | IllegalArgumentException e) {
+                continue; // location not supported (or not found)
+            }
+
+            URI uri = resource.toUri();
+            if ("file".equals(uri.getScheme()) && new File(uri).exists()) {
+                return new File(uri);
+            }
+
+            // resource in a jar... the generator needs a file
+            try (InputStream in = resource.openInputStream()) {
+                File tempFile = File.createTempFile("dbtools-schema", ".xml");
+                tempFile.deleteOnExit();
+                Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                return tempFile;
+            } catch (IOException e) {
+                // not found
+            }
+        }
+
+        throw new IllegalArgumentException("Schema file [" + schemaName + "] not found (set the [" + OPTION_SCHEMA_DIR + "] processor option or use an absolute path)");
+    }
+}
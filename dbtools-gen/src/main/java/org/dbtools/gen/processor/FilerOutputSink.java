@@ -0,0 +1,119 @@
+package org.dbtools.gen.processor;
+
+import org.dbtools.codegen.java.FileOutputSink;
+import org.dbtools.codegen.java.OutputSink;
+import org.dbtools.codegen.java.SourceEmitter;
+import org.dbtools.codegen.java.SourceUtil;
+import org.dbtools.codegen.java.WriteResult;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.util.Elements;
+import javax.tools.JavaFileObject;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes generated sources through the annotation processing Filer.  The generator output base dir is the package base
+ * as a path (com/company/data), so every generated path maps to a class name.  Java sources are created with
+ * Filer.createSourceFile(...), Kotlin sources are written to the kapt generated Kotlin source dir.
+ * <p/>
+ * Files that are normally only written if they do not exist (Record, Manager, etc) are skipped if the class is already
+ * part of the compilation (written by the developer).
+ */
+class FilerOutputSink implements OutputSink {
+    private final Filer filer;
+    private final Elements elements;
+    private final Element originatingElement;
+    private final File kotlinSourceDir;
+    private final Map<String, Long> filesWritten = new TreeMap<>(); // path to size
+
+    FilerOutputSink(Filer filer, Elements elements, Element originatingElement, File kotlinSourceDir) {
+        this.filer = filer;
+        this.elements = elements;
+        this.originatingElement = originatingElement;
+        this.kotlinSourceDir = kotlinSourceDir;
+    }
+
+    static String getOutputBaseDir(String packageBase) {
+        return packageBase.replace('.', '/');
+    }
+
+    @Override
+    public synchronized WriteResult write(File file, SourceEmitter emitter, boolean overwrite) {
+        String path = getPath(file);
+        if (filesWritten.containsKey(path) || (!overwrite && exists(file))) {
+            return WriteResult.SKIPPED; // the Filer does not allow a file to be created twice
+        }
+
+        if (path.endsWith(".java")) {
+            StringBuilder content = new StringBuilder();
+            try {
+                emitter.emitTo(content);
+
+                JavaFileObject sourceFile = filer.createSourceFile(getClassName(path), originatingElement);
+                try (Writer writer = sourceFile.openWriter()) {
+                    writer.append(content);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write [" + getClassName(path) + "]", e);
+            }
+            filesWritten.put(path, (long) content.toString().getBytes(SourceUtil.SOURCE_CHARSET).length);
+            return WriteResult.WRITTEN;
+        }
+
+        if (kotlinSourceDir == null) {
+            throw new IllegalStateException("Cannot write [" + path + "]: Kotlin sources can only be generated with kapt (missing option [" + DBToolsSchemaProcessor.OPTION_KAPT_KOTLIN_GENERATED + "])");
+        }
+
+        File outFile = new File(kotlinSourceDir, path);
+        WriteResult result = FileOutputSink.INSTANCE.write(outFile, emitter, overwrite);
+        filesWritten.put(path, outFile.length());
+        return result;
+    }
+
+    @Override
+    public synchronized boolean exists(File file) {
+        String path = getPath(file);
+        if (filesWritten.containsKey(path)) {
+            return true;
+        }
+
+        if (path.endsWith(".java") || path.endsWith(".kt")) {
+            return elements.getTypeElement(getClassName(path)) != null;
+        }
+
+        // directory
+        for (String writtenPath : filesWritten.keySet()) {
+            if (writtenPath.startsWith(path + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized long getSize(File file) {
+        Long size = filesWritten.get(getPath(file));
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public void createDirectory(File directory) {
+        // directories are created by the Filer
+    }
+
+    private static String getPath(File file) {
+        return file.getPath().replace('\\', '/').replaceAll("/+", "/"); // the JPA builder may add "\\" to the output dir
+    }
+
+    /**
+     * com/company/data/individual/Individual.java -> com.company.data.individual.Individual
+     */
+    static String getClassName(String path) {
+        return path.substring(0, path.lastIndexOf('.')).replace('/', '.');
+    }
+}
@@ -10,11 +10,10 @@
 package org.dbtools.renderer;
 
 import org.dbtools.schema.SQLStatement;
+import org.dbtools.schema.TableDependencyGraph;
 import org.dbtools.schema.dbmappings.DatabaseMapping;
-import org.dbtools.schema.dbmappings.DatabaseMappings;
+import org.dbtools.schema.dbmappings.DatabaseMappingRegistry;
 import org.dbtools.schema.schemafile.*;
-import org.simpleframework.xml.Serializer;
-import org.simpleframework.xml.core.Persister;
 
 import javax.swing.*;
 import java.awt.*;
@@ -27,8 +26,8 @@ import java.util.List;
  */
 public class SchemaRenderer implements Runnable {
 
-    public static final String DEFAULT_TYPE_MAPPING_FILENAME = "dbmappings.xml";
-    public static final String DEFAULT_TYPE_MAPPING_FILE = "/org/dbtools/xml/" + DEFAULT_TYPE_MAPPING_FILENAME;
+    public static final String DEFAULT_TYPE_MAPPING_FILENAME = DatabaseMappingRegistry.DEFAULT_TYPE_MAPPING_FILENAME;
+    public static final String DEFAULT_TYPE_MAPPING_FILE = DatabaseMappingRegistry.DEFAULT_TYPE_MAPPING_FILE;
     private DatabaseSchema dbSchema;
     private String otherInsertsFilename = "";
     private DatabaseMapping databaseMapping;
@@ -131,49 +130,11 @@ public class SchemaRenderer implements Runnable {
         }
     }
 
-    public static synchronized DatabaseMapping readXMLTypes(Class<?> classLoaderClass, String typesFilename, String dbVendorName) {
-        File xmlMappingFile = new File(typesFilename);
-        if (!xmlMappingFile.exists()) {
-            xmlMappingFile = new File("xml/" + typesFilename);
-            if (!xmlMappingFile.exists()) {
-                xmlMappingFile = new File("../xml/" + typesFilename);
-                if (!xmlMappingFile.exists()) {
-                    xmlMappingFile = null;
-                }
-            }
-        }
-
-        // may need to try to load from the jar
-        InputStream xmlMappingInputStream = null;
-        if (xmlMappingFile == null) {
-//            System.out.println("Failed to find mapping file: [" + typesFilename + "]... loading default one from classpath...");
-            xmlMappingInputStream = classLoaderClass.getResourceAsStream(DEFAULT_TYPE_MAPPING_FILE);
-        }
-
-        if (xmlMappingFile == null && xmlMappingInputStream == null) {
-            throw new IllegalStateException("Failed to find mapping file: [" + typesFilename + "] in classpath.");
-            //return false;
-        }
-
-        try {
-            Serializer serializer = new Persister();
-            DatabaseMappings mappings;
-            if (xmlMappingFile != null) {
-                mappings = serializer.read(DatabaseMappings.class, xmlMappingFile);
-            } else {
-                mappings = serializer.read(DatabaseMappings.class, xmlMappingInputStream);
-            }
-
-            for (DatabaseMapping databaseMapping : mappings.getDatabaseMappings()) {
-                if (databaseMapping.getDatabaseName().equalsIgnoreCase(dbVendorName)) {
-                    return databaseMapping;
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        return null;
+    /**
+     * Mapping for dbVendorName (mapping files are only read once... see DatabaseMappingRegistry)
+     */
+    public static DatabaseMapping readXMLTypes(Class<?> classLoaderClass, String typesFilename, String dbVendorName) {
+        return DatabaseMappingRegistry.getDatabaseMapping(typesFilename, dbVendorName);
     }
 
     /**
@@ -264,10 +225,15 @@ public class SchemaRenderer implements Runnable {
 
     public boolean executeRenderer() {
         showProgress("Reading Database Mappings...", true);
-        databaseMapping = readXMLTypes(this.getClass(), mappingFilename, dbVendorName);
+        databaseMapping = DatabaseMappingRegistry.getDatabaseMapping(mappingFilename, dbVendorName);
 
-        showProgress("Reading XML Schema...", true);
-        dbSchema = DatabaseSchema.readXMLSchema(schemaXMLFilename);
+        if (schemaXMLFilename != null && !schemaXMLFilename.isEmpty()) {
+            showProgress("Reading XML Schema...", true);
+            dbSchema = DatabaseSchema.readXMLSchema(schemaXMLFilename);
+        } else if (dbSchema == null) {
+            showProgress("No XML Schema specified.", true);
+            return false;
+        }
 
         if (databaseName != null && databaseName.isEmpty()) {
             return renderDatabase(dbSchema.getDatabase(databaseName));
@@ -448,12 +414,13 @@ public class SchemaRenderer implements Runnable {
             ifExists = " IF EXISTS ";
         }
 
-        for (SchemaView view : viewsToGenerate) {
-            inverseViews.add(0, view.getName());
+        for (int i = viewsToGenerate.size() - 1; i >= 0; i--) {
+            inverseViews.add(viewsToGenerate.get(i).getName());
         }
 
-        for (SchemaTable table : tablesToGenerate) {
-            inverseTables.add(0, table.getName());
+        // tablesToGenerate is in create order
+        for (int i = tablesToGenerate.size() - 1; i >= 0; i--) {
+            inverseTables.add(tablesToGenerate.get(i).getName());
         }
 
         // create drop schema
@@ -577,7 +544,7 @@ public class SchemaRenderer implements Runnable {
         // determine which tables to generate
         List<SchemaTable> requestedTables = new ArrayList<>();
         if (tablesToGenerate == null || (tablesToGenerate.length > 0 && tablesToGenerate[0] == null)) {
-            requestedTables.addAll(database.getTables());
+            return new ArrayList<>(database.getTableDependencyGraph().getCreateOrder());
         } else {
             for (String tableToGenerate : tablesToGenerate) {
                 SchemaTable table = database.getTable(tableToGenerate);
@@ -595,78 +562,11 @@ public class SchemaRenderer implements Runnable {
     /**
      * Returns a list of tables and the order in which they should be created.
      *
-     * @param requestedTables List of Strings of tablesNames to be ordered.  Use null to
-     *                        specify all tables in this database
-     * @return List of Strings of tableNames (Ordered for creation)
+     * @param requestedTables List of tables to be ordered
+     * @return List of tables (Ordered for creation)
      */
     public static List<SchemaTable> getTablesInCreateOrder(List<SchemaTable> requestedTables) {
-        // order the tables in correct create order so that there are no db errors
-        List<SchemaTable> orderedTables = new ArrayList<>();
-        int lastOrderedTablesSize = 0;
-
-        List<SchemaTable> tablesNotYetAdded = new ArrayList<>(requestedTables);
-        List<SchemaTable> tablesCouldNotBeAdded;
-        while (tablesNotYetAdded.size() > 0) {
-            tablesCouldNotBeAdded = new ArrayList<>();
-            for (SchemaTable table : tablesNotYetAdded) {
-                if (tableListContainsAllFKFields(orderedTables, table)) {
-                    orderedTables.add(table);
-                } else {
-                    tablesCouldNotBeAdded.add(table);
-                }
-            }
-
-            // keep us from an infinite loop
-            // if nothing was added to orderedTables.... then throw exception
-            if (lastOrderedTablesSize == orderedTables.size()) {
-                //int remainingTablesCount = tablesNotYetAdded.size() - orderedTables.size();
-
-                for (SchemaTable missingDepTable : tablesNotYetAdded) {
-                    System.out.println("WARNING: Could not find dependency table for table: [" + missingDepTable.getName() + "]");
-
-                    // just add it anyway
-                    orderedTables.add(missingDepTable);
-                }
-                break;
-            }
-
-            lastOrderedTablesSize = orderedTables.size();
-
-            // this must be last
-            tablesNotYetAdded = new ArrayList<>(tablesCouldNotBeAdded);
-        }
-
-        return orderedTables;
-    }
-
-    private static boolean tableListContainsAllFKFields(List<SchemaTable> orderedTables, SchemaTable table) {
-        for (SchemaTableField field : table.getFields()) {
-            String fkTable = field.getForeignKeyTable();
-
-            // if
-            // 1. fktable is not null
-            // 2. fktable name IS something more than empty
-            // 3. fktable name does NOT exist int the already added tables
-            // 4. fktable is NOT this table
-            if (fkTable != null && fkTable.length() > 0 && !tableListContainsTable(orderedTables, fkTable) && !fkTable.equalsIgnoreCase(table.getName())) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private static boolean tableListContainsTable(List<SchemaTable> tables, String tableToMatch) {
-        if (tableToMatch == null) {
-            return false;
-        }
-
-        for (SchemaTable table : tables) {
-            if (table.getName().equals(tableToMatch)) {
-                return true;
-            }
-        }
-
-        return false;
+        return new ArrayList<>(new TableDependencyGraph(requestedTables).getCreateOrder());
     }
 
     public List<SchemaView> getViewsToGenerate(SchemaDatabase database, String[] viewsToGenerate) {
@@ -876,6 +776,13 @@ public class SchemaRenderer implements Runnable {
         return dbSchema;
     }
 
+    /**
+     * Schema used by executeRenderer() when schemaXMLFilename is not set (an already read schema can be shared by multiple renderers)
+     */
+    public void setDbSchema(DatabaseSchema dbSchema) {
+        this.dbSchema = dbSchema;
+    }
+
     public String getOtherInsertsFilename() {
         return otherInsertsFilename;
     }
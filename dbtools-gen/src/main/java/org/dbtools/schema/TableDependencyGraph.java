@@ -0,0 +1,225 @@
+package org.dbtools.schema;
+
+import org.dbtools.schema.schemafile.SchemaTable;
+import org.dbtools.schema.schemafile.SchemaTableField;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Foreign key dependency graph of a set of tables.  Orders the tables for create (referenced tables first) and drop
+ * (reverse of create), and is available to anything else that needs to know which tables reference each other.
+ * <p/>
+ * Create order is the same as the order produced by repeatedly passing over the tables (in schema order) adding each
+ * table whose referenced tables have already been added.  Tables that are part of (or depend on) a foreign key cycle
+ * cannot be ordered... they are added at the end (in schema order) and the cycle is reported.
+ */
+public class TableDependencyGraph {
+    private final List<SchemaTable> tables;
+    private final Map<String, Integer> tableIndexes = new HashMap<>();
+    private final List<Set<Integer>> dependencies = new ArrayList<>(); // tables referenced by the table at each index
+    private final List<Set<Integer>> dependents = new ArrayList<>(); // tables that reference the table at each index
+    private final List<String> unresolvedReferences = new ArrayList<>();
+    private final List<String> cyclePath = new ArrayList<>();
+    private final List<SchemaTable> createOrder;
+
+    public TableDependencyGraph(List<SchemaTable> tables) {
+        this.tables = Collections.unmodifiableList(new ArrayList<>(tables));
+
+        for (int i = 0; i < this.tables.size(); i++) {
+            String name = this.tables.get(i).getName();
+            if (!tableIndexes.containsKey(name)) {
+                tableIndexes.put(name, i);
+            }
+            dependencies.add(new LinkedHashSet<Integer>());
+            dependents.add(new LinkedHashSet<Integer>());
+        }
+
+        for (int i = 0; i < this.tables.size(); i++) {
+            SchemaTable table = this.tables.get(i);
+            for (SchemaTableField field : table.getFields()) {
+                String fkTable = field.getForeignKeyTable();
+                if (fkTable == null || fkTable.isEmpty() || fkTable.equalsIgnoreCase(table.getName())) {
+                    continue;
+                }
+
+                Integer fkTableIndex = tableIndexes.get(fkTable);
+                if (fkTableIndex != null) {
+                    dependencies.get(i).add(fkTableIndex);
+                    dependents.get(fkTableIndex).add(i);
+                } else {
+                    unresolvedReferences.add(table.getName() + "." + field.getName() + " -> " + fkTable);
+                    System.out.println("WARNING: Could not find dependency table [" + fkTable + "] for table: [" + table.getName() + "]");
+                }
+            }
+        }
+
+        createOrder = Collections.unmodifiableList(sort());
+    }
+
+    /**
+     * Kahn's algorithm.  Tables are taken in "passes" over the schema order: a table that becomes available later in the
+     * current pass is added in this pass, otherwise it waits for the next pass.
+     */
+    private List<SchemaTable> sort() {
+        int[] remainingDependencies = new int[tables.size()];
+        PriorityQueue<Integer> currentPass = new PriorityQueue<>();
+        PriorityQueue<Integer> nextPass = new PriorityQueue<>();
+        for (int i = 0; i < tables.size(); i++) {
+            remainingDependencies[i] = dependencies.get(i).size();
+            if (remainingDependencies[i] == 0) {
+                currentPass.add(i);
+            }
+        }
+
+        List<SchemaTable> orderedTables = new ArrayList<>(tables.size());
+        boolean[] added = new boolean[tables.size()];
+        while (!currentPass.isEmpty()) {
+            int index = currentPass.poll();
+            orderedTables.add(tables.get(index));
+            added[index] = true;
+
+            for (int dependent : dependents.get(index)) {
+                remainingDependencies[dependent]--;
+                if (remainingDependencies[dependent] == 0) {
+                    if (dependent > index) {
+                        currentPass.add(dependent);
+                    } else {
+                        nextPass.add(dependent);
+                    }
+                }
+            }
+
+            if (currentPass.isEmpty()) {
+                PriorityQueue<Integer> emptyPass = currentPass;
+                currentPass = nextPass;
+                nextPass = emptyPass;
+            }
+        }
+
+        if (orderedTables.size() < tables.size()) {
+            findCycle(added);
+            System.out.println("WARNING: Circular foreign key dependency: [" + getCyclePathText() + "]");
+
+            // just add them anyway
+            for (int i = 0; i < tables.size(); i++) {
+                if (!added[i]) {
+                    System.out.println("WARNING: Could not order table for create: [" + tables.get(i).getName() + "]");
+                    orderedTables.add(tables.get(i));
+                }
+            }
+        }
+
+        return orderedTables;
+    }
+
+    /**
+     * Every table that was not added still references at least one table that was not added... so following those
+     * references from any of them must end in a cycle
+     */
+    private void findCycle(boolean[] added) {
+        int start = 0;
+        while (added[start]) {
+            start++;
+        }
+
+        Map<Integer, Integer> pathPositions = new LinkedHashMap<>();
+        int index = start;
+        while (!pathPositions.containsKey(index)) {
+            pathPositions.put(index, pathPositions.size());
+            for (int dependency : dependencies.get(index)) {
+                if (!added[dependency]) {
+                    index = dependency;
+                    break;
+                }
+            }
+        }
+
+        int cycleStart = pathPositions.get(index);
+        for (Map.Entry<Integer, Integer> entry : pathPositions.entrySet()) {
+            if (entry.getValue() >= cycleStart) {
+                cyclePath.add(tables.get(entry.getKey()).getName());
+            }
+        }
+        cyclePath.add(tables.get(index).getName());
+    }
+
+    /**
+     * @return all tables in create order (referenced tables first)
+     */
+    public List<SchemaTable> getCreateOrder() {
+        return createOrder;
+    }
+
+    /**
+     * @return all tables in drop order (reverse of create order)
+     */
+    public List<SchemaTable> getDropOrder() {
+        List<SchemaTable> dropOrder = new ArrayList<>(createOrder);
+        Collections.reverse(dropOrder);
+        return dropOrder;
+    }
+
+    /**
+     * @return tables referenced (by foreign key) by table
+     */
+    public List<SchemaTable> getDependencies(SchemaTable table) {
+        return getTables(dependencies, table);
+    }
+
+    /**
+     * @return tables that reference (by foreign key) table
+     */
+    public List<SchemaTable> getDependents(SchemaTable table) {
+        return getTables(dependents, table);
+    }
+
+    private List<SchemaTable> getTables(List<Set<Integer>> edges, SchemaTable table) {
+        Integer index = tableIndexes.get(table.getName());
+        if (index == null) {
+            throw new IllegalArgumentException("Table [" + table.getName() + "] is not part of this graph");
+        }
+
+        List<SchemaTable> edgeTables = new ArrayList<>();
+        for (int edgeIndex : edges.get(index)) {
+            edgeTables.add(tables.get(edgeIndex));
+        }
+        return edgeTables;
+    }
+
+    public boolean hasCycle() {
+        return !cyclePath.isEmpty();
+    }
+
+    /**
+     * @return names of the tables in a foreign key cycle (the first table is repeated at the end) or an empty list if there is no cycle
+     */
+    public List<String> getCyclePath() {
+        return Collections.unmodifiableList(cyclePath);
+    }
+
+    private String getCyclePathText() {
+        StringBuilder text = new StringBuilder();
+        for (String name : cyclePath) {
+            if (text.length() > 0) {
+                text.append(" -> ");
+            }
+            text.append(name);
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return foreign keys that reference a table that is not part of this graph ("TABLE.FIELD -> FK_TABLE")
+     */
+    public List<String> getUnresolvedReferences() {
+        return Collections.unmodifiableList(unresolvedReferences);
+    }
+}
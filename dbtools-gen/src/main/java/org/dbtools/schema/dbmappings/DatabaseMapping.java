@@ -4,13 +4,19 @@ import org.dbtools.schema.schemafile.SchemaFieldType;
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.ElementList;
 import org.simpleframework.xml.Root;
+import org.simpleframework.xml.core.Commit;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * User: jcampbell
  * Date: 2/4/14
+ * <p/>
+ * Read-only after it has been read from the mapping file (instances are shared by all threads... see DatabaseMappingRegistry)
  */
 @Root
 public class DatabaseMapping {
@@ -20,29 +26,32 @@ public class DatabaseMapping {
     @ElementList(entry = "mapping", inline = true)
     private List<TypeMapping> mappings = new ArrayList<>();
 
-    public String getSqlType(SchemaFieldType type) {
+    private EnumMap<SchemaFieldType, String> sqlTypes = new EnumMap<>(SchemaFieldType.class);
+
+    @Commit
+    private void commit() {
+        EnumMap<SchemaFieldType, String> types = new EnumMap<>(SchemaFieldType.class);
         for (TypeMapping mapType : mappings) {
-            if (mapType.getJdbcType() == type) {
-                return mapType.getSqlType();
+            if (!types.containsKey(mapType.getJdbcType())) { // first one wins
+                types.put(mapType.getJdbcType(), mapType.getSqlType());
             }
         }
-
-        return null;
+        sqlTypes = types;
     }
 
-    public String getDatabaseName() {
-        return databaseName;
+    public String getSqlType(SchemaFieldType type) {
+        return sqlTypes.get(type);
     }
 
-    public void setDatabaseName(String databaseName) {
-        this.databaseName = databaseName;
+    public Map<SchemaFieldType, String> getSqlTypes() {
+        return Collections.unmodifiableMap(sqlTypes);
     }
 
-    public List<TypeMapping> getMappings() {
-        return mappings;
+    public String getDatabaseName() {
+        return databaseName;
     }
 
-    public void setMappings(List<TypeMapping> mappings) {
-        this.mappings = mappings;
+    public List<TypeMapping> getMappings() {
+        return Collections.unmodifiableList(mappings);
     }
 }
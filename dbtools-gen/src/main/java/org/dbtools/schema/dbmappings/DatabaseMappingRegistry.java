@@ -0,0 +1,136 @@
+package org.dbtools.schema.dbmappings;
+
+import org.simpleframework.xml.Serializer;
+import org.simpleframework.xml.core.Persister;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process wide registry of the database type mappings.  Each mapping file is read once and shared (read-only) by all
+ * builders and renderers (on all threads).  Mapping files on disk are read again if they are modified (a Gradle daemon
+ * may outlive many edits).
+ */
+public final class DatabaseMappingRegistry {
+    public static final String DEFAULT_TYPE_MAPPING_FILENAME = "dbmappings.xml";
+    public static final String DEFAULT_TYPE_MAPPING_FILE = "/org/dbtools/xml/" + DEFAULT_TYPE_MAPPING_FILENAME;
+
+    // canonical path of the mapping file (or the classpath resource) -> mappings read from it
+    private static final Map<String, CachedMappings> MAPPINGS = new ConcurrentHashMap<>();
+
+    private DatabaseMappingRegistry() {
+    }
+
+    /**
+     * Mapping for dbVendorName from the default mapping file
+     */
+    public static DatabaseMapping getDatabaseMapping(String dbVendorName) {
+        return getDatabaseMapping(DEFAULT_TYPE_MAPPING_FILENAME, dbVendorName);
+    }
+
+    /**
+     * Mapping for dbVendorName (case insensitive) from typesFilename (or the default mapping file in the classpath if typesFilename cannot be found)
+     *
+     * @return null if the mapping file does not contain dbVendorName
+     */
+    public static DatabaseMapping getDatabaseMapping(String typesFilename, String dbVendorName) {
+        File xmlMappingFile = findMappingFile(typesFilename);
+
+        String key;
+        long lastModified;
+        if (xmlMappingFile != null) {
+            // a file on disk may be edited between builds (in the same daemon)... re-read it when it changes
+            key = getCanonicalPath(xmlMappingFile);
+            lastModified = xmlMappingFile.lastModified();
+        } else {
+            // the classpath default cannot change
+            key = DEFAULT_TYPE_MAPPING_FILE;
+            lastModified = 0;
+        }
+
+        CachedMappings cachedMappings = MAPPINGS.get(key);
+        if (cachedMappings == null || cachedMappings.lastModified != lastModified) {
+            synchronized (MAPPINGS) {
+                cachedMappings = MAPPINGS.get(key);
+                if (cachedMappings == null || cachedMappings.lastModified != lastModified) {
+                    cachedMappings = new CachedMappings(lastModified, readMappings(typesFilename, xmlMappingFile));
+                    MAPPINGS.put(key, cachedMappings);
+                }
+            }
+        }
+
+        return cachedMappings.mappings.get(dbVendorName.toLowerCase(Locale.US));
+    }
+
+    private static File findMappingFile(String typesFilename) {
+        File xmlMappingFile = new File(typesFilename);
+        if (!xmlMappingFile.exists()) {
+            xmlMappingFile = new File("xml/" + typesFilename);
+            if (!xmlMappingFile.exists()) {
+                xmlMappingFile = new File("../xml/" + typesFilename);
+                if (!xmlMappingFile.exists()) {
+                    xmlMappingFile = null;
+                }
+            }
+        }
+
+        return xmlMappingFile;
+    }
+
+    private static String getCanonicalPath(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    private static Map<String, DatabaseMapping> readMappings(String typesFilename, File xmlMappingFile) {
+        try {
+            Serializer serializer = new Persister();
+            DatabaseMappings databaseMappings;
+            if (xmlMappingFile != null) {
+                databaseMappings = serializer.read(DatabaseMappings.class, xmlMappingFile);
+            } else {
+                // load from the jar
+                try (InputStream xmlMappingInputStream = DatabaseMappingRegistry.class.getResourceAsStream(DEFAULT_TYPE_MAPPING_FILE)) {
+                    if (xmlMappingInputStream == null) {
+                        throw new IllegalStateException("Failed to find mapping file: [" + typesFilename + "] in classpath.");
+                    }
+
+                    databaseMappings = serializer.read(DatabaseMappings.class, xmlMappingInputStream);
+                }
+            }
+
+            Map<String, DatabaseMapping> mappings = new HashMap<>();
+            for (DatabaseMapping databaseMapping : databaseMappings.getDatabaseMappings()) {
+                String vendorName = databaseMapping.getDatabaseName().toLowerCase(Locale.US);
+                if (!mappings.containsKey(vendorName)) { // first one wins
+                    mappings.put(vendorName, databaseMapping);
+                }
+            }
+
+            return Collections.unmodifiableMap(mappings);
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failure reading mapping file [" + typesFilename + "] Error: [" + e.getMessage() + "]", e);
+        }
+    }
+
+    private static final class CachedMappings {
+        private final long lastModified;
+        private final Map<String, DatabaseMapping> mappings; // lowercase vendor name -> mapping
+
+        private CachedMappings(long lastModified, Map<String, DatabaseMapping> mappings) {
+            this.lastModified = lastModified;
+            this.mappings = mappings;
+        }
+    }
+}
@@ -7,17 +7,26 @@ import org.simpleframework.xml.Serializer;
 import org.simpleframework.xml.core.Persister;
 
 import java.io.File;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 @Root
-public class DatabaseSchema {
+public class DatabaseSchema implements Serializable {
     @Attribute(required = false)
     private String schemaLocation;
 
     @ElementList(entry = "database", inline = true)
     private List<SchemaDatabase> databases = new ArrayList<>();
 
+    public String getSchemaLocation() {
+        return schemaLocation;
+    }
+
+    public void setSchemaLocation(String schemaLocation) {
+        this.schemaLocation = schemaLocation;
+    }
+
     public List<SchemaDatabase> getDatabases() {
         return databases;
     }
@@ -36,13 +45,46 @@ public class DatabaseSchema {
         return null;
     }
 
+    /**
+     * Resolve all databases (see SchemaDatabase.resolve())
+     */
+    public void resolve() {
+        for (SchemaDatabase database : databases) {
+            database.resolve();
+        }
+    }
+
     public void validate() {
         for (SchemaDatabase database : databases) {
             database.validate();
         }
     }
 
-    public static DatabaseSchema readXMLSchema(String path)  {
+    /**
+     * Read and validate the schema xml file with the streaming parser (falls back to the Simple XML parser if the
+     * streaming parser fails but the Simple XML parser does not)
+     */
+    public static DatabaseSchema readXMLSchema(String path) {
+        try {
+            return SchemaXmlStreamParser.parse(new File(path));
+        } catch (IllegalStateException e) {
+            DatabaseSchema schema;
+            try {
+                schema = readXMLSchemaSimple(path);
+            } catch (RuntimeException simpleException) {
+                // report the streaming parser error (includes line and column)
+                throw e;
+            }
+
+            System.out.println("WARNING: Streaming schema parser failed (using Simple XML parser): " + e.getMessage());
+            return schema;
+        }
+    }
+
+    /**
+     * Read and validate the schema xml file with the Simple XML parser
+     */
+    public static DatabaseSchema readXMLSchemaSimple(String path) {
         DatabaseSchema schema = null;
 
         // read schema xml file
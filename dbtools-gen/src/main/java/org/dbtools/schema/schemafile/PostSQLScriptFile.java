@@ -4,13 +4,14 @@ import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Root;
 
 import java.io.File;
+import java.io.Serializable;
 
 /**
  * User: jcampbell
  * Date: 1/25/14
  */
 @Root
-public class PostSQLScriptFile {
+public class PostSQLScriptFile implements Serializable {
     @Attribute
     private boolean relativePath;
 
@@ -1,17 +1,19 @@
 package org.dbtools.schema.schemafile;
 
 import org.dbtools.schema.ClassInfo;
+import org.dbtools.schema.TableDependencyGraph;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.ElementList;
 import org.simpleframework.xml.Root;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 @Root
-public class SchemaDatabase {
+public class SchemaDatabase implements Serializable {
     @Attribute
     private String name;
 
@@ -33,6 +35,9 @@ public class SchemaDatabase {
     @ElementList(entry = "postSQLScriptFile", inline = true, required = false)
     private List<PostSQLScriptFile> postSQLScriptFiles;
 
+    private transient TableDependencyGraph tableDependencyGraph;
+    private transient volatile SchemaDatabaseIndex index;
+
     public SchemaDatabase() {
     }
 
@@ -52,7 +57,69 @@ public class SchemaDatabase {
         this.name = name;
     }
 
-    public List<SchemaTable> getTables() {
+    public Boolean isFieldsDefaultNotNull() {
+        return fieldsDefaultNotNull;
+    }
+
+    public void setFieldsDefaultNotNull(Boolean fieldsDefaultNotNull) {
+        this.fieldsDefaultNotNull = fieldsDefaultNotNull;
+        this.index = null;
+    }
+
+    public Boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public void setReadOnly(Boolean readOnly) {
+        this.readOnly = readOnly;
+        this.index = null;
+    }
+
+    /**
+     * Apply the database defaults (fieldsDefaultNotNull, readOnly) to all tables, views, queries and their fields, and
+     * build the lookups (by name, tables that reference a table, table ClassInfo).  Called once after the schema is read
+     * (or automatically on the first lookup)... setting tables/views/queries/defaults requires a new resolve.
+     */
+    public synchronized void resolve() {
+        applyTableDefaults();
+        applyViewDefaults();
+        applyQueryDefaults();
+
+        for (SchemaTable table : tables) {
+            resolveFields(table.getFields());
+        }
+        for (SchemaView view : views) {
+            resolveFields(view.getFields());
+        }
+        for (SchemaQuery query : queries) {
+            resolveFields(query.getFields());
+        }
+
+        index = new SchemaDatabaseIndex(tables, views, queries);
+    }
+
+    private void resolveFields(List<? extends SchemaField> fields) {
+        for (SchemaField field : fields) {
+            // cache the names (so that they are not created by multiple threads)
+            field.getName(true);
+            field.getConstantName();
+        }
+    }
+
+    public boolean isResolved() {
+        return index != null;
+    }
+
+    private SchemaDatabaseIndex getIndex() {
+        SchemaDatabaseIndex currentIndex = index;
+        if (currentIndex == null) {
+            resolve();
+            currentIndex = index;
+        }
+        return currentIndex;
+    }
+
+    private void applyTableDefaults() {
         if (fieldsDefaultNotNull != null) {
             for (SchemaTable entity : tables) {
                 entity.setFieldsDefaultNotNull(fieldsDefaultNotNull);
@@ -65,19 +132,51 @@ public class SchemaDatabase {
                 entity.setReadOnly(readOnly);
             }
         }
+    }
+
+    private void applyViewDefaults() {
+        if (fieldsDefaultNotNull != null) {
+            for (SchemaView entity : views) {
+                entity.setFieldsDefaultNotNull(fieldsDefaultNotNull);
+            }
+        }
+    }
+
+    private void applyQueryDefaults() {
+        if (fieldsDefaultNotNull != null) {
+            for (SchemaQuery entity : queries) {
+                entity.setFieldsDefaultNotNull(fieldsDefaultNotNull);
+            }
+        }
+    }
+
+    public List<SchemaTable> getTables() {
+        if (index == null) {
+            applyTableDefaults();
+        }
 
         return tables;
     }
 
     public void setTables(List<SchemaTable> tables) {
         this.tables = tables;
+        this.tableDependencyGraph = null;
+        this.index = null;
+    }
+
+    /**
+     * Foreign key dependency graph of all tables in this database (built on first use)
+     */
+    public synchronized TableDependencyGraph getTableDependencyGraph() {
+        if (tableDependencyGraph == null) {
+            tableDependencyGraph = new TableDependencyGraph(getTables());
+        }
+        return tableDependencyGraph;
     }
 
     public List<SchemaView> getViews() {
-        if (fieldsDefaultNotNull != null) {
-            for (SchemaView entity : views) {
-                entity.setFieldsDefaultNotNull(fieldsDefaultNotNull);
-            }
+        if (index == null) {
+            applyViewDefaults();
         }
 
         return views;
@@ -85,13 +184,12 @@ public class SchemaDatabase {
 
     public void setViews(List<SchemaView> views) {
         this.views = views;
+        this.index = null;
     }
 
     public List<SchemaQuery> getQueries() {
-        if (fieldsDefaultNotNull != null) {
-            for (SchemaQuery entity : queries) {
-                entity.setFieldsDefaultNotNull(fieldsDefaultNotNull);
-            }
+        if (index == null) {
+            applyQueryDefaults();
         }
 
         return queries;
@@ -99,6 +197,7 @@ public class SchemaDatabase {
 
     public void setQueries(List<SchemaQuery> queries) {
         this.queries = queries;
+        this.index = null;
     }
 
     public List<PostSQLScriptFile> getPostSQLScriptFiles() {
@@ -131,44 +230,35 @@ public class SchemaDatabase {
      * Case insensitive search for table
      */
     public SchemaTable getTable(String tableName) {
-        for (SchemaTable table : tables) {
-            if (table.getName().equalsIgnoreCase(tableName)) {
-                return table;
-            }
-        }
-
-        return null;
+        return getIndex().getTable(tableName);
     }
 
     /**
      * Case insensitive search for views
      */
     public SchemaView getView(String viewName) {
-        for (SchemaView view : views) {
-            if (view.getName().equalsIgnoreCase(viewName)) {
-                return view;
-            }
-        }
-
-        return null;
+        return getIndex().getView(viewName);
     }
 
     /**
      * Case insensitive search for queries
      */
     public SchemaQuery getQuery(String queryName) {
-        for (SchemaQuery query : queries) {
-            if (query.getName().equalsIgnoreCase(queryName)) {
-                return query;
-            }
-        }
+        return getIndex().getQuery(queryName);
+    }
 
-        return null;
+    /**
+     * Tables that have a foreign key to tableName (case insensitive)
+     */
+    public List<SchemaTable> getReferencingTables(String tableName) {
+        return getIndex().getReferencingTables(tableName);
     }
 
+    /**
+     * Shared (do not modify)
+     */
     public ClassInfo getTableClassInfo(String tableName) {
-        String className = ClassInfo.createJavaStyleName(tableName);
-        return new ClassInfo(className, null);
+        return getIndex().getTableClassInfo(tableName);
     }
 
     public boolean validate() {
@@ -0,0 +1,111 @@
+package org.dbtools.schema.schemafile;
+
+import org.dbtools.schema.ClassInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read-only lookups for a resolved SchemaDatabase (see SchemaDatabase.resolve()).  Safe to share between threads.
+ */
+final class SchemaDatabaseIndex {
+    private final Map<String, SchemaTable> tablesByName;
+    private final Map<String, SchemaView> viewsByName;
+    private final Map<String, SchemaQuery> queriesByName;
+    private final Map<String, List<SchemaTable>> referencingTablesByName;
+    private final Map<String, ClassInfo> tableClassInfos;
+
+    SchemaDatabaseIndex(List<SchemaTable> tables, List<SchemaView> views, List<SchemaQuery> queries) {
+        Map<String, SchemaTable> tableMap = new HashMap<>();
+        Map<String, List<SchemaTable>> referencingTableMap = new HashMap<>();
+        Map<String, ClassInfo> classInfoMap = new HashMap<>();
+        for (SchemaTable table : tables) {
+            putFirst(tableMap, table.getName(), table);
+            putClassInfo(classInfoMap, table.getName());
+
+            List<String> referencedTableNames = new ArrayList<>();
+            for (SchemaTableField field : table.getForeignKeyFields()) {
+                String referencedTableName = toKey(field.getForeignKeyTable());
+                if (!referencedTableNames.contains(referencedTableName)) {
+                    referencedTableNames.add(referencedTableName);
+                }
+                putClassInfo(classInfoMap, field.getForeignKeyTable());
+            }
+
+            for (String referencedTableName : referencedTableNames) {
+                List<SchemaTable> referencingTables = referencingTableMap.get(referencedTableName);
+                if (referencingTables == null) {
+                    referencingTables = new ArrayList<>();
+                    referencingTableMap.put(referencedTableName, referencingTables);
+                }
+                referencingTables.add(table);
+            }
+        }
+
+        Map<String, SchemaView> viewMap = new HashMap<>();
+        for (SchemaView view : views) {
+            putFirst(viewMap, view.getName(), view);
+        }
+
+        Map<String, SchemaQuery> queryMap = new HashMap<>();
+        for (SchemaQuery query : queries) {
+            putFirst(queryMap, query.getName(), query);
+        }
+
+        for (Map.Entry<String, List<SchemaTable>> entry : referencingTableMap.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+
+        this.tablesByName = Collections.unmodifiableMap(tableMap);
+        this.viewsByName = Collections.unmodifiableMap(viewMap);
+        this.queriesByName = Collections.unmodifiableMap(queryMap);
+        this.referencingTablesByName = Collections.unmodifiableMap(referencingTableMap);
+        this.tableClassInfos = Collections.unmodifiableMap(classInfoMap);
+    }
+
+    private static <T> void putFirst(Map<String, T> map, String name, T value) {
+        String key = toKey(name);
+        if (key != null && !map.containsKey(key)) { // same as a linear search (first one wins)
+            map.put(key, value);
+        }
+    }
+
+    private static void putClassInfo(Map<String, ClassInfo> map, String tableName) {
+        if (tableName != null && !map.containsKey(tableName)) {
+            map.put(tableName, new ClassInfo(ClassInfo.createJavaStyleName(tableName), null));
+        }
+    }
+
+    private static String toKey(String name) {
+        return name != null ? name.toLowerCase(Locale.US) : null;
+    }
+
+    SchemaTable getTable(String name) {
+        return name != null ? tablesByName.get(toKey(name)) : null;
+    }
+
+    SchemaView getView(String name) {
+        return name != null ? viewsByName.get(toKey(name)) : null;
+    }
+
+    SchemaQuery getQuery(String name) {
+        return name != null ? queriesByName.get(toKey(name)) : null;
+    }
+
+    List<SchemaTable> getReferencingTables(String tableName) {
+        List<SchemaTable> referencingTables = tableName != null ? referencingTablesByName.get(toKey(tableName)) : null;
+        return referencingTables != null ? referencingTables : Collections.<SchemaTable>emptyList();
+    }
+
+    ClassInfo getTableClassInfo(String tableName) {
+        ClassInfo classInfo = tableClassInfos.get(tableName);
+        if (classInfo == null) {
+            classInfo = new ClassInfo(ClassInfo.createJavaStyleName(tableName), null);
+        }
+        return classInfo;
+    }
+}
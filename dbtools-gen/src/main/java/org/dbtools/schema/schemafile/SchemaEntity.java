@@ -1,8 +1,9 @@
 package org.dbtools.schema.schemafile;
 
+import java.io.Serializable;
 import java.util.List;
 
-public abstract class SchemaEntity {
+public abstract class SchemaEntity implements Serializable {
     public abstract SchemaEntityType getType();
     public abstract String getName();
     public abstract String getClassName();
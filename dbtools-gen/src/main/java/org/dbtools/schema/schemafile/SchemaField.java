@@ -4,9 +4,10 @@ import org.dbtools.schema.ForeignKeyType;
 import org.dbtools.util.JavaUtil;
 import org.simpleframework.xml.Attribute;
 
+import java.io.Serializable;
 import java.util.List;
 
-public abstract class SchemaField {
+public abstract class SchemaField implements Serializable {
     @Attribute
     private String name;
 
@@ -51,6 +52,7 @@ public abstract class SchemaField {
     public abstract List<String> getEnumValues();
 
     private String javaFieldNameStyleName = "";
+    private String constantName;
     public String getName(boolean javaFieldNameStyle) {
         if (javaFieldNameStyle) {
             // check to see if the name of this variable is being overridden
@@ -69,6 +71,17 @@ public abstract class SchemaField {
         }
     }
 
+    /**
+     * Constant style name of getName(true) (example: firstName -> FIRST_NAME)
+     */
+    public String getConstantName() {
+        if (constantName == null) {
+            constantName = JavaUtil.formatConstant(getName(true));
+        }
+
+        return constantName;
+    }
+
     public Class<?> getJavaClassType() {
         return getJdbcDataType().getJavaClassType(!isNotNull());
     }
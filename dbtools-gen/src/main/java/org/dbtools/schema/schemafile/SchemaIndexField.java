@@ -3,8 +3,10 @@ package org.dbtools.schema.schemafile;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Root;
 
+import java.io.Serializable;
+
 @Root
-public class SchemaIndexField {
+public class SchemaIndexField implements Serializable {
     @Attribute
     private String name;
 
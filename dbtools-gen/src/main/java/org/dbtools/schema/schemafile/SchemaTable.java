@@ -6,10 +6,16 @@ import org.simpleframework.xml.ElementList;
 import org.simpleframework.xml.Root;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Root
 public class SchemaTable extends SchemaEntity {
+    // suffixes of the classes generated for each table (a projection class is named [ClassName][ProjectionName])
+    private static final List<String> RESERVED_PROJECTION_NAMES = Arrays.asList("BaseRecord", "Const", "Manager", "BaseManager");
+
     @Attribute
     private String name;
 
@@ -37,6 +43,9 @@ public class SchemaTable extends SchemaEntity {
     @ElementList(entry = "field", inline = true)
     private List<SchemaTableField> fields = new ArrayList<>();
 
+    @ElementList(entry = "projection", inline = true, required = false)
+    private List<SchemaTableProjection> projections = new ArrayList<>();
+
     public SchemaTable() {
     }
 
@@ -56,6 +65,48 @@ public class SchemaTable extends SchemaEntity {
             }
             field.validate();
         }
+
+        getUpsertKeyDeclaration(); // only 1 upsertKey allowed
+
+        Set<String> projectionNames = new HashSet<>();
+        for (SchemaTableProjection projection : projections) {
+            if (!isValidProjectionName(projection.getName())) {
+                throw new IllegalStateException("Projection name [" + projection.getName() + "] of table [" + getName() + "] must start with a letter or '_' and contain only letters, digits and '_'");
+            }
+            if (RESERVED_PROJECTION_NAMES.contains(projection.getName())) {
+                throw new IllegalStateException("Projection name [" + projection.getName() + "] of table [" + getName() + "] is reserved (cannot be any of " + RESERVED_PROJECTION_NAMES + ")");
+            }
+            if (!projectionNames.add(projection.getName())) {
+                throw new IllegalStateException("Cannot have 2 projections named [" + projection.getName() + "] for table [" + getName() + "]");
+            }
+            if (projection.getFieldNames().isEmpty()) {
+                throw new IllegalStateException("Projection [" + projection.getName() + "] of table [" + getName() + "] does not have any fields");
+            }
+            for (String fieldName : projection.getFieldNames()) {
+                if (getField(fieldName) == null) {
+                    throw new IllegalStateException("Projection [" + projection.getName() + "] field [" + fieldName + "] does not exist in table [" + getName() + "]");
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The projection name is used in Java and Kotlin class and method names
+     */
+    private static boolean isValidProjectionName(String projectionName) {
+        if (projectionName == null || projectionName.isEmpty()) {
+            return false;
+        }
+        char firstChar = projectionName.charAt(0);
+        if (!Character.isLetter(firstChar) && firstChar != '_') {
+            return false;
+        }
+        for (char c : projectionName.toCharArray()) {
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return false;
+            }
+        }
         return true;
     }
 
@@ -196,6 +247,22 @@ public class SchemaTable extends SchemaEntity {
         return fkFields;
     }
 
+    /**
+     * Returns the field with the specified name (case insensitive)
+     *
+     * @param fieldName Name of the field
+     * @return field or null if the table does not have the field
+     */
+    public SchemaTableField getField(String fieldName) {
+        for (SchemaTableField field : fields) {
+            if (field.getName().equalsIgnoreCase(fieldName)) {
+                return field;
+            }
+        }
+
+        return null;
+    }
+
     private TableEnum createTableEnum(String enumItem, String enumValue) {
         String value;
 
@@ -269,6 +336,32 @@ public class SchemaTable extends SchemaEntity {
         this.uniqueDeclarations = uniqueDeclarations;
     }
 
+    /**
+     * Returns the unique declaration used as the conflict target of UPSERT statements
+     *
+     * @return unique declaration marked as upsertKey (null if the primary key should be used)
+     */
+    public SchemaTableUnique getUpsertKeyDeclaration() {
+        SchemaTableUnique upsertKey = null;
+        for (SchemaTableUnique unique : uniqueDeclarations) {
+            if (unique.isUpsertKey()) {
+                if (upsertKey != null) {
+                    throw new IllegalStateException("Cannot have 2 upsertKey unique declarations for table [" + getName() + "]");
+                }
+                upsertKey = unique;
+            }
+        }
+        return upsertKey;
+    }
+
+    public List<SchemaTableProjection> getProjections() {
+        return projections;
+    }
+
+    public void setProjections(List<SchemaTableProjection> projections) {
+        this.projections = projections;
+    }
+
     public List<SchemaTableParameter> getTableParameters() {
         return tableParameters;
     }
@@ -3,10 +3,11 @@ package org.dbtools.schema.schemafile;
 import org.simpleframework.xml.ElementList;
 import org.simpleframework.xml.Root;
 
+import java.io.Serializable;
 import java.util.List;
 
 @Root
-public class SchemaTableIndex {
+public class SchemaTableIndex implements Serializable {
     @ElementList(entry = "indexField", inline = true, required = false)
     private List<SchemaIndexField> indexFields;
 
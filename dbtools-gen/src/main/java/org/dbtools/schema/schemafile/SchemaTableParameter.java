@@ -3,8 +3,10 @@ package org.dbtools.schema.schemafile;
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.Root;
 
+import java.io.Serializable;
+
 @Root
-public class SchemaTableParameter {
+public class SchemaTableParameter implements Serializable {
     @Element
     private String db;
 
@@ -0,0 +1,52 @@
+package org.dbtools.schema.schemafile;
+
+import org.simpleframework.xml.Attribute;
+import org.simpleframework.xml.Root;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Named subset of the columns of a table (example: &lt;projection name="Summary" fields="_id,NAME,EMAIL"/&gt;)
+ */
+@Root
+public class SchemaTableProjection implements Serializable {
+    @Attribute
+    private String name;
+
+    @Attribute
+    private String fields;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getFields() {
+        return fields;
+    }
+
+    public void setFields(String fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @return field names (in the order they are declared in the fields attribute)
+     */
+    public List<String> getFieldNames() {
+        List<String> fieldNames = new ArrayList<>();
+        if (fields != null) {
+            for (String fieldName : fields.split(",")) {
+                String trimmedFieldName = fieldName.trim();
+                if (!trimmedFieldName.isEmpty()) {
+                    fieldNames.add(trimmedFieldName);
+                }
+            }
+        }
+        return fieldNames;
+    }
+}
@@ -5,16 +5,20 @@ import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.ElementList;
 import org.simpleframework.xml.Root;
 
+import java.io.Serializable;
 import java.util.List;
 
 @Root
-public class SchemaTableUnique {
+public class SchemaTableUnique implements Serializable {
     @ElementList(entry = "uniqueField", inline = true, required = false)
     private List<SchemaUniqueField> uniqueFields;
 
     @Attribute(required = false)
     private OnConflict sqliteOnConflict = OnConflict.NONE;
 
+    @Attribute(required = false)
+    private boolean upsertKey = false;
+
     public List<SchemaUniqueField> getUniqueFields() {
         return uniqueFields;
     }
@@ -30,4 +34,15 @@ public class SchemaTableUnique {
     public void setSqliteOnConflict(OnConflict sqliteOnConflict) {
         this.sqliteOnConflict = sqliteOnConflict;
     }
+
+    public boolean isUpsertKey() {
+        return upsertKey;
+    }
+
+    /**
+     * Use the fields of this unique declaration as the conflict target of the generated UPSERT_STATEMENT (instead of the primary key)
+     */
+    public void setUpsertKey(boolean upsertKey) {
+        this.upsertKey = upsertKey;
+    }
 }
@@ -3,12 +3,14 @@ package org.dbtools.schema.schemafile;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Root;
 
+import java.io.Serializable;
+
 /**
  * User: jcampbell
  * Date: 1/25/14
  */
 @Root
-public class SchemaUniqueField {
+public class SchemaUniqueField implements Serializable {
     @Attribute
     private String name;
 
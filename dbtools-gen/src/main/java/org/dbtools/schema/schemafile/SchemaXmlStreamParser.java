@@ -0,0 +1,726 @@
+package org.dbtools.schema.schemafile;
+
+import org.dbtools.schema.ForeignKeyType;
+import org.dbtools.schema.OnConflict;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming (StAX) reader for the schema xml file.  Builds the schema model directly (no reflection) and validates each
+ * table and database as soon as it has been read.  All errors include the line and column of the offending element.
+ * <p/>
+ * Accepts the same elements and attributes as the Simple XML mapping on the schema model classes (unknown elements or
+ * attributes are errors).
+ */
+public class SchemaXmlStreamParser {
+    private final String path;
+    private final XMLStreamReader reader;
+
+    private SchemaXmlStreamParser(String path, XMLStreamReader reader) {
+        this.path = path;
+        this.reader = reader;
+    }
+
+    /**
+     * Read and validate the schema xml file
+     *
+     * @throws IllegalStateException if the file cannot be read or is not valid (message includes [line:column])
+     */
+    public static DatabaseSchema parse(File file) {
+        String path = file.getAbsolutePath();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            XMLStreamReader reader = createInputFactory().createXMLStreamReader(in);
+            try {
+                return new SchemaXmlStreamParser(path, reader).readSchema();
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException(createMessage(path, e.getLocation(), e.getMessage()), e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failure reading schema file [" + path + "] Error: [" + e.getMessage() + "]", e);
+        }
+    }
+
+    /**
+     * Read only the names of the databases in the schema xml file (the schema model is not built or validated)
+     *
+     * @throws IllegalStateException if the file cannot be read or a database does not have a name
+     */
+    public static List<String> readDatabaseNames(File file) {
+        String path = file.getAbsolutePath();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            XMLStreamReader reader = createInputFactory().createXMLStreamReader(in);
+            try {
+                List<String> databaseNames = new ArrayList<>();
+                int depth = 0;
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            depth++;
+                            // <dbSchema><database name="...">
+                            if (depth == 2 && "database".equals(reader.getLocalName())) {
+                                String name = reader.getAttributeValue(null, "name");
+                                if (name == null) {
+                                    throw new IllegalStateException(createMessage(path, reader.getLocation(), "Missing required attribute [name]"));
+                                }
+                                databaseNames.add(name);
+                            }
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            depth--;
+                            break;
+                        default:
+                    }
+                }
+                return databaseNames;
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException(createMessage(path, e.getLocation(), e.getMessage()), e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failure reading schema file [" + path + "] Error: [" + e.getMessage() + "]", e);
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private DatabaseSchema readSchema() throws XMLStreamException {
+        if (!nextChildElement()) {
+            throw error("Missing root element");
+        }
+        Location location = reader.getLocation();
+
+        DatabaseSchema schema = new DatabaseSchema();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String value = reader.getAttributeValue(i);
+            switch (reader.getAttributeLocalName(i)) {
+                case "schemaLocation":
+                    schema.setSchemaLocation(value);
+                    break;
+                default:
+                    throw unknownAttribute(i);
+            }
+        }
+
+        List<SchemaDatabase> databases = new ArrayList<>();
+        while (nextChildElement()) {
+            switch (reader.getLocalName()) {
+                case "database":
+                    databases.add(readDatabase());
+                    break;
+                default:
+                    throw unknownElement();
+            }
+        }
+        requireElement(databases, "database", location);
+        schema.setDatabases(databases);
+
+        return schema;
+    }
+
+    private SchemaDatabase readDatabase() throws XMLStreamException {
+        Location location = reader.getLocation();
+
+        SchemaDatabase database = new SchemaDatabase();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String value = reader.getAttributeValue(i);
+            switch (reader.getAttributeLocalName(i)) {
+                case "name":
+                    database.setName(value);
+                    break;
+                case "fieldsDefaultNotNull":
+                    database.setFieldsDefaultNotNull(Boolean.valueOf(value));
+                    break;
+                case "readOnly":
+                    database.setReadOnly(Boolean.valueOf(value));
+                    break;
+                default:
+                    throw unknownAttribute(i);
+            }
+        }
+        requireAttribute(database.getName(false), "name", location);
+
+        List<SchemaTable> tables = new ArrayList<>();
+        List<SchemaView> views = new ArrayList<>();
+        List<SchemaQuery> queries = new ArrayList<>();
+        List<PostSQLScriptFile> postSQLScriptFiles = new ArrayList<>();
+        while (nextChildElement()) {
+            switch (reader.getLocalName()) {
+                case "table":
+                    tables.add(readTable());
+                    break;
+                case "view":
+                    views.add(readView());
+                    break;
+                case "query":
+                    queries.add(readQuery());
+                    break;
+                case "postSQLScriptFile":
+                    postSQLScriptFiles.add(readPostSQLScriptFile());
+                    break;
+                default:
+                    throw unknownElement();
+            }
+        }
+        database.setTables(tables);
+        database.setViews(views);
+        database.setQueries(queries);
+        if (!postSQLScriptFiles.isEmpty()) {
+            database.setPostSQLScriptFiles(postSQLScriptFiles);
+        }
+
+        try {
+            database.validate();
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException(createMessage(path, location, e.getMessage()), e);
+        }
+
+        return database;
+    }
+
+    private SchemaTable readTable() throws XMLStreamException {
+        Location location = reader.getLocation();
+
+        SchemaTable table = new SchemaTable();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String value = reader.getAttributeValue(i);
+            switch (reader.getAttributeLocalName(i)) {
+                case "name":
+                    table.setName(value);
+                    break;
+                case "className":
+                    table.setClassName(value);
+                    break;
+                case "enumerations":
+                    table.setEnumerations(value);
+                    break;
+                case "fieldsDefaultNotNull":
+                    table.setFieldsDefaultNotNull(Boolean.valueOf(value));
+                    break;
+                case "readOnly":
+                    table.setReadOnly(Boolean.valueOf(value));
+                    break;
+                default:
+                    throw unknownAttribute(i);
+            }
+        }
+        requireAttribute(table.getName(), "name", location);
+
+        List<SchemaTableIndex> indexes = new ArrayList<>();
+        List<SchemaTableUnique> uniques = new ArrayList<>();
+        List<SchemaTableParameter> tableParameters = new ArrayList<>();
+        List<SchemaTableField> fields = new ArrayList<>();
+        List<SchemaTableProjection> projections = new ArrayList<>();
+        while (nextChildElement()) {
+            switch (reader.getLocalName()) {
+                case "index":
+                    indexes.add(readIndex());
+                    break;
+                case "unique":
+                    uniques.add(readUnique());
+                    break;
+                case "tableparameter":
+                    tableParameters.add(readTableParameter());
+                    break;
+                case "field":
+                    SchemaTableField field = new SchemaTableField();
+                    readTableField(field);
+                    fields.add(field);
+                    break;
+                case "projection":
+                    projections.add(readProjection());
+                    break;
+                default:
+                    throw unknownElement();
+            }
+        }
+        requireElement(fields, "field", location);
+        table.setIndexDeclarations(indexes);
+        table.setUniqueDeclarations(uniques);
+        table.setTableParameters(tableParameters);
+        table.setFields(fields);
+        table.setProjections(projections);
+
+        try {
+            table.validate();
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException(createMessage(path, location, e.getMessage()), e);
+        }
+
+        return table;
+    }
+
+    private SchemaView readView() throws XMLStreamException {
+        Location location = reader.getLocation();
+
+        SchemaView view = new SchemaView();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String value = reader.getAttributeValue(i);
+            switch (reader.getAttributeLocalName(i)) {
+                case "name":
+                    view.setName(value);
+                    break;
+                case "className":
+                    view.setClassName(value);
+                    break;
+                case "fieldsDefaultNotNull":
+                    view.setFieldsDefaultNotNull(Boolean.valueOf(value));
+                    break;
+                case "readOnly":
+                    view.setReadOnly(Boolean.valueOf(value));
+                    break;
+                default:
+                    throw unknownAttribute(i);
+            }
+        }
+        requireAttribute(view.getName(), "name", location);
+
+        List<SchemaViewField> fields = new ArrayList<>();
+        while (nextChildElement()) {
+            switch (reader.getLocalName()) {
+                case "field":
+                    SchemaViewField field = new SchemaViewField();
+                    readField(field);
+                    fields.add(field);
+                    break;
+                default:
+                    throw unknownElement();
+            }
+        }
+        requireElement(fields, "field", location);
+        view.setFields(fields);
+
+        return view;
+    }
+
+    private SchemaQuery readQuery() throws XMLStreamException {
+        Location location = reader.getLocation();
+
+        SchemaQuery query = new SchemaQuery();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String value = reader.getAttributeValue(i);
+            switch (reader.getAttributeLocalName(i)) {
+                case "name":
+                    query.setName(value);
+                    break;
+                case "className":
+                    query.setClassName(value);
+                    break;
+                case "fieldsDefaultNotNull":
+                    query.setFieldsDefaultNotNull(Boolean.valueOf(value));
+                    break;
+                case "readOnly":
+                    query.setReadOnly(Boolean.valueOf(value));
+                    break;
+                default:
+                    throw unknownAttribute(i);
+            }
+        }
+        requireAttribute(query.getName(), "name", location);
+
+        List<SchemaQueryField> fields = new ArrayList<>();
+        while (nextChildElement()) {
+            switch (reader.getLocalName()) {
+                case "field":
+                    SchemaQueryField field = new SchemaQueryField();
+                    readField(field);
+                    fields.add(field);
+                    break;
+                default:
+                    throw unknownElement();
+            }
+        }
+        requireElement(fields, "field", location);
+        query.setFields(fields);
+
+        return query;
+    }
+
+    private PostSQLScriptFile readPostSQLScriptFile() throws XMLStreamException {
+        Location location = reader.getLocation();
+
+        PostSQLScriptFile postSQLScriptFile = new PostSQLScriptFile();
+        String relativePath = null;
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String value = reader.getAttributeValue(i);
+            switch (reader.getAttributeLocalName(i)) {
+                case "relativePath":
+                    relativePath = value;
+                    postSQLScriptFile.setRelativePath(Boolean.parseBoolean(value));
+                    break;
+                case "pathname":
+                    postSQLScriptFile.setPathname(value);
+                    break;
+                default:
+                    throw unknownAttribute(i);
+            }
+        }
+        requireAttribute(relativePath, "relativePath", location);
+        requireAttribute(postSQLScriptFile.getPathname(), "pathname", location);
+        requireNoChildren();
+
+        return postSQLScriptFile;
+    }
+
+    private SchemaTableIndex readIndex() throws XMLStreamException {
+        if (reader.getAttributeCount() > 0) {
+            throw unknownAttribute(0);
+        }
+
+        List<SchemaIndexField> indexFields = new ArrayList<>();
+        while (nextChildElement()) {
+            switch (reader.getLocalName()) {
+                case "indexField":
+                    SchemaIndexField indexField = new SchemaIndexField();
+                    indexField.setName(readNameOnlyElement());
+                    indexFields.add(indexField);
+                    break;
+                default:
+                    throw unknownElement();
+            }
+        }
+
+        SchemaTableIndex index = new SchemaTableIndex();
+        if (!indexFields.isEmpty()) {
+            index.setIndexFields(indexFields);
+        }
+
+        return index;
+    }
+
+    private SchemaTableUnique readUnique() throws XMLStreamException {
+        SchemaTableUnique unique = new SchemaTableUnique();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String value = reader.getAttributeValue(i);
+            switch (reader.getAttributeLocalName(i)) {
+                case "sqliteOnConflict":
+                    unique.setSqliteOnConflict(parseEnum(OnConflict.class, value, i));
+                    break;
+                case "upsertKey":
+                    unique.setUpsertKey(Boolean.parseBoolean(value));
+                    break;
+                default:
+                    throw unknownAttribute(i);
+            }
+        }
+
+        List<SchemaUniqueField> uniqueFields = new ArrayList<>();
+        while (nextChildElement()) {
+            switch (reader.getLocalName()) {
+                case "uniqueField":
+                    SchemaUniqueField uniqueField = new SchemaUniqueField();
+                    uniqueField.setName(readNameOnlyElement());
+                    uniqueFields.add(uniqueField);
+                    break;
+                default:
+                    throw unknownElement();
+            }
+        }
+        if (!uniqueFields.isEmpty()) {
+            unique.setUniqueFields(uniqueFields);
+        }
+
+        return unique;
+    }
+
+    private SchemaTableProjection readProjection() throws XMLStreamException {
+        Location location = reader.getLocation();
+        SchemaTableProjection projection = new SchemaTableProjection();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String value = reader.getAttributeValue(i);
+            switch (reader.getAttributeLocalName(i)) {
+                case "name":
+                    projection.setName(value);
+                    break;
+                case "fields":
+                    projection.setFields(value);
+                    break;
+                default:
+                    throw unknownAttribute(i);
+            }
+        }
+        requireAttribute(projection.getName(), "name", location);
+        requireAttribute(projection.getFields(), "fields", location);
+        requireNoChildren();
+
+        return projection;
+    }
+
+    private SchemaTableParameter readTableParameter() throws XMLStreamException {
+        Location location = reader.getLocation();
+        if (reader.getAttributeCount() > 0) {
+            throw unknownAttribute(0);
+        }
+
+        SchemaTableParameter tableParameter = new SchemaTableParameter();
+        while (nextChildElement()) {
+            switch (reader.getLocalName()) {
+                case "db":
+                    tableParameter.setDb(reader.getElementText());
+                    break;
+                case "name":
+                    tableParameter.setName(reader.getElementText());
+                    break;
+                case "value":
+                    tableParameter.setValue(reader.getElementText());
+                    break;
+                default:
+                    throw unknownElement();
+            }
+        }
+        requireChild(tableParameter.getDb(), "db", location);
+        requireChild(tableParameter.getName(), "name", location);
+        requireChild(tableParameter.getValue(), "value", location);
+
+        return tableParameter;
+    }
+
+    /**
+     * indexField / uniqueField
+     */
+    private String readNameOnlyElement() throws XMLStreamException {
+        Location location = reader.getLocation();
+
+        String name = null;
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            switch (reader.getAttributeLocalName(i)) {
+                case "name":
+                    name = reader.getAttributeValue(i);
+                    break;
+                default:
+                    throw unknownAttribute(i);
+            }
+        }
+        requireAttribute(name, "name", location);
+        requireNoChildren();
+
+        return name;
+    }
+
+    private void readTableField(SchemaTableField field) throws XMLStreamException {
+        readFieldAttributes(field, true);
+        requireNoChildren();
+    }
+
+    private void readField(SchemaField field) throws XMLStreamException {
+        readFieldAttributes(field, false);
+        requireNoChildren();
+    }
+
+    private void readFieldAttributes(SchemaField field, boolean tableField) {
+        Location location = reader.getLocation();
+
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String name = reader.getAttributeLocalName(i);
+            String value = reader.getAttributeValue(i);
+            if (!readFieldAttribute(field, name, value, i) && !(tableField && readTableFieldAttribute((SchemaTableField) field, name, value, i))) {
+                throw unknownAttribute(i);
+            }
+        }
+
+        requireAttribute(field.getName(), "name", location);
+        requireAttribute(field.getJdbcDataType(), "jdbcDataType", location);
+    }
+
+    /**
+     * @return false if the attribute is not a SchemaField attribute
+     */
+    private boolean readFieldAttribute(SchemaField field, String name, String value, int index) {
+        switch (name) {
+            case "name":
+                field.setName(value);
+                return true;
+            case "jdbcDataType":
+                field.setJdbcDataType(parseEnum(SchemaFieldType.class, value, index));
+                return true;
+            case "varName":
+                field.setVarName(value);
+                return true;
+            case "size":
+                field.setSize(parseInt(value, index));
+                return true;
+            case "decimals":
+                field.setDecimals(parseInt(value, index));
+                return true;
+            case "notNull":
+                field.setNotNull(Boolean.valueOf(value));
+                return true;
+            case "defaultValue":
+                field.setDefaultValue(value);
+                return true;
+            case "primaryKey":
+                field.setPrimaryKey(Boolean.parseBoolean(value));
+                return true;
+            case "foreignKeyTable":
+                field.setForeignKeyTable(value);
+                return true;
+            case "foreignKeyField":
+                field.setForeignKeyField(value);
+                return true;
+            case "foreignKeyType":
+                field.setForeignKeyType(parseEnum(ForeignKeyType.class, value, index));
+                return true;
+            case "foreignKeyFetchType":
+                field.setForeignKeyFetchType(parseEnum(ForeignKeyFetchType.class, value, index));
+                return true;
+            case "enumerationClass":
+                field.setEnumerationClass(value);
+                return true;
+            case "enumerationDefault":
+                field.setEnumerationDefault(value);
+                return true;
+            case "sqliteCollate":
+                field.setSqliteCollate(value);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return false if the attribute is not a SchemaTableField attribute
+     */
+    private boolean readTableFieldAttribute(SchemaTableField field, String name, String value, int index) {
+        switch (name) {
+            case "increment":
+                field.setIncrement(Boolean.parseBoolean(value));
+                return true;
+            case "unique":
+                field.setUnique(Boolean.parseBoolean(value));
+                return true;
+            case "index":
+                field.setIndex(Boolean.parseBoolean(value));
+                return true;
+            case "incrementInitialValue":
+                field.setIncrementInitialValue(parseInt(value, index));
+                return true;
+            case "sequencerName":
+                field.setSequencerName(value);
+                return true;
+            case "sequencerStartValue":
+                field.setSequencerStartValue(parseInt(value, index));
+                return true;
+            case "foreignKeyOrderByColumn":
+                field.setForeignKeyOrderByColumn(value);
+                return true;
+            case "foreignKeyCascadeType":
+                field.setForeignKeyCascadeType(value);
+                return true;
+            case "enumerations":
+                field.setEnumerations(value);
+                return true;
+            case "lastModifiedField":
+                field.setLastModifiedField(Boolean.parseBoolean(value));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Move to the next child element of the current element
+     *
+     * @return true if positioned on the start of a child element; false if the current element has ended
+     */
+    private boolean nextChildElement() throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                    return false;
+                case XMLStreamConstants.CHARACTERS:
+                    if (!reader.isWhiteSpace()) {
+                        throw error("Unexpected text [" + reader.getText().trim() + "]");
+                    }
+                    break;
+                case XMLStreamConstants.CDATA:
+                    throw error("Unexpected text [" + reader.getText().trim() + "]");
+                default:
+                    // comments, processing instructions, etc
+            }
+        }
+
+        return false;
+    }
+
+    private void requireNoChildren() throws XMLStreamException {
+        if (nextChildElement()) {
+            throw unknownElement();
+        }
+    }
+
+    private <T extends Enum<T>> T parseEnum(Class<T> enumClass, String value, int attributeIndex) {
+        try {
+            return Enum.valueOf(enumClass, value);
+        } catch (IllegalArgumentException e) {
+            throw error("Invalid value [" + value + "] for attribute [" + reader.getAttributeLocalName(attributeIndex) + "] on element <" + reader.getLocalName() + ">");
+        }
+    }
+
+    private int parseInt(String value, int attributeIndex) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw error("Invalid number [" + value + "] for attribute [" + reader.getAttributeLocalName(attributeIndex) + "] on element <" + reader.getLocalName() + ">");
+        }
+    }
+
+    private void requireAttribute(Object value, String attributeName, Location location) {
+        if (value == null) {
+            throw new IllegalStateException(createMessage(path, location, "Missing required attribute [" + attributeName + "]"));
+        }
+    }
+
+    private void requireChild(Object value, String elementName, Location location) {
+        if (value == null) {
+            throw new IllegalStateException(createMessage(path, location, "Missing required element <" + elementName + ">"));
+        }
+    }
+
+    private void requireElement(List<?> elements, String elementName, Location location) {
+        if (elements.isEmpty()) {
+            throw new IllegalStateException(createMessage(path, location, "At least one <" + elementName + "> element is required"));
+        }
+    }
+
+    private IllegalStateException unknownAttribute(int attributeIndex) {
+        return error("Unknown attribute [" + reader.getAttributeLocalName(attributeIndex) + "] on element <" + reader.getLocalName() + ">");
+    }
+
+    private IllegalStateException unknownElement() {
+        return error("Unknown element <" + reader.getLocalName() + ">");
+    }
+
+    private IllegalStateException error(String message) {
+        return new IllegalStateException(createMessage(path, reader.getLocation(), message));
+    }
+
+    private static String createMessage(String path, Location location, String message) {
+        if (location == null) {
+            return "Failure reading schema file [" + path + "] Error: [" + message + "]";
+        }
+
+        return "Failure reading schema file [" + path + ":" + location.getLineNumber() + ":" + location.getColumnNumber() + "] Error: [" + message + "]";
+    }
+}
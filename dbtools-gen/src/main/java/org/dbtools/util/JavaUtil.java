@@ -72,6 +72,31 @@ public class JavaUtil {
         return constName.toString();
     }
 
+    /**
+     * Format a java style name as a constant name (example: firstName -> FIRST_NAME)
+     */
+    public static String formatConstant(String constant) {
+        StringBuilder newConst = new StringBuilder();
+
+        for (int i = 0; i < constant.length(); i++) {
+            // add the current character in UPPERCASE
+            newConst.append(Character.toUpperCase(constant.charAt(i)));
+
+            // check for need of _
+            char current = constant.charAt(i);
+            char nextChar = ' ';
+            if ((i + 1) < constant.length()) {
+                nextChar = constant.charAt(i + 1);
+            }
+
+            if (!Character.isUpperCase(current) && nextChar != ' ' && Character.isUpperCase(nextChar)) {
+                newConst.append('_');
+            }
+        }
+
+        return newConst.toString();
+    }
+
     public static String createTablePackageName(String packageBase, String tableClassName) {
         return packageBase + "." + tableClassName.toLowerCase();
     }
@@ -9,17 +9,21 @@
  */
 package org.dbtools.codegen.kotlin
 
+import org.dbtools.codegen.java.FileOutputSink
 import org.dbtools.codegen.java.JavaClass
+import org.dbtools.codegen.java.OutputSink
+import org.dbtools.codegen.java.SourceEmitter
+import org.dbtools.codegen.java.WriteResult
+import org.dbtools.util.JavaUtil
 import java.io.File
-import java.io.FileNotFoundException
-import java.io.FileOutputStream
-import java.io.PrintStream
+import java.io.IOException
 import java.util.ArrayList
+import java.util.LinkedHashSet
 
 @SuppressWarnings("PMD.UseStringBufferForStringAppends")
 open class KotlinClass(var name: String = "",
                        var packageName:String = "",
-                       val classType: KotlinClassType = KotlinClassType.CLASS) {
+                       val classType: KotlinClassType = KotlinClassType.CLASS) : SourceEmitter {
     var fileHeaderComment = ""
     var classHeaderComment = ""
     var primaryConstructor = ""
@@ -30,7 +34,7 @@ open class KotlinClass(var name: String = "",
     var staticInit = ""
     val annotations = ArrayList<String>()
     val implementsInterfaces = ArrayList<String>()
-    val imports = ArrayList<String>()
+    val imports = LinkedHashSet<String>() // insertion order (without duplicates)
     private val enums = ArrayList<KotlinInnerEnum>()
     private val vars = ArrayList<KotlinVar>()
     private val vals = ArrayList<KotlinVal>()
@@ -38,13 +42,12 @@ open class KotlinClass(var name: String = "",
     private val constantFuns = ArrayList<KotlinFun>()
     private val constructors = ArrayList<KotlinFun>()
     private val functions = ArrayList<KotlinFun>()
+    private val innerClasses = ArrayList<KotlinClass>()
     // vars for generator
     var createDefaultConstructor = false
 
     fun addImport(newImport: String) {
-        if (!imports.contains(newImport)) {
-            imports.add(newImport)
-        }
+        imports.add(newImport)
     }
 
     fun addAnnotation(annotation: String) {
@@ -77,6 +80,14 @@ open class KotlinClass(var name: String = "",
         return newEnum
     }
 
+    /**
+     * Add a nested class (rendered after the functions of this class).  Imports of the nested class are added to this class.
+     */
+    fun addInnerClass(innerClass: KotlinClass): KotlinClass {
+        innerClasses.add(innerClass)
+        return innerClass
+    }
+
     fun addVar(newVariable: KotlinVar): KotlinVar {
         vars.add(newVariable)
         return newVariable
@@ -157,27 +168,24 @@ open class KotlinClass(var name: String = "",
     }
 
     // ===================  BUILD METHODS  ================
-    private fun buildPackage(): String {
-        return "package $packageName\n\n"
+    private fun buildPackage(out: Appendable) {
+        out.append("package ").append(packageName).append("\n\n")
     }
 
-    private fun buildImports(): String {
-        if (imports.isEmpty()) {
-            return ""
-        } else {
-            val out = StringBuilder()
-            for (newImport in imports) {
+    private fun buildImports(out: Appendable) {
+        val allImports = LinkedHashSet(imports)
+        innerClasses.forEach { allImports.addAll(it.imports) }
+
+        if (!allImports.isEmpty()) {
+            for (newImport in allImports) {
                 out.append("import ").append(newImport).append("\n")
             }
 
             out.append("\n")
-
-            return out.toString()
         }
     }
 
-    private fun buildClassHeader(genericsTypeVar: String?): String {
-        val classHeader = StringBuilder()
+    private fun buildClassHeader(classHeader: Appendable, genericsTypeVar: String?) {
         classHeader.append("\n")
 
         // annotations
@@ -188,30 +196,6 @@ open class KotlinClass(var name: String = "",
         // generics
         val genericsVar = (if (genericsTypeVar == null) "" else "<$genericsTypeVar>")
 
-        // extends
-        var extendsNameString = ""
-        if (!extends.isEmpty()) {
-            extendsNameString = " : " + extends
-        }
-
-        // implements
-        var implementsNamesString = ""
-        if (!implementsInterfaces.isEmpty()) {
-            if (extendsNameString.isEmpty()) {
-                implementsNamesString = " : "
-            } else {
-                implementsNamesString = ", "
-            }
-
-            for (i in implementsInterfaces.indices) {
-                if (i > 0) {
-                    implementsNamesString += ", " // nopmd - generator
-                }
-
-                implementsNamesString += implementsInterfaces[i] // nopmd - generator
-            }
-        }
-
         // generate header
         val accessText = getAccessString(access)
         classHeader.append(accessText)
@@ -235,37 +219,50 @@ open class KotlinClass(var name: String = "",
             KotlinClassType.DATA -> classHeader.append("data class ").append(name).append(genericsVar).append(" ").append(primaryConstructor)
         }
 
-        classHeader.append(extendsNameString)
-        classHeader.append(implementsNamesString)
-        classHeader.append(" {\n")
+        // extends
+        if (!extends.isEmpty()) {
+            classHeader.append(" : ").append(extends)
+        }
 
-        return classHeader.toString()
-    }
+        // implements
+        if (!implementsInterfaces.isEmpty()) {
+            classHeader.append(if (extends.isEmpty()) " : " else ", ")
+
+            for (i in implementsInterfaces.indices) {
+                if (i > 0) {
+                    classHeader.append(", ")
+                }
+
+                classHeader.append(implementsInterfaces[i])
+            }
+        }
 
-    private fun buildEnums(): String {
-        var enumsText = ""
-        val TAB = tab
+        classHeader.append(" {\n")
+    }
 
+    private fun buildEnums(out: Appendable) {
         for (enumItem in enums) {
-            enumsText += TAB + enumItem.toString() + "\n"
+            out.append(tab)
+            enumItem.emitTo(out)
+            out.append("\n")
         }
 
-        enumsText += "\n"
-
-        return enumsText
+        out.append("\n")
     }
 
-    private fun buildConstants(out: StringBuilder) {
+    private fun buildConstants(out: Appendable) {
         if (constantVals.isEmpty() && constantFuns.isEmpty() && staticInit.isBlank()) {
             return
         }
 
         if (classType == KotlinClassType.OBJECT) {
             for (constantVal in constantVals) {
-                out.append(constantVal.toString()).append("\n")
+                constantVal.emitTo(out)
+                out.append("\n")
             }
             for (constantFun in constantFuns) {
-                out.append(constantFun.toString()).append("\n")
+                constantFun.emitTo(out, false)
+                out.append("\n")
             }
 
             // static initializer
@@ -280,10 +277,13 @@ open class KotlinClass(var name: String = "",
             // standard class
             out.append(tab).append("companion object {\n")
             for (constantVal in constantVals) {
-                out.append(tab).append(constantVal.toString()).append("\n")
+                out.append(tab)
+                constantVal.emitTo(out)
+                out.append("\n")
             }
             for (constantFun in constantFuns) {
-                out.append(constantFun.toString()).append("\n")
+                constantFun.emitTo(out, false)
+                out.append("\n")
             }
 
             // static initializer
@@ -299,52 +299,82 @@ open class KotlinClass(var name: String = "",
 
     }
 
-    private fun buildVariables(): String {
-        var variablesText = ""
-
+    private fun buildVariables(out: Appendable) {
         for (variable in vals) {
-            variablesText += variable.toString() + "\n"
+            variable.emitTo(out)
+            out.append("\n")
         }
 
         for (variable in vars) {
-            variablesText += variable.toString() + "\n"
+            variable.emitTo(out)
+            out.append("\n")
         }
 
-        variablesText += "\n"
-
-        return variablesText
+        out.append("\n")
     }
 
     override fun toString(): String {
         val out = StringBuilder()
+        emitTo(out)
+        return out.toString()
+    }
 
+    /**
+     * Render this class to out (NOTE: like toString(), this should only be called once per class... the default constructor is added while rendering)
+     */
+    @Throws(IOException::class)
+    override fun emitTo(out: Appendable) {
         if (fileHeaderComment.length > 0) {
             out.append(fileHeaderComment).append("\n\n")
         }
 
         out.append("\n")
-        out.append(buildPackage())
-        out.append(buildImports())
+        buildPackage(out)
+        buildImports(out)
 
         if (classHeaderComment.length > 0) {
             out.append(classHeaderComment).append("\n\n")
         }
 
-        out.append(buildClassHeader(null)) // TODO... get rid of first parameter
-        out.append(buildPostClassHeader()) // Support for ENUM type
-        out.append(buildEnums())
-        buildConstants(out)
-        out.append(buildVariables())
-        buildMethods(out)
+        buildClassHeader(out, null) // TODO... get rid of second parameter
+        buildClassBody(out)
 
 
         // end of class
         out.append("\n}")
+    }
 
-        return out.toString()
+    private fun buildClassBody(out: Appendable) {
+        emitPostClassHeader(out) // Support for ENUM type
+        buildEnums(out)
+        buildConstants(out)
+        buildVariables(out)
+        buildMethods(out)
+        buildInnerClasses(out)
     }
 
-    private fun buildMethods(out: StringBuilder) {
+    private fun buildInnerClasses(out: Appendable) {
+        for (innerClass in innerClasses) {
+            val innerClassOut = StringBuilder()
+            innerClass.buildClassHeader(innerClassOut, null)
+            innerClass.buildClassBody(innerClassOut)
+            innerClassOut.append("}\n")
+
+            if (innerClass !== innerClasses[0]) {
+                out.append("\n")
+            }
+
+            // indent the nested class (without the leading new line of the class header or indenting empty lines)
+            for (line in innerClassOut.toString().trim().split("\n")) {
+                if (line.isNotBlank()) {
+                    out.append(tab).append(line)
+                }
+                out.append("\n")
+            }
+        }
+    }
+
+    private fun buildMethods(out: Appendable) {
         // constructor methods
         if (!isInterface()) {
             if (createDefaultConstructor) {
@@ -352,14 +382,14 @@ open class KotlinClass(var name: String = "",
             }
 
             for (constructor in constructors) {
-                out.append(constructor.toString())
+                constructor.emitTo(out, false)
                 out.append("\n")
             }
         }
 
         // regular functions
         for (functions in functions) {
-            out.append(functions.toString(isInterface()))
+            functions.emitTo(out, isInterface())
             out.append("\n")
         }
     }
@@ -367,31 +397,28 @@ open class KotlinClass(var name: String = "",
     val filename: String
         get() = name + ".kt"
 
-    @JvmOverloads fun writeToDisk(directoryname: String, overwrite: Boolean = true) {
-        val directory = File(directoryname)
-        directory.mkdirs()
-
-        try {
-            val outFile = File(directoryname + "/" + filename)
-
-            if (!overwrite && outFile.exists()) {
-                return
-            }
-
-            val fps = PrintStream(FileOutputStream(outFile))
-            fps.print(this.toString())
-            fps.close()
-        } catch (ex: FileNotFoundException) {
-            ex.printStackTrace()
-        }
+    /**
+     * Write this class to directoryname.  The file is only written if the content changed.
+     */
+    @JvmOverloads fun writeToDisk(directoryname: String, overwrite: Boolean = true): WriteResult {
+        return writeTo(FileOutputSink.INSTANCE, directoryname, overwrite)
+    }
 
+    /**
+     * Write this class to directoryname of outputSink.  The file is only written if the content changed.
+     */
+    @JvmOverloads fun writeTo(outputSink: OutputSink, directoryname: String, overwrite: Boolean = true): WriteResult {
+        return outputSink.write(getFile(directoryname), this, overwrite)
     }
 
+    fun getFile(directoryname: String) = File(directoryname + "/" + filename)
+
     fun isInterface() = classType == KotlinClassType.INTERFACE
     fun isEnum() = classType == KotlinClassType.ENUM
 
-    protected open fun buildPostClassHeader(): String {
-        return ""
+    @Throws(IOException::class)
+    protected open fun emitPostClassHeader(out: Appendable) {
+        // no content by default
     }
 
     fun appendStaticInitializer(code: String) {
@@ -412,25 +439,7 @@ open class KotlinClass(var name: String = "",
         }
 
         fun formatConstant(constant: String): String {
-            val newConst = StringBuilder()
-
-            for (i in 0..constant.length - 1) {
-                // add the current character in UPPERCASE
-                newConst.append(Character.toUpperCase(constant[i]))
-
-                // check for need of _
-                val current = constant[i]
-                var nextChar = ' '
-                if ((i + 1) < constant.length) {
-                    nextChar = constant[i + 1]
-                }
-
-                if (!Character.isUpperCase(current) && nextChar != ' ' && Character.isUpperCase(nextChar)) {
-                    newConst.append('_')
-                }
-            }
-
-            return newConst.toString()
+            return JavaUtil.formatConstant(constant)
         }
 
         fun formatDefaultValue(fieldType: String?, defaultValue: String?): String {
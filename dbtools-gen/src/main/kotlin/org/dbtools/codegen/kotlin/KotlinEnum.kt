@@ -10,6 +10,7 @@
 
 package org.dbtools.codegen.kotlin
 
+import java.io.IOException
 import java.util.*
 
 @SuppressWarnings("PMD.UseStringBufferForStringAppends")
@@ -38,22 +39,19 @@ class KotlinEnum : KotlinClass {
         this.enums.addAll(enums)
     }
 
-    override fun buildPostClassHeader(): String {
-        var enumStr = ""
-
+    @Throws(IOException::class)
+    override fun emitPostClassHeader(out: Appendable) {
         var count = 0
         for (enumItem in enums) {
             if (count > 0) {
-                enumStr += ", "
+                out.append(", ")
             }
 
-            enumStr += enumItem
+            out.append(enumItem)
 
             count++
         }
 
-        enumStr += ";\n"
-
-        return enumStr
+        out.append(";\n")
     }
 }
@@ -9,6 +9,8 @@
  */
 package org.dbtools.codegen.kotlin
 
+import org.dbtools.codegen.java.SourceUtil
+import java.io.IOException
 import java.util.ArrayList
 
 class KotlinFun {
@@ -26,6 +28,7 @@ class KotlinFun {
     val annotations = ArrayList<String>()
     val exceptions = ArrayList<String>()
     var content = ""
+    var docComment = "" // text of the KDoc (without the comment markers)
     var tab = KotlinClass.tab
     var startEndTab = "" // some cases there needs to be an extra tab (such as companion object)
     var constructorDelegate = ""
@@ -60,107 +63,103 @@ class KotlinFun {
     }
 
     fun toString(interfaceOnly: Boolean): String {
-        var text = ""
+        val text = StringBuilder()
+        emitTo(text, interfaceOnly)
+        return text.toString()
+    }
 
+    @Throws(IOException::class)
+    fun emitTo(out: Appendable, interfaceOnly: Boolean) {
+        SourceUtil.appendDocComment(out, startEndTab + tab, docComment)
         for (annotation in annotations) {
-            text += tab + annotation + "\n"
+            out.append(tab).append(annotation).append("\n")
         }
 
         // access
         val access = KotlinClass.getAccessString(access)
-        if (!access.isEmpty()) {
-            text += tab + access
-        } else {
-            text += tab
-        }
+        out.append(tab).append(access)
 
         // modifiers
         if (open) {
-            text += "open "
+            out.append("open ")
         }
 
         if (override) {
-            text += "override "
+            out.append("override ")
         }
 
         if (abstract) {
-            text += "abstract "
+            out.append("abstract ")
         }
 
         if (inline) {
-            text += "inline "
+            out.append("inline ")
         }
 
         if (lateInit) {
-            text += "isLateinit "
+            out.append("isLateinit ")
         }
 
         // method name
         if (funType == KotlinFunType.STANDARD) {
-            text += startEndTab + "fun $name"
+            out.append(startEndTab).append("fun ").append(name)
         } else if (funType == KotlinFunType.CONSTRUCTOR) {
-            text += "constructor"
+            out.append("constructor")
         }
 
 
         // parameters
-        text += "("
+        out.append("(")
         var paramCounter = 0
         for (parameter in parameters) {
             if (paramCounter > 0) {
-                text += ", "
+                out.append(", ")
             }
-            text += parameter.toString()
+            parameter.emitTo(out)
 
             paramCounter++
         }
-        text += ")"
+        out.append(")")
 
         // constructor delegate
         if (constructorDelegate.isNotEmpty()) {
-            text += " : $constructorDelegate"
+            out.append(" : ").append(constructorDelegate)
         }
 
         // return
         if (returnType.isNotEmpty()) {
-            text += " : $returnType"
+            out.append(" : ").append(returnType)
         }
 
         // exceptions
         if (!exceptions.isEmpty()) {
-            text += " throws"
+            out.append(" throws")
 
             var expCount = 0
             for (exception in exceptions) {
                 if (expCount == 0) {
-                    text += " "
+                    out.append(" ")
                 } else {
-                    text += ", "
+                    out.append(", ")
                 }
 
-                text += exception
+                out.append(exception)
                 expCount++
             }
         }
 
         if (interfaceOnly || abstract) {
-            text += "\n"
-            return text
+            out.append("\n")
         } else {
             // content
-            text += " {\n"
+            out.append(" {\n")
 
             if (!content.isEmpty()) {
-                val splitContent = content.split("\n".toRegex()).dropLastWhile { it.isEmpty() }.toTypedArray()
-                for (aSplitContent in splitContent) {
-                    text += startEndTab + tab + tab + aSplitContent + "\n"
-                }
+                SourceUtil.appendIndentedLines(out, startEndTab + tab + tab, content)
             }
 
-            text += startEndTab + tab + "}\n"
+            out.append(startEndTab).append(tab).append("}\n")
         }
-
-        return text
     }
 
     fun addParameter(parameter: KotlinVal) {
@@ -12,6 +12,7 @@ package org.dbtools.codegen.kotlin
 import org.dbtools.codegen.java.Access
 import org.dbtools.codegen.java.JavaClass
 
+import java.io.IOException
 import java.util.Collections
 
 /**
@@ -35,24 +36,27 @@ class KotlinInnerEnum(enumName: String, enumValues: List<String>?) {
     }
 
     override fun toString(): String {
-        var enumStr = ""
+        val enumStr = StringBuilder()
+        emitTo(enumStr)
+        return enumStr.toString()
+    }
 
+    @Throws(IOException::class)
+    fun emitTo(out: Appendable) {
         val accessText = JavaClass.getAccessString(access)
-        enumStr += accessText
+        out.append(accessText)
 
-        enumStr += " static enum $name {\n        " // includes 2 TABS for the next line
+        out.append(" static enum ").append(name).append(" {\n        ") // includes 2 TABS for the next line
 
         var numItems = 0
         for (enumItem in values!!) {
             numItems++
             if (numItems > 1) {
-                enumStr += ", "
+                out.append(", ")
             }
-            enumStr += enumItem
+            out.append(enumItem)
         }
 
-        enumStr += "\n    }"
-
-        return enumStr
+        out.append("\n    }")
     }
 }
@@ -9,6 +9,7 @@
  */
 package org.dbtools.codegen.kotlin
 
+import java.io.IOException
 import java.util.ArrayList
 
 class KotlinVal(val name: String, val dataType: String, var defaultValue: String = "") {
@@ -34,70 +35,69 @@ class KotlinVal(val name: String, val dataType: String, var defaultValue: String
     }
 
     override fun toString(): String {
-        var text = ""
+        val text = StringBuilder()
+        emitTo(text)
+        return text.toString()
+    }
 
+    @Throws(IOException::class)
+    fun emitTo(out: Appendable) {
         // annotations
         for (annotation in annotations) {
             // add tab if this is a class Variable
             if (variableType == KotlinVarType.CLASS_VARIABLE) {
-                text += KotlinClass.tab
+                out.append(KotlinClass.tab)
             }
 
-            text += annotation
+            out.append(annotation)
             when (variableType) {
-                KotlinVarType.CLASS_VARIABLE -> text += "\n"
-                KotlinVarType.METHOD_PARAMETER -> text += " "
+                KotlinVarType.CLASS_VARIABLE -> out.append("\n")
+                KotlinVarType.METHOD_PARAMETER -> out.append(" ")
             }
         }
 
         // access
         if (variableType == KotlinVarType.CLASS_VARIABLE) {
             val accessText = KotlinClass.getAccessString(access) + " "
-            text += KotlinClass.tab
-            text += if (accessText.isNotBlank()) accessText else ""
+            out.append(KotlinClass.tab)
+            out.append(if (accessText.isNotBlank()) accessText else "")
         }
 
         if (override) {
-            text += "override "
+            out.append("override ")
         }
 
         if (open) {
-            text += "open "
+            out.append("open ")
         }
 
         if (inline) {
-            text += "inline "
+            out.append("inline ")
         }
 
         if (lateInit) {
-            text += "lateinit "
+            out.append("lateinit ")
         }
 
         if (const) {
-            text += "const "
+            out.append("const ")
         }
 
         if (variableType == KotlinVarType.CLASS_VARIABLE) {
-            text += "val "
+            out.append("val ")
         }
 
         // datatype and name
-//        if (!text.isEmpty()) {
-//            text += " "
-//        }
-
         if (dataType.isNotBlank()) {
-            text += "$name: $dataType"
+            out.append(name).append(": ").append(dataType)
         } else {
-            text += name
+            out.append(name)
         }
 
         // set default value
         if (defaultValue.isNotBlank()) {
-            text += " = " + defaultValue
+            out.append(" = ").append(defaultValue)
         }
-
-        return text
     }
 
     fun setDefaultValue(defaultValue: String, formatDefaultValue: Boolean) {
@@ -9,6 +9,7 @@
  */
 package org.dbtools.codegen.kotlin
 
+import java.io.IOException
 import java.util.ArrayList
 
 class KotlinVar(val name: String, var dataType: String, var defaultValue: String = "") {
@@ -18,6 +19,7 @@ class KotlinVar(val name: String, var dataType: String, var defaultValue: String
     var open = false
     var override = false
     var lateInit = false
+    var setterContent = "" // custom setter body (value is the parameter)
     val annotations = ArrayList<String>()
 
     fun addAnnotation(annotation: String) {
@@ -33,66 +35,75 @@ class KotlinVar(val name: String, var dataType: String, var defaultValue: String
     }
 
     override fun toString(): String {
-        var text = ""
+        val text = StringBuilder()
+        emitTo(text)
+        return text.toString()
+    }
 
+    @Throws(IOException::class)
+    fun emitTo(out: Appendable) {
         // annotations
         for (annotation in annotations) {
             // add tab if this is a class Variable
             if (variableType == KotlinVarType.CLASS_VARIABLE) {
-                text += KotlinClass.tab
+                out.append(KotlinClass.tab)
             }
 
-            text += annotation
+            out.append(annotation)
             when (variableType) {
-                KotlinVarType.CLASS_VARIABLE -> text += "\n"
-                KotlinVarType.METHOD_PARAMETER -> text += " "
+                KotlinVarType.CLASS_VARIABLE -> out.append("\n")
+                KotlinVarType.METHOD_PARAMETER -> out.append(" ")
             }
         }
 
         // access
         if (variableType == KotlinVarType.CLASS_VARIABLE) {
             val accessText = KotlinClass.getAccessString(access) + " "
-            text += KotlinClass.tab
-            text += if (accessText.isNotBlank()) accessText else ""
+            out.append(KotlinClass.tab)
+            out.append(if (accessText.isNotBlank()) accessText else "")
         }
 
         if (override) {
-            text += "override "
+            out.append("override ")
         }
 
         if (open) {
-            text += "open "
+            out.append("open ")
         }
 
         if (inline) {
-            text += "inline "
+            out.append("inline ")
         }
 
         if (lateInit) {
-            text += "lateinit "
+            out.append("lateinit ")
         }
 
         if (variableType == KotlinVarType.CLASS_VARIABLE) {
-            text += "var "
+            out.append("var ")
         }
 
         // datatype and name
-//        if (!text.isEmpty()) {
-//            text += " "
-//        }
-
         if (dataType.isNotBlank()) {
-            text += "$name: $dataType"
+            out.append(name).append(": ").append(dataType)
         } else {
-            text += name
+            out.append(name)
         }
 
         // set default value
         if (defaultValue.isNotBlank()) {
-            text += " = " + defaultValue
+            out.append(" = ").append(defaultValue)
         }
 
-        return text
+        // custom setter
+        if (setterContent.isNotBlank() && variableType == KotlinVarType.CLASS_VARIABLE) {
+            val setterTab = KotlinClass.tab + KotlinClass.tab
+            out.append("\n").append(setterTab).append("set(value) {\n")
+            for (line in setterContent.trim().lines()) {
+                out.append(setterTab).append(KotlinClass.tab).append(line).append("\n")
+            }
+            out.append(setterTab).append("}")
+        }
     }
 
     fun getGetterMethodName(): String {
@@ -116,6 +127,7 @@ class KotlinVar(val name: String, var dataType: String, var defaultValue: String
         clone.open = open
         clone.override = override
         clone.lateInit = lateInit
+        clone.setterContent = setterContent
         clone.annotations.addAll(annotations)
 
         return clone
@@ -14,11 +14,13 @@ import org.dbtools.codegen.kotlin.KotlinClass
 import org.dbtools.codegen.kotlin.KotlinVal
 import org.dbtools.gen.AnnotationConsts
 import org.dbtools.gen.GenConfig
+import org.dbtools.gen.GeneratedFiles
 import org.dbtools.gen.android.AndroidGeneratedEntityInfo
 import org.dbtools.gen.android.AndroidRecordRenderer
 import org.dbtools.schema.schemafile.SchemaEntity
 import org.dbtools.schema.schemafile.SchemaEntityType
 import org.dbtools.schema.schemafile.SchemaTable
+import org.dbtools.schema.schemafile.SchemaTableProjection
 
 class KotlinAndroidBaseManagerRenderer(val genConfig: GenConfig) {
     private val myClass = KotlinClass()
@@ -109,6 +111,22 @@ class KotlinAndroidBaseManagerRenderer(val genConfig: GenConfig) {
                 myClass.addVal("createSql", defaultValue =  "$recordConstClassName.CREATE_TABLE").apply { override = true }
                 myClass.addVal("insertSql", defaultValue =  "$recordConstClassName.INSERT_STATEMENT").apply { override = true }
                 myClass.addVal("updateSql", defaultValue =  "$recordConstClassName.UPDATE_STATEMENT").apply { override = true }
+
+                if (!(entity as SchemaTable).isReadonly) {
+                    addBulkFuns(recordClassName, recordConstClassName, generatedEntityInfo.isPrimaryKeyAdded, generatedEntityInfo.isDirtyFieldsAdded)
+                    if (generatedEntityInfo.isUpsertAdded) {
+                        addUpsertFuns(recordClassName, recordConstClassName, generatedEntityInfo.isUpsertOnPrimaryKey, generatedEntityInfo.isFindIdByUpsertKeyAdded, generatedEntityInfo.isDirtyFieldsAdded)
+                    }
+                    if (generatedEntityInfo.isDirtyFieldsAdded) {
+                        addUpdateDirtyFun(recordClassName, recordConstClassName)
+                    }
+                }
+
+                if (!entity.isEnumerationTable) {
+                    for (projection in entity.projections) {
+                        addProjectionFuns(recordClassName, projection, generatedEntityInfo.isPrimaryKeyAdded)
+                    }
+                }
             }
             SchemaEntityType.VIEW -> {
                 myClass.addVal("primaryKey", defaultValue =  """"<NO_PRIMARY_KEY_ON_VIEWS>"""").apply { override = true }
@@ -130,16 +148,244 @@ class KotlinAndroidBaseManagerRenderer(val genConfig: GenConfig) {
                 myClass.addVal("updateSql", defaultValue =  """""""").apply { override = true }
             }
         }
+
+        if (generatedEntityInfo.isCursorIndexesAdded) {
+            addFindAllFromCursorFun(recordClassName, recordConstClassName, generatedEntityInfo.isAllColumnsReaderAdded)
+        }
+    }
+
+    /**
+     * findAllFromCursor(...) reads every row and closes the cursor.  Table cursors that use ALL_COLUMNS are read by
+     * ordinal, other cursors by the column indexes resolved once (instead of once per row)
+     */
+    private fun addFindAllFromCursorFun(recordClassName: String, recordConstClassName: String, allColumnsReaderAdded: Boolean) {
+        val cursorIndexesClassName = KotlinAndroidBaseRecordRenderer.createClassName(false, recordClassName) + ".CursorIndexes"
+        myClass.addImport("android.database.Cursor")
+
+        val indexesReadContent = "val indexes = $cursorIndexesClassName(cursor)\n" +
+                "while (cursor.moveToNext()) {\n" +
+                TAB + "val record = newRecord()\n" +
+                TAB + "record.setContent(cursor, indexes)\n" +
+                TAB + "items.add(record)\n" +
+                "}\n"
+        val readContent = if (allColumnsReaderAdded) {
+            val allColumnsReadContent = "while (cursor.moveToNext()) {\n" +
+                    TAB + "val record = newRecord()\n" +
+                    TAB + "record.setContentAllColumns(cursor)\n" +
+                    TAB + "items.add(record)\n" +
+                    "}\n"
+            "if (cursor.columnNames.contentEquals($recordConstClassName.ALL_COLUMNS)) {\n" +
+                    allColumnsReadContent.trimEnd().prependIndent(TAB) + "\n" +
+                    "} else {\n" +
+                    indexesReadContent.trimEnd().prependIndent(TAB) + "\n" +
+                    "}\n"
+        } else {
+            indexesReadContent
+        }
+
+        val content = "val items = ArrayList<$recordClassName>()\n" +
+                "cursor ?: return items\n\n" +
+                "cursor.use {\n" +
+                readContent.trimEnd().prependIndent(TAB) + "\n" +
+                "}\n" +
+                "return items"
+        myClass.addFun("findAllFromCursor", "List<$recordClassName>", listOf(KotlinVal("cursor", "Cursor?")), content)
     }
 
+    /**
+     * insertAll(...), updateAll(...) and saveAll(...) compile the statement(s) once and write all records in one transaction
+     * (or in chunks of chunkSize records, if the caller asks for it)
+     */
+    private fun addBulkFuns(recordClassName: String, recordConstClassName: String, primaryKeyAdded: Boolean, dirtyFieldsAdded: Boolean) {
+        val insertStatement = "val insertStatement = database.compileStatement($recordConstClassName.INSERT_STATEMENT)\n"
+        val insertContent = "insertStatement.clearBindings()\n" +
+                "record.bindInsertStatement(insertStatement)\n" +
+                "record.setPrimaryKeyId(insertStatement.executeInsert())"
+        val clearDirtyFieldsContent = getClearDirtyFieldsContent(dirtyFieldsAdded)
+        addBulkFun("insertAll", "Insert all records", recordClassName, insertStatement, insertContent + clearDirtyFieldsContent, "insertStatement.close()")
 
-    fun writeToFile(outDir: String) {
-        myClass.writeToDisk(outDir)
+        if (!primaryKeyAdded) {
+            // UPDATE_STATEMENT needs a primary key
+            return
+        }
+
+        val updateStatement = "val updateStatement = database.compileStatement($recordConstClassName.UPDATE_STATEMENT)\n"
+        val updateContent = "updateStatement.clearBindings()\n" +
+                "record.bindUpdateStatement(updateStatement)\n" +
+                "updateStatement.executeUpdateDelete()"
+        addBulkFun("updateAll", "Update all records", recordClassName, updateStatement, updateContent + clearDirtyFieldsContent, "updateStatement.close()")
+
+        val saveContent = "if (record.isNewRecord()) {\n" +
+                indent(insertContent) + "\n" +
+                "} else {\n" +
+                indent(updateContent) + "\n" +
+                "}"
+        addBulkFun("saveAll", "Insert all new records and update all existing records", recordClassName, insertStatement + updateStatement, saveContent + clearDirtyFieldsContent, "insertStatement.close()\nupdateStatement.close()")
+    }
+
+    /**
+     * upsert(...) and upsertAll(...) insert or update each record with one UPSERT_STATEMENT (no read or isNewRecord() check needed)
+     */
+    private fun addUpsertFuns(recordClassName: String, recordConstClassName: String, upsertOnPrimaryKey: Boolean, findIdByUpsertKey: Boolean, dirtyFieldsAdded: Boolean) {
+        var upsertStatement = "val upsertStatement = database.compileStatement($recordConstClassName.UPSERT_STATEMENT)\n"
+        var upsertContent = "upsertStatement.clearBindings()\n" +
+                "record.bindUpsertStatement(upsertStatement)\n"
+        var closeContent = "upsertStatement.close()"
+        if (upsertOnPrimaryKey) {
+            // the rowid is only the new primary key if the record was inserted
+            upsertContent += "val rowId = upsertStatement.executeInsert()\n" +
+                    "if (record.isNewRecord()) {\n" +
+                    TAB + "record.setPrimaryKeyId(rowId)\n" +
+                    "}"
+        } else if (findIdByUpsertKey) {
+            // the rowid is not returned if an existing row was updated... find the id by the upsertKey columns
+            upsertStatement += "val findIdStatement = database.compileStatement($recordConstClassName.FIND_ID_BY_UPSERT_KEY_STATEMENT)\n"
+            upsertContent += "upsertStatement.executeInsert()\n" +
+                    "findIdStatement.clearBindings()\n" +
+                    "record.bindUpsertKeyStatement(findIdStatement)\n" +
+                    "record.setPrimaryKeyId(findIdStatement.simpleQueryForLong())"
+            closeContent += "\nfindIdStatement.close()"
+        } else {
+            upsertContent += "upsertStatement.executeInsert()"
+        }
+        upsertContent += getClearDirtyFieldsContent(dirtyFieldsAdded)
+
+        var upsertDoc = UPSERT_DOC
+        if (upsertOnPrimaryKey || findIdByUpsertKey) {
+            upsertDoc += "  The primary key of each record is set to the id of the inserted or updated row."
+        }
+        addBulkFun("upsertAll", "Insert or update all records", recordClassName, upsertStatement, upsertContent, closeContent, upsertDoc)
+
+        myClass.addFun("upsert", parameters = listOf(KotlinVal("record", recordClassName)), content = "upsertAll(listOf(record))").apply {
+            docComment = "Insert or update record with one statement (no read or isNewRecord() check needed).\n" +
+                    "\n" +
+                    upsertDoc
+        }
+    }
+
+    /**
+     * The record was written... the columns changed by setters are not dirty anymore
+     */
+    private fun getClearDirtyFieldsContent(dirtyFieldsAdded: Boolean) = if (dirtyFieldsAdded) "\nrecord.clearDirtyFields()" else ""
+
+    /**
+     * updateDirty(...) only writes the columns that were changed by setters (the partial UPDATE statement is cached by the const class)
+     */
+    private fun addUpdateDirtyFun(recordClassName: String, recordConstClassName: String) {
+        val content = "val dirtyFields = record.getDirtyFields()\n" +
+                "if (dirtyFields.isEmpty) {\n" +
+                TAB + "return 0\n" +
+                "}\n\n" +
+                "val database = getWritableDatabase(getDatabaseName())\n" +
+                "val statement = database.compileStatement($recordConstClassName.getDirtyUpdateStatement(dirtyFields))\n" +
+                "try {\n" +
+                TAB + "record.bindDirtyUpdateStatement(statement)\n" +
+                TAB + "val count = statement.executeUpdateDelete()\n" +
+                TAB + "record.clearDirtyFields()\n" +
+                TAB + "return count\n" +
+                "} finally {\n" +
+                TAB + "statement.close()\n" +
+                "}"
+        myClass.addFun("updateDirty", "Int", listOf(KotlinVal("record", recordClassName)), content)
+    }
+
+    /**
+     * find...() funs that only query the COLUMNS of the projection (instead of ALL_COLUMNS of the record)
+     */
+    private fun addProjectionFuns(recordClassName: String, projection: SchemaTableProjection, primaryKeyAdded: Boolean) {
+        val projectionClassName = KotlinAndroidBaseRecordRenderer.createProjectionClassName(recordClassName, projection)
+        val projectionName = projection.name
+        myClass.addImport("android.database.Cursor")
+
+        // cursor
+        val cursorFunName = "find${projectionName}CursorBySelection"
+        myClass.addFun(cursorFunName, "Cursor", createSelectionParams(), "return getReadableDatabase(getDatabaseName()).query(getTableName(), $projectionClassName.COLUMNS, selection, selectionArgs, null, null, orderBy)")
+
+        // list
+        val findAllBySelectionFunName = "findAll${projectionName}BySelection"
+        val findAllBySelectionContent = "val items = ArrayList<$projectionClassName>()\n" +
+                "$cursorFunName(selection, selectionArgs, orderBy).use { cursor ->\n" +
+                TAB + "while (cursor.moveToNext()) {\n" +
+                TAB + TAB + "items.add($projectionClassName(cursor))\n" +
+                TAB + "}\n" +
+                "}\n" +
+                "return items"
+        myClass.addFun(findAllBySelectionFunName, "List<$projectionClassName>", createSelectionParams(), findAllBySelectionContent)
+        myClass.addFun("findAll$projectionName", "List<$projectionClassName>", content = "return $findAllBySelectionFunName()")
+
+        if (primaryKeyAdded) {
+            val findByRowIdContent = "return $findAllBySelectionFunName(primaryKey + \" = ?\", arrayOf(rowId.toString())).firstOrNull()"
+            myClass.addFun("find${projectionName}ByRowId", "$projectionClassName?", listOf(KotlinVal("rowId", "Long")), findByRowIdContent)
+        }
+    }
+
+    private fun createSelectionParams() = listOf(
+            KotlinVal("selection", "String?", "null"),
+            KotlinVal("selectionArgs", "Array<String>?", "null"),
+            KotlinVal("orderBy", "String?", "null"))
+
+    /**
+     * @param note extra paragraph for the KDoc of the fun
+     */
+    private fun addBulkFun(funName: String, description: String, recordClassName: String, statementsContent: String, recordContent: String, closeContent: String, note: String = "") {
+        val recordsParam = KotlinVal("records", "Collection<$recordClassName>")
+        val chunkSizeParam = KotlinVal("chunkSize", "Int", "Int.MAX_VALUE") // single transaction unless the caller asks for chunks
+
+        val content = StringBuilder()
+        content.append("if (chunkSize <= 0) {\n")
+        content.append(TAB).append("throw IllegalArgumentException(\"chunkSize must be greater than 0\")\n")
+        content.append("}\n")
+        content.append("if (records.isEmpty()) {\n")
+        content.append(TAB).append("return\n")
+        content.append("}\n\n")
+
+        content.append("val database = getWritableDatabase(getDatabaseName())\n")
+        content.append(statementsContent)
+        content.append("var count = 0\n")
+        content.append("database.beginTransaction()\n")
+        content.append("try {\n")
+        content.append(TAB).append("for (record in records) {\n")
+        content.append(indent(indent(recordContent))).append("\n\n")
+        content.append(TAB).append(TAB).append("// commit every chunkSize records\n")
+        content.append(TAB).append(TAB).append("count++\n")
+        content.append(TAB).append(TAB).append("if (count % chunkSize == 0 && count < records.size) {\n")
+        content.append(TAB).append(TAB).append(TAB).append("database.setTransactionSuccessful()\n")
+        content.append(TAB).append(TAB).append(TAB).append("database.endTransaction()\n")
+        content.append(TAB).append(TAB).append(TAB).append("database.beginTransaction()\n")
+        content.append(TAB).append(TAB).append("}\n")
+        content.append(TAB).append("}\n")
+        content.append(TAB).append("database.setTransactionSuccessful()\n")
+        content.append("} finally {\n")
+        content.append(TAB).append("database.endTransaction()\n")
+        content.append(indent(closeContent)).append("\n")
+        content.append("}")
+
+        myClass.addFun(funName, parameters = listOf(recordsParam, chunkSizeParam), content = content.toString()).apply {
+            docComment = "$description in a single transaction (if any record fails, none of the records are written).\n" +
+                    "\n" +
+                    "Partial commit: if a chunkSize is given, a transaction is committed every chunkSize records.  If a record fails,\n" +
+                    "the chunks that were already committed stay in the database and the rest of the records are not written.\n" +
+                    "\n" +
+                    "The statement is compiled once and bound directly from each record: insert(...) and update(...) of this manager\n" +
+                    "are bypassed (overrides of those funs are not called and table change listeners are not notified).\n" +
+                    (if (note.isNotEmpty()) "\n$note\n" else "") +
+                    "\n" +
+                    "@param chunkSize number of records written per transaction (must be greater than 0)"
+        }
+    }
+
+    private fun indent(content: String) = TAB + content.replace("\n", "\n" + TAB)
+
+    fun writeToFile(outDir: String, generatedFiles: GeneratedFiles) {
+        generatedFiles.add(myClass.getFile(outDir), myClass.writeTo(genConfig.outputSink, outDir))
     }
 
     companion object {
         private val TAB = KotlinClass.tab
 
+        // UPSERT (INSERT ... ON CONFLICT DO UPDATE) is not supported by older versions of SQLite
+        private const val UPSERT_DOC = "Requires SQLite 3.24+ (Android API 30+)."
+
         fun getClassName(table: SchemaEntity): String {
             val recordClassName = AndroidRecordRenderer.createClassName(table)
             return recordClassName + "BaseManager"
@@ -10,12 +10,16 @@
 package org.dbtools.gen.android.kotlin
 
 import org.dbtools.codegen.java.JavaClass
+import org.dbtools.codegen.kotlin.KotlinAccess
 import org.dbtools.codegen.kotlin.KotlinClass
 import org.dbtools.codegen.kotlin.KotlinEnum
+import org.dbtools.codegen.kotlin.KotlinFun
 import org.dbtools.codegen.kotlin.KotlinObjectClass
 import org.dbtools.codegen.kotlin.KotlinVal
 import org.dbtools.codegen.kotlin.KotlinVar
 import org.dbtools.gen.GenConfig
+import org.dbtools.gen.GeneratedFiles
+import org.dbtools.gen.android.AndroidBaseRecordRenderer
 import org.dbtools.gen.android.AndroidGeneratedEntityInfo
 import org.dbtools.renderer.SchemaRenderer
 import org.dbtools.renderer.SqliteRenderer
@@ -26,6 +30,8 @@ import org.dbtools.schema.schemafile.SchemaEntityType
 import org.dbtools.schema.schemafile.SchemaField
 import org.dbtools.schema.schemafile.SchemaFieldType
 import org.dbtools.schema.schemafile.SchemaTable
+import org.dbtools.schema.schemafile.SchemaTableProjection
+import org.dbtools.schema.schemafile.SchemaTableUnique
 import java.util.ArrayList
 import java.util.Date
 
@@ -35,17 +41,25 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
     private var constClass = KotlinObjectClass()
     private var recordClass = KotlinClass()
     private val enumerationClasses = ArrayList<KotlinEnum>()
+    private val projectionClasses = ArrayList<KotlinClass>()
+    private val fieldEnumImports = HashMap<String, String>() // field name -> import of the enum of the field
     private val cleanupOrphansContent = StringBuilder()
     private val useInnerEnums = true
     private var bindInsertStatementContentIndex = 1 // 1 based
     private var bindUpdateStatementContentIndex = 1 // 1 based
+    private var bindUpsertStatementContentIndex = 1 // 1 based
+    private var bindUpsertKeyStatementContentIndex = 1 // 1 based
 
     fun generate(database: SchemaDatabase, entity: SchemaEntity, packageName: String, databaseMapping: DatabaseMapping): AndroidGeneratedEntityInfo {
         val generatedEntityInfo = AndroidGeneratedEntityInfo()
 
         // reset data
+        projectionClasses.clear()
+        fieldEnumImports.clear()
         bindInsertStatementContentIndex = 1
         bindUpdateStatementContentIndex = 1
+        bindUpsertStatementContentIndex = 1
+        bindUpsertKeyStatementContentIndex = 1
 
         val enumTable = entity.isEnumerationTable
         val entityType = entity.type
@@ -92,9 +106,27 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
         val copyContent = StringBuilder("val copy = $entityClassName()\n")
         val bindInsertStatementContent = StringBuilder()
         val bindUpdateStatementContent = StringBuilder()
+        val bindUpsertStatementContent = StringBuilder()
+        val bindUpsertKeyStatementContent = StringBuilder()
+        val bindDirtyUpdateStatementContent = StringBuilder("var bindIndex = 1\n")
         var valuesContentItemCount = 0
         var setContentValuesContent = ""
         var setContentCursorContent = ""
+        val cursorIndexesVals = ArrayList<KotlinVal>()
+        var setContentAllColumnsContent = ""
+
+        // the column order of a table is known... cursors that use ALL_COLUMNS can be read by ordinal
+        val allColumnsOrdinals = entityType == SchemaEntityType.TABLE
+
+        // setters mark the columns they change... updateDirty(...) only writes the changed columns
+        val dirtyFields = AndroidBaseRecordRenderer.getDirtyTrackedFields(entity, enumTable)
+        val dirtyColumns = ArrayList<String>()
+
+        // variables of the columns (used by the projection classes)
+        val fieldVariables = HashMap<String, KotlinVar>()
+
+        // UPSERT on the upsertKey columns does not return the id of an updated row (it is found by the upsertKey columns)
+        val upsertKeyColumns = getUpsertKeyColumns(entity)
 
         val columns = ArrayList<String>()
         for (field in entity.fields) {
@@ -120,10 +152,11 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
             }
 
             // constants
-            val constName = KotlinClass.formatConstant(fieldNameJavaStyle)
+            val constName = field.constantName
             val fieldColumn = "C_$constName"
             val fullFieldColumn = "$constClassName.C_$constName"
             columns.add(fieldColumn)
+            val columnOrdinal = columns.size - 1
 
             if (primaryKey) {
                 constClass.addConstant(PRIMARY_KEY_COLUMN, "\"$fieldName\"").apply { const = true } // add a reference to this column
@@ -143,6 +176,14 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
 
             newVariable.open = true
 
+            var dirtyFieldConst: String? = null
+            if (dirtyFields.contains(field)) {
+                dirtyFieldConst = "$constClassName.DIRTY_$constName"
+                constClass.addConstant("DIRTY_$constName", "${dirtyColumns.size}", "Int", false).apply { const = true }
+                dirtyColumns.add(fieldColumn)
+                newVariable.setterContent = "field = value\n$DIRTY_FIELDS_VAR_NAME.set($dirtyFieldConst)"
+            }
+
             // Primary key / not enum methods
             if (primaryKey && !recordClass.isEnum()) {
                 addPrimaryKeyFunctions(newVariable.dataType, fullFieldColumn, fieldNameJavaStyle)
@@ -151,6 +192,7 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
             if (!recordClass.isEnum()) {
                 recordClass.addVar(newVariable)
             }
+            fieldVariables[fieldName] = newVariable
 
             // copy (include primary key)
             copyContent.append("copy.").append(newVariable.name).append(" = ")
@@ -213,18 +255,30 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
                     SchemaFieldType.BOOLEAN, SchemaFieldType.BIT, SchemaFieldType.TINYINT, SchemaFieldType.SMALLINT, SchemaFieldType.INTEGER, SchemaFieldType.BIGINT, SchemaFieldType.NUMERIC, SchemaFieldType.BIGINTEGER, SchemaFieldType.TIMESTAMP -> {
                         addBindInsert(bindInsertStatementContent, "bindLong", fieldNameJavaStyle, value, primitiveField, notNullField)
                         addBindUpdate(bindUpdateStatementContent, "bindLong", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindUpsert(bindUpsertStatementContent, "bindLong", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindUpsertKey(bindUpsertKeyStatementContent, upsertKeyColumns.contains(fieldName), "bindLong", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindDirty(bindDirtyUpdateStatementContent, dirtyFieldConst, "bindLong", fieldNameJavaStyle, value, primitiveField, notNullField)
                     }
                     SchemaFieldType.REAL, SchemaFieldType.FLOAT, SchemaFieldType.DOUBLE, SchemaFieldType.DECIMAL, SchemaFieldType.BIGDECIMAL -> {
                         addBindInsert(bindInsertStatementContent, "bindDouble", fieldNameJavaStyle, value, primitiveField, notNullField)
                         addBindUpdate(bindUpdateStatementContent, "bindDouble", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindUpsert(bindUpsertStatementContent, "bindDouble", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindUpsertKey(bindUpsertKeyStatementContent, upsertKeyColumns.contains(fieldName), "bindDouble", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindDirty(bindDirtyUpdateStatementContent, dirtyFieldConst, "bindDouble", fieldNameJavaStyle, value, primitiveField, notNullField)
                     }
                     SchemaFieldType.CHAR, SchemaFieldType.VARCHAR, SchemaFieldType.LONGVARCHAR, SchemaFieldType.CLOB, SchemaFieldType.DATETIME, SchemaFieldType.DATE, SchemaFieldType.TIME -> {
                         addBindInsert(bindInsertStatementContent, "bindString", fieldNameJavaStyle, value, primitiveField, notNullField)
                         addBindUpdate(bindUpdateStatementContent, "bindString", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindUpsert(bindUpsertStatementContent, "bindString", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindUpsertKey(bindUpsertKeyStatementContent, upsertKeyColumns.contains(fieldName), "bindString", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindDirty(bindDirtyUpdateStatementContent, dirtyFieldConst, "bindString", fieldNameJavaStyle, value, primitiveField, notNullField)
                     }
                     SchemaFieldType.BLOB -> {
                         addBindInsert(bindInsertStatementContent, "bindBlob", fieldNameJavaStyle, value, primitiveField, notNullField)
                         addBindUpdate(bindUpdateStatementContent, "bindBlob", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindUpsert(bindUpsertStatementContent, "bindBlob", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindUpsertKey(bindUpsertKeyStatementContent, upsertKeyColumns.contains(fieldName), "bindBlob", fieldNameJavaStyle, value, primitiveField, notNullField)
+                        addBindDirty(bindDirtyUpdateStatementContent, dirtyFieldConst, "bindBlob", fieldNameJavaStyle, value, primitiveField, notNullField)
                     }
                     else -> {
                         // do nothing
@@ -245,18 +299,23 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
                 }
                 valuesContentItemCount++
                 valuesContent.append(TAB).append(fieldNameJavaStyle)
+                addBindUpsertPrimaryKey(bindUpsertStatementContent)
             }
 
-            setContentCursorContent += fieldNameJavaStyle + " = " + getContentValuesCursorGetterMethod(field, fullFieldColumn, newVariable) + "\n"
+            // column index is resolved once per cursor (see CursorIndexes)
+            setContentCursorContent += fieldNameJavaStyle + " = " + getContentValuesCursorGetterMethod(field, "$CURSOR_INDEXES_VAR_NAME.$fieldNameJavaStyle", newVariable) + "\n"
+            cursorIndexesVals.add(KotlinVal(fieldNameJavaStyle, "Int", getColumnIndexOrThrow(fullFieldColumn)))
+            setContentAllColumnsContent += fieldNameJavaStyle + " = " + getContentValuesCursorGetterMethod(field, columnOrdinal.toString(), newVariable) + "\n"
 
             // static getter method that takes a Cursor parameter
             constClass.addImport("android.database.Cursor")
-            constClass.addFun(newVariable.getGetterMethodName(), newVariable.dataType, listOf(KotlinVal("cursor", "Cursor")), "return " + getContentValuesCursorGetterMethod(field, fieldColumn, newVariable) + "")
+            constClass.addFun(newVariable.getGetterMethodName(), newVariable.dataType, listOf(KotlinVal("cursor", "Cursor")), "return " + getContentValuesCursorGetterMethod(field, getColumnIndexOrThrow(fieldColumn), newVariable) + "")
         }
 
         // bind the primary key value LAST (it is the where clause part of the update code)
         if (primaryKeyField != null) {
             addBindUpdate(bindUpdateStatementContent, "bindLong", primaryKeyField.getName(true), primaryKeyField.getName(true), primaryKeyField.jdbcDataType.isJavaTypePrimitive, primaryKeyField.isNotNull)
+            addBind(bindDirtyUpdateStatementContent, "bindIndex", "bindLong", primaryKeyField.getName(true), primaryKeyField.getName(true), primaryKeyField.jdbcDataType.isJavaTypePrimitive, primaryKeyField.isNotNull)
         }
 
 
@@ -275,6 +334,9 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
         }
 
         // SchemaDatabase variables
+        var upsertAdded = false
+        var upsertOnPrimaryKey = false
+        var findIdByUpsertKeyAdded = false
         if (entityType == SchemaEntityType.TABLE) {
             // CREATE TABLE
             val table = entity as SchemaTable
@@ -319,6 +381,23 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
             // add to class
             constClass.addConstant("INSERT_STATEMENT", defaultValue = "\"" + insertStatement.toString() + "\"").apply { const = true }
             constClass.addConstant("UPDATE_STATEMENT", defaultValue = "\"" + updateStatement.toString() + "\"").apply { const = true }
+
+            // UPSERT (conflict target is the upsertKey unique declaration... or the primary key)... requires SQLite 3.24+ (see GenConfig.setUpsertSupport(...))
+            val conflictColumns = ArrayList<String>(upsertKeyColumns)
+            if (conflictColumns.isEmpty() && primaryKeyAdded) {
+                conflictColumns.add(primaryKeyFieldName)
+                upsertOnPrimaryKey = true
+            }
+
+            if (genConfig.isUpsertSupport && conflictColumns.isNotEmpty() && !recordClass.isEnum()) {
+                constClass.addConstant("UPSERT_STATEMENT", defaultValue = "\"" + createUpsertStatement(tableName, entity.fields, conflictColumns) + "\"").apply { const = true }
+                upsertAdded = true
+
+                if (!upsertOnPrimaryKey && primaryKeyAdded) {
+                    constClass.addConstant("FIND_ID_BY_UPSERT_KEY_STATEMENT", defaultValue = "\"" + createFindIdByUpsertKeyStatement(tableName, primaryKeyFieldName, upsertKeyColumns) + "\"").apply { const = true }
+                    findIdByUpsertKeyAdded = true
+                }
+            }
         }
 
         // Content values
@@ -364,6 +443,10 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
                 override = true
             }
 
+            if (dirtyColumns.isNotEmpty()) {
+                // the copy has not been changed (the setters mark the columns dirty)
+                copyContent.append("copy.clearDirtyFields()\n")
+            }
             copyContent.append("return copy")
             recordClass.addFun("copy", entityClassName, content = copyContent.toString()).apply {
                 open = true
@@ -377,12 +460,48 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
                 addAnnotation("""@Suppress("UNNECESSARY_NOT_NULL_ASSERTION")""")
                 override = true
             }
+            if (upsertAdded) {
+                recordClass.addFun("bindUpsertStatement", parameters = listOf(KotlinVal("statement", "StatementWrapper")), content = bindUpsertStatementContent.toString()).apply {
+                    addAnnotation("""@Suppress("UNNECESSARY_NOT_NULL_ASSERTION")""")
+                }
+            }
+            if (findIdByUpsertKeyAdded) {
+                recordClass.addFun("bindUpsertKeyStatement", parameters = listOf(KotlinVal("statement", "StatementWrapper")), content = bindUpsertKeyStatementContent.toString())
+            }
+            if (dirtyColumns.isNotEmpty()) {
+                addDirtyFields(dirtyColumns, bindDirtyUpdateStatementContent.toString())
+
+                // values read from the database are not dirty (the setters are called by setContent(...))
+                val clearDirtyFieldsContent = "$DIRTY_FIELDS_VAR_NAME.clear()\n"
+                setContentValuesContent += clearDirtyFieldsContent
+                setContentCursorContent += clearDirtyFieldsContent
+                setContentAllColumnsContent += clearDirtyFieldsContent
+            }
 
             recordClass.addFun("setContent", parameters = listOf(KotlinVal("values", "DBToolsContentValues<*>")), content = setContentValuesContent).apply {
                 override = true
             }
-            recordClass.addFun("setContent", parameters = listOf(KotlinVal("cursor", "Cursor")), content = setContentCursorContent).apply {
-                override = true
+            if (cursorIndexesVals.isNotEmpty()) {
+                addCursorIndexesClass(cursorIndexesVals)
+
+                if (allColumnsOrdinals) {
+                    // reader of cursors that use the ALL_COLUMNS projection... only called by the manager after it checked the cursor columns
+                    // (Kotlin has no package private funs... a cursor with another projection should fail instead of reading the wrong columns)
+                    val allColumnsGuard = "check(cursor.columnCount == $constClassName.$ALL_COLUMNS_VAR_NAME.size) { \"Cursor columns are not $constClassName.$ALL_COLUMNS_VAR_NAME\" }\n"
+                    recordClass.addFun(SET_CONTENT_ALL_COLUMNS_METHOD_NAME, parameters = listOf(KotlinVal("cursor", "Cursor")), content = allColumnsGuard + setContentAllColumnsContent)
+                    generatedEntityInfo.isAllColumnsReaderAdded = true
+                }
+
+                // single row... the indexes of a cursor with many rows should be resolved once (see setContent(Cursor, CursorIndexes))
+                recordClass.addFun("setContent", parameters = listOf(KotlinVal("cursor", "Cursor")), content = "setContent(cursor, $CURSOR_INDEXES_CLASS_NAME(cursor))").apply {
+                    override = true
+                }
+                recordClass.addFun("setContent", parameters = listOf(KotlinVal("cursor", "Cursor"), KotlinVal(CURSOR_INDEXES_VAR_NAME, CURSOR_INDEXES_CLASS_NAME)), content = setContentCursorContent)
+                generatedEntityInfo.isCursorIndexesAdded = true
+            } else {
+                recordClass.addFun("setContent", parameters = listOf(KotlinVal("cursor", "Cursor")), content = setContentCursorContent).apply {
+                    override = true
+                }
             }
         }
 
@@ -403,10 +522,171 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
             addPrimaryKeyFunctions("Long", "\"NO_PRIMARY_KEY\"", "0")
         }
 
+        if (entityType == SchemaEntityType.TABLE && !enumTable) {
+            for (projection in (entity as SchemaTable).projections) {
+                addProjectionClass(packageName, entityClassName, constClassName, entity, projection, fieldVariables)
+            }
+        }
+
         generatedEntityInfo.isPrimaryKeyAdded = primaryKeyAdded
+        generatedEntityInfo.isUpsertAdded = upsertAdded
+        generatedEntityInfo.isUpsertOnPrimaryKey = upsertOnPrimaryKey
+        generatedEntityInfo.isFindIdByUpsertKeyAdded = findIdByUpsertKeyAdded
+        generatedEntityInfo.isDirtyFieldsAdded = dirtyColumns.isNotEmpty()
         return generatedEntityInfo
     }
 
+    /**
+     * Columns of the upsertKey unique declaration of a table in the order of the fields (empty if the primary key is the conflict target).
+     * The columns must be notNull: NULL values never conflict (and the id of the record could not be found by the columns)
+     */
+    private fun getUpsertKeyColumns(entity: SchemaEntity): List<String> {
+        if (entity.type != SchemaEntityType.TABLE) {
+            return emptyList()
+        }
+
+        val upsertKey: SchemaTableUnique = (entity as SchemaTable).upsertKeyDeclaration ?: return emptyList()
+        return entity.fields
+                .filter { field -> upsertKey.uniqueFields.any { it.name.equals(field.name, ignoreCase = true) } }
+                .map { field ->
+                    if (!field.isNotNull) {
+                        throw IllegalStateException("upsertKey field [${field.name}] of table [${entity.name}] must be notNull")
+                    }
+                    field.name
+                }
+    }
+
+    /**
+     * SELECT primaryKey FROM table WHERE upsertKeyColumn1 = ? AND ... (the upsertKey is unique, so there is 1 row after the UPSERT)
+     */
+    private fun createFindIdByUpsertKeyStatement(tableName: String, primaryKeyFieldName: String, upsertKeyColumns: List<String>): String {
+        return "SELECT $primaryKeyFieldName FROM $tableName WHERE " + upsertKeyColumns.joinToString(" AND ") { "$it = ?" }
+    }
+
+    /**
+     * INSERT INTO table (...) VALUES (...) ON CONFLICT(conflictColumns) DO UPDATE SET ... (SQLite 3.24+)
+     * All columns (including the primary key) are inserted.  The conflict columns and the primary key are not updated.
+     */
+    private fun createUpsertStatement(tableName: String, fields: List<SchemaField>, conflictColumns: List<String>): String {
+        val upsertStatement = StringBuilder("INSERT INTO $tableName (")
+        val setContent = StringBuilder()
+
+        var columnCount = 0
+        for (field in fields) {
+            upsertStatement.append(if (columnCount > 0) "," else "")
+            upsertStatement.append(field.name)
+            columnCount++
+
+            if (!field.isPrimaryKey && conflictColumns.none { it.equals(field.name, ignoreCase = true) }) {
+                setContent.append(if (setContent.isNotEmpty()) ", " else "")
+                setContent.append(field.name).append("=excluded.").append(field.name)
+            }
+        }
+
+        upsertStatement.append(") VALUES (")
+        for (i in 0..columnCount - 1) {
+            upsertStatement.append(if (i > 0) ",?" else "?")
+        }
+        upsertStatement.append(')')
+
+        upsertStatement.append(" ON CONFLICT(").append(conflictColumns.joinToString(",")).append(')')
+
+        if (setContent.isNotEmpty()) {
+            upsertStatement.append(" DO UPDATE SET ").append(setContent)
+        } else {
+            upsertStatement.append(" DO NOTHING")
+        }
+
+        return upsertStatement.toString()
+    }
+
+    /**
+     * dirtyFields variable of the record and the (cached) partial UPDATE statements of the const class
+     */
+    private fun addDirtyFields(dirtyColumns: List<String>, bindDirtyUpdateStatementContent: String) {
+        // one bit per column (no limit on the number of columns)
+        recordClass.addImport("java.util.BitSet")
+        recordClass.addVal(DIRTY_FIELDS_VAR_NAME, "BitSet", "BitSet()").apply { access = KotlinAccess.PRIVATE }
+        recordClass.addFun("getDirtyFields", "BitSet", content = "return $DIRTY_FIELDS_VAR_NAME.clone() as BitSet").apply {
+            docComment = "Copy of the columns changed by the setters (DIRTY_* indexes of the const class) since the record was read or written"
+        }
+        recordClass.addFun("clearDirtyFields", content = "$DIRTY_FIELDS_VAR_NAME.clear()").apply {
+            docComment = "Called by setContent(...), copy() and the updateDirty(...), insertAll(...), updateAll(...), saveAll(...)\n" +
+                    "and upsertAll(...) funs of the manager.\n" +
+                    "\n" +
+                    "insert(...), update(...) and save(...) of the manager do not know about the dirty fields:\n" +
+                    "clearDirtyFields() must be called after the record is written by them."
+        }
+        recordClass.addFun("bindDirtyUpdateStatement", parameters = listOf(KotlinVal("statement", "StatementWrapper")), content = bindDirtyUpdateStatementContent).apply {
+            addAnnotation("""@Suppress("UNNECESSARY_NOT_NULL_ASSERTION")""")
+        }
+
+        // columns in DIRTY_* index order
+        val dirtyColumnsDefaultValue = dirtyColumns.joinToString(",\n", "arrayOf(\n", ")") { TAB + TAB + it }
+        constClass.addConstant("DIRTY_COLUMNS", dirtyColumnsDefaultValue, formatDefaultValue = false).apply { access = KotlinAccess.PRIVATE }
+
+        constClass.addImport("java.util.BitSet")
+        constClass.addImport("java.util.concurrent.ConcurrentHashMap")
+        constClass.addConstant("dirtyUpdateStatements", "ConcurrentHashMap<BitSet, String>()", formatDefaultValue = false).apply { access = KotlinAccess.PRIVATE }
+
+        val content = "val cachedUpdateStatement = dirtyUpdateStatements[dirtyFields]\n" +
+                "if (cachedUpdateStatement != null) {\n" +
+                TAB + "return cachedUpdateStatement\n" +
+                "}\n\n" +
+                "val sql = StringBuilder(\"UPDATE \").append(TABLE).append(\" SET \")\n" +
+                "var hasColumn = false\n" +
+                "var i = dirtyFields.nextSetBit(0)\n" +
+                "while (i >= 0) {\n" +
+                TAB + "sql.append(if (hasColumn) \", \" else \"\").append(DIRTY_COLUMNS[i]).append(\"=?\")\n" +
+                TAB + "hasColumn = true\n" +
+                TAB + "i = dirtyFields.nextSetBit(i + 1)\n" +
+                "}\n" +
+                "sql.append(\" WHERE \").append($PRIMARY_KEY_COLUMN).append(\" = ?\")\n" +
+                "val updateStatement = sql.toString()\n\n" +
+                "// the number of cached column combinations is limited\n" +
+                "if (dirtyUpdateStatements.size < $MAX_CACHED_UPDATE_STATEMENTS) {\n" +
+                TAB + "dirtyUpdateStatements[dirtyFields.clone() as BitSet] = updateStatement // the key must not change\n" +
+                "}\n" +
+                "return updateStatement"
+        constClass.addFun("getDirtyUpdateStatement", "String", listOf(KotlinVal("dirtyFields", "BitSet")), content)
+    }
+
+    /**
+     * Class of a named subset of the table columns (the managers query the COLUMNS of the projection, so the cursor is
+     * read by ordinal)
+     */
+    private fun addProjectionClass(packageName: String, entityClassName: String, constClassName: String, table: SchemaTable, projection: SchemaTableProjection, fieldVariables: Map<String, KotlinVar>) {
+        val projectionClassName = createProjectionClassName(entityClassName, projection)
+        val projectionClass = KotlinClass(projectionClassName, packageName).apply {
+            createDefaultConstructor = true
+        }
+        addHeader(projectionClass, projectionClassName)
+        projectionClass.addImport("android.database.Cursor")
+
+        var columnsDefaultValue = "arrayOf(\n"
+        val setContentContent = StringBuilder()
+        val fieldNames = projection.fieldNames
+        for ((i, fieldName) in fieldNames.withIndex()) {
+            val field = table.getField(fieldName)
+            val fieldVariable = fieldVariables[field.name] ?: throw IllegalStateException("Projection [${projection.name}] of table [${table.name}] cannot contain foreign key relationship field [${field.name}]")
+
+            fieldEnumImports[field.name]?.let { projectionClass.addImport(it) }
+
+            columnsDefaultValue += "$TAB$TAB$constClassName.C_${field.constantName}"
+            columnsDefaultValue += if (i < fieldNames.size - 1) ",\n" else ")"
+
+            projectionClass.addVar(KotlinVar(fieldVariable.name, fieldVariable.dataType, fieldVariable.defaultValue))
+            setContentContent.append(fieldVariable.name).append(" = ").append(getContentValuesCursorGetterMethod(field, i.toString(), fieldVariable)).append("\n")
+        }
+
+        projectionClass.addConstant("COLUMNS", columnsDefaultValue, formatDefaultValue = false)
+
+        projectionClass.addConstructor(listOf(KotlinVal("cursor", "Cursor")), "setContent(cursor)")
+        projectionClass.addFun("setContent", parameters = listOf(KotlinVal("cursor", "Cursor")), content = setContentContent.toString())
+
+        projectionClasses.add(projectionClass)
+    }
+
     private fun addHeader(someClass: KotlinClass, className: String) {
         // Do not place date in file because it will cause a new check-in to scm
         someClass.fileHeaderComment = "/*\n" +
@@ -498,69 +778,85 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
         }
     }
 
+    /**
+     * Holder of the column indexes of a cursor (resolved once per cursor instead of once per column for every row).  The
+     * reader of the cursor creates one holder and passes it to setContent(Cursor, CursorIndexes) for every row.
+     */
+    private fun addCursorIndexesClass(indexVals: List<KotlinVal>) {
+        val indexesClass = KotlinClass(CURSOR_INDEXES_CLASS_NAME)
+        indexesClass.primaryConstructor = "(cursor: Cursor)"
+        indexVals.forEach { indexesClass.addVal(it) }
+
+        recordClass.addInnerClass(indexesClass)
+    }
+
+    private fun getColumnIndexOrThrow(column: String) = "cursor.getColumnIndexOrThrow($column)"
+
     /**
      * For method setContent(Cursor cursor).
+     *
+     * @param columnIndex expression of the column index (ex: indexes.name or cursor.getColumnIndexOrThrow(C_NAME))
      */
     @Suppress("PLATFORM_CLASS_MAPPED_TO_KOTLIN")
-    private fun getContentValuesCursorGetterMethod(field: SchemaField, paramValue: String, newVariable: KotlinVar): String {
+    private fun getContentValuesCursorGetterMethod(field: SchemaField, columnIndex: String, newVariable: KotlinVar): String {
         if (field.isEnumeration) {
             when(field.jdbcDataType) {
                 SchemaFieldType.BIT, SchemaFieldType.TINYINT, SchemaFieldType.SMALLINT,
                 SchemaFieldType.INTEGER, SchemaFieldType.NUMERIC, SchemaFieldType.BIGINT -> {
-                    return "org.dbtools.android.domain.util.EnumUtil.ordinalToEnum(${newVariable.dataType}::class.java, cursor.getInt(cursor.getColumnIndexOrThrow($paramValue)), ${newVariable.defaultValue})"
+                    return "org.dbtools.android.domain.util.EnumUtil.ordinalToEnum(${newVariable.dataType}::class.java, cursor.getInt($columnIndex), ${newVariable.defaultValue})"
                 }
                 else -> {
-                    return "org.dbtools.android.domain.util.EnumUtil.stringToEnum(${newVariable.dataType}::class.java, cursor.getString(cursor.getColumnIndexOrThrow($paramValue)), ${newVariable.defaultValue})"
+                    return "org.dbtools.android.domain.util.EnumUtil.stringToEnum(${newVariable.dataType}::class.java, cursor.getString($columnIndex), ${newVariable.defaultValue})"
                 }
             }
         }
 
         val type = field.javaClassType
         if (type == Integer.TYPE) {
-            return "cursor.getInt(cursor.getColumnIndexOrThrow($paramValue))"
+            return "cursor.getInt($columnIndex)"
         } else if (type == Int::class.java || type == java.lang.Integer::class.java) {
             if (field.isNotNull()) {
-                return "cursor.getInt(cursor.getColumnIndexOrThrow($paramValue))"
+                return "cursor.getInt($columnIndex)"
             } else {
-                return "if (!cursor.isNull(cursor.getColumnIndexOrThrow($paramValue))) cursor.getInt(cursor.getColumnIndexOrThrow($paramValue)) else null"
+                return "if (!cursor.isNull($columnIndex)) cursor.getInt($columnIndex) else null"
             }
         } else if (type == String::class.java) {
             if (field.isNotNull()) {
-                return "cursor.getString(cursor.getColumnIndexOrThrow($paramValue))"
+                return "cursor.getString($columnIndex)"
             } else {
-                return "if (!cursor.isNull(cursor.getColumnIndexOrThrow($paramValue))) cursor.getString(cursor.getColumnIndexOrThrow($paramValue)) else null"
+                return "if (!cursor.isNull($columnIndex)) cursor.getString($columnIndex) else null"
             }
         } else if (type == java.lang.Long.TYPE || type == Long::class.java || type == java.lang.Long::class.java) {
             if (field.isNotNull()) {
-                return "cursor.getLong(cursor.getColumnIndexOrThrow($paramValue))"
+                return "cursor.getLong($columnIndex)"
             } else {
-                return "if (!cursor.isNull(cursor.getColumnIndexOrThrow($paramValue))) cursor.getLong(cursor.getColumnIndexOrThrow($paramValue)) else null"
+                return "if (!cursor.isNull($columnIndex)) cursor.getLong($columnIndex) else null"
             }
         } else if (type == java.lang.Boolean.TYPE || type == Boolean::class.java || type == java.lang.Boolean::class.java) {
             if (field.isNotNull()) {
-                return "cursor.getInt(cursor.getColumnIndexOrThrow($paramValue)) != 0"
+                return "cursor.getInt($columnIndex) != 0"
             } else {
-                return "if (!cursor.isNull(cursor.getColumnIndexOrThrow($paramValue))) (cursor.getInt(cursor.getColumnIndexOrThrow($paramValue)) != 0) else null"
+                return "if (!cursor.isNull($columnIndex)) (cursor.getInt($columnIndex) != 0) else null"
             }
         } else if (type == Date::class.java) {
-            return genConfig.dateType.getCursorDbStringToObjectMethod(field, paramValue, true)
+            return genConfig.dateType.getCursorDbStringToObjectMethod(field, columnIndex, true)
         } else if (type == java.lang.Float.TYPE || type == Float::class.java || type == java.lang.Float::class.java) {
             if (field.isNotNull()) {
-                return "cursor.getFloat(cursor.getColumnIndexOrThrow($paramValue))"
+                return "cursor.getFloat($columnIndex)"
             } else {
-                return "if (!cursor.isNull(cursor.getColumnIndexOrThrow($paramValue))) cursor.getFloat(cursor.getColumnIndexOrThrow($paramValue)) else null"
+                return "if (!cursor.isNull($columnIndex)) cursor.getFloat($columnIndex) else null"
             }
         } else if (type == java.lang.Double.TYPE || type == Double::class.java || type == java.lang.Double::class.java) {
             if (field.isNotNull()) {
-                return "cursor.getDouble(cursor.getColumnIndexOrThrow($paramValue))"
+                return "cursor.getDouble($columnIndex)"
             } else {
-                return "if (!cursor.isNull(cursor.getColumnIndexOrThrow($paramValue))) cursor.getDouble(cursor.getColumnIndexOrThrow($paramValue)) else null"
+                return "if (!cursor.isNull($columnIndex)) cursor.getDouble($columnIndex) else null"
             }
         } else if (type == ByteArray::class.java || type == Array<Byte>::class.java) {
             if (field.isNotNull()) {
-                return "cursor.getBlob(cursor.getColumnIndexOrThrow($paramValue))"
+                return "cursor.getBlob($columnIndex)"
             } else {
-                return "if (!cursor.isNull(cursor.getColumnIndexOrThrow($paramValue))) cursor.getBlob(cursor.getColumnIndexOrThrow($paramValue)) else null"
+                return "if (!cursor.isNull($columnIndex)) cursor.getBlob($columnIndex) else null"
             }
         } else {
             return "[[UNHANDLED FIELD TYPE: $type]]"
@@ -584,6 +880,7 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
 
                     constClass.addImport(enumPackage)
                     recordClass.addImport(enumPackage)
+                    fieldEnumImports[field.name] = enumPackage
                 }
 
                 newVar = KotlinVar(fieldNameJavaStyle, enumName)
@@ -654,16 +951,63 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
     }
 
     private fun addBindInsert(bindStatementContent: StringBuilder, bindMethodName: String, fieldNameJavaStyle: String, value: String, primitive: Boolean, notNull: Boolean) {
-        addBind(bindStatementContent, bindInsertStatementContentIndex, bindMethodName, fieldNameJavaStyle, value, primitive, notNull)
+        addBind(bindStatementContent, bindInsertStatementContentIndex.toString(), bindMethodName, fieldNameJavaStyle, value, primitive, notNull)
         bindInsertStatementContentIndex++
     }
 
     private fun addBindUpdate(bindStatementContent: StringBuilder, bindMethodName: String, fieldNameJavaStyle: String, value: String, primitive: Boolean, notNull: Boolean) {
-        addBind(bindStatementContent, bindUpdateStatementContentIndex, bindMethodName, fieldNameJavaStyle, value, primitive, notNull)
+        addBind(bindStatementContent, bindUpdateStatementContentIndex.toString(), bindMethodName, fieldNameJavaStyle, value, primitive, notNull)
         bindUpdateStatementContentIndex++
     }
 
-    private fun addBind(bindStatementContent: StringBuilder, bindIndex: Int, bindMethodName: String, fieldNameJavaStyle: String, value: String, isPrimitive: Boolean, notNull: Boolean) {
+    private fun addBindUpsert(bindStatementContent: StringBuilder, bindMethodName: String, fieldNameJavaStyle: String, value: String, primitive: Boolean, notNull: Boolean) {
+        addBind(bindStatementContent, bindUpsertStatementContentIndex.toString(), bindMethodName, fieldNameJavaStyle, value, primitive, notNull)
+        bindUpsertStatementContentIndex++
+    }
+
+    /**
+     * Bind the value only if the column is part of the upsertKey (in the order of FIND_ID_BY_UPSERT_KEY_STATEMENT)
+     */
+    private fun addBindUpsertKey(bindStatementContent: StringBuilder, upsertKeyField: Boolean, bindMethodName: String, fieldNameJavaStyle: String, value: String, primitive: Boolean, notNull: Boolean) {
+        if (!upsertKeyField) {
+            return
+        }
+
+        addBind(bindStatementContent, bindUpsertKeyStatementContentIndex.toString(), bindMethodName, fieldNameJavaStyle, value, primitive, notNull)
+        bindUpsertKeyStatementContentIndex++
+    }
+
+    /**
+     * Auto increment primary key... new records bind NULL so that SQLite assigns the id
+     */
+    private fun addBindUpsertPrimaryKey(bindStatementContent: StringBuilder) {
+        bindStatementContent.append("if (getPrimaryKeyId() > 0) {\n")
+        bindStatementContent.append(TAB).append("statement.bindLong(").append(bindUpsertStatementContentIndex).append(", getPrimaryKeyId())\n")
+        bindStatementContent.append("} else {\n")
+        bindStatementContent.append(TAB).append("statement.bindNull(").append(bindUpsertStatementContentIndex).append(")\n")
+        bindStatementContent.append("}\n")
+        bindUpsertStatementContentIndex++
+    }
+
+    /**
+     * Bind the value only if the column is dirty (dirtyFieldConst is null if the column is not tracked)
+     */
+    private fun addBindDirty(bindStatementContent: StringBuilder, dirtyFieldConst: String?, bindMethodName: String, fieldNameJavaStyle: String, value: String, primitive: Boolean, notNull: Boolean) {
+        if (dirtyFieldConst == null) {
+            return
+        }
+
+        val bindContent = StringBuilder()
+        addBind(bindContent, "bindIndex++", bindMethodName, fieldNameJavaStyle, value, primitive, notNull)
+
+        bindStatementContent.append("if ($DIRTY_FIELDS_VAR_NAME.get($dirtyFieldConst)) {\n")
+        for (line in bindContent.toString().trim().lines()) {
+            bindStatementContent.append(TAB).append(line).append("\n")
+        }
+        bindStatementContent.append("}\n")
+    }
+
+    private fun addBind(bindStatementContent: StringBuilder, bindIndex: String, bindMethodName: String, fieldNameJavaStyle: String, value: String, isPrimitive: Boolean, notNull: Boolean) {
         if (isPrimitive || notNull) {
             bindStatementContent.append("statement.$bindMethodName(").append(bindIndex).append(", ").append(value).append(")\n")
         } else {
@@ -675,12 +1019,23 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
         }
     }
 
-    fun writeToFile(directoryName: String) {
-        constClass.writeToDisk(directoryName)
-        recordClass.writeToDisk(directoryName)
+    /**
+     * BaseRecord class created by the last generate(...)
+     */
+    fun getRecordClass(): KotlinClass {
+        return recordClass
+    }
+
+    fun writeToFile(directoryName: String, generatedFiles: GeneratedFiles) {
+        generatedFiles.add(constClass.getFile(directoryName), constClass.writeTo(genConfig.outputSink, directoryName))
+        generatedFiles.add(recordClass.getFile(directoryName), recordClass.writeTo(genConfig.outputSink, directoryName))
 
         for (enumClass in enumerationClasses) {
-            enumClass.writeToDisk(directoryName)
+            generatedFiles.add(enumClass.getFile(directoryName), enumClass.writeTo(genConfig.outputSink, directoryName))
+        }
+
+        for (projectionClass in projectionClasses) {
+            generatedFiles.add(projectionClass.getFile(directoryName), projectionClass.writeTo(genConfig.outputSink, directoryName))
         }
     }
 
@@ -689,10 +1044,22 @@ class KotlinAndroidBaseRecordRenderer(val genConfig: GenConfig) {
         private val CLEANUP_ORPHANS_METHOD_NAME = "cleanupOrphans"
         private val ALL_COLUMNS_VAR_NAME = "ALL_COLUMNS"
         private val ALL_COLUMNS_FULL_VAR_NAME = "ALL_COLUMNS_FULL"
+        private val CURSOR_INDEXES_CLASS_NAME = "CursorIndexes"
+        private val CURSOR_INDEXES_VAR_NAME = "indexes"
+        private val SET_CONTENT_ALL_COLUMNS_METHOD_NAME = "setContentAllColumns"
+        private val DIRTY_FIELDS_VAR_NAME = "dirtyFields"
+        private const val MAX_CACHED_UPDATE_STATEMENTS = 64
         val PRIMARY_KEY_COLUMN = "PRIMARY_KEY_COLUMN"
 
         fun createClassName(enumTable: Boolean, className: String): String {
             return if (enumTable) className else className + "BaseRecord"
         }
+
+        /**
+         * Name of the projection class (ex: IndividualSummary)
+         */
+        fun createProjectionClassName(entityClassName: String, projection: SchemaTableProjection): String {
+            return entityClassName + projection.name
+        }
     }
 }
\ No newline at end of file
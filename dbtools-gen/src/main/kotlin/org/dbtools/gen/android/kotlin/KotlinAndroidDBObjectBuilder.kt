@@ -10,23 +10,24 @@
 package org.dbtools.gen.android.kotlin
 
 
+import org.dbtools.codegen.java.WriteResult
 import org.dbtools.gen.DBObjectBuilder
 import org.dbtools.gen.GenConfig
+import org.dbtools.gen.GenPhase
+import org.dbtools.gen.GenProfiler
+import org.dbtools.gen.GeneratedFiles
 import org.dbtools.gen.android.AndroidManagerRenderer
 import org.dbtools.gen.android.AndroidRecordRenderer
-import org.dbtools.renderer.SchemaRenderer
+import org.dbtools.schema.dbmappings.DatabaseMappingRegistry
 import org.dbtools.schema.schemafile.SchemaDatabase
 import org.dbtools.schema.schemafile.SchemaEntity
 import org.dbtools.schema.schemafile.SchemaQuery
 import org.dbtools.schema.schemafile.SchemaTable
 import org.dbtools.schema.schemafile.SchemaView
 import java.io.File
-import java.util.ArrayList
-import java.util.Collections
 
 class KotlinAndroidDBObjectBuilder() : DBObjectBuilder {
-    private var filesGeneratedCount = 0
-    private val filesGenerated = ArrayList<String>()
+    private val generatedFiles = GeneratedFiles()
 
     override fun getName(): String {
         return "Kotlin Android Object Builder"
@@ -41,31 +42,31 @@ class KotlinAndroidDBObjectBuilder() : DBObjectBuilder {
             workingOutDir = outDir
         }
 
-        val databaseMapping = SchemaRenderer.readXMLTypes(this.javaClass, SchemaRenderer.DEFAULT_TYPE_MAPPING_FILENAME, "sqlite")
+        var startNanos = System.nanoTime()
+        val databaseMapping = DatabaseMappingRegistry.getDatabaseMapping("sqlite")
+        startNanos = GenProfiler.recordPhase(GenPhase.MAPPING_LOAD, startNanos)
 
         // Entities
-        val baseRecordFileName = workingOutDir + AndroidRecordRenderer.createClassName(entity) + ".kt"
         val recordFileName = workingOutDir + AndroidRecordRenderer.createClassName(entity) + ".kt"
-        val baseRecordFile = File(baseRecordFileName)
         val recordFile = File(recordFileName)
 
         // BaseRecord
         val baseRecordClass = KotlinAndroidBaseRecordRenderer(genConfig)
         val generatedEntityInfo = baseRecordClass.generate(database, entity, packageName, databaseMapping)
-        baseRecordClass.writeToFile(workingOutDir)
-
-        filesGenerated.add(baseRecordFile.path)
-        filesGeneratedCount++
+        startNanos = GenProfiler.recordPhase(GenPhase.RENDER_RECORD, startNanos)
+        baseRecordClass.writeToFile(workingOutDir, generatedFiles)
+        startNanos = GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos)
 
         // Record
         if (!entity.isEnumerationTable) {
-            if (!recordFile.exists()) {
+            if (!genConfig.outputSink.exists(recordFile)) {
                 val recordClass = KotlinAndroidRecordRenderer(genConfig)
                 recordClass.generate(entity, packageName)
-                recordClass.writeToFile(workingOutDir)
-
-                filesGenerated.add(recordFile.path)
-                filesGeneratedCount++
+                startNanos = GenProfiler.recordPhase(GenPhase.RENDER_RECORD, startNanos)
+                recordClass.writeToFile(workingOutDir, generatedFiles)
+                startNanos = GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos)
+            } else {
+                generatedFiles.add(recordFile, WriteResult.SKIPPED)
             }
         }
 
@@ -77,29 +78,41 @@ class KotlinAndroidDBObjectBuilder() : DBObjectBuilder {
             // Base Manager
             val baseManagerClass = KotlinAndroidBaseManagerRenderer(genConfig)
             baseManagerClass.generate(entity, packageName, generatedEntityInfo)
-            baseManagerClass.writeToFile(workingOutDir)
-            filesGeneratedCount++
+            startNanos = GenProfiler.recordPhase(GenPhase.RENDER_BASE_MANAGER, startNanos)
+            baseManagerClass.writeToFile(workingOutDir, generatedFiles)
+            startNanos = GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos)
 
             // Manager
-            if (!managerFile.exists()) {
+            if (!genConfig.outputSink.exists(managerFile)) {
                 val managerClass = KotlinAndroidManagerRenderer(genConfig)
                 managerClass.generate(entity, packageName)
-                managerClass.writeToFile(workingOutDir)
-                filesGeneratedCount++
+                startNanos = GenProfiler.recordPhase(GenPhase.RENDER_MANAGER, startNanos)
+                managerClass.writeToFile(workingOutDir, generatedFiles)
+                GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos)
+            } else {
+                generatedFiles.add(managerFile, WriteResult.SKIPPED)
             }
         }
         return true
     }
 
     override fun getNumberFilesGenerated(): Int {
-        return filesGeneratedCount
+        return generatedFiles.numberFilesWritten
     }
 
     override fun getFilesGenerated(): List<String> {
-        return Collections.unmodifiableList(filesGenerated)
+        return generatedFiles.filesWritten
+    }
+
+    override fun getNumberFilesUnchanged(): Int {
+        return generatedFiles.numberFilesUnchanged
+    }
+
+    override fun getNumberFilesSkipped(): Int {
+        return generatedFiles.numberFilesSkipped
     }
 
-    override fun buildDatabaseManagersHolder(database: SchemaDatabase, packageBase: String, packageName: String, tables: MutableList<SchemaTable>, views: MutableList<SchemaView>, queries: MutableList<SchemaQuery>, outDir: String) {
-        KotlinDatabaseManagersHolderRenderer().generate(database, packageBase, packageName, tables, views, queries, outDir)
+    override fun buildDatabaseManagersHolder(database: SchemaDatabase, packageBase: String, packageName: String, tables: MutableList<SchemaTable>, views: MutableList<SchemaView>, queries: MutableList<SchemaQuery>, outDir: String, genConfig: GenConfig) {
+        KotlinDatabaseManagersHolderRenderer(genConfig).generate(database, packageBase, packageName, tables, views, queries, outDir)
     }
 }
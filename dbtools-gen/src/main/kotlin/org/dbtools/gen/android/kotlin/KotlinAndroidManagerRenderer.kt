@@ -11,6 +11,7 @@ package org.dbtools.gen.android.kotlin
 
 import org.dbtools.codegen.kotlin.KotlinClass
 import org.dbtools.gen.GenConfig
+import org.dbtools.gen.GeneratedFiles
 import org.dbtools.gen.android.AndroidRecordRenderer
 import org.dbtools.schema.schemafile.SchemaEntity
 import org.dbtools.schema.schemafile.SchemaEntityType
@@ -49,8 +50,10 @@ class KotlinAndroidManagerRenderer(val genConfig: GenConfig) {
         fileHeaderComment = "/*\n"
         fileHeaderComment += " * $className.kt\n"
         fileHeaderComment += " *\n"
-        fileHeaderComment += " * Generated on: " + dateFormat.format(now) + "\n"
-        fileHeaderComment += " *\n"
+        if (!genConfig.isReproducible) {
+            fileHeaderComment += " * Generated on: " + dateFormat.format(now) + "\n"
+            fileHeaderComment += " *\n"
+        }
         fileHeaderComment += " */\n"
         myClass.fileHeaderComment = fileHeaderComment
 
@@ -111,7 +114,7 @@ class KotlinAndroidManagerRenderer(val genConfig: GenConfig) {
             createContent.append(TAB).append(TAB).append(TAB)
             val schemaField = entity.fields[i]
 
-            val fieldConstName = KotlinClass.formatConstant(schemaField.getName(true))
+            val fieldConstName = schemaField.constantName
             val entityConstClassName = entityClassName
             createContent.append(entityConstClassName).append(".").append("FULL_C_").append(fieldConstName)
             createContent.append(" + \" AS \" + ")
@@ -155,7 +158,7 @@ class KotlinAndroidManagerRenderer(val genConfig: GenConfig) {
             createContent.append(TAB).append(TAB).append(TAB)
             val schemaField = entity.fields[i]
 
-            val fieldConstName = KotlinClass.formatConstant(schemaField.getName(true))
+            val fieldConstName = schemaField.constantName
             createContent.append(entityClassName).append(".").append("FULL_C_").append(fieldConstName)
             createContent.append(" + \" AS \" + ")
             createContent.append(entityClassName).append(".").append("C_").append(fieldConstName)
@@ -187,7 +190,7 @@ class KotlinAndroidManagerRenderer(val genConfig: GenConfig) {
             createContent.append(TAB).append(TAB).append(TAB)
             val schemaField = entity.fields[i]
 
-            val fieldConstName = KotlinClass.formatConstant(schemaField.getName(true))
+            val fieldConstName = schemaField.constantName
             createContent.append(".field(")
 
             createContent.append(entityClassName).append(".").append("FULL_C_").append(fieldConstName)
@@ -226,7 +229,7 @@ class KotlinAndroidManagerRenderer(val genConfig: GenConfig) {
             createContent.append(TAB).append(TAB).append(TAB)
             val schemaField = entity.fields[i]
 
-            val fieldConstName = KotlinClass.formatConstant(schemaField.getName(true))
+            val fieldConstName = schemaField.constantName
             val entityConstClassName = entityClassName
             createContent.append(".field(")
             createContent.append(entityConstClassName).append(".").append("FULL_C_").append(fieldConstName)
@@ -245,8 +248,8 @@ class KotlinAndroidManagerRenderer(val genConfig: GenConfig) {
     }
 
 
-    fun writeToFile(outDir: String) {
-        myClass.writeToDisk(outDir)
+    fun writeToFile(outDir: String, generatedFiles: GeneratedFiles) {
+        generatedFiles.add(myClass.getFile(outDir), myClass.writeTo(genConfig.outputSink, outDir))
     }
 
     companion object {
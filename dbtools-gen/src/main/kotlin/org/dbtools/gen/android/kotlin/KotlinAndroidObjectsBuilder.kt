@@ -12,6 +12,10 @@ class KotlinAndroidObjectsBuilder(genConfig: GenConfig) : DBObjectsBuilder(genCo
         return builder
     }
 
+    override fun createObjectBuilder(): DBObjectBuilder? {
+        return KotlinAndroidDBObjectBuilder()
+    }
+
     fun buildAll(schemaFilename: String, baseOutputDir: String, basePackageName: String) {
         println("schmaFilename: $schemaFilename")
         println("baseOutputDir: $baseOutputDir")
@@ -22,7 +26,7 @@ class KotlinAndroidObjectsBuilder(genConfig: GenConfig) : DBObjectsBuilder(genCo
         packageBase = basePackageName
 
         build()
-        println("Generated [" + builder.numberFilesGenerated + "] files.")
+        println("Generated [$numberFilesGenerated] files (unchanged [$numberFilesUnchanged] skipped [$numberFilesSkipped]).")
     }
 
     override fun onPostBuild(databaseSchema: DatabaseSchema, packageBase: String, outputBaseDir: String, genConfig: GenConfig) {
@@ -11,6 +11,7 @@ package org.dbtools.gen.android.kotlin
 
 import org.dbtools.codegen.kotlin.KotlinClass
 import org.dbtools.gen.GenConfig
+import org.dbtools.gen.GeneratedFiles
 import org.dbtools.gen.android.AndroidBaseRecordRenderer
 import org.dbtools.schema.schemafile.SchemaEntity
 import java.text.SimpleDateFormat
@@ -34,16 +35,18 @@ class KotlinAndroidRecordRenderer(val genConfig: GenConfig) {
         var fileHeaderComment: String
         fileHeaderComment = "/*\n"
         fileHeaderComment += " * $className.kt\n"
-        fileHeaderComment += " *\n"
-        fileHeaderComment += " * Created: " + dateFormat.format(now) + "\n"
+        if (!genConfig.isReproducible) {
+            fileHeaderComment += " *\n"
+            fileHeaderComment += " * Created: " + dateFormat.format(now) + "\n"
+        }
         fileHeaderComment += " */\n"
         myClass.fileHeaderComment = fileHeaderComment
     }
 
 
 
-    fun writeToFile(directoryName: String) {
-        myClass.writeToDisk(directoryName)
+    fun writeToFile(directoryName: String, generatedFiles: GeneratedFiles) {
+        generatedFiles.add(myClass.getFile(directoryName), myClass.writeTo(genConfig.outputSink, directoryName))
     }
 
     companion object {
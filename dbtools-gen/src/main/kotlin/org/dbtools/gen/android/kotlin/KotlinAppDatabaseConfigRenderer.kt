@@ -34,7 +34,7 @@ class KotlinAppDatabaseConfigRenderer(val genConfig: GenConfig, val outDir: Stri
         createNewDBToolsContentValues()
         createNewDBToolsLogger()
 
-        myClass.writeToDisk(outDir, false)
+        myClass.writeTo(genConfig.outputSink, outDir, false)
     }
 
     private fun createIdentifyDatabases(databaseSchema: DatabaseSchema) {
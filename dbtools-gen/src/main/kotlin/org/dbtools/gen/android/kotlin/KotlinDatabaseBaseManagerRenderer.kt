@@ -42,8 +42,8 @@ class KotlinDatabaseBaseManagerRenderer(val genConfig: GenConfig, val outDir: St
         createOnCreate(databaseSchema)
         createOnCreateViews(databaseSchema)
 
-        myClass.writeToDisk(outDir, true)
-        myConstClass.writeToDisk(outDir, true)
+        myClass.writeTo(genConfig.outputSink, outDir, true)
+        myConstClass.writeTo(genConfig.outputSink, outDir, true)
     }
 
     private fun addHeader(someClass: KotlinClass) {
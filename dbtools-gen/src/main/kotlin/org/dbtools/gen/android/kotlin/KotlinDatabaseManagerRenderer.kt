@@ -34,7 +34,7 @@ class KotlinDatabaseManagerRenderer(val genConfig: GenConfig, val outDir: String
         createOnUpgrade()
         createOnUpgradeViews()
 
-        myClass.writeToDisk(outDir, false)
+        myClass.writeTo(genConfig.outputSink, outDir, false)
     }
 
     private fun createDatabaseVersions(databaseSchema: DatabaseSchema) {
@@ -2,6 +2,7 @@ package org.dbtools.gen.android.kotlin
 
 import org.dbtools.codegen.kotlin.KotlinObjectClass
 import org.dbtools.codegen.kotlin.KotlinVal
+import org.dbtools.gen.GenConfig
 import org.dbtools.gen.android.AndroidManagerRenderer
 import org.dbtools.schema.schemafile.SchemaDatabase
 import org.dbtools.schema.schemafile.SchemaEntity
@@ -10,7 +11,7 @@ import org.dbtools.schema.schemafile.SchemaTable
 import org.dbtools.schema.schemafile.SchemaView
 import org.dbtools.util.JavaUtil
 
-class KotlinDatabaseManagersHolderRenderer {
+class KotlinDatabaseManagersHolderRenderer(val genConfig: GenConfig) {
     private var packageName: String = ""
     private var myClass = KotlinObjectClass()
 
@@ -49,7 +50,7 @@ class KotlinDatabaseManagersHolderRenderer {
 
         myClass.addFun("init", parameters = listOf(KotlinVal("databaseManager", "DatabaseManager")), content = initContent.toString())
 
-        myClass.writeToDisk(outDir, true)
+        myClass.writeTo(genConfig.outputSink, outDir, true)
     }
 
     private fun addSchemaEntityToInit(initContent: StringBuilder, entity: SchemaEntity) {
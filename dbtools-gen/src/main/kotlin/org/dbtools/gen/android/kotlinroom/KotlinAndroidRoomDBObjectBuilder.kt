@@ -12,20 +12,19 @@ package org.dbtools.gen.android.kotlinroom
 
 import org.dbtools.gen.DBObjectBuilder
 import org.dbtools.gen.GenConfig
-import org.dbtools.gen.android.AndroidRecordRenderer
-import org.dbtools.renderer.SchemaRenderer
+import org.dbtools.gen.GenPhase
+import org.dbtools.gen.GenProfiler
+import org.dbtools.gen.GeneratedFiles
+import org.dbtools.schema.dbmappings.DatabaseMappingRegistry
 import org.dbtools.schema.schemafile.SchemaDatabase
 import org.dbtools.schema.schemafile.SchemaEntity
 import org.dbtools.schema.schemafile.SchemaQuery
 import org.dbtools.schema.schemafile.SchemaTable
 import org.dbtools.schema.schemafile.SchemaView
 import java.io.File
-import java.util.ArrayList
-import java.util.Collections
 
 class KotlinAndroidRoomDBObjectBuilder : DBObjectBuilder {
-    private var filesGeneratedCount = 0
-    private val filesGenerated = ArrayList<String>()
+    private val generatedFiles = GeneratedFiles()
 
     override fun getName(): String {
         return "Kotlin Android Room Object Builder"
@@ -40,40 +39,44 @@ class KotlinAndroidRoomDBObjectBuilder : DBObjectBuilder {
             workingOutDir = outDir
         }
 
-        val databaseMapping = SchemaRenderer.readXMLTypes(this.javaClass, SchemaRenderer.DEFAULT_TYPE_MAPPING_FILENAME, "sqlite")
-
-        // Entities
-        val entityFilename = workingOutDir + AndroidRecordRenderer.createClassName(entity) + ".kt"
-        val entityFile = File(entityFilename)
+        var startNanos = System.nanoTime()
+        val databaseMapping = DatabaseMappingRegistry.getDatabaseMapping("sqlite")
+        startNanos = GenProfiler.recordPhase(GenPhase.MAPPING_LOAD, startNanos)
 
         // Entity
         val entityClassRenderer = KotlinAndroidRoomEntityRenderer(genConfig)
         val generatedEntityInfo = entityClassRenderer.generate(database, entity, packageName, databaseMapping)
-        entityClassRenderer.writeToFile(workingOutDir)
-
-        filesGenerated.add(entityFile.path)
-        filesGeneratedCount++
+        startNanos = GenProfiler.recordPhase(GenPhase.RENDER_RECORD, startNanos)
+        entityClassRenderer.writeToFile(workingOutDir, generatedFiles)
+        startNanos = GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos)
 
         // Dao
-        val daoFilename = workingOutDir + KotlinAndroidRoomDaoRenderer.getClassName(entity) + ".kt"
-        val daoFile = File(daoFilename)
         val daoClassRenderer = KotlinAndroidRoomDaoRenderer(genConfig)
         daoClassRenderer.generate(entity, packageName, generatedEntityInfo)
-        daoClassRenderer.writeToFile(workingOutDir)
-        filesGeneratedCount++
+        startNanos = GenProfiler.recordPhase(GenPhase.RENDER_BASE_MANAGER, startNanos)
+        daoClassRenderer.writeToFile(workingOutDir, generatedFiles)
+        GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos)
 
         return true
     }
 
     override fun getNumberFilesGenerated(): Int {
-        return filesGeneratedCount
+        return generatedFiles.numberFilesWritten
     }
 
     override fun getFilesGenerated(): List<String> {
-        return Collections.unmodifiableList(filesGenerated)
+        return generatedFiles.filesWritten
+    }
+
+    override fun getNumberFilesUnchanged(): Int {
+        return generatedFiles.numberFilesUnchanged
+    }
+
+    override fun getNumberFilesSkipped(): Int {
+        return generatedFiles.numberFilesSkipped
     }
 
-    override fun buildDatabaseManagersHolder(database: SchemaDatabase, packageBase: String, packageName: String, tables: MutableList<SchemaTable>, views: MutableList<SchemaView>, queries: MutableList<SchemaQuery>, outDir: String) {
-        KotlinDatabaseRoomManagersHolderRenderer().generate(database, packageBase, packageName, tables, views, queries, outDir)
+    override fun buildDatabaseManagersHolder(database: SchemaDatabase, packageBase: String, packageName: String, tables: MutableList<SchemaTable>, views: MutableList<SchemaView>, queries: MutableList<SchemaQuery>, outDir: String, genConfig: GenConfig) {
+        KotlinDatabaseRoomManagersHolderRenderer(genConfig).generate(database, packageBase, packageName, tables, views, queries, outDir)
     }
 }
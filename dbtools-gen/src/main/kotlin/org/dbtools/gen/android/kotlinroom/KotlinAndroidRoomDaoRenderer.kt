@@ -12,6 +12,7 @@ package org.dbtools.gen.android.kotlinroom
 
 import org.dbtools.codegen.kotlin.KotlinClass
 import org.dbtools.gen.GenConfig
+import org.dbtools.gen.GeneratedFiles
 import org.dbtools.gen.android.AndroidGeneratedEntityInfo
 import org.dbtools.gen.android.AndroidRecordRenderer
 import org.dbtools.schema.schemafile.SchemaEntity
@@ -38,8 +39,8 @@ class KotlinAndroidRoomDaoRenderer(val genConfig: GenConfig) {
     }
 
 
-    fun writeToFile(outDir: String) {
-        myClass.writeToDisk(outDir)
+    fun writeToFile(outDir: String, generatedFiles: GeneratedFiles) {
+        generatedFiles.add(myClass.getFile(outDir), myClass.writeTo(genConfig.outputSink, outDir))
     }
 
     companion object {
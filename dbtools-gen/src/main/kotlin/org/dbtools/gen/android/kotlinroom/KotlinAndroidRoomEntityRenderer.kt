@@ -12,6 +12,7 @@ package org.dbtools.gen.android.kotlinroom
 import org.dbtools.codegen.kotlin.KotlinClass
 import org.dbtools.codegen.kotlin.KotlinVar
 import org.dbtools.gen.GenConfig
+import org.dbtools.gen.GeneratedFiles
 import org.dbtools.gen.android.AndroidGeneratedEntityInfo
 import org.dbtools.schema.dbmappings.DatabaseMapping
 import org.dbtools.schema.schemafile.SchemaDatabase
@@ -182,7 +183,7 @@ class KotlinAndroidRoomEntityRenderer(val genConfig: GenConfig) {
         return newVar
     }
 
-    fun writeToFile(directoryName: String) {
-        roomEntityClass.writeToDisk(directoryName)
+    fun writeToFile(directoryName: String, generatedFiles: GeneratedFiles) {
+        generatedFiles.add(roomEntityClass.getFile(directoryName), roomEntityClass.writeTo(genConfig.outputSink, directoryName))
     }
 }
\ No newline at end of file
@@ -15,6 +15,10 @@ class KotlinAndroidRoomObjectsBuilder(genConfig: GenConfig) : DBObjectsBuilder(g
         return builder
     }
 
+    override fun createObjectBuilder(): DBObjectBuilder? {
+        return KotlinAndroidRoomDBObjectBuilder()
+    }
+
     fun buildAll(schemaFilename: String, baseOutputDir: String, basePackageName: String) {
         println("schmaFilename: $schemaFilename")
         println("baseOutputDir: $baseOutputDir")
@@ -25,7 +29,7 @@ class KotlinAndroidRoomObjectsBuilder(genConfig: GenConfig) : DBObjectsBuilder(g
         packageBase = basePackageName
 
         build()
-        println("Generated [" + builder.numberFilesGenerated + "] files.")
+        println("Generated [$numberFilesGenerated] files (unchanged [$numberFilesUnchanged] skipped [$numberFilesSkipped]).")
     }
 
     override fun onPostBuild(databaseSchema: DatabaseSchema, packageBase: String, outputBaseDir: String, genConfig: GenConfig) {
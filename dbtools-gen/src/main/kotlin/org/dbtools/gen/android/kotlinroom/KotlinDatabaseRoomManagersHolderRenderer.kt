@@ -1,6 +1,7 @@
 package org.dbtools.gen.android.kotlinroom
 
 import org.dbtools.codegen.kotlin.KotlinClass
+import org.dbtools.gen.GenConfig
 import org.dbtools.gen.android.AndroidRecordRenderer
 import org.dbtools.schema.schemafile.SchemaDatabase
 import org.dbtools.schema.schemafile.SchemaEntity
@@ -10,7 +11,7 @@ import org.dbtools.schema.schemafile.SchemaView
 import org.dbtools.util.JavaUtil
 import java.util.ArrayList
 
-class KotlinDatabaseRoomManagersHolderRenderer {
+class KotlinDatabaseRoomManagersHolderRenderer(val genConfig: GenConfig) {
     private var packageName: String = ""
     private var myClass = KotlinClass()
     private val entityList = ArrayList<String>()
@@ -57,7 +58,7 @@ class KotlinDatabaseRoomManagersHolderRenderer {
         myClass.addAnnotation("@Database(entities = arrayOf(${entityList.joinToString(",")}), version = 1)")
 
 
-        myClass.writeToDisk(outDir, true)
+        myClass.writeTo(genConfig.outputSink, outDir, true)
     }
 
     private fun addSchemaEntityToInit(initContent: StringBuilder, entity: SchemaEntity) {
@@ -0,0 +1,172 @@
+package org.dbtools.codegen.java;
+
+import org.dbtools.gen.GenConfig;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OutputSinkTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testInMemory() {
+        InMemoryOutputSink outputSink = new InMemoryOutputSink();
+
+        assertEquals(WriteResult.WRITTEN, createClass("Test").writeTo(outputSink, "out/org/test"));
+        assertEquals(WriteResult.UNCHANGED, createClass("Test").writeTo(outputSink, "out/org/test"));
+        assertEquals(WriteResult.SKIPPED, createClass("Test").writeTo(outputSink, "out/org/test", false));
+
+        assertEquals(WriteResult.WRITTEN, createClass("Test", "count").writeTo(outputSink, "out/org/test"));
+        assertEquals(createClass("Test", "count").toString(), outputSink.getContent("out/org/test/Test.java"));
+
+        assertTrue(outputSink.exists(new File("out/org/test/Test.java")));
+        assertTrue(outputSink.exists(new File("out/org/test")));
+        assertTrue(outputSink.exists(new File("out")));
+        assertFalse(outputSink.exists(new File("out/org/tes")));
+        assertFalse(outputSink.exists(new File("out/org/test/Other.java")));
+        assertNull(outputSink.getContent("out/org/test/Other.java"));
+
+        assertEquals(1, outputSink.getFiles().size());
+        assertEquals(outputSink.getFiles().get("out/org/test/Test.java").length, outputSink.getSize(new File("out/org/test/Test.java")));
+    }
+
+    @Test
+    public void testZip() throws Exception {
+        File zipFile = new File(tempFolder.getRoot(), "generated/src.zip");
+        String baseDir = new File(tempFolder.getRoot(), "src").getPath();
+
+        try (ZipOutputSink outputSink = new ZipOutputSink(zipFile, baseDir)) {
+            createClass("Test2").writeTo(outputSink, baseDir + "/org/test");
+            createClass("Test1").writeTo(outputSink, baseDir + "/org/test");
+        }
+
+        // nothing but the zip is written
+        assertFalse(new File(baseDir).exists());
+
+        List<String> entryNames = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                entryNames.add(entry.getName());
+            }
+            assertEquals(createClass("Test1").toString(), read(zip, "org/test/Test1.java"));
+        }
+
+        List<String> expectedNames = new ArrayList<>();
+        expectedNames.add("org/test/Test1.java");
+        expectedNames.add("org/test/Test2.java");
+        assertEquals(expectedNames, entryNames);
+    }
+
+    @Test
+    public void testUtf8() throws Exception {
+        String expectedContent = createNonAsciiClass().toString();
+        byte[] expectedBytes = expectedContent.getBytes("UTF-8");
+
+        // every sink writes the same bytes, regardless of the platform default encoding
+        InMemoryOutputSink inMemoryOutputSink = new InMemoryOutputSink();
+        createNonAsciiClass().writeTo(inMemoryOutputSink, "out/org/test");
+        assertArrayEquals(expectedBytes, inMemoryOutputSink.getFiles().get("out/org/test/Test.java"));
+        assertEquals(expectedContent, inMemoryOutputSink.getContent("out/org/test/Test.java"));
+
+        File outDir = new File(tempFolder.getRoot(), "src/org/test");
+        createNonAsciiClass().writeTo(FileOutputSink.INSTANCE, outDir.getPath());
+        assertArrayEquals(expectedBytes, Files.readAllBytes(new File(outDir, "Test.java").toPath()));
+
+        File zipFile = new File(tempFolder.getRoot(), "src.zip");
+        String baseDir = new File(tempFolder.getRoot(), "zip").getPath();
+        try (ZipOutputSink outputSink = new ZipOutputSink(zipFile, baseDir)) {
+            createNonAsciiClass().writeTo(outputSink, baseDir + "/org/test");
+        }
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            assertEquals(expectedContent, read(zip, "org/test/Test.java"));
+        }
+    }
+
+    @Test
+    public void testReproducible() {
+        InMemoryOutputSink inMemoryOutputSink = new InMemoryOutputSink();
+        ReproducibleOutputSink outputSink = new ReproducibleOutputSink(inMemoryOutputSink);
+
+        JavaClass javaClass = createClass("Test");
+        javaClass.addImport("java.util.ArrayList");
+        javaClass.addImport("java.util.List"); // duplicate
+        javaClass.addMethod(Access.PUBLIC, "void", "run", "int count = 0;\r\ncount++;");
+        assertEquals(WriteResult.WRITTEN, javaClass.writeTo(outputSink, "out/org/test"));
+
+        String content = inMemoryOutputSink.getContent("out/org/test/Test.java");
+        assertFalse(content.contains("\r"));
+        assertTrue(content.contains("import java.util.ArrayList;\nimport java.util.List;\n\n"));
+        assertTrue(outputSink.exists(new File("out/org/test/Test.java")));
+
+        assertEquals("package org.test;\n\nimport a.A;\nimport b.B;\n\nclass C {\n}",
+                ReproducibleOutputSink.normalize("package org.test;\r\n\r\nimport b.B;\r\nimport a.A;\r\nimport b.B;\r\n\r\nclass C {\r\n}"));
+
+        // lone '\r' line endings, only the first import block is sorted, trailing line ending kept
+        assertEquals("package org.test;\nimport a.A;\nimport b.B;\n// import z.Z;\nimport d.D;\nimport c.C;\n",
+                ReproducibleOutputSink.normalize("package org.test;\rimport b.B;\rimport a.A;\r// import z.Z;\nimport d.D;\nimport c.C;\n"));
+
+        // import block at the end (no trailing line ending)
+        assertEquals("import a.A;\nimport b.B;\n", ReproducibleOutputSink.normalize("import b.B;\nimport a.A;"));
+    }
+
+    @Test
+    public void testReproducibleSinkShared() {
+        GenConfig genConfig = new GenConfig();
+        genConfig.setReproducible(true);
+        assertTrue(genConfig.getOutputSink() instanceof ReproducibleOutputSink);
+        assertSame(genConfig.getOutputSink(), genConfig.getOutputSink());
+
+        InMemoryOutputSink inMemoryOutputSink = new InMemoryOutputSink();
+        genConfig.setOutputSink(inMemoryOutputSink);
+        assertSame(inMemoryOutputSink, ((ReproducibleOutputSink) genConfig.getOutputSink()).getOutputSink());
+
+        genConfig.setReproducible(false);
+        assertSame(inMemoryOutputSink, genConfig.getOutputSink());
+    }
+
+    private String read(ZipFile zip, String entryName) throws Exception {
+        try (InputStream in = zip.getInputStream(zip.getEntry(entryName))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return new String(out.toByteArray(), SourceUtil.SOURCE_CHARSET);
+        }
+    }
+
+    private JavaClass createNonAsciiClass() {
+        JavaClass javaClass = createClass("Test");
+        javaClass.addMethod(Access.PUBLIC, "String", "getLabel", "return \"Caf\u00e9 \u00fcber \u20ac\";");
+        return javaClass;
+    }
+
+    private JavaClass createClass(String name, String... intVariableNames) {
+        JavaClass javaClass = new JavaClass("org.test", name);
+        javaClass.addImport("java.util.List");
+        javaClass.addVariable("String", "name", true);
+        for (String intVariableName : intVariableNames) {
+            javaClass.addVariable("int", intVariableName);
+        }
+        return javaClass;
+    }
+}
@@ -0,0 +1,135 @@
+package org.dbtools.codegen.java;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SourceUtilTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testWriteFileIfChanged() throws Exception {
+        File file = new File(tempFolder.getRoot(), "Test.java");
+
+        assertEquals(WriteResult.WRITTEN, SourceUtil.writeFileIfChanged(file, "class Test {}\n", true));
+        long lastModified = file.lastModified();
+
+        assertEquals(WriteResult.UNCHANGED, SourceUtil.writeFileIfChanged(file, "class Test {}\n", true));
+        assertEquals(lastModified, file.lastModified());
+
+        assertEquals(WriteResult.SKIPPED, SourceUtil.writeFileIfChanged(file, "class Test { int i; }\n", false));
+        assertEquals(WriteResult.WRITTEN, SourceUtil.writeFileIfChanged(file, "class Test { int i; }\n", true));
+        assertEquals(WriteResult.WRITTEN, SourceUtil.writeFileIfChanged(file, "class Test { int j; }\n", true));
+    }
+
+    @Test
+    public void testWriteFileIfChangedEmitter() throws Exception {
+        File file = new File(tempFolder.getRoot(), "Test.java");
+
+        assertEquals(WriteResult.WRITTEN, SourceUtil.writeFileIfChanged(file, createClass("Test")));
+        long lastModified = file.lastModified();
+
+        assertEquals(WriteResult.UNCHANGED, SourceUtil.writeFileIfChanged(file, createClass("Test")));
+        assertEquals(lastModified, file.lastModified());
+
+        assertEquals(WriteResult.WRITTEN, SourceUtil.writeFileIfChanged(file, createClass("Test2")));
+        assertEquals(createClass("Test2").toString(), new String(Files.readAllBytes(file.toPath()), SourceUtil.SOURCE_CHARSET));
+
+        // no temp files left behind
+        assertEquals(1, tempFolder.getRoot().list().length);
+    }
+
+    @Test
+    public void testWriteFileIfChangedEmitterFailure() throws Exception {
+        File file = new File(tempFolder.getRoot(), "Test.java");
+        assertEquals(WriteResult.WRITTEN, SourceUtil.writeFileIfChanged(file, createClass("Test")));
+
+        try {
+            SourceUtil.writeFileIfChanged(file, new SourceEmitter() {
+                @Override
+                public void emitTo(Appendable out) throws IOException {
+                    out.append("class Partial {");
+                    throw new IOException("Render failed");
+                }
+            });
+            fail("Failed render should fail");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains(file.getPath()));
+        }
+
+        // the existing file is not touched (and no temp files are left behind)
+        assertEquals(createClass("Test").toString(), new String(Files.readAllBytes(file.toPath()), SourceUtil.SOURCE_CHARSET));
+        assertEquals(1, tempFolder.getRoot().list().length);
+    }
+
+    @Test
+    public void testWriteFileIfChangedFailure() {
+        File file = new File(tempFolder.getRoot(), "missing/Test.java");
+
+        try {
+            SourceUtil.writeFileIfChanged(file, "class Test {}\n", true);
+            fail("Write to a missing directory should fail");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains(file.getPath()));
+        }
+
+        try {
+            SourceUtil.writeFileIfChanged(file, createClass("Test"));
+            fail("Write to a missing directory should fail");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains(file.getPath()));
+        }
+    }
+
+    @Test
+    public void testAppendIndentedLines() throws IOException {
+        String[] contents = {"a", "a\n", "a\nb", "a\n\nb\n", "\na\n\n\n", "\n\n"};
+        for (String content : contents) {
+            StringBuilder expected = new StringBuilder();
+            for (String line : content.split("\n")) {
+                expected.append("  ").append(line).append("\n");
+            }
+
+            StringBuilder actual = new StringBuilder();
+            SourceUtil.appendIndentedLines(actual, "  ", content);
+            assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    public void testMethodDocComment() {
+        JavaMethod method = new JavaMethod(Access.PUBLIC, "void", "clear");
+        method.setDocComment("Remove all items\n\n@see #add");
+
+        String tab = JavaClass.getTab();
+        String expected = tab + "/**\n" +
+                tab + " * Remove all items\n" +
+                tab + " *\n" +
+                tab + " * @see #add\n" +
+                tab + " */\n" +
+                tab + "public void clear() {\n" +
+                tab + "}\n";
+        assertEquals(expected, method.toString());
+
+        // no comment
+        method.setDocComment("");
+        assertEquals(tab + "public void clear() {\n" + tab + "}\n", method.toString());
+    }
+
+    private JavaClass createClass(String name) {
+        JavaClass javaClass = new JavaClass("org.test", name);
+        javaClass.addImport("java.util.List");
+        javaClass.addVariable("String", "name", true);
+        javaClass.addMethod(Access.PUBLIC, "int", "size", "int size = 0;\n\nreturn size;\n");
+        return javaClass;
+    }
+}
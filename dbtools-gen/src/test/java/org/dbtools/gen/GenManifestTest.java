@@ -0,0 +1,77 @@
+package org.dbtools.gen;
+
+import org.dbtools.gen.android.AndroidObjectsBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GenManifestTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testIncrementalGen() throws Exception {
+        String userDir = System.getProperty("user.dir");
+
+        String schemaFilename = userDir + "/src/test/resources/org/dbtools/xml/schema.xml";
+        String baseOutputDir = userDir + "/build/test-src-incremental/src/main/java/org/mycompany/domain";
+        String basePackageName = "org.mycompany.domain";
+
+        // start clean
+        new File(baseOutputDir, GenManifest.MANIFEST_FILENAME).delete();
+
+        GenConfig genConfig = new GenConfig();
+        genConfig.setInjectionSupport(true);
+        genConfig.setIncremental(true);
+
+        AndroidObjectsBuilder objectsBuilder = new AndroidObjectsBuilder(genConfig);
+        objectsBuilder.buildAll(schemaFilename, baseOutputDir, basePackageName);
+        assertTrue(objectsBuilder.getNumberFilesGenerated() > 0);
+        assertTrue("manifest exists", new File(baseOutputDir, GenManifest.MANIFEST_FILENAME).exists());
+
+        // nothing changed... nothing should be generated
+        AndroidObjectsBuilder incrementalObjectsBuilder = new AndroidObjectsBuilder(genConfig);
+        incrementalObjectsBuilder.buildAll(schemaFilename, baseOutputDir, basePackageName);
+        assertEquals(0, incrementalObjectsBuilder.getNumberFilesGenerated());
+
+        // config changed... everything should be generated
+        genConfig.setDateType(DateType.JSR_310);
+        AndroidObjectsBuilder changedObjectsBuilder = new AndroidObjectsBuilder(genConfig);
+        changedObjectsBuilder.buildAll(schemaFilename, baseOutputDir, basePackageName);
+        assertTrue(changedObjectsBuilder.getNumberFilesGenerated() > 0);
+    }
+
+    @Test
+    public void testGeneratorFingerprint() throws Exception {
+        // the fingerprint includes a hash of the generator classes (not only GENERATOR_VERSION)
+        String fingerprint = GenManifest.getGeneratorFingerprint();
+        assertTrue(fingerprint, fingerprint.startsWith(GenManifest.GENERATOR_VERSION + "-"));
+        assertEquals(fingerprint, GenManifest.getGeneratorFingerprint());
+
+        // a changed class (output or schema model) changes the hash of the class directory
+        File classesDir = tempFolder.newFolder("classes");
+        File classFile = new File(classesDir, "org/dbtools/schema/schemafile/SchemaTable.class");
+        classFile.getParentFile().mkdirs();
+        Files.write(classFile.toPath(), "version 1".getBytes(Charset.forName("UTF-8")));
+        String classesHash = hashLocation(classesDir);
+        assertEquals(classesHash, hashLocation(classesDir));
+
+        Files.write(classFile.toPath(), "version 2".getBytes(Charset.forName("UTF-8")));
+        assertFalse(classesHash.equals(hashLocation(classesDir)));
+    }
+
+    private String hashLocation(File location) throws Exception {
+        MessageDigest digest = GenManifest.createSha256Digest();
+        GenManifest.updateDigest(digest, location);
+        return GenManifest.toHex(digest.digest());
+    }
+}
@@ -0,0 +1,65 @@
+package org.dbtools.gen;
+
+import org.dbtools.schema.schemafile.SchemaTable;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GenProfilerTest {
+
+    @Test
+    public void testEntityPhases() throws Exception {
+        GenProfiler profiler = new GenProfiler("Test Builder");
+
+        GenProfiler.EntityProfile profile = profiler.createEntityProfile(new SchemaTable("PERSON"));
+        profile.start();
+        long startNanos = System.nanoTime();
+        Thread.sleep(5);
+        startNanos = GenProfiler.recordPhase(GenPhase.RENDER_RECORD, startNanos);
+        GenProfiler.recordPhase(GenPhase.FILE_WRITE, startNanos);
+        profile.stop(Collections.<String>emptyList(), 2, 1);
+
+        // not attributed to any entity
+        GenProfiler.recordPhase(GenPhase.RENDER_MANAGER, System.nanoTime() - 1000000);
+
+        assertTrue(profile.getPhaseNanos(GenPhase.RENDER_RECORD) >= 5000000);
+        assertEquals(0, profile.getPhaseNanos(GenPhase.RENDER_MANAGER));
+        assertTrue(profile.getTotalNanos() >= profile.getPhaseNanos(GenPhase.RENDER_RECORD) + profile.getPhaseNanos(GenPhase.FILE_WRITE));
+        assertEquals(2, profile.getNumberFilesUnchanged());
+        assertEquals(1, profile.getNumberFilesSkipped());
+        assertEquals(0, profiler.getPhaseNanos(GenPhase.RENDER_MANAGER));
+        assertEquals(profile.getPhaseNanos(GenPhase.RENDER_RECORD), profiler.getPhaseNanos(GenPhase.RENDER_RECORD));
+    }
+
+    @Test
+    public void testSlowestEntities() throws Exception {
+        GenProfiler profiler = new GenProfiler("Test Builder");
+        profileEntity(profiler, "FAST", 0);
+        profileEntity(profiler, "SLOW", 20);
+        profileEntity(profiler, "MEDIUM", 10);
+
+        List<GenProfiler.EntityProfile> slowestEntities = profiler.getSlowestEntities(2);
+        assertEquals(2, slowestEntities.size());
+        assertEquals("SLOW", slowestEntities.get(0).getName());
+        assertEquals("MEDIUM", slowestEntities.get(1).getName());
+
+        // report keeps the generation order
+        String json = profiler.toJson();
+        assertTrue(json, json.contains("\"builder\": \"Test Builder\""));
+        assertTrue(json, json.indexOf("\"FAST\"") < json.indexOf("\"SLOW\""));
+        assertTrue(json, json.indexOf("\"SLOW\"") < json.indexOf("\"MEDIUM\""));
+        assertTrue(json, json.contains("\"type\": \"TABLE\""));
+        assertTrue(json, json.contains("\"XML_PARSE\": 0"));
+    }
+
+    private void profileEntity(GenProfiler profiler, String name, long millis) throws Exception {
+        GenProfiler.EntityProfile profile = profiler.createEntityProfile(new SchemaTable(name));
+        profile.start();
+        Thread.sleep(millis);
+        profile.stop(Collections.<String>emptyList(), 0, 0);
+    }
+}
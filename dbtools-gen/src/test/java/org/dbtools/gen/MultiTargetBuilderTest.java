@@ -0,0 +1,76 @@
+package org.dbtools.gen;
+
+import org.dbtools.codegen.java.InMemoryOutputSink;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MultiTargetBuilderTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testBuild() throws Exception {
+        String userDir = System.getProperty("user.dir");
+        String schemaFilename = userDir + "/src/test/resources/org/dbtools/xml/schema.xml";
+        File outputDir = temporaryFolder.getRoot();
+
+        InMemoryOutputSink jpaOutputSink = new InMemoryOutputSink();
+        GenConfig jpaGenConfig = new GenConfig();
+        jpaGenConfig.setOutputSink(jpaOutputSink);
+
+        InMemoryOutputSink androidOutputSink = new InMemoryOutputSink();
+        GenConfig androidGenConfig = new GenConfig();
+        androidGenConfig.setDateType(DateType.JSR_310);
+        androidGenConfig.setOutputSink(androidOutputSink);
+
+        MultiTargetBuilder builder = new MultiTargetBuilder(schemaFilename);
+        DBObjectsBuilder jpaBuilder = builder.addObjectsTarget("JPA", "org.mycompany.server", new File(outputDir, "server").getPath(), jpaGenConfig);
+        DBObjectsBuilder androidBuilder = builder.addObjectsTarget("ANDROID-JAVA", "org.mycompany.app", new File(outputDir, "app").getPath(), androidGenConfig);
+        File sqliteFile = new File(outputDir, "sql/schema-sqlite.sql");
+        File postgresqlFile = new File(outputDir, "sql/schema-postgresql.sql");
+        builder.addSchemaTarget("sqlite", sqliteFile.getPath());
+        builder.addSchemaTarget("postgresql", postgresqlFile.getPath());
+
+        assertTrue(builder.build());
+
+        // all targets share the same schema
+        assertSame(builder.getDatabaseSchema(), jpaBuilder.getDatabaseSchema());
+        assertSame(builder.getDatabaseSchema(), androidBuilder.getDatabaseSchema());
+
+        assertFalse(jpaOutputSink.getFiles().isEmpty());
+        for (String filename : jpaBuilder.getFilesGenerated()) {
+            assertNotNull(filename, jpaOutputSink.getContent(filename));
+        }
+
+        assertFalse(androidOutputSink.getFiles().isEmpty());
+        for (String filename : androidBuilder.getFilesGenerated()) {
+            assertNotNull(filename, androidOutputSink.getContent(filename));
+        }
+
+        assertTrue(new String(Files.readAllBytes(sqliteFile.toPath()), Charset.forName("UTF-8")).contains("CREATE TABLE"));
+        assertTrue(new String(Files.readAllBytes(postgresqlFile.toPath()), Charset.forName("UTF-8")).contains("CREATE TABLE"));
+    }
+
+    @Test
+    public void testSameOutput() throws Exception {
+        MultiTargetBuilder builder = new MultiTargetBuilder("schema.xml");
+        builder.addSchemaTarget("sqlite", "build/sql/schema.sql");
+        try {
+            builder.addSchemaTarget("postgresql", "build/sql/../sql/schema.sql");
+            fail("Targets should not share an output");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.dbtools.gen;
+
+import org.dbtools.schema.schemafile.DatabaseSchema;
+import org.dbtools.schema.schemafile.SchemaDatabase;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaSnapshotTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testSnapshot() throws Exception {
+        File xmlFile = new File(System.getProperty("user.dir") + "/src/test/resources/org/dbtools/xml/schema.xml");
+        File snapshotDir = tempFolder.newFolder("snapshot");
+
+        DatabaseSchema parsedSchema = SchemaSnapshot.readXMLSchema(xmlFile, snapshotDir);
+        assertTrue("snapshot exists", new File(snapshotDir, xmlFile.getName() + SchemaSnapshot.SNAPSHOT_EXTENSION).exists());
+
+        DatabaseSchema snapshotSchema = SchemaSnapshot.readXMLSchema(xmlFile, snapshotDir);
+        assertEquals(parsedSchema.getDatabases().size(), snapshotSchema.getDatabases().size());
+        for (int i = 0; i < parsedSchema.getDatabases().size(); i++) {
+            SchemaDatabase parsedDatabase = parsedSchema.getDatabases().get(i);
+            SchemaDatabase snapshotDatabase = snapshotSchema.getDatabases().get(i);
+
+            assertEquals(parsedDatabase.getName(false), snapshotDatabase.getName(false));
+            assertEquals(parsedDatabase.getTableNames(), snapshotDatabase.getTableNames());
+            assertEquals(parsedDatabase.getViewNames(), snapshotDatabase.getViewNames());
+        }
+    }
+}
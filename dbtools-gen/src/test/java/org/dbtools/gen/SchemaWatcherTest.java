@@ -0,0 +1,103 @@
+package org.dbtools.gen;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaWatcherTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test(timeout = 60000)
+    public void testOnlyChangedEntityRegenerated() throws Exception {
+        final File schemaFile = new File(tempFolder.getRoot(), "schema.xml");
+        writeSchema(schemaFile, "");
+        File outputDir = tempFolder.newFolder("out");
+        File snapshotDir = tempFolder.newFolder("snapshot");
+
+        GenConfig genConfig = new GenConfig();
+        final BlockingQueue<List<String>> generations = new LinkedBlockingQueue<>();
+        final SchemaWatcher watcher = new SchemaWatcher("ANDROID-JAVA", genConfig, schemaFile, outputDir.getPath(), "org.mycompany.domain") {
+            @Override
+            protected void onGenerated(DBObjectsBuilder builder) {
+                generations.add(new ArrayList<>(builder.getFilesGenerated()));
+            }
+        };
+        watcher.setSchemaSnapshotDir(snapshotDir.getPath());
+        assertFalse("caller config is not changed", genConfig.isIncremental());
+
+        Thread watchThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    watcher.watch();
+                } catch (InterruptedException e) {
+                    // stopped
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        watchThread.start();
+
+        try {
+            List<String> initialFiles = generations.poll(30, TimeUnit.SECONDS);
+            assertNotNull("initial generation", initialFiles);
+            assertTrue(containsFile(initialFiles, "PersonBaseRecord.java"));
+            assertTrue(containsFile(initialFiles, "PlaceBaseRecord.java"));
+            assertTrue("snapshot exists", new File(snapshotDir, schemaFile.getName() + SchemaSnapshot.SNAPSHOT_EXTENSION).exists());
+
+            // change PERSON only
+            writeSchema(schemaFile, "<field name=\"EMAIL\" jdbcDataType=\"VARCHAR\" size=\"255\"/>");
+
+            List<String> changedFiles = generations.poll(30, TimeUnit.SECONDS);
+            assertNotNull("regeneration after change", changedFiles);
+            assertTrue(containsFile(changedFiles, "PersonBaseRecord.java"));
+            assertFalse(containsFile(changedFiles, "PlaceBaseRecord.java"));
+            assertFalse(containsFile(changedFiles, "PlaceBaseManager.java"));
+        } finally {
+            watchThread.interrupt();
+            watchThread.join(10000);
+        }
+    }
+
+    private boolean containsFile(List<String> files, String filename) {
+        for (String file : files) {
+            if (new File(file).getName().equals(filename)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeSchema(File schemaFile, String extraPersonFields) throws IOException {
+        String xml = "<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PERSON\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" increment=\"true\" primaryKey=\"true\" notNull=\"true\"/>\n" +
+                "            <field name=\"NAME\" jdbcDataType=\"VARCHAR\" size=\"255\"/>\n" +
+                "            " + extraPersonFields + "\n" +
+                "        </table>\n" +
+                "        <table name=\"PLACE\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" increment=\"true\" primaryKey=\"true\" notNull=\"true\"/>\n" +
+                "            <field name=\"NAME\" jdbcDataType=\"VARCHAR\" size=\"255\"/>\n" +
+                "        </table>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n";
+        Files.write(schemaFile.toPath(), xml.getBytes(Charset.forName("UTF-8")));
+    }
+}
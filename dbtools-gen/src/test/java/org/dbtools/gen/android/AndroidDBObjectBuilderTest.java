@@ -1,24 +1,496 @@
 package org.dbtools.gen.android;
 
+import org.dbtools.codegen.java.InMemoryOutputSink;
+import org.dbtools.codegen.java.SourceUtil;
 import org.dbtools.gen.DateType;
 import org.dbtools.gen.GenConfig;
+import org.dbtools.schema.dbmappings.DatabaseMappingRegistry;
+import org.dbtools.schema.schemafile.SchemaDatabase;
+import org.dbtools.schema.schemafile.SchemaFieldType;
+import org.dbtools.schema.schemafile.SchemaTable;
+import org.dbtools.schema.schemafile.SchemaTableField;
+import org.dbtools.schema.schemafile.SchemaTableUnique;
+import org.dbtools.schema.schemafile.SchemaUniqueField;
+import org.dbtools.schema.schemafile.SchemaXmlStreamParser;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class AndroidDBObjectBuilderTest {
-    @Test
-    public void testBasicGen() {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private String schemaFilename;
+    private String baseOutputDir;
+    private String basePackageName;
+
+    @Before
+    public void setUp() {
         String userDir = System.getProperty("user.dir");
 
-        String schemaFilename = userDir + "/src/test/resources/org/dbtools/xml/schema.xml";
+        schemaFilename = userDir + "/src/test/resources/org/dbtools/xml/schema.xml";
+        baseOutputDir = userDir + "/build/test-src/src/main/java/org/mycompany/domain";
+        basePackageName = "org.mycompany.domain";
+    }
+
+    @Test
+    public void testBasicGen() {
         boolean injectionSupport = true; // support for CDI (Dagger, Guice, etc)
-        String baseOutputDir = userDir + "/build/test-src/src/main/java/org/mycompany/domain";
-        String basePackageName = "org.mycompany.domain";
 
+        InMemoryOutputSink outputSink = new InMemoryOutputSink();
         GenConfig genConfig = new GenConfig();
         genConfig.setInjectionSupport(injectionSupport);
         genConfig.setDateType(DateType.JSR_310);
+        genConfig.setOutputSink(outputSink);
+
+        AndroidObjectsBuilder objectsBuilder = new AndroidObjectsBuilder(genConfig);
+        objectsBuilder.buildAll(schemaFilename, baseOutputDir, basePackageName);
+
+        assertFalse(outputSink.getFiles().isEmpty());
+        for (String filename : objectsBuilder.getFilesGenerated()) {
+            assertNotNull(filename, outputSink.getContent(filename));
+        }
+    }
+
+    @Test
+    public void testParallelGen() throws Exception {
+        InMemoryOutputSink serialOutputSink = new InMemoryOutputSink();
+        GenConfig serialGenConfig = new GenConfig();
+        serialGenConfig.setDateType(DateType.JSR_310);
+        serialGenConfig.setOutputSink(serialOutputSink);
+        AndroidObjectsBuilder serialBuilder = new AndroidObjectsBuilder(serialGenConfig);
+        serialBuilder.buildAll(schemaFilename, baseOutputDir, basePackageName);
+
+        InMemoryOutputSink parallelOutputSink = new InMemoryOutputSink();
+        GenConfig parallelGenConfig = new GenConfig();
+        parallelGenConfig.setDateType(DateType.JSR_310);
+        parallelGenConfig.setParallelism(4);
+        parallelGenConfig.setOutputSink(parallelOutputSink);
+        AndroidObjectsBuilder parallelBuilder = new AndroidObjectsBuilder(parallelGenConfig);
+        parallelBuilder.buildAll(schemaFilename, baseOutputDir, basePackageName);
+
+        assertEquals(serialBuilder.getNumberFilesGenerated(), parallelBuilder.getNumberFilesGenerated());
+
+        List<String> serialFiles = serialBuilder.getFilesGenerated();
+        List<String> parallelFiles = parallelBuilder.getFilesGenerated();
+        assertEquals(serialFiles, parallelFiles);
+
+        // generated base files do not contain timestamps... so they should be identical
+        Map<String, byte[]> serialContent = serialOutputSink.getFiles();
+        Map<String, byte[]> parallelContent = parallelOutputSink.getFiles();
+        assertEquals(serialContent.keySet(), parallelContent.keySet());
+        for (Map.Entry<String, byte[]> file : serialContent.entrySet()) {
+            String path = file.getKey();
+            if (path.endsWith("BaseRecord.java") || path.endsWith("BaseManager.java") || path.endsWith("Const.java")) {
+                assertArrayEquals(path, file.getValue(), parallelContent.get(path));
+            }
+        }
+        assertTrue(serialContent.size() > 0);
+    }
+
+    @Test
+    public void testReproducibleGen() {
+        Map<String, byte[]> firstContent = buildReproducible();
+        Map<String, byte[]> secondContent = buildReproducible();
+
+        // all files (including the Records and Managers) should be identical
+        assertEquals(firstContent.keySet(), secondContent.keySet());
+        for (Map.Entry<String, byte[]> file : firstContent.entrySet()) {
+            String path = file.getKey();
+            assertArrayEquals(path, file.getValue(), secondContent.get(path));
+            assertFalse(path, new String(file.getValue(), SourceUtil.SOURCE_CHARSET).contains("Generated on:"));
+        }
+        assertTrue(firstContent.size() > 0);
+    }
+
+    @Test
+    public void testCursorIndexesGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // setContent(Cursor, CursorIndexes) should only use the column indexes resolved by CursorIndexes
+        int recordCount = 0;
+        for (Map.Entry<String, byte[]> file : content.entrySet()) {
+            String path = file.getKey();
+            String source = new String(file.getValue(), SourceUtil.SOURCE_CHARSET);
+            int setContentStart = source.indexOf("public void setContent(Cursor cursor, CursorIndexes indexes) {");
+            if (!path.endsWith("BaseRecord.java") || setContentStart == -1) {
+                continue;
+            }
+
+            String setContent = source.substring(setContentStart, source.indexOf("\n    }\n", setContentStart));
+            assertFalse(path, setContent.contains("getColumnIndexOrThrow"));
+            assertTrue(path, source.contains("public void setContent(Cursor cursor) {\n        setContent(cursor, new CursorIndexes(cursor));"));
+
+            // one holder per cursor (no shared state between cursors/threads)
+            assertTrue(path, source.contains("public static final class CursorIndexes {"));
+            assertTrue(path, source.contains("public CursorIndexes(Cursor cursor) {"));
+            assertFalse(path, source.contains("static volatile"));
+            recordCount++;
+        }
+        assertTrue(recordCount > 0);
+
+        // the manager resolves the indexes once for all rows
+        String tableManager = findSource(content, "/IndividualBaseManager.java");
+        assertTrue(tableManager.contains("public List<Individual> findAllFromCursor(Cursor cursor) {"));
+        assertTrue(tableManager.contains("IndividualBaseRecord.CursorIndexes indexes = new IndividualBaseRecord.CursorIndexes(cursor);\n                while (cursor.moveToNext()) {"));
+        assertTrue(tableManager.contains("record.setContent(cursor, indexes);"));
+
+        String viewManager = findSource(content, "/IndividualViewBaseManager.java");
+        assertTrue(viewManager.contains("public List<IndividualView> findAllFromCursor(Cursor cursor) {"));
+    }
+
+    @Test
+    public void testAllColumnsReaderGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // tables are read by ordinal when the cursor uses ALL_COLUMNS... the manager makes the choice once per cursor
+        String source = findSource(content, "/IndividualBaseRecord.java");
+        assertTrue(source.contains("\n    void setContentAllColumns(Cursor cursor) {"));
+        assertTrue(source.contains("id = cursor.getLong(0);"));
+        assertFalse(source.contains("allColumns"));
+        assertTrue(source.contains("id = cursor.getColumnIndexOrThrow(IndividualConst.C_ID);"));
+
+        String tableManager = findSource(content, "/IndividualBaseManager.java");
+        assertTrue(tableManager.contains("if (Arrays.equals(cursor.getColumnNames(), IndividualConst.ALL_COLUMNS)) {"));
+        assertTrue(tableManager.contains("record.setContentAllColumns(cursor);"));
+
+        // the column order of views is not known
+        String viewRecord = findSource(content, "/IndividualViewBaseRecord.java");
+        assertFalse(viewRecord.contains("setContentAllColumns"));
+        String viewManager = findSource(content, "/IndividualViewBaseManager.java");
+        assertFalse(viewManager.contains("setContentAllColumns"));
+    }
+
+    @Test
+    public void testBulkGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // single transaction by default... chunked commits only if the caller asks for them
+        String tableManager = findSource(content, "/IndividualBaseManager.java");
+        assertTrue(tableManager.contains("public void insertAll(Collection<Individual> records) {\n        insertAll(records, Integer.MAX_VALUE);"));
+        assertTrue(tableManager.contains("public void insertAll(Collection<Individual> records, int chunkSize) {"));
+        assertTrue(tableManager.contains("public void updateAll(Collection<Individual> records, int chunkSize) {"));
+        assertTrue(tableManager.contains("public void saveAll(Collection<Individual> records, int chunkSize) {"));
+        assertTrue(tableManager.contains("StatementWrapper insertStatement = database.compileStatement(IndividualConst.INSERT_STATEMENT);"));
+        assertFalse(tableManager.contains("BULK_CHUNK_SIZE"));
+
+        // partial commits and the bypassed insert(...) / update(...) are documented
+        assertTrue(tableManager.contains("     * Insert all records in a single transaction (if any record fails, none of the records are written).\n"));
+        assertTrue(tableManager.contains("     * Partial commit: if a record fails, the chunks that were already committed stay in the database\n"));
+        assertTrue(tableManager.contains("insert(...) and update(...) of this manager\n     * are bypassed"));
+
+        // every placeholder of the statements is bound (once)
+        String tableConst = findSource(content, "/IndividualConst.java");
+        String tableRecord = findSource(content, "/IndividualBaseRecord.java");
+        assertBindsMatchPlaceholders(tableConst, "INSERT_STATEMENT", tableRecord, "void bindInsertStatement(StatementWrapper statement) {");
+        assertBindsMatchPlaceholders(tableConst, "UPDATE_STATEMENT", tableRecord, "void bindUpdateStatement(StatementWrapper statement) {");
+
+        // views are read only
+        String viewManager = findSource(content, "/IndividualViewBaseManager.java");
+        assertFalse(viewManager.contains("insertAll"));
+    }
+
+    @Test
+    public void testUpsertGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // conflict target is the primary key (no upsertKey unique declaration)
+        String tableConst = findSource(content, "/IndividualConst.java");
+        assertTrue(tableConst.contains("UPSERT_STATEMENT = \"INSERT INTO INDIVIDUAL (_id,INDIVIDUAL_TYPE_ID,"));
+        assertTrue(tableConst.contains(" ON CONFLICT(_id) DO UPDATE SET INDIVIDUAL_TYPE_ID=excluded.INDIVIDUAL_TYPE_ID, "));
+
+        String tableRecord = findSource(content, "/IndividualBaseRecord.java");
+        assertTrue(tableRecord.contains("public void bindUpsertStatement(StatementWrapper statement) {"));
+        assertTrue(tableRecord.contains("statement.bindNull(1);"));
+
+        String tableManager = findSource(content, "/IndividualBaseManager.java");
+        assertTrue(tableManager.contains("public void upsertAll(Collection<Individual> records, int chunkSize) {"));
+        assertTrue(tableManager.contains("public void upsert(Individual record) {"));
+        assertTrue(tableManager.contains("     * Requires SQLite 3.24+ (Android API 30+).  The primary key of each record is set to the id of the inserted or updated row.\n"));
+        assertFalse(tableManager.contains("FIND_ID_BY_UPSERT_KEY_STATEMENT"));
+        assertEquals(Arrays.asList("_id"), getConflictColumns(tableConst));
+        assertBindsMatchPlaceholders(tableConst, "UPSERT_STATEMENT", tableRecord, "void bindUpsertStatement(StatementWrapper statement) {");
+
+        // views are read only
+        String viewManager = findSource(content, "/IndividualViewBaseManager.java");
+        assertFalse(viewManager.contains("upsert"));
+    }
+
+    @Test
+    public void testUpsertDisabledByDefault() {
+        Map<String, byte[]> content = buildReproducible(schemaFilename, false);
+
+        // UPSERT needs SQLite 3.24+ (Android API 30+) so it is only generated when upsertSupport is enabled
+        assertFalse(findSource(content, "/IndividualConst.java").contains("UPSERT_STATEMENT"));
+        assertFalse(findSource(content, "/HouseholdConst.java").contains("UPSERT_STATEMENT"));
+        assertFalse(findSource(content, "/IndividualBaseRecord.java").contains("bindUpsertStatement"));
+        assertFalse(findSource(content, "/IndividualBaseManager.java").contains("upsert"));
+        assertFalse(findSource(content, "/HouseholdBaseManager.java").contains("upsert"));
+    }
+
+    @Test
+    public void testUpsertKeyGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // conflict target is the upsertKey unique declaration
+        SchemaTable table = SchemaXmlStreamParser.parse(new File(schemaFilename)).getDatabases().get(0).getTable("HOUSEHOLD");
+        List<String> upsertKeyColumns = new ArrayList<>();
+        for (SchemaUniqueField uniqueField : table.getUpsertKeyDeclaration().getUniqueFields()) {
+            upsertKeyColumns.add(uniqueField.getName());
+        }
+        String tableConst = findSource(content, "/HouseholdConst.java");
+        assertEquals(upsertKeyColumns, getConflictColumns(tableConst));
+
+        // the id of an updated row is found by the upsertKey columns
+        assertTrue(tableConst.contains("FIND_ID_BY_UPSERT_KEY_STATEMENT = \"SELECT _id FROM HOUSEHOLD WHERE NAME = ?\";"));
+        String tableRecord = findSource(content, "/HouseholdBaseRecord.java");
+        assertBindsMatchPlaceholders(tableConst, "UPSERT_STATEMENT", tableRecord, "void bindUpsertStatement(StatementWrapper statement) {");
+        assertBindsMatchPlaceholders(tableConst, "FIND_ID_BY_UPSERT_KEY_STATEMENT", tableRecord, "void bindUpsertKeyStatement(StatementWrapper statement) {");
+
+        String tableManager = findSource(content, "/HouseholdBaseManager.java");
+        assertTrue(tableManager.contains("StatementWrapper findIdStatement = database.compileStatement(HouseholdConst.FIND_ID_BY_UPSERT_KEY_STATEMENT);"));
+        assertTrue(tableManager.contains("record.setPrimaryKeyId(findIdStatement.simpleQueryForLong());"));
+        assertTrue(tableManager.contains("findIdStatement.close();"));
+        assertTrue(tableManager.contains("     * Requires SQLite 3.24+ (Android API 30+)."));
+    }
+
+    @Test
+    public void testUpsertKeyNotNull() {
+        // NULL values never conflict
+        SchemaTable table = new SchemaTable("HOUSEHOLD");
+        SchemaTableField idField = new SchemaTableField("_id", SchemaFieldType.BIGINT);
+        idField.setPrimaryKey(true);
+        idField.setIncrement(true);
+        SchemaTableField nameField = new SchemaTableField("NAME", SchemaFieldType.VARCHAR);
+        table.setFields(Arrays.asList(idField, nameField));
+        SchemaUniqueField uniqueField = new SchemaUniqueField();
+        uniqueField.setName("NAME");
+        SchemaTableUnique unique = new SchemaTableUnique();
+        unique.setUniqueFields(Arrays.asList(uniqueField));
+        unique.setUpsertKey(true);
+        table.setUniqueDeclarations(Arrays.asList(unique));
+
+        AndroidBaseRecordRenderer recordRenderer = new AndroidBaseRecordRenderer();
+        recordRenderer.setGenConfig(new GenConfig());
+        try {
+            recordRenderer.generate(new SchemaDatabase("main"), table, basePackageName, DatabaseMappingRegistry.getDatabaseMapping("sqlite"));
+            fail("nullable upsertKey field");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("upsertKey field [NAME] of table [HOUSEHOLD] must be notNull"));
+        }
+    }
+
+    @Test
+    public void testDirtyFieldsGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // the primary key is not tracked (it is the where clause)
+        String tableConst = findSource(content, "/IndividualConst.java");
+        assertTrue(tableConst.contains("public static final int DIRTY_INDIVIDUAL_TYPE = 0;"));
+        assertFalse(tableConst.contains("DIRTY_ID "));
+        assertTrue(tableConst.contains("public static String getDirtyUpdateStatement(BitSet dirtyFields) {"));
+
+        String tableRecord = findSource(content, "/IndividualBaseRecord.java");
+        assertTrue(tableRecord.contains("dirtyFields.set(IndividualConst.DIRTY_NAME);"));
+        assertTrue(tableRecord.contains("if (dirtyFields.get(IndividualConst.DIRTY_DATA)) {"));
+        assertTrue(tableRecord.contains("statement.bindLong(bindIndex, id);"));
+
+        assertDirtyBitsMatchColumns(tableConst);
+
+        // copies and records written by the manager are not dirty
+        assertTrue(tableRecord.contains("copy.clearDirtyFields();\n        return copy;"));
+        assertTrue(tableRecord.contains("clearDirtyFields() must be called after the record is written by them."));
+
+        String tableManager = findSource(content, "/IndividualBaseManager.java");
+        assertTrue(tableManager.contains("public int updateDirty(Individual record) {"));
+        assertTrue(tableManager.contains("record.setPrimaryKeyId(insertStatement.executeInsert());\n                record.clearDirtyFields();"));
+        assertTrue(tableManager.contains("updateStatement.executeUpdateDelete();\n                record.clearDirtyFields();"));
+        assertTrue(tableManager.contains("                }\n                record.clearDirtyFields();")); // saveAll / upsertAll
+
+        // views are read only
+        String viewRecord = findSource(content, "/IndividualViewBaseRecord.java");
+        assertFalse(viewRecord.contains("dirtyFields"));
+    }
+
+    @Test
+    public void testProjectionGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // projection columns are read by ordinal (in the order of COLUMNS)
+        String projection = findSource(content, "/IndividualSummary.java");
+        assertTrue(projection.contains("public class IndividualSummary {"));
+        assertTrue(projection.contains("IndividualConst.C_ID,\n        IndividualConst.C_NAME,\n        IndividualConst.C_EMAIL};"));
+        assertTrue(projection.contains("email = cursor.getString(2);"));
+        assertTrue(projection.contains("public String getName() {"));
+        assertFalse(projection.contains("setName("));
+        assertFalse(projection.contains("phone"));
+
+        String tableManager = findSource(content, "/IndividualBaseManager.java");
+        assertTrue(tableManager.contains("query(getTableName(), IndividualSummary.COLUMNS, selection, selectionArgs, null, null, orderBy);"));
+        assertTrue(tableManager.contains("public List<IndividualSummary> findAllSummaryBySelection(String selection, String[] selectionArgs, String orderBy) {"));
+        assertTrue(tableManager.contains("public List<IndividualSummary> findAllSummary() {"));
+        assertTrue(tableManager.contains("public IndividualSummary findSummaryByRowId(long rowId) {"));
+    }
+
+    @Test
+    public void testDirtyFieldsWideTable() throws IOException {
+        Map<String, byte[]> content = buildReproducible(writeWideSchema());
+
+        // more than 64 columns are tracked (one bit per column)
+        String tableConst = findSource(content, "/WideConst.java");
+        assertTrue(tableConst.contains("public static final int DIRTY_C69 = 70;"));
+        assertEquals(71, getDirtyColumns(tableConst).size());
+        assertDirtyBitsMatchColumns(tableConst);
+
+        String tableRecord = findSource(content, "/WideBaseRecord.java");
+        assertTrue(tableRecord.contains("dirtyFields.set(WideConst.DIRTY_C69);"));
+        assertTrue(tableRecord.contains("if (dirtyFields.get(WideConst.DIRTY_C69)) {"));
+
+        String tableManager = findSource(content, "/WideBaseManager.java");
+        assertTrue(tableManager.contains("public int updateDirty(Wide record) {"));
+    }
+
+    /**
+     * Index n of DIRTY_X must be the column C_X at index n of DIRTY_COLUMNS
+     */
+    private void assertDirtyBitsMatchColumns(String constSource) {
+        List<String> dirtyColumns = getDirtyColumns(constSource);
+        int bitCount = 0;
+        Matcher bitMatcher = Pattern.compile("DIRTY_(\\w+)(?:: Int)? = (\\d+)").matcher(constSource);
+        while (bitMatcher.find()) {
+            assertEquals("DIRTY_" + bitMatcher.group(1), bitMatcher.group(1), dirtyColumns.get(Integer.parseInt(bitMatcher.group(2))));
+            bitCount++;
+        }
+        assertTrue(bitCount > 0);
+        assertEquals(dirtyColumns.size(), bitCount);
+    }
+
+    /**
+     * Columns (C_X constants without C_) of DIRTY_COLUMNS in DIRTY_* index order
+     */
+    private List<String> getDirtyColumns(String constSource) {
+        int columnsStart = constSource.indexOf("DIRTY_COLUMNS = ");
+        assertTrue("Missing DIRTY_COLUMNS", columnsStart != -1);
+        String columnsSource = constSource.substring(columnsStart, constSource.indexOf(";", columnsStart));
+        List<String> dirtyColumns = new ArrayList<>();
+        Matcher columnMatcher = Pattern.compile("C_(\\w+)").matcher(columnsSource);
+        while (columnMatcher.find()) {
+            dirtyColumns.add(columnMatcher.group(1));
+        }
+        return dirtyColumns;
+    }
+
+    /**
+     * Columns of ON CONFLICT(...) of the UPSERT_STATEMENT
+     */
+    private List<String> getConflictColumns(String constSource) {
+        Matcher matcher = Pattern.compile("UPSERT_STATEMENT = \"[^\"]* ON CONFLICT\\(([^)]*)\\)").matcher(constSource);
+        assertTrue("Missing UPSERT_STATEMENT", matcher.find());
+        return Arrays.asList(matcher.group(1).split(","));
+    }
+
+    /**
+     * The bind method must bind each ? of the statement constant exactly once (bind indexes 1..n)
+     */
+    private void assertBindsMatchPlaceholders(String constSource, String statementName, String recordSource, String bindMethodSignature) {
+        int statementStart = constSource.indexOf(statementName + " = \"");
+        assertTrue("Missing " + statementName, statementStart != -1);
+        statementStart += statementName.length() + 4;
+        String statement = constSource.substring(statementStart, constSource.indexOf('"', statementStart));
+        int placeholders = statement.length() - statement.replace("?", "").length();
+        assertTrue(statementName, placeholders > 0);
+
+        int methodStart = recordSource.indexOf(bindMethodSignature);
+        assertTrue("Missing " + bindMethodSignature, methodStart != -1);
+        String methodBody = recordSource.substring(methodStart, recordSource.indexOf("\n    }\n", methodStart));
+
+        Set<Integer> bindIndexes = new TreeSet<>();
+        Matcher matcher = Pattern.compile("statement\\.bind\\w+\\((\\d+)").matcher(methodBody);
+        while (matcher.find()) {
+            bindIndexes.add(Integer.valueOf(matcher.group(1)));
+        }
+
+        Set<Integer> expectedIndexes = new TreeSet<>();
+        for (int i = 1; i <= placeholders; i++) {
+            expectedIndexes.add(i);
+        }
+        assertEquals(statementName, expectedIndexes, bindIndexes);
+    }
+
+    private String findSource(Map<String, byte[]> content, String pathSuffix) {
+        for (Map.Entry<String, byte[]> file : content.entrySet()) {
+            if (file.getKey().endsWith(pathSuffix)) {
+                return new String(file.getValue(), SourceUtil.SOURCE_CHARSET);
+            }
+        }
+
+        fail("Missing " + pathSuffix);
+        return null;
+    }
+
+    private Map<String, byte[]> buildReproducible() {
+        return buildReproducible(schemaFilename);
+    }
+
+    private Map<String, byte[]> buildReproducible(String schemaFilename) {
+        return buildReproducible(schemaFilename, true);
+    }
+
+    private Map<String, byte[]> buildReproducible(String schemaFilename, boolean upsertSupport) {
+        InMemoryOutputSink outputSink = new InMemoryOutputSink();
+        GenConfig genConfig = new GenConfig();
+        genConfig.setDateType(DateType.JSR_310);
+        genConfig.setReproducible(true);
+        genConfig.setUpsertSupport(upsertSupport);
+        genConfig.setOutputSink(outputSink);
 
         AndroidObjectsBuilder objectsBuilder = new AndroidObjectsBuilder(genConfig);
         objectsBuilder.buildAll(schemaFilename, baseOutputDir, basePackageName);
+        return outputSink.getFiles();
+    }
+
+    /**
+     * WIDE table with a MANYTOONE field and 70 other columns (more than the 64 bits of a long)
+     */
+    private String writeWideSchema() throws IOException {
+        StringBuilder xml = new StringBuilder("<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PARENT\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" increment=\"true\" primaryKey=\"true\" notNull=\"true\"/>\n" +
+                "        </table>\n" +
+                "        <table name=\"WIDE\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" increment=\"true\" primaryKey=\"true\" notNull=\"true\"/>\n" +
+                "            <field name=\"PARENT_ID\" jdbcDataType=\"BIGINT\" foreignKeyTable=\"PARENT\" foreignKeyField=\"_id\" foreignKeyType=\"MANYTOONE\"/>\n");
+        for (int i = 0; i < 70; i++) {
+            xml.append("            <field name=\"C").append(i).append("\" jdbcDataType=\"VARCHAR\" size=\"255\"/>\n");
+        }
+        xml.append("        </table>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n");
+
+        File schemaFile = tempFolder.newFile("wide-schema.xml");
+        Files.write(schemaFile.toPath(), xml.toString().getBytes(Charset.forName("UTF-8")));
+        return schemaFile.getPath();
     }
 }
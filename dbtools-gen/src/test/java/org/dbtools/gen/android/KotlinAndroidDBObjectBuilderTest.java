@@ -1,20 +1,62 @@
 package org.dbtools.gen.android;
 
+import org.dbtools.codegen.java.InMemoryOutputSink;
+import org.dbtools.codegen.java.SourceUtil;
 import org.dbtools.gen.DateType;
 import org.dbtools.gen.GenConfig;
+import org.dbtools.gen.android.kotlin.KotlinAndroidBaseRecordRenderer;
 import org.dbtools.gen.android.kotlin.KotlinAndroidObjectsBuilder;
+import org.dbtools.schema.dbmappings.DatabaseMappingRegistry;
+import org.dbtools.schema.schemafile.SchemaDatabase;
+import org.dbtools.schema.schemafile.SchemaFieldType;
+import org.dbtools.schema.schemafile.SchemaTable;
+import org.dbtools.schema.schemafile.SchemaTableField;
+import org.dbtools.schema.schemafile.SchemaTableUnique;
+import org.dbtools.schema.schemafile.SchemaUniqueField;
+import org.dbtools.schema.schemafile.SchemaXmlStreamParser;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class KotlinAndroidDBObjectBuilderTest {
-    @Test
-    public void testBasicGen() {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private String schemaFilename;
+    private String baseOutputDir;
+    private String basePackageName;
+
+    @Before
+    public void setUp() {
         String userDir = System.getProperty("user.dir");
 
-        String schemaFilename = userDir + "/src/test/resources/org/dbtools/xml/schema.xml";
+        schemaFilename = userDir + "/src/test/resources/org/dbtools/xml/schema.xml";
+        baseOutputDir = userDir + "/build/test-src/src/main/kotlin/org/mycompany/domain";
+        basePackageName = "org.mycompany.domain";
+    }
+
+    @Test
+    public void testBasicGen() {
         boolean injectionSupport = true; // support for CDI (Dagger, Guice, etc)
-        boolean dateTimeSupport = true; // support for jsr DateTime (Joda Time)
-        String baseOutputDir = userDir + "/build/test-src/src/main/kotlin/org/mycompany/domain";
-        String basePackageName = "org.mycompany.domain";
 
         GenConfig genConfig = new GenConfig();
         genConfig.setInjectionSupport(injectionSupport);
@@ -23,4 +65,358 @@ public class KotlinAndroidDBObjectBuilderTest {
         KotlinAndroidObjectsBuilder objectsBuilder = new KotlinAndroidObjectsBuilder(genConfig);
         objectsBuilder.buildAll(schemaFilename, baseOutputDir, basePackageName);
     }
+
+    @Test
+    public void testCursorIndexesGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // one holder per cursor (no shared state between cursors/threads)
+        String tableRecord = findSource(content, "/IndividualBaseRecord.kt");
+        assertTrue(tableRecord.contains("class CursorIndexes (cursor: Cursor)"));
+        assertTrue(tableRecord.contains("setContent(cursor, CursorIndexes(cursor))"));
+        assertTrue(tableRecord.contains("fun setContent(cursor: Cursor, indexes: CursorIndexes)"));
+        assertFalse(tableRecord.contains("lastCursorIndexes"));
+        assertFalse(tableRecord.contains("WeakReference"));
+
+        // the manager resolves the indexes once for all rows
+        String tableManager = findSource(content, "/IndividualBaseManager.kt");
+        assertTrue(tableManager.contains("fun findAllFromCursor(cursor: Cursor?): List<Individual>"));
+        assertTrue(tableManager.contains("val indexes = IndividualBaseRecord.CursorIndexes(cursor)"));
+        assertTrue(tableManager.contains("record.setContent(cursor, indexes)"));
+    }
+
+    @Test
+    public void testAllColumnsReaderGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // tables are read by ordinal when the cursor uses ALL_COLUMNS... the manager makes the choice once per cursor
+        String tableRecord = findSource(content, "/IndividualBaseRecord.kt");
+        assertTrue(tableRecord.contains("fun setContentAllColumns(cursor: Cursor)"));
+        assertTrue(tableRecord.contains("check(cursor.columnCount == IndividualConst.ALL_COLUMNS.size)"));
+        assertTrue(tableRecord.contains("id = cursor.getLong(0)"));
+        assertFalse(tableRecord.contains("allColumns"));
+
+        String tableManager = findSource(content, "/IndividualBaseManager.kt");
+        assertTrue(tableManager.contains("if (cursor.columnNames.contentEquals(IndividualConst.ALL_COLUMNS)) {"));
+        assertTrue(tableManager.contains("record.setContentAllColumns(cursor)"));
+
+        // the column order of views is not known
+        String viewRecord = findSource(content, "/IndividualViewBaseRecord.kt");
+        assertFalse(viewRecord.contains("setContentAllColumns"));
+    }
+
+    @Test
+    public void testBulkGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // single transaction by default... chunked commits only if the caller asks for them
+        String tableManager = findSource(content, "/IndividualBaseManager.kt");
+        assertTrue(tableManager.contains("fun insertAll(records: Collection<Individual>, chunkSize: Int = Int.MAX_VALUE) {"));
+        assertTrue(tableManager.contains("fun updateAll(records: Collection<Individual>, chunkSize: Int = Int.MAX_VALUE) {"));
+        assertTrue(tableManager.contains("fun saveAll(records: Collection<Individual>, chunkSize: Int = Int.MAX_VALUE) {"));
+        assertFalse(tableManager.contains("BULK_CHUNK_SIZE"));
+
+        // partial commits and the bypassed insert(...) / update(...) are documented
+        assertTrue(tableManager.contains("     * Insert all records in a single transaction (if any record fails, none of the records are written).\n"));
+        assertTrue(tableManager.contains("     * Partial commit: if a chunkSize is given, a transaction is committed every chunkSize records."));
+        assertTrue(tableManager.contains("insert(...) and update(...) of this manager\n     * are bypassed"));
+
+        // every placeholder of the statements is bound (once)
+        String tableConst = findSource(content, "/IndividualConst.kt");
+        String tableRecord = findSource(content, "/IndividualBaseRecord.kt");
+        assertBindsMatchPlaceholders(tableConst, "INSERT_STATEMENT", tableRecord, "fun bindInsertStatement(statement: StatementWrapper) {");
+        assertBindsMatchPlaceholders(tableConst, "UPDATE_STATEMENT", tableRecord, "fun bindUpdateStatement(statement: StatementWrapper) {");
+
+        // views are read only
+        String viewManager = findSource(content, "/IndividualViewBaseManager.kt");
+        assertFalse(viewManager.contains("insertAll"));
+    }
+
+    @Test
+    public void testUpsertGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // conflict target is the primary key (no upsertKey unique declaration)
+        String tableConst = findSource(content, "/IndividualConst.kt");
+        assertEquals(Arrays.asList("_id"), getConflictColumns(tableConst));
+        String tableRecord = findSource(content, "/IndividualBaseRecord.kt");
+        assertBindsMatchPlaceholders(tableConst, "UPSERT_STATEMENT", tableRecord, "fun bindUpsertStatement(statement: StatementWrapper) {");
+
+        String tableManager = findSource(content, "/IndividualBaseManager.kt");
+        assertTrue(tableManager.contains("fun upsertAll(records: Collection<Individual>, chunkSize: Int = Int.MAX_VALUE) {"));
+        assertTrue(tableManager.contains("fun upsert(record: Individual) {"));
+        assertTrue(tableManager.contains("     * Requires SQLite 3.24+ (Android API 30+).  The primary key of each record is set to the id of the inserted or updated row.\n"));
+        assertFalse(tableManager.contains("FIND_ID_BY_UPSERT_KEY_STATEMENT"));
+
+        // views are read only
+        String viewManager = findSource(content, "/IndividualViewBaseManager.kt");
+        assertFalse(viewManager.contains("upsert"));
+    }
+
+    @Test
+    public void testUpsertDisabledByDefault() {
+        Map<String, byte[]> content = buildReproducible(schemaFilename, false);
+
+        // UPSERT needs SQLite 3.24+ (Android API 30+) so it is only generated when upsertSupport is enabled
+        assertFalse(findSource(content, "/IndividualConst.kt").contains("UPSERT_STATEMENT"));
+        assertFalse(findSource(content, "/HouseholdConst.kt").contains("UPSERT_STATEMENT"));
+        assertFalse(findSource(content, "/IndividualBaseRecord.kt").contains("bindUpsertStatement"));
+        assertFalse(findSource(content, "/IndividualBaseManager.kt").contains("upsert"));
+        assertFalse(findSource(content, "/HouseholdBaseManager.kt").contains("upsert"));
+    }
+
+    @Test
+    public void testUpsertKeyGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // conflict target is the upsertKey unique declaration
+        SchemaTable table = SchemaXmlStreamParser.parse(new File(schemaFilename)).getDatabases().get(0).getTable("HOUSEHOLD");
+        List<String> upsertKeyColumns = new ArrayList<>();
+        for (SchemaUniqueField uniqueField : table.getUpsertKeyDeclaration().getUniqueFields()) {
+            upsertKeyColumns.add(uniqueField.getName());
+        }
+        String tableConst = findSource(content, "/HouseholdConst.kt");
+        assertEquals(upsertKeyColumns, getConflictColumns(tableConst));
+
+        // the id of an updated row is found by the upsertKey columns
+        assertTrue(tableConst.contains("const val FIND_ID_BY_UPSERT_KEY_STATEMENT = \"SELECT _id FROM HOUSEHOLD WHERE NAME = ?\""));
+        String tableRecord = findSource(content, "/HouseholdBaseRecord.kt");
+        assertBindsMatchPlaceholders(tableConst, "UPSERT_STATEMENT", tableRecord, "fun bindUpsertStatement(statement: StatementWrapper) {");
+        assertBindsMatchPlaceholders(tableConst, "FIND_ID_BY_UPSERT_KEY_STATEMENT", tableRecord, "fun bindUpsertKeyStatement(statement: StatementWrapper) {");
+
+        String tableManager = findSource(content, "/HouseholdBaseManager.kt");
+        assertTrue(tableManager.contains("val findIdStatement = database.compileStatement(HouseholdConst.FIND_ID_BY_UPSERT_KEY_STATEMENT)"));
+        assertTrue(tableManager.contains("record.setPrimaryKeyId(findIdStatement.simpleQueryForLong())"));
+        assertTrue(tableManager.contains("findIdStatement.close()"));
+        assertTrue(tableManager.contains("     * Requires SQLite 3.24+ (Android API 30+)."));
+    }
+
+    @Test
+    public void testUpsertKeyNotNull() {
+        // NULL values never conflict
+        SchemaTable table = new SchemaTable("HOUSEHOLD");
+        SchemaTableField idField = new SchemaTableField("_id", SchemaFieldType.BIGINT);
+        idField.setPrimaryKey(true);
+        idField.setIncrement(true);
+        SchemaTableField nameField = new SchemaTableField("NAME", SchemaFieldType.VARCHAR);
+        table.setFields(Arrays.asList(idField, nameField));
+        SchemaUniqueField uniqueField = new SchemaUniqueField();
+        uniqueField.setName("NAME");
+        SchemaTableUnique unique = new SchemaTableUnique();
+        unique.setUniqueFields(Arrays.asList(uniqueField));
+        unique.setUpsertKey(true);
+        table.setUniqueDeclarations(Arrays.asList(unique));
+
+        try {
+            new KotlinAndroidBaseRecordRenderer(new GenConfig()).generate(new SchemaDatabase("main"), table, basePackageName, DatabaseMappingRegistry.getDatabaseMapping("sqlite"));
+            fail("nullable upsertKey field");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("upsertKey field [NAME] of table [HOUSEHOLD] must be notNull"));
+        }
+    }
+
+    @Test
+    public void testDirtyFieldsGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // the primary key is not tracked (it is the where clause)
+        String tableConst = findSource(content, "/IndividualConst.kt");
+        assertTrue(tableConst.contains("DIRTY_INDIVIDUAL_TYPE: Int = 0"));
+        assertFalse(tableConst.contains("DIRTY_ID:"));
+        assertDirtyBitsMatchColumns(tableConst);
+
+        // copies and records written by the manager are not dirty
+        String tableRecord = findSource(content, "/IndividualBaseRecord.kt");
+        assertTrue(tableRecord.contains("copy.clearDirtyFields()\n        return copy"));
+        assertTrue(tableRecord.contains("clearDirtyFields() must be called after the record is written by them."));
+
+        String tableManager = findSource(content, "/IndividualBaseManager.kt");
+        assertTrue(tableManager.contains("fun updateDirty(record: Individual) : Int {"));
+        assertTrue(tableManager.contains("record.setPrimaryKeyId(insertStatement.executeInsert())\n                record.clearDirtyFields()"));
+        assertTrue(tableManager.contains("updateStatement.executeUpdateDelete()\n                record.clearDirtyFields()"));
+        assertTrue(tableManager.contains("                }\n                record.clearDirtyFields()")); // saveAll / upsertAll
+
+        // views are read only
+        String viewRecord = findSource(content, "/IndividualViewBaseRecord.kt");
+        assertFalse(viewRecord.contains("dirtyFields"));
+    }
+
+    @Test
+    public void testProjectionGen() {
+        Map<String, byte[]> content = buildReproducible();
+
+        // projection columns are read by ordinal (in the order of COLUMNS)
+        String projection = findSource(content, "/IndividualSummary.kt");
+        assertTrue(projection.contains("class IndividualSummary"));
+        assertTrue(projection.contains("IndividualConst.C_ID,\n        IndividualConst.C_NAME,\n        IndividualConst.C_EMAIL)"));
+        assertTrue(projection.contains("cursor.getString(2)"));
+        assertFalse(projection.contains("phone"));
+
+        String tableManager = findSource(content, "/IndividualBaseManager.kt");
+        assertTrue(tableManager.contains("query(getTableName(), IndividualSummary.COLUMNS, selection, selectionArgs, null, null, orderBy)"));
+        assertTrue(tableManager.contains("fun findAllSummaryBySelection("));
+        assertTrue(tableManager.contains("fun findAllSummary()"));
+        assertTrue(tableManager.contains("fun findSummaryByRowId(rowId: Long)"));
+    }
+
+    @Test
+    public void testDirtyFieldsWideTable() throws IOException {
+        Map<String, byte[]> content = buildReproducible(writeWideSchema());
+
+        // more than 64 columns are tracked (one bit per column)
+        String tableConst = findSource(content, "/WideConst.kt");
+        assertTrue(tableConst.contains("DIRTY_C69: Int = 70"));
+        assertEquals(71, getDirtyColumns(tableConst).size());
+        assertDirtyBitsMatchColumns(tableConst);
+
+        String tableRecord = findSource(content, "/WideBaseRecord.kt");
+        assertTrue(tableRecord.contains("dirtyFields.set(WideConst.DIRTY_C69)"));
+        assertTrue(tableRecord.contains("if (dirtyFields.get(WideConst.DIRTY_C69)) {"));
+
+        String tableManager = findSource(content, "/WideBaseManager.kt");
+        assertTrue(tableManager.contains("fun updateDirty(record: Wide) : Int {"));
+    }
+
+    @Test
+    public void testDirtyColumnsMatchJava() throws IOException {
+        String wideSchemaFilename = writeWideSchema();
+        Map<String, byte[]> kotlinContent = buildReproducible(wideSchemaFilename);
+
+        InMemoryOutputSink javaOutputSink = new InMemoryOutputSink();
+        GenConfig javaGenConfig = new GenConfig();
+        javaGenConfig.setDateType(DateType.JSR_310);
+        javaGenConfig.setReproducible(true);
+        javaGenConfig.setOutputSink(javaOutputSink);
+        new AndroidObjectsBuilder(javaGenConfig).buildAll(wideSchemaFilename, baseOutputDir, basePackageName);
+        Map<String, byte[]> javaContent = javaOutputSink.getFiles();
+
+        // same DIRTY_* indexes and partial UPDATE columns for both targets (including the MANYTOONE field)
+        List<String> kotlinDirtyColumns = getDirtyColumns(findSource(kotlinContent, "/WideConst.kt"));
+        assertEquals("PARENT_ID", kotlinDirtyColumns.get(0));
+        assertEquals(getDirtyColumns(findSource(javaContent, "/WideConst.java")), kotlinDirtyColumns);
+        assertEquals(getDirtyColumns(findSource(javaContent, "/IndividualConst.java")), getDirtyColumns(findSource(buildReproducible(), "/IndividualConst.kt")));
+    }
+
+    /**
+     * Index n of DIRTY_X must be the column C_X at index n of DIRTY_COLUMNS
+     */
+    private void assertDirtyBitsMatchColumns(String constSource) {
+        List<String> dirtyColumns = getDirtyColumns(constSource);
+        int bitCount = 0;
+        Matcher bitMatcher = Pattern.compile("DIRTY_(\\w+)(?:: Int)? = (\\d+)").matcher(constSource);
+        while (bitMatcher.find()) {
+            assertEquals("DIRTY_" + bitMatcher.group(1), bitMatcher.group(1), dirtyColumns.get(Integer.parseInt(bitMatcher.group(2))));
+            bitCount++;
+        }
+        assertTrue(bitCount > 0);
+        assertEquals(dirtyColumns.size(), bitCount);
+    }
+
+    /**
+     * Columns (C_X constants without C_) of DIRTY_COLUMNS in DIRTY_* index order
+     */
+    private List<String> getDirtyColumns(String constSource) {
+        int columnsStart = constSource.indexOf("DIRTY_COLUMNS = ");
+        assertTrue("Missing DIRTY_COLUMNS", columnsStart != -1);
+        String columnsSource = constSource.substring(columnsStart, constSource.indexOf(")", columnsStart));
+        List<String> dirtyColumns = new ArrayList<>();
+        Matcher columnMatcher = Pattern.compile("C_(\\w+)").matcher(columnsSource);
+        while (columnMatcher.find()) {
+            dirtyColumns.add(columnMatcher.group(1));
+        }
+        return dirtyColumns;
+    }
+
+    /**
+     * Columns of ON CONFLICT(...) of the UPSERT_STATEMENT
+     */
+    private List<String> getConflictColumns(String constSource) {
+        Matcher matcher = Pattern.compile("UPSERT_STATEMENT = \"[^\"]* ON CONFLICT\\(([^)]*)\\)").matcher(constSource);
+        assertTrue("Missing UPSERT_STATEMENT", matcher.find());
+        return Arrays.asList(matcher.group(1).split(","));
+    }
+
+    /**
+     * The bind fun must bind each ? of the statement constant exactly once (bind indexes 1..n)
+     */
+    private void assertBindsMatchPlaceholders(String constSource, String statementName, String recordSource, String bindFunSignature) {
+        int statementStart = constSource.indexOf(statementName + " = \"");
+        assertTrue("Missing " + statementName, statementStart != -1);
+        statementStart += statementName.length() + 4;
+        String statement = constSource.substring(statementStart, constSource.indexOf('"', statementStart));
+        int placeholders = statement.length() - statement.replace("?", "").length();
+        assertTrue(statementName, placeholders > 0);
+
+        int funStart = recordSource.indexOf(bindFunSignature);
+        assertTrue("Missing " + bindFunSignature, funStart != -1);
+        String funBody = recordSource.substring(funStart, recordSource.indexOf("\n    }\n", funStart));
+
+        Set<Integer> bindIndexes = new TreeSet<>();
+        Matcher matcher = Pattern.compile("statement\\.bind\\w+\\((\\d+)").matcher(funBody);
+        while (matcher.find()) {
+            bindIndexes.add(Integer.valueOf(matcher.group(1)));
+        }
+
+        Set<Integer> expectedIndexes = new TreeSet<>();
+        for (int i = 1; i <= placeholders; i++) {
+            expectedIndexes.add(i);
+        }
+        assertEquals(statementName, expectedIndexes, bindIndexes);
+    }
+
+    private String findSource(Map<String, byte[]> content, String pathSuffix) {
+        for (Map.Entry<String, byte[]> file : content.entrySet()) {
+            if (file.getKey().endsWith(pathSuffix)) {
+                return new String(file.getValue(), SourceUtil.SOURCE_CHARSET);
+            }
+        }
+
+        fail("Missing " + pathSuffix);
+        return null;
+    }
+
+    private Map<String, byte[]> buildReproducible() {
+        return buildReproducible(schemaFilename);
+    }
+
+    private Map<String, byte[]> buildReproducible(String schemaFilename) {
+        return buildReproducible(schemaFilename, true);
+    }
+
+    private Map<String, byte[]> buildReproducible(String schemaFilename, boolean upsertSupport) {
+        InMemoryOutputSink outputSink = new InMemoryOutputSink();
+        GenConfig genConfig = new GenConfig();
+        genConfig.setDateType(DateType.JSR_310);
+        genConfig.setReproducible(true);
+        genConfig.setUpsertSupport(upsertSupport);
+        genConfig.setOutputSink(outputSink);
+
+        KotlinAndroidObjectsBuilder objectsBuilder = new KotlinAndroidObjectsBuilder(genConfig);
+        objectsBuilder.buildAll(schemaFilename, baseOutputDir, basePackageName);
+        return outputSink.getFiles();
+    }
+
+    /**
+     * WIDE table with a MANYTOONE field and 70 other columns (more than the 64 bits of a long)
+     */
+    private String writeWideSchema() throws IOException {
+        StringBuilder xml = new StringBuilder("<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PARENT\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" increment=\"true\" primaryKey=\"true\" notNull=\"true\"/>\n" +
+                "        </table>\n" +
+                "        <table name=\"WIDE\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" increment=\"true\" primaryKey=\"true\" notNull=\"true\"/>\n" +
+                "            <field name=\"PARENT_ID\" jdbcDataType=\"BIGINT\" foreignKeyTable=\"PARENT\" foreignKeyField=\"_id\" foreignKeyType=\"MANYTOONE\"/>\n");
+        for (int i = 0; i < 70; i++) {
+            xml.append("            <field name=\"C").append(i).append("\" jdbcDataType=\"VARCHAR\" size=\"255\"/>\n");
+        }
+        xml.append("        </table>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n");
+
+        File schemaFile = tempFolder.newFile("wide-schema.xml");
+        Files.write(schemaFile.toPath(), xml.toString().getBytes(Charset.forName("UTF-8")));
+        return schemaFile.getPath();
+    }
 }
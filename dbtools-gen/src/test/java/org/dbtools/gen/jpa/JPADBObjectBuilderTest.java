@@ -1,9 +1,13 @@
 package org.dbtools.gen.jpa;
 
+import org.dbtools.codegen.java.InMemoryOutputSink;
 import org.dbtools.gen.DateType;
 import org.dbtools.gen.GenConfig;
 import org.junit.Test;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
 public class JPADBObjectBuilderTest {
     @Test
     public void testBasicGen() {
@@ -14,11 +18,18 @@ public class JPADBObjectBuilderTest {
         String baseOutputDir = userDir + "/build/test-src/src/main/java/org/mycompany/domain";
         String basePackageName = "org.mycompany.domain";
 
+        InMemoryOutputSink outputSink = new InMemoryOutputSink();
         GenConfig genConfig = new GenConfig();
         genConfig.setInjectionSupport(injectionSupport);
         genConfig.setDateType(DateType.JSR_310);
+        genConfig.setOutputSink(outputSink);
 
         JPAObjectsBuilder objectsBuilder = new JPAObjectsBuilder(genConfig);
         objectsBuilder.buildAll(schemaFilename, baseOutputDir, basePackageName);
+
+        assertFalse(outputSink.getFiles().isEmpty());
+        for (String filename : objectsBuilder.getFilesGenerated()) {
+            assertNotNull(filename, outputSink.getContent(filename));
+        }
     }
 }
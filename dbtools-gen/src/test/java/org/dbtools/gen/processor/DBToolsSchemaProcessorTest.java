@@ -0,0 +1,127 @@
+package org.dbtools.gen.processor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DBToolsSchemaProcessorTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testProcess() throws Exception {
+        String userDir = System.getProperty("user.dir");
+        File srcDir = tempFolder.newFolder("src");
+        File generatedDir = tempFolder.newFolder("generated");
+
+        // developer written Record (should not be generated)
+        File domainDir = new File(srcDir, "org/mycompany/domain");
+        File householdDir = new File(domainDir, "household");
+        householdDir.mkdirs();
+        write(new File(householdDir, "Household.java"), "package org.mycompany.domain.household;\n\npublic class Household {\n}\n");
+        write(new File(domainDir, "Schema.java"), "package org.mycompany.domain;\n\n"
+                + "@org.dbtools.gen.processor.DBToolsSchema(value = \"org/dbtools/xml/schema.xml\", type = \"JPA\")\n"
+                + "class Schema {\n}\n");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return; // JRE only
+        }
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            Iterable<? extends JavaFileObject> sources = fileManager.getJavaFileObjects(new File(domainDir, "Schema.java"), new File(householdDir, "Household.java"));
+            List<String> options = Arrays.asList("-proc:only",
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-s", generatedDir.getPath(),
+                    "-A" + DBToolsSchemaProcessor.OPTION_SCHEMA_DIR + "=" + userDir + "/src/test/resources");
+
+            // the generated sources do not compile here (no javax.persistence)... only check the processor errors
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+            DBToolsSchemaProcessor processor = new DBToolsSchemaProcessor();
+            task.setProcessors(Collections.singletonList(processor));
+            task.call();
+
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                assertFalse(diagnostic.getMessage(null), diagnostic.getMessage(null).contains("Failed to generate"));
+            }
+
+            // all files written through the Filer
+            assertTrue(processor.getSupportedOptions().contains(DBToolsSchemaProcessor.OPTION_GRADLE_AGGREGATING));
+        }
+
+        File generatedDomainDir = new File(generatedDir, "org/mycompany/domain");
+        assertTrue(new File(generatedDomainDir, "individual/IndividualBaseRecord.java").exists());
+        assertTrue(new File(generatedDomainDir, "individual/Individual.java").exists());
+        assertTrue(new File(generatedDomainDir, "household/HouseholdBaseRecord.java").exists());
+        assertFalse(new File(generatedDomainDir, "household/Household.java").exists());
+    }
+
+    @Test
+    public void testProcessKotlin() throws Exception {
+        String userDir = System.getProperty("user.dir");
+        File srcDir = tempFolder.newFolder("src");
+        File generatedDir = tempFolder.newFolder("generated");
+        File kotlinGeneratedDir = tempFolder.newFolder("kotlinGenerated");
+        File schemaDir = tempFolder.newFolder("database");
+        Files.copy(new File(userDir + "/src/test/resources/org/dbtools/xml/schema.xml").toPath(), new File(schemaDir, "schema.xml").toPath());
+
+        File domainDir = new File(srcDir, "org/mycompany/domain");
+        domainDir.mkdirs();
+        write(new File(domainDir, "Schema.java"), "package org.mycompany.domain;\n\n"
+                + "@org.dbtools.gen.processor.DBToolsSchema(value = \"schema.xml\", type = \"ANDROID-KOTLIN\")\n"
+                + "class Schema {\n}\n");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return; // JRE only
+        }
+
+        DBToolsSchemaProcessor processor = new DBToolsSchemaProcessor();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            Iterable<? extends JavaFileObject> sources = fileManager.getJavaFileObjects(new File(domainDir, "Schema.java"));
+            List<String> options = Arrays.asList("-proc:only",
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-s", generatedDir.getPath(),
+                    "-A" + DBToolsSchemaProcessor.OPTION_SCHEMA_DIR + "=" + schemaDir.getPath(),
+                    "-A" + DBToolsSchemaProcessor.OPTION_KAPT_KOTLIN_GENERATED + "=" + kotlinGeneratedDir.getPath());
+
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+            task.setProcessors(Collections.singletonList(processor));
+            task.call();
+
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                assertFalse(diagnostic.getMessage(null), diagnostic.getMessage(null).contains("Failed to generate"));
+            }
+        }
+
+        assertTrue(new File(kotlinGeneratedDir, "org/mycompany/domain/individual/IndividualBaseRecord.kt").exists());
+
+        // Kotlin files are not written through the Filer... Gradle cannot track them
+        assertFalse(processor.getSupportedOptions().contains(DBToolsSchemaProcessor.OPTION_GRADLE_AGGREGATING));
+
+        // nothing written next to the schema during compilation
+        assertFalse(new File(schemaDir, "dbschema.xsd").exists());
+    }
+
+    private void write(File file, String content) throws Exception {
+        Files.write(file.toPath(), content.getBytes(Charset.forName("UTF-8")));
+    }
+}
@@ -0,0 +1,96 @@
+package org.dbtools.schema;
+
+import org.dbtools.schema.schemafile.SchemaFieldType;
+import org.dbtools.schema.schemafile.SchemaTable;
+import org.dbtools.schema.schemafile.SchemaTableField;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TableDependencyGraphTest {
+
+    @Test
+    public void testCreateOrder() {
+        // same order as passing over the tables in schema order
+        TableDependencyGraph graph = new TableDependencyGraph(Arrays.asList(
+                createTable("ADDRESS", "PERSON"),
+                createTable("PERSON", "HOUSEHOLD", "PERSON"),
+                createTable("HOUSEHOLD"),
+                createTable("TYPE")));
+
+        assertEquals(Arrays.asList("HOUSEHOLD", "TYPE", "PERSON", "ADDRESS"), getNames(graph.getCreateOrder()));
+        assertEquals(Arrays.asList("ADDRESS", "PERSON", "TYPE", "HOUSEHOLD"), getNames(graph.getDropOrder()));
+        assertFalse(graph.hasCycle());
+    }
+
+    @Test
+    public void testLaterTableInSamePass() {
+        TableDependencyGraph graph = new TableDependencyGraph(Arrays.asList(
+                createTable("CHILD", "PARENT"),
+                createTable("PARENT"),
+                createTable("OTHER")));
+
+        assertEquals(Arrays.asList("PARENT", "OTHER", "CHILD"), getNames(graph.getCreateOrder()));
+    }
+
+    @Test
+    public void testDependencies() {
+        SchemaTable household = createTable("HOUSEHOLD");
+        SchemaTable person = createTable("PERSON", "HOUSEHOLD");
+        TableDependencyGraph graph = new TableDependencyGraph(Arrays.asList(person, household));
+
+        assertEquals(Arrays.asList("HOUSEHOLD"), getNames(graph.getDependencies(person)));
+        assertEquals(Arrays.asList("PERSON"), getNames(graph.getDependents(household)));
+        assertTrue(graph.getDependencies(household).isEmpty());
+    }
+
+    @Test
+    public void testCycle() {
+        TableDependencyGraph graph = new TableDependencyGraph(Arrays.asList(
+                createTable("A", "B"),
+                createTable("B", "C"),
+                createTable("C", "B"),
+                createTable("D")));
+
+        assertTrue(graph.hasCycle());
+        assertEquals(Arrays.asList("B", "C", "B"), graph.getCyclePath());
+
+        // tables that could not be ordered are added at the end
+        assertEquals(Arrays.asList("D", "A", "B", "C"), getNames(graph.getCreateOrder()));
+    }
+
+    @Test
+    public void testUnresolvedReference() {
+        TableDependencyGraph graph = new TableDependencyGraph(Arrays.asList(
+                createTable("PERSON", "HOUSEHOLD"),
+                createTable("TYPE")));
+
+        assertEquals(Arrays.asList("PERSON.HOUSEHOLD_ID -> HOUSEHOLD"), graph.getUnresolvedReferences());
+        assertEquals(Arrays.asList("PERSON", "TYPE"), getNames(graph.getCreateOrder()));
+    }
+
+    private SchemaTable createTable(String name, String... fkTables) {
+        SchemaTable table = new SchemaTable(name);
+        table.getFields().add(new SchemaTableField("_id", SchemaFieldType.BIGINT));
+        for (String fkTable : fkTables) {
+            SchemaTableField field = new SchemaTableField(fkTable + "_ID", SchemaFieldType.BIGINT);
+            field.setForeignKeyTable(fkTable);
+            table.getFields().add(field);
+        }
+        return table;
+    }
+
+    private List<String> getNames(List<SchemaTable> tables) {
+        List<String> names = new ArrayList<>();
+        for (SchemaTable table : tables) {
+            names.add(table.getName());
+        }
+        return names;
+    }
+}
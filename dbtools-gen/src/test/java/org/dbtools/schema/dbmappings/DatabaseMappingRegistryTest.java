@@ -0,0 +1,59 @@
+package org.dbtools.schema.dbmappings;
+
+import org.dbtools.schema.schemafile.SchemaFieldType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class DatabaseMappingRegistryTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testSqliteMapping() {
+        DatabaseMapping databaseMapping = DatabaseMappingRegistry.getDatabaseMapping("sqlite");
+        assertEquals("TEXT", databaseMapping.getSqlType(SchemaFieldType.VARCHAR));
+        assertEquals("INTEGER", databaseMapping.getSqlType(SchemaFieldType.BIGINT));
+
+        // read once and shared
+        assertSame(databaseMapping, DatabaseMappingRegistry.getDatabaseMapping("SQLITE"));
+    }
+
+    @Test
+    public void testUnknownVendor() {
+        assertNull(DatabaseMappingRegistry.getDatabaseMapping("unknown"));
+    }
+
+    @Test
+    public void testModifiedMappingFileReread() throws Exception {
+        File mappingFile = tempFolder.newFile("custommappings.xml");
+        writeMappings(mappingFile, "TEXT");
+        assertEquals("TEXT", DatabaseMappingRegistry.getDatabaseMapping(mappingFile.getPath(), "sqlite").getSqlType(SchemaFieldType.VARCHAR));
+
+        writeMappings(mappingFile, "CLOB");
+        mappingFile.setLastModified(mappingFile.lastModified() + 10000);
+        assertEquals("CLOB", DatabaseMappingRegistry.getDatabaseMapping(mappingFile.getPath(), "sqlite").getSqlType(SchemaFieldType.VARCHAR));
+    }
+
+    private void writeMappings(File mappingFile, String varcharSqlType) throws Exception {
+        String xml = "<dbmappings>\n" +
+                "    <type-mapping>\n" +
+                "        <name>sqlite</name>\n" +
+                "        <mapping>\n" +
+                "            <java-type>java.lang.String</java-type>\n" +
+                "            <jdbc-type>VARCHAR</jdbc-type>\n" +
+                "            <sql-type>" + varcharSqlType + "</sql-type>\n" +
+                "        </mapping>\n" +
+                "    </type-mapping>\n" +
+                "</dbmappings>\n";
+        Files.write(mappingFile.toPath(), xml.getBytes(Charset.forName("UTF-8")));
+    }
+}
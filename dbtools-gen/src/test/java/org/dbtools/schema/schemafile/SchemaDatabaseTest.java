@@ -0,0 +1,74 @@
+package org.dbtools.schema.schemafile;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaDatabaseTest {
+
+    @Test
+    public void testResolvedLookups() {
+        SchemaDatabase database = readDatabase();
+        database.resolve();
+        assertTrue(database.isResolved());
+
+        assertSame(database.getTables().get(1), database.getTable("individual"));
+        assertSame(database.getViews().get(0), database.getView("Individual_View"));
+        assertSame(database.getQueries().get(0), database.getQuery("INDIVIDUAL_QUERY"));
+        assertNull(database.getTable("MISSING"));
+        assertNull(database.getTable(null));
+
+        assertEquals(Arrays.asList(database.getTable("INDIVIDUAL")), database.getReferencingTables("individual_type"));
+        assertEquals(Collections.<SchemaTable>emptyList(), database.getReferencingTables("HOUSEHOLD"));
+
+        assertEquals("IndividualType", database.getTableClassInfo("INDIVIDUAL_TYPE").getClassName());
+        assertSame(database.getTableClassInfo("INDIVIDUAL_TYPE"), database.getTableClassInfo("INDIVIDUAL_TYPE"));
+
+        SchemaField field = database.getTable("INDIVIDUAL").getFields().get(4);
+        assertEquals("defaultDevice", field.getName(true));
+        assertEquals("DEFAULT_DEVICE", field.getConstantName());
+    }
+
+    @Test
+    public void testDatabaseDefaults() {
+        SchemaDatabase database = readDatabase();
+        database.setFieldsDefaultNotNull(true);
+        database.setReadOnly(true);
+        assertFalse(database.isResolved());
+
+        database.resolve();
+        for (SchemaTable table : database.getTables()) {
+            assertTrue(table.isReadonly());
+            for (SchemaTableField field : table.getFields()) {
+                assertTrue(field.isNotNull());
+            }
+        }
+        for (SchemaField field : database.getViews().get(0).getFields()) {
+            assertTrue(field.isNotNull());
+        }
+    }
+
+    @Test
+    public void testSetTablesRequiresResolve() {
+        SchemaDatabase database = readDatabase();
+        database.resolve();
+
+        database.setTables(Arrays.asList(new SchemaTable("OTHER")));
+        assertFalse(database.isResolved());
+        assertNull(database.getTable("INDIVIDUAL"));
+        assertEquals("OTHER", database.getTable("other").getName());
+    }
+
+    private SchemaDatabase readDatabase() {
+        File xmlFile = new File(System.getProperty("user.dir") + "/src/test/resources/org/dbtools/xml/schema.xml");
+        return SchemaXmlStreamParser.parse(xmlFile).getDatabases().get(0);
+    }
+}
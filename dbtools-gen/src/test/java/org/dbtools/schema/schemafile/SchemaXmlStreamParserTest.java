@@ -0,0 +1,315 @@
+package org.dbtools.schema.schemafile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SchemaXmlStreamParserTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testParityTestSchema() {
+        assertParity(new File(System.getProperty("user.dir") + "/src/test/resources/org/dbtools/xml/schema.xml"));
+    }
+
+    @Test
+    public void testParityBundledSchema() {
+        assertParity(new File(System.getProperty("user.dir") + "/src/main/resources/org/dbtools/xml/schema.xml"));
+    }
+
+    @Test
+    public void testReadDatabaseNames() throws Exception {
+        File xmlFile = writeSchema("<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PERSON\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" primaryKey=\"true\"/>\n" +
+                "        </table>\n" +
+                "    </database>\n" +
+                "    <database name=\"other.db\">\n" +
+                "        <table name=\"PLACE\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" primaryKey=\"true\"/>\n" +
+                "        </table>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n");
+
+        assertEquals(Arrays.asList("main", "other.db"), SchemaXmlStreamParser.readDatabaseNames(xmlFile));
+    }
+
+    @Test
+    public void testUnknownAttribute() throws Exception {
+        File xmlFile = writeSchema("<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PERSON\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" primaryKey=\"true\" bogus=\"true\"/>\n" +
+                "        </table>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n");
+
+        assertError(xmlFile, ":4:", "bogus");
+    }
+
+    @Test
+    public void testInvalidType() throws Exception {
+        File xmlFile = writeSchema("<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PERSON\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" primaryKey=\"true\"/>\n" +
+                "            <field name=\"NAME\" jdbcDataType=\"STRING\"/>\n" +
+                "        </table>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n");
+
+        assertError(xmlFile, ":5:", "STRING");
+    }
+
+    @Test
+    public void testTableValidation() throws Exception {
+        File xmlFile = writeSchema("<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PERSON\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" primaryKey=\"true\"/>\n" +
+                "            <field name=\"_id2\" jdbcDataType=\"BIGINT\" primaryKey=\"true\"/>\n" +
+                "        </table>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n");
+
+        assertError(xmlFile, ":3:", "Cannot have 2 primary key fields");
+    }
+
+    @Test
+    public void testUpsertKeyValidation() throws Exception {
+        File xmlFile = writeSchema("<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PERSON\">\n" +
+                "            <unique upsertKey=\"true\"><uniqueField name=\"NAME\"/></unique>\n" +
+                "            <unique upsertKey=\"true\"><uniqueField name=\"EMAIL\"/></unique>\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" primaryKey=\"true\"/>\n" +
+                "            <field name=\"NAME\" jdbcDataType=\"VARCHAR\"/>\n" +
+                "            <field name=\"EMAIL\" jdbcDataType=\"VARCHAR\"/>\n" +
+                "        </table>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n");
+
+        assertError(xmlFile, ":3:", "Cannot have 2 upsertKey");
+    }
+
+    @Test
+    public void testProjectionValidation() throws Exception {
+        File xmlFile = writeSchema("<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PERSON\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" primaryKey=\"true\"/>\n" +
+                "            <field name=\"NAME\" jdbcDataType=\"VARCHAR\"/>\n" +
+                "            <projection name=\"Summary\" fields=\"_id,NAME,EMAIL\"/>\n" +
+                "        </table>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n");
+
+        assertError(xmlFile, ":3:", "EMAIL");
+    }
+
+    @Test
+    public void testReservedProjectionName() throws Exception {
+        File xmlFile = writeSchema("<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PERSON\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" primaryKey=\"true\"/>\n" +
+                "            <field name=\"NAME\" jdbcDataType=\"VARCHAR\"/>\n" +
+                "            <projection name=\"Manager\" fields=\"_id,NAME\"/>\n" +
+                "        </table>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n");
+
+        assertError(xmlFile, ":3:", "Projection name [Manager] of table [PERSON] is reserved");
+    }
+
+    @Test
+    public void testInvalidProjectionName() throws Exception {
+        File xmlFile = writeSchema("<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PERSON\">\n" +
+                "            <field name=\"_id\" jdbcDataType=\"BIGINT\" primaryKey=\"true\"/>\n" +
+                "            <field name=\"NAME\" jdbcDataType=\"VARCHAR\"/>\n" +
+                "            <projection name=\"Name Only\" fields=\"_id,NAME\"/>\n" +
+                "        </table>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n");
+
+        assertError(xmlFile, ":3:", "Projection name [Name Only] of table [PERSON] must start with a letter");
+    }
+
+    @Test
+    public void testMissingFields() throws Exception {
+        File xmlFile = writeSchema("<dbSchema>\n" +
+                "    <database name=\"main\">\n" +
+                "        <table name=\"PERSON\"/>\n" +
+                "    </database>\n" +
+                "</dbSchema>\n");
+
+        assertError(xmlFile, ":3:", "<field>");
+    }
+
+    private File writeSchema(String xml) throws Exception {
+        File xmlFile = tempFolder.newFile("schema.xml");
+        Files.write(xmlFile.toPath(), xml.getBytes(Charset.forName("UTF-8")));
+        return xmlFile;
+    }
+
+    private void assertError(File xmlFile, String expectedLocation, String expectedText) {
+        try {
+            SchemaXmlStreamParser.parse(xmlFile);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(expectedLocation));
+            assertTrue(e.getMessage(), e.getMessage().contains(expectedText));
+        }
+    }
+
+    private void assertParity(File xmlFile) {
+        DatabaseSchema simpleSchema = DatabaseSchema.readXMLSchemaSimple(xmlFile.getPath());
+        DatabaseSchema streamSchema = SchemaXmlStreamParser.parse(xmlFile);
+
+        assertEquals(simpleSchema.getSchemaLocation(), streamSchema.getSchemaLocation());
+        assertEquals(simpleSchema.getDatabases().size(), streamSchema.getDatabases().size());
+        for (int i = 0; i < simpleSchema.getDatabases().size(); i++) {
+            assertDatabase(simpleSchema.getDatabases().get(i), streamSchema.getDatabases().get(i));
+        }
+    }
+
+    private void assertDatabase(SchemaDatabase expected, SchemaDatabase actual) {
+        assertEquals(expected.getName(false), actual.getName(false));
+        assertEquals(expected.isFieldsDefaultNotNull(), actual.isFieldsDefaultNotNull());
+        assertEquals(expected.isReadOnly(), actual.isReadOnly());
+
+        assertEquals(expected.getTables().size(), actual.getTables().size());
+        for (int i = 0; i < expected.getTables().size(); i++) {
+            assertTable(expected.getTables().get(i), actual.getTables().get(i));
+        }
+
+        assertEquals(expected.getViews().size(), actual.getViews().size());
+        for (int i = 0; i < expected.getViews().size(); i++) {
+            SchemaView expectedView = expected.getViews().get(i);
+            SchemaView actualView = actual.getViews().get(i);
+            assertEntity(expectedView, actualView);
+            assertEquals(expectedView.isFieldsDefaultNotNull(), actualView.isFieldsDefaultNotNull());
+        }
+
+        assertEquals(expected.getQueries().size(), actual.getQueries().size());
+        for (int i = 0; i < expected.getQueries().size(); i++) {
+            SchemaQuery expectedQuery = expected.getQueries().get(i);
+            SchemaQuery actualQuery = actual.getQueries().get(i);
+            assertEntity(expectedQuery, actualQuery);
+            assertEquals(expectedQuery.isFieldsDefaultNotNull(), actualQuery.isFieldsDefaultNotNull());
+        }
+
+        if (expected.getPostSQLScriptFiles() == null) {
+            assertNull(actual.getPostSQLScriptFiles());
+        } else {
+            assertEquals(expected.getPostSQLScriptFiles().size(), actual.getPostSQLScriptFiles().size());
+            for (int i = 0; i < expected.getPostSQLScriptFiles().size(); i++) {
+                assertEquals(expected.getPostSQLScriptFiles().get(i).isRelativePath(), actual.getPostSQLScriptFiles().get(i).isRelativePath());
+                assertEquals(expected.getPostSQLScriptFiles().get(i).getPathname(), actual.getPostSQLScriptFiles().get(i).getPathname());
+            }
+        }
+    }
+
+    private void assertTable(SchemaTable expected, SchemaTable actual) {
+        assertEntity(expected, actual);
+        assertEquals(expected.getEnumerations(), actual.getEnumerations());
+        assertEquals(expected.isFieldsDefaultNotNull(), actual.isFieldsDefaultNotNull());
+
+        assertEquals(expected.getIndexDeclarations().size(), actual.getIndexDeclarations().size());
+        for (int i = 0; i < expected.getIndexDeclarations().size(); i++) {
+            List<SchemaIndexField> expectedFields = expected.getIndexDeclarations().get(i).getIndexFields();
+            List<SchemaIndexField> actualFields = actual.getIndexDeclarations().get(i).getIndexFields();
+            assertEquals(expectedFields.size(), actualFields.size());
+            for (int j = 0; j < expectedFields.size(); j++) {
+                assertEquals(expectedFields.get(j).getName(), actualFields.get(j).getName());
+            }
+        }
+
+        assertEquals(expected.getProjections().size(), actual.getProjections().size());
+        for (int i = 0; i < expected.getProjections().size(); i++) {
+            assertEquals(expected.getProjections().get(i).getName(), actual.getProjections().get(i).getName());
+            assertEquals(expected.getProjections().get(i).getFieldNames(), actual.getProjections().get(i).getFieldNames());
+        }
+
+        assertEquals(expected.getUniqueDeclarations().size(), actual.getUniqueDeclarations().size());
+        for (int i = 0; i < expected.getUniqueDeclarations().size(); i++) {
+            SchemaTableUnique expectedUnique = expected.getUniqueDeclarations().get(i);
+            SchemaTableUnique actualUnique = actual.getUniqueDeclarations().get(i);
+            assertEquals(expectedUnique.getSqliteOnConflict(), actualUnique.getSqliteOnConflict());
+            assertEquals(expectedUnique.isUpsertKey(), actualUnique.isUpsertKey());
+            assertEquals(expectedUnique.getUniqueFields().size(), actualUnique.getUniqueFields().size());
+            for (int j = 0; j < expectedUnique.getUniqueFields().size(); j++) {
+                assertEquals(expectedUnique.getUniqueFields().get(j).getName(), actualUnique.getUniqueFields().get(j).getName());
+            }
+        }
+
+        assertEquals(expected.getTableParameters().size(), actual.getTableParameters().size());
+        for (int i = 0; i < expected.getTableParameters().size(); i++) {
+            SchemaTableParameter expectedParameter = expected.getTableParameters().get(i);
+            SchemaTableParameter actualParameter = actual.getTableParameters().get(i);
+            assertEquals(expectedParameter.getDb(), actualParameter.getDb());
+            assertEquals(expectedParameter.getName(), actualParameter.getName());
+            assertEquals(expectedParameter.getValue(), actualParameter.getValue());
+        }
+
+        for (int i = 0; i < expected.getFields().size(); i++) {
+            SchemaTableField expectedField = expected.getFields().get(i);
+            SchemaTableField actualField = actual.getFields().get(i);
+            assertEquals(expectedField.isIncrement(), actualField.isIncrement());
+            assertEquals(expectedField.isUnique(), actualField.isUnique());
+            assertEquals(expectedField.isIndex(), actualField.isIndex());
+            assertEquals(expectedField.getIncrementInitialValue(), actualField.getIncrementInitialValue());
+            assertEquals(expectedField.getSequencerName(), actualField.getSequencerName());
+            assertEquals(expectedField.getSequencerStartValue(), actualField.getSequencerStartValue());
+            assertEquals(expectedField.getForeignKeyOrderByColumn(), actualField.getForeignKeyOrderByColumn());
+            assertEquals(expectedField.getForeignKeyCascadeType(), actualField.getForeignKeyCascadeType());
+            assertEquals(expectedField.getEnumerations(), actualField.getEnumerations());
+            assertEquals(expectedField.isLastModifiedField(), actualField.isLastModifiedField());
+        }
+    }
+
+    private void assertEntity(SchemaEntity expected, SchemaEntity actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getClassName(), actual.getClassName());
+        assertEquals(expected.isReadonly(), actual.isReadonly());
+
+        assertEquals(expected.getFields().size(), actual.getFields().size());
+        for (int i = 0; i < expected.getFields().size(); i++) {
+            assertField(expected.getFields().get(i), actual.getFields().get(i));
+        }
+    }
+
+    private void assertField(SchemaField expected, SchemaField actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getJdbcDataType(), actual.getJdbcDataType());
+        assertEquals(expected.getVarName(), actual.getVarName());
+        assertEquals(expected.getSize(), actual.getSize());
+        assertEquals(expected.getDecimals(), actual.getDecimals());
+        assertEquals(expected.isNotNull(), actual.isNotNull());
+        assertEquals(expected.getDefaultValue(), actual.getDefaultValue());
+        assertEquals(expected.isPrimaryKey(), actual.isPrimaryKey());
+        assertEquals(expected.getForeignKeyTable(), actual.getForeignKeyTable());
+        assertEquals(expected.getForeignKeyField(), actual.getForeignKeyField());
+        assertEquals(expected.getForeignKeyType(), actual.getForeignKeyType());
+        assertEquals(expected.getForeignKeyFetchType(), actual.getForeignKeyFetchType());
+        assertEquals(expected.getEnumerationClass(), actual.getEnumerationClass());
+        assertEquals(expected.getEnumerationDefault(), actual.getEnumerationDefault());
+        assertEquals(expected.getSqliteCollate(), actual.getSqliteCollate());
+    }
+}
@@ -42,6 +42,11 @@ public class DBToolsExtension extends BaseDBToolsExtension {
      */
     private boolean rxJavaSupport = false;
 
+    /**
+     * Generate upsert(...) methods (INSERT ... ON CONFLICT DO UPDATE requires SQLite 3.24+ / Android API 30+)
+     */
+    private boolean upsertSupport = false;
+
     /**
      * Use jsr 305 (@Nullable, @Notnull, etc)
      */
@@ -57,6 +62,36 @@ public class DBToolsExtension extends BaseDBToolsExtension {
      */
     private boolean includeDatabaseNameInPackage = true;
 
+    /**
+     * Number of threads used to generate tables/views/queries (1 = serial)
+     */
+    private int parallelism = 1;
+
+    /**
+     * Only generate tables/views/queries that changed since the last generation
+     */
+    private boolean incremental = false;
+
+    /**
+     * Allow dbtools-genclasses outputs to be stored in/loaded from the Gradle build cache (outputSrcDir must ONLY contain generated files)
+     */
+    private boolean buildCache = false;
+
+    /**
+     * Generate identical files for identical schemas (no timestamps, sorted imports and '\n' line endings)
+     */
+    private boolean reproducible = false;
+
+    /**
+     * Time each generator phase and table/view/query (JSON report in build/reports/dbtools and a summary of the slowest tables/views/queries)
+     */
+    private boolean profile = false;
+
+    /**
+     * Number of slowest tables/views/queries printed when profile is enabled
+     */
+    private int profileTopEntities = 10;
+
     /**
      * Name of the base package that should be used for generated files.  This
      * package name is a base to the packages that will be generated
@@ -115,6 +150,14 @@ public class DBToolsExtension extends BaseDBToolsExtension {
         this.rxJavaSupport = rxJavaSupport;
     }
 
+    public boolean isUpsertSupport() {
+        return upsertSupport;
+    }
+
+    public void upsertSupport(boolean upsertSupport) {
+        this.upsertSupport = upsertSupport;
+    }
+
     public boolean isIncludeDatabaseNameInPackage() {
         return includeDatabaseNameInPackage;
     }
@@ -162,4 +205,52 @@ public class DBToolsExtension extends BaseDBToolsExtension {
     public void roomBasePackageName(String roomBasePackageName) {
         this.roomBasePackageName = roomBasePackageName;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void parallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void incremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public boolean isBuildCache() {
+        return buildCache;
+    }
+
+    public void buildCache(boolean buildCache) {
+        this.buildCache = buildCache;
+    }
+
+    public boolean isReproducible() {
+        return reproducible;
+    }
+
+    public void reproducible(boolean reproducible) {
+        this.reproducible = reproducible;
+    }
+
+    public boolean isProfile() {
+        return profile;
+    }
+
+    public void profile(boolean profile) {
+        this.profile = profile;
+    }
+
+    public int getProfileTopEntities() {
+        return profileTopEntities;
+    }
+
+    public void profileTopEntities(int profileTopEntities) {
+        this.profileTopEntities = profileTopEntities;
+    }
 }
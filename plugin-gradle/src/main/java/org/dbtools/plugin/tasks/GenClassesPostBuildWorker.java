@@ -0,0 +1,41 @@
+package org.dbtools.plugin.tasks;
+
+import org.dbtools.gen.DBObjectsBuilder;
+import org.dbtools.gen.GenConfig;
+
+import javax.inject.Inject;
+import java.io.File;
+
+/**
+ * Gradle worker that generates the files shared by all schema databases (such as the DatabaseManager)
+ */
+public class GenClassesPostBuildWorker implements Runnable {
+    private final String type;
+    private final GenConfig genConfig;
+    private final File schemaFile;
+    private final File schemaSnapshotDir;
+    private final File outputSrcDir;
+    private final String basePackageName;
+
+    @Inject
+    public GenClassesPostBuildWorker(String type, GenConfig genConfig, File schemaFile, File schemaSnapshotDir, File outputSrcDir, String basePackageName) {
+        this.type = type;
+        this.genConfig = genConfig;
+        this.schemaFile = schemaFile;
+        this.schemaSnapshotDir = schemaSnapshotDir;
+        this.outputSrcDir = outputSrcDir;
+        this.basePackageName = basePackageName;
+    }
+
+    @Override
+    public void run() {
+        DBObjectsBuilder builder = DBObjectsBuilder.createBuilder(type, genConfig);
+        builder.setXmlFilename(schemaFile.getAbsolutePath());
+        builder.setSchemaSnapshotDir(schemaSnapshotDir.getAbsolutePath());
+        builder.setOutputBaseDir(outputSrcDir.getAbsolutePath());
+        builder.setPackageBase(basePackageName);
+        builder.setGenConfig(genConfig);
+
+        builder.postBuild();
+    }
+}
@@ -1,67 +1,225 @@
 package org.dbtools.plugin.tasks;
 
-import org.dbtools.gen.DBObjectsBuilder;
 import org.dbtools.gen.DateType;
-import org.dbtools.gen.android.AndroidObjectsBuilder;
-import org.dbtools.gen.android.kotlin.KotlinAndroidObjectsBuilder;
-import org.dbtools.gen.android.kotlinroom.KotlinAndroidRoomObjectsBuilder;
-import org.dbtools.gen.jpa.JPAObjectsBuilder;
+import org.dbtools.gen.GenConfig;
 import org.dbtools.plugin.extensions.DBToolsExtension;
+import org.dbtools.schema.schemafile.SchemaXmlStreamParser;
+import org.gradle.api.Action;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerConfiguration;
+import org.gradle.workers.WorkerExecutor;
 
+import javax.inject.Inject;
+import java.io.File;
+
+/**
+ * Generates the DAO and ORM classes.  All dbtools options are declared as task inputs so that the task is UP-TO-DATE
+ * when schema.xml (and the options) did not change.  The dbmappings.xml type mappings are read from the generator jar,
+ * which is part of the task implementation (already tracked by Gradle).
+ */
+@CacheableTask
 public class GenClassesTask extends DefaultTask {
+    private final WorkerExecutor workerExecutor;
+
+    @Inject
+    public GenClassesTask(WorkerExecutor workerExecutor) {
+        this.workerExecutor = workerExecutor;
+
+        // restoring outputSrcDir from the build cache replaces the whole directory... only safe if it ONLY contains generated files
+        getOutputs().doNotCacheIf("dbtools buildCache option is not enabled", new Spec<Task>() {
+            @Override
+            public boolean isSatisfiedBy(Task task) {
+                return !getDBToolsExtension().isBuildCache();
+            }
+        });
+    }
+
     @TaskAction
     public void genclasses() {
-        DBToolsExtension dbExt = (DBToolsExtension) getProject().getExtensions().findByName("dbtools");
+        final GenConfig genConfig = createGenConfig(getDBToolsExtension());
+        if (isProfile()) {
+            genConfig.setProfileReportDir(new File(getProject().getBuildDir(), "reports/dbtools").getAbsolutePath());
+            genConfig.setProfileTopEntities(getProfileTopEntities());
+        }
+
+        System.out.println("Using Builder: [" + getType() + "]...");
 
+        String projectDirPath = getProject().getProjectDir().getAbsolutePath();
+        System.out.println("DBTOOLS-GEN working project dir [" + projectDirPath + "]");
+
+        final String type = getType();
+        final File schemaFile = getSchemaFile();
+        final File outputSrcDir = getOutputSrcDir();
+        final String basePackageName = getBasePackageName() != null ? getBasePackageName() : "";
+        final File schemaSnapshotDir = new File(getProject().getBuildDir(), "dbtools");
+
+        // generate each database in its own worker (static generator state is isolated by the worker classloader).  Only
+        // the database names are read here... the schema is parsed and resolved by the workers.
+        // NOTE: the legacy submit(Class, Action<WorkerConfiguration>) API is used to stay compatible with Gradle 4.10
+        // (WorkParameters / classLoaderIsolation() require Gradle 5.6+)
+        for (final String databaseName : SchemaXmlStreamParser.readDatabaseNames(schemaFile)) {
+            workerExecutor.submit(GenClassesWorker.class, new Action<WorkerConfiguration>() {
+                @Override
+                public void execute(WorkerConfiguration config) {
+                    config.setIsolationMode(IsolationMode.CLASSLOADER);
+                    config.setDisplayName("dbtools-genclasses [" + databaseName + "]");
+                    config.setParams(type, genConfig, schemaFile, schemaSnapshotDir, outputSrcDir, basePackageName, databaseName);
+                }
+            });
+        }
+        workerExecutor.await();
+
+        // files shared by all databases
+        workerExecutor.submit(GenClassesPostBuildWorker.class, new Action<WorkerConfiguration>() {
+            @Override
+            public void execute(WorkerConfiguration config) {
+                config.setIsolationMode(IsolationMode.CLASSLOADER);
+                config.setDisplayName("dbtools-genclasses [post build]");
+                config.setParams(type, genConfig, schemaFile, schemaSnapshotDir, outputSrcDir, basePackageName);
+            }
+        });
+        workerExecutor.await();
+    }
 
-        org.dbtools.gen.GenConfig genConfig = new org.dbtools.gen.GenConfig();
+    static GenConfig createGenConfig(DBToolsExtension dbExt) {
+        GenConfig genConfig = new GenConfig();
         genConfig.setInjectionSupport(dbExt.isInjectionSupport());
         genConfig.setJsr305Support(dbExt.isJsr305Support());
         genConfig.setIncludeDatabaseNameInPackage(dbExt.isIncludeDatabaseNameInPackage());
         genConfig.setJavaeeSupport(dbExt.isJavaEESupport());
         genConfig.setSqlQueryBuilderSupport(dbExt.isSqlQueryBuilderSupport());
         genConfig.setRxJavaSupport(dbExt.isRxJavaSupport());
+        genConfig.setUpsertSupport(dbExt.isUpsertSupport());
+        genConfig.setParallelism(dbExt.getParallelism());
+        genConfig.setIncremental(dbExt.isIncremental());
+        genConfig.setReproducible(dbExt.isReproducible());
+        genConfig.setDateType(DateType.fromOptionName(dbExt.dateType()));
 
-        switch (dbExt.dateType()) {
-            default:
-            case "JAVA-DATE":
-                genConfig.setDateType(DateType.JAVA_DATE);
-                break;
-            case "JODA":
-                genConfig.setDateType(DateType.JODA);
-                break;
-            case "JSR-310":
-                genConfig.setDateType(DateType.JSR_310);
-                break;
-        }
+        return genConfig;
+    }
 
-        DBObjectsBuilder builder;
-        System.out.println("Using Builder: [" + dbExt.getType() + "]...");
-        switch (dbExt.getType()) {
-            case "ANDROID": // deprecated
-            case "ANDROID-JAVA":
-                builder = new AndroidObjectsBuilder(genConfig);
-                break;
-            case "ANDROID-KOTLIN":
-                builder = new KotlinAndroidObjectsBuilder(genConfig);
-                break;
-            case "ANDROID-KOTLIN-ROOM":
-                builder = new KotlinAndroidRoomObjectsBuilder(genConfig);
-                break;
-            default:
-            case "JPA":
-                builder = new JPAObjectsBuilder(genConfig);
-        }
+    @Internal
+    protected DBToolsExtension getDBToolsExtension() {
+        return (DBToolsExtension) getProject().getExtensions().findByName("dbtools");
+    }
 
-        String projectDirPath = getProject().getProjectDir().getAbsolutePath();
-        System.out.println("DBTOOLS-GEN working project dir [" + projectDirPath + "]");
+    // ===================  INPUTS / OUTPUTS  ================
+    @InputFile
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public File getSchemaFile() {
+        return getProject().file(getDBToolsExtension().getSchemaFullFilename());
+    }
+
+    /**
+     * Files that live next to the schema file (dbschema.xsd, postSQLScriptFile scripts, etc)
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public FileTree getSchemaDirFiles() {
+        return getProject().fileTree(getDBToolsExtension().getSchemaDir());
+    }
+
+    @OutputDirectory
+    public File getOutputSrcDir() {
+        return getProject().file(getDBToolsExtension().getOutputSrcDir());
+    }
+
+    @Input
+    public String getType() {
+        return getDBToolsExtension().getType();
+    }
+
+    @Input
+    @Optional
+    public String getBasePackageName() {
+        return getDBToolsExtension().getBasePackageName();
+    }
+
+    @Input
+    public String getDateType() {
+        return getDBToolsExtension().dateType();
+    }
+
+    @Input
+    public boolean isInjectionSupport() {
+        return getDBToolsExtension().isInjectionSupport();
+    }
+
+    @Input
+    public boolean isJsr305Support() {
+        return getDBToolsExtension().isJsr305Support();
+    }
+
+    @Input
+    public boolean isIncludeDatabaseNameInPackage() {
+        return getDBToolsExtension().isIncludeDatabaseNameInPackage();
+    }
+
+    @Input
+    public boolean isJavaEESupport() {
+        return getDBToolsExtension().isJavaEESupport();
+    }
+
+    @Input
+    public boolean isSqlQueryBuilderSupport() {
+        return getDBToolsExtension().isSqlQueryBuilderSupport();
+    }
+
+    @Input
+    public boolean isRxJavaSupport() {
+        return getDBToolsExtension().isRxJavaSupport();
+    }
+
+    @Input
+    public boolean isUpsertSupport() {
+        return getDBToolsExtension().isUpsertSupport();
+    }
+
+    @Input
+    public boolean isReproducible() {
+        return getDBToolsExtension().isReproducible();
+    }
+
+    /**
+     * Does not change the generated files (only how they are generated)
+     */
+    @Internal
+    public int getParallelism() {
+        return getDBToolsExtension().getParallelism();
+    }
+
+    /**
+     * Does not change the generated files (only how they are generated)
+     */
+    @Internal
+    public boolean isIncremental() {
+        return getDBToolsExtension().isIncremental();
+    }
+
+    /**
+     * Does not change the generated files (only reports how long they took to generate)
+     */
+    @Internal
+    public boolean isProfile() {
+        return getDBToolsExtension().isProfile();
+    }
 
-        builder.setXmlFilename(projectDirPath + "/" + dbExt.getSchemaFullFilename());
-        builder.setOutputBaseDir(projectDirPath + "/" + dbExt.getOutputSrcDir());
-        builder.setPackageBase(dbExt.getBasePackageName());
-        builder.setGenConfig(genConfig);
-        builder.build();
+    @Internal
+    public int getProfileTopEntities() {
+        return getDBToolsExtension().getProfileTopEntities();
     }
 }
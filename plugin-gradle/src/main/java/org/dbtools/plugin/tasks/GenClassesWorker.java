@@ -0,0 +1,48 @@
+package org.dbtools.plugin.tasks;
+
+import org.dbtools.gen.DBObjectsBuilder;
+import org.dbtools.gen.GenConfig;
+
+import javax.inject.Inject;
+import java.io.File;
+
+/**
+ * Gradle worker that generates the classes for a single schema database
+ */
+public class GenClassesWorker implements Runnable {
+    private final String type;
+    private final GenConfig genConfig;
+    private final File schemaFile;
+    private final File schemaSnapshotDir;
+    private final File outputSrcDir;
+    private final String basePackageName;
+    private final String databaseName;
+
+    @Inject
+    public GenClassesWorker(String type, GenConfig genConfig, File schemaFile, File schemaSnapshotDir, File outputSrcDir, String basePackageName, String databaseName) {
+        this.type = type;
+        this.genConfig = genConfig;
+        this.schemaFile = schemaFile;
+        this.schemaSnapshotDir = schemaSnapshotDir;
+        this.outputSrcDir = outputSrcDir;
+        this.basePackageName = basePackageName;
+        this.databaseName = databaseName;
+    }
+
+    @Override
+    public void run() {
+        DBObjectsBuilder builder = DBObjectsBuilder.createBuilder(type, genConfig);
+        builder.setXmlFilename(schemaFile.getAbsolutePath());
+        builder.setSchemaSnapshotDir(schemaSnapshotDir.getAbsolutePath());
+        builder.setOutputBaseDir(outputSrcDir.getAbsolutePath());
+        builder.setPackageBase(basePackageName);
+        builder.setGenConfig(genConfig);
+        builder.setSchemaDatabaseName(databaseName);
+
+        if (!builder.build()) {
+            throw new IllegalStateException("Failed to generate database [" + databaseName + "]");
+        }
+
+        System.out.println("Database [" + databaseName + "]: Generated [" + builder.getNumberFilesGenerated() + "] files (unchanged [" + builder.getNumberFilesUnchanged() + "] skipped [" + builder.getNumberFilesSkipped() + "]).");
+    }
+}